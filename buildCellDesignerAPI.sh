@@ -14,7 +14,14 @@
 # limitations under the License.
 #*******************************************************************************
 #!/bin/sh
-xjc -J-Duser.language=en -d src/main/java schema/CellDesigner.xsd schema/sbml-level-2-v4-wo-annotation.xsd schema/sbml-mathml.xsd schema/sbmlCellDesignerExtension_v4_2.xsd
+# compile the xjc plugin used by schema/bindings.xjb
+PLUGIN_DIR=target/xjc-plugin
+JDK_HOME=$(dirname "$(dirname "$(readlink -f "$(command -v xjc)")")")
+mkdir -p $PLUGIN_DIR
+javac -XDignore.symbol.file -cp "$JDK_HOME/lib/tools.jar" -d $PLUGIN_DIR schema/xjc/fr/curie/cd2sbgnml/xjc/XmlFragmentPlugin.java || exit 1
+cp -r schema/xjc/META-INF $PLUGIN_DIR
+
+xjc -J-Duser.language=en -classpath $PLUGIN_DIR -extension -Xxml-fragment -d src/main/java -b schema/bindings.xjb schema/CellDesigner.xsd schema/sbml-level-2-v4-wo-annotation.xsd schema/sbml-mathml.xsd schema/sbmlCellDesignerExtension_v4_2.xsd
 
 # remove the "Generated on: datetime" comments in all the classes that pollutes every commit
 find ./src/main/java/org -type f -exec sed -i -e '/\/\/ Generated on: /d' {} \;
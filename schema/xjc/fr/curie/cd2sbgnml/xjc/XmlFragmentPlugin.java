@@ -0,0 +1,161 @@
+package fr.curie.cd2sbgnml.xjc;
+
+import com.sun.codemodel.internal.*;
+import com.sun.tools.internal.xjc.Options;
+import com.sun.tools.internal.xjc.Plugin;
+import com.sun.tools.internal.xjc.model.CPluginCustomization;
+import com.sun.tools.internal.xjc.outline.ClassOutline;
+import com.sun.tools.internal.xjc.outline.Outline;
+import org.w3c.dom.Element;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+
+import javax.xml.bind.annotation.XmlAnyElement;
+import javax.xml.bind.annotation.XmlType;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Plugin of xjc, run by buildCellDesignerAPI.sh, that binds the content of the types customized with
+ * {@code <fragment:any/>} in bindings.xjb to fr.curie.cd2sbgnml.io.XmlFragment: an {@code any} list of elements is
+ * added to the generated class, with {@code @XmlAnyElement(XmlFragment.Handler.class)}. When the type already has
+ * a wildcard, its {@code any} property is bound with the handler instead.
+ *
+ * This plugin isn't part of the application, it is compiled against the xjc of the JDK by the script.
+ */
+public class XmlFragmentPlugin extends Plugin {
+
+    public static final String NAMESPACE = "http://cd2sbgnml.curie.fr/xjc/fragment";
+    public static final String ANY = "any";
+
+    private static final String XML_FRAGMENT = "fr.curie.cd2sbgnml.io.XmlFragment";
+
+    @Override
+    public String getOptionName() {
+        return "Xxml-fragment";
+    }
+
+    @Override
+    public String getUsage() {
+        return "  -Xxml-fragment      :  bind the content of types customized with <fragment:any/> to XmlFragment";
+    }
+
+    @Override
+    public List<String> getCustomizationURIs() {
+        return Collections.singletonList(NAMESPACE);
+    }
+
+    @Override
+    public boolean isCustomizationTagName(String nsUri, String localName) {
+        return NAMESPACE.equals(nsUri) && ANY.equals(localName);
+    }
+
+    @Override
+    public boolean run(Outline outline, Options options, ErrorHandler errorHandler) throws SAXException {
+        JCodeModel codeModel = outline.getCodeModel();
+        JDefinedClass handler = handlerClass(codeModel);
+
+        for(ClassOutline classOutline: outline.getClasses()) {
+            CPluginCustomization customization = classOutline.target.getCustomizations().find(NAMESPACE, ANY);
+            if(customization == null) {
+                continue;
+            }
+            customization.markAsAcknowledged();
+
+            JDefinedClass implClass = classOutline.implClass;
+            JFieldVar any = implClass.fields().get(ANY);
+            if(any == null) {
+                addAnyProperty(codeModel, implClass, handler);
+            }
+            else if(!bindAnyProperty(implClass, any, handler)) {
+                errorHandler.error(new SAXParseException(implClass.fullName()+" has an any property that isn't a"
+                        + " wildcard", customization.locator));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return XmlFragment.Handler, which isn't on the classpath of xjc, as a class that isn't generated
+     */
+    private static JDefinedClass handlerClass(JCodeModel codeModel) {
+        try {
+            JDefinedClass xmlFragment = codeModel._class(XML_FRAGMENT);
+            xmlFragment.hide();
+            return xmlFragment._class(JMod.PUBLIC | JMod.STATIC, "Handler");
+        } catch (JClassAlreadyExistsException e) {
+            throw new IllegalStateException(XML_FRAGMENT+" must not be generated", e);
+        }
+    }
+
+    /**
+     * @return false if the field isn't bound to a wildcard
+     */
+    private static boolean bindAnyProperty(JDefinedClass implClass, JFieldVar any, JDefinedClass handler) {
+        for(JAnnotationUse annotation: any.annotations()) {
+            if(annotation.getAnnotationClass().fullName().equals(XmlAnyElement.class.getName())) {
+                annotation.param("value", handler);
+
+                JMethod getter = implClass.getMethod("getAny", new JType[0]);
+                if(getter != null) {
+                    JDocComment javadoc = getter.javadoc();
+                    String first = "Gets the value of the any property.";
+                    for(int i=0; i < javadoc.size(); i++) {
+                        Object part = javadoc.get(i);
+                        if(part instanceof String && ((String) part).startsWith(first)) {
+                            javadoc.set(i, "Gets the value of the any property: its elements are kept as xml,\n"
+                                    + "and only parsed when first used, see ");
+                            // the link makes XmlFragment imported, inner classes like its handler never are
+                            javadoc.add(i + 1, handler.outer());
+                            javadoc.add(i + 2, "."+((String) part).substring(first.length()));
+                            break;
+                        }
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void addAnyProperty(JCodeModel codeModel, JDefinedClass implClass, JDefinedClass handler) {
+        JClass listOfElements = codeModel.ref(List.class).narrow(Element.class);
+
+        JFieldVar field = implClass.field(JMod.PROTECTED, listOfElements, ANY);
+        field.annotate(XmlAnyElement.class).param("value", handler);
+
+        for(JAnnotationUse annotation: implClass.annotations()) {
+            if(annotation.getAnnotationClass().fullName().equals(XmlType.class.getName())) {
+                JAnnotationValue propOrder = annotation.getAnnotationMembers().get("propOrder");
+                if(propOrder instanceof JAnnotationArrayMember) {
+                    ((JAnnotationArrayMember) propOrder).param(ANY);
+                }
+            }
+        }
+
+        JMethod getter = implClass.method(JMod.PUBLIC, listOfElements, "getAny");
+        getter.javadoc().append(
+                "Gets the value of the any property: the content of the element, when it was kept\n"
+                + "as xml instead of being bound, see"
+                + " {@link fr.curie.cd2sbgnml.io.CellDesignerStreamReader.Binding#LAZY}.\n"
+                + "Its elements are then only parsed when first used, see ")
+                // the link makes XmlFragment imported, inner classes like its handler never are
+                .append(handler.outer())
+                .append(".\n"
+                + "\n"
+                + "<p>\n"
+                + "This accessor method returns a reference to the live list,\n"
+                + "not a snapshot. Therefore any modification you make to the\n"
+                + "returned list will be present inside the JAXB object.\n"
+                + "This is why there is not a <CODE>set</CODE> method for the any property.\n"
+                + "\n"
+                + "<p>\n"
+                + "Objects of the following type(s) are allowed in the list\n"
+                + "{@link Element }\n");
+        getter.body()._if(field.eq(JExpr._null()))._then()
+                .assign(field, JExpr._new(codeModel.ref(ArrayList.class).narrow(Element.class)));
+        getter.body()._return(JExpr._this().ref(field));
+    }
+}
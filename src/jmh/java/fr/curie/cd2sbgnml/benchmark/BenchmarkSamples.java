@@ -0,0 +1,101 @@
+package fr.curie.cd2sbgnml.benchmark;
+
+import fr.curie.cd2sbgnml.Cd2SbgnmlScript;
+import fr.curie.cd2sbgnml.CellDesignerSBFCModel;
+import fr.curie.cd2sbgnml.ConversionMetrics;
+import fr.curie.cd2sbgnml.SBGNSBFCModel;
+import fr.curie.cd2sbgnml.generator.SyntheticMapGenerator;
+import fr.curie.cd2sbgnml.io.ModelValidator;
+import org.sbfc.converter.exceptions.ConversionException;
+import org.sbfc.converter.exceptions.ReadModelException;
+import org.sbfc.converter.exceptions.WriteModelException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.stream.Stream;
+
+/**
+ * Locates the input files of the benchmarks.
+ *
+ * Samples are taken from the samples directory of the project, or from the directory given by the
+ * cd2sbgnml.samples system property. CellDesigner samples given to SBGN-ML benchmarks are converted first.
+ *
+ * Names like synthetic-10000 stand for a map built by SyntheticMapGenerator, with 10000 species and as many
+ * reactions.
+ */
+final class BenchmarkSamples {
+
+    private static final String SYNTHETIC_PREFIX = "synthetic-";
+
+    private BenchmarkSamples() {
+    }
+
+    static Path sample(String name) {
+        Path path = Paths.get(System.getProperty("cd2sbgnml.samples", "samples")).resolve(name);
+        if(!Files.isRegularFile(path)) {
+            throw new IllegalStateException("Sample "+path.toAbsolutePath()+" not found, " +
+                    "run from the project root or set -Dcd2sbgnml.samples");
+        }
+        return path;
+    }
+
+    /**
+     * @param name CellDesigner sample or synthetic map
+     * @param tempDir where synthetic maps are written
+     */
+    static Path cellDesignerSample(String name, Path tempDir) throws WriteModelException {
+        if(!isSynthetic(name)) {
+            return sample(name);
+        }
+        Path generated = tempDir.resolve(name + ".xml");
+        new CellDesignerSBFCModel(synthetic(name).generateCellDesigner()).modelToFile(generated.toString());
+        return generated;
+    }
+
+    /**
+     * @param name SBGN-ML sample, CellDesigner sample to be converted to SBGN-ML, or synthetic map
+     * @param tempDir where converted samples and synthetic maps are written
+     */
+    static Path sbgnSample(String name, Path tempDir)
+            throws ReadModelException, ConversionException, WriteModelException, IOException {
+        if(isSynthetic(name)) {
+            Path generated = tempDir.resolve(name + ".sbgn");
+            new SBGNSBFCModel(synthetic(name).generateSbgn()).modelToFile(generated.toString());
+            return generated;
+        }
+        Path path = sample(name);
+        if(!name.endsWith(".xml")) {
+            return path;
+        }
+        Path converted = tempDir.resolve(name + ".sbgn");
+        Cd2SbgnmlScript.convert(path, converted,
+                new Cd2SbgnmlScript.Options().setValidation(ModelValidator.Mode.OFF), new ConversionMetrics());
+        return converted;
+    }
+
+    private static boolean isSynthetic(String name) {
+        return name.startsWith(SYNTHETIC_PREFIX);
+    }
+
+    private static SyntheticMapGenerator synthetic(String name) {
+        int size = Integer.parseInt(name.substring(SYNTHETIC_PREFIX.length()));
+        return new SyntheticMapGenerator()
+                .setSpeciesCount(size)
+                .setReactionCount(size);
+    }
+
+    static Path createTempDir() throws IOException {
+        return Files.createTempDirectory("cd2sbgnml-benchmark");
+    }
+
+    static void deleteTempDir(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            for(Path file: (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(dir);
+    }
+}
@@ -0,0 +1,96 @@
+package fr.curie.cd2sbgnml.benchmark;
+
+import fr.curie.cd2sbgnml.CD2SBGNML;
+import fr.curie.cd2sbgnml.Cd2SbgnmlScript;
+import fr.curie.cd2sbgnml.CellDesignerSBFCModel;
+import fr.curie.cd2sbgnml.ConversionMetrics;
+import fr.curie.cd2sbgnml.SBGNSBFCModel;
+import fr.curie.cd2sbgnml.io.SbgnStreamEmitter;
+import fr.curie.cd2sbgnml.io.SbgnStreamWriter;
+import fr.curie.cd2sbgnml.xmlcdwrappers.ModelWrapper;
+import org.openjdk.jmh.annotations.*;
+import org.sbgn.bindings.Sbgn;
+import org.sbml.sbml.level2.version4.Sbml;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stages of the CellDesigner to SBGN-ML conversion, measured separately.
+ * Inputs of each stage are prepared once per trial and are not modified by the stages.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn")
+public class CellDesignerToSbgnBenchmark {
+
+    @Param({"cellcycle_v1.1.xml", "dendcells.xml", "components44.xml", "synthetic-10000"})
+    public String sample;
+
+    private Path input;
+    private Path tempDir;
+    private Path output;
+    private Sbml sbml;
+    private SBGNSBFCModel sbgnModel;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        tempDir = BenchmarkSamples.createTempDir();
+        input = BenchmarkSamples.cellDesignerSample(sample, tempDir);
+        output = tempDir.resolve(sample + ".sbgn");
+
+        CellDesignerSBFCModel cdModel = new CellDesignerSBFCModel();
+        cdModel.setModelFromFile(input.toString());
+        sbml = cdModel.getSbml();
+        sbgnModel = new SBGNSBFCModel(new CD2SBGNML().toSbgn(sbml));
+        sbgnModel.modelToFile(output.toString());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        BenchmarkSamples.deleteTempDir(tempDir);
+    }
+
+    @Benchmark
+    public Sbml readCellDesigner() throws Exception {
+        CellDesignerSBFCModel cdModel = new CellDesignerSBFCModel();
+        cdModel.setModelFromFile(input.toString());
+        return cdModel.getSbml();
+    }
+
+    @Benchmark
+    public ModelWrapper wrapModel() {
+        return ModelWrapper.create(sbml);
+    }
+
+    /**
+     * Includes the model wrapping.
+     */
+    @Benchmark
+    public Sbgn toSbgn() {
+        return new CD2SBGNML().toSbgn(sbml);
+    }
+
+    @Benchmark
+    public void writeSbgn() throws Exception {
+        sbgnModel.modelToFile(output.toString());
+    }
+
+    /**
+     * Conversion and writing at once, to be compared with toSbgn + writeSbgn.
+     */
+    @Benchmark
+    public void toSbgnStreamed() throws Exception {
+        try (SbgnStreamEmitter emitter = new SbgnStreamWriter().open(output)) {
+            new CD2SBGNML().toSbgn(sbml, emitter, new ConversionMetrics());
+        }
+    }
+
+    @Benchmark
+    public boolean validateSbgn() {
+        return Cd2SbgnmlScript.validate(output.toString());
+    }
+}
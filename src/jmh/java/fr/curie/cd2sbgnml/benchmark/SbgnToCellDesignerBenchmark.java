@@ -0,0 +1,83 @@
+package fr.curie.cd2sbgnml.benchmark;
+
+import fr.curie.cd2sbgnml.CellDesignerSBFCModel;
+import fr.curie.cd2sbgnml.SBGNML2CD;
+import fr.curie.cd2sbgnml.SBGNSBFCModel;
+import fr.curie.cd2sbgnml.Sbgnml2CdScript;
+import org.openjdk.jmh.annotations.*;
+import org.sbgn.bindings.Sbgn;
+import org.sbml.sbml.level2.version4.Sbml;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stages of the SBGN-ML to CellDesigner conversion, measured separately.
+ * CellDesigner samples are converted to SBGN-ML first, to have bigger inputs than SBGN-PD_all.sbgn.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn")
+public class SbgnToCellDesignerBenchmark {
+
+    @Param({"SBGN-PD_all.sbgn", "cellcycle_v1.1.xml", "dendcells.xml", "components44.xml", "synthetic-10000"})
+    public String sample;
+
+    private Path input;
+    private Path tempDir;
+    private Path output;
+    private Sbgn sbgn;
+    private CellDesignerSBFCModel cdModel;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        tempDir = BenchmarkSamples.createTempDir();
+        input = BenchmarkSamples.sbgnSample(sample, tempDir);
+        output = tempDir.resolve(sample + ".cd.xml");
+
+        cdModel = new CellDesignerSBFCModel(new SBGNML2CD().toCD(readSbgnModel()));
+        cdModel.modelToFile(output.toString());
+    }
+
+    /**
+     * toCD sanitizes the ids of its input in place, so each iteration gets a fresh one.
+     */
+    @Setup(Level.Iteration)
+    public void setupIteration() throws Exception {
+        sbgn = readSbgnModel();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        BenchmarkSamples.deleteTempDir(tempDir);
+    }
+
+    private Sbgn readSbgnModel() throws Exception {
+        SBGNSBFCModel sbgnModel = new SBGNSBFCModel();
+        sbgnModel.setModelFromFile(input.toString());
+        return sbgnModel.getModel();
+    }
+
+    @Benchmark
+    public Sbgn readSbgn() throws Exception {
+        return readSbgnModel();
+    }
+
+    @Benchmark
+    public Sbml toCD() {
+        return new SBGNML2CD().toCD(sbgn);
+    }
+
+    @Benchmark
+    public void writeCellDesigner() throws Exception {
+        cdModel.modelToFile(output.toString());
+    }
+
+    @Benchmark
+    public boolean validateCellDesigner() {
+        return Sbgnml2CdScript.validate(output.toString());
+    }
+}
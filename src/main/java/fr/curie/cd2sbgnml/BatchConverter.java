@@ -0,0 +1,387 @@
+package fr.curie.cd2sbgnml;
+
+import com.beust.jcommander.converters.IParameterSplitter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Converts many files in one JVM, concurrently, so that startup and JAXB initialization are paid only once.
+ *
+ * Inputs can be given as:
+ *  - files
+ *  - directories, which are walked recursively for files with the expected extensions
+ *  - glob patterns, like maps/**.xml, for when the shell doesn't expand them
+ *  - a manifest file, with one input per line, optionally followed by a tab and the output path. Relative inputs are
+ *  resolved against the manifest's directory, relative outputs against the output directory. Empty lines and lines
+ *  starting with # are ignored.
+ *
+ * Outputs are written in one output directory, mirroring the structure under the walked directory or the non
+ * pattern part of the glob.
+ *
+ * Each file is converted by its own task, concurrently with the others. Converters keep the state of a conversion in
+ * a context of their own, so the conversion given can share one converter between all the tasks, as both scripts do.
+ */
+public class BatchConverter {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchConverter.class);
+
+    public enum Status {
+        /**
+         * written and valid
+         */
+        OK,
+        /**
+         * written, but the output doesn't validate against the schema
+         */
+        INVALID,
+        /**
+         * written, validation was skipped or is done in the background
+         */
+        NOT_VALIDATED,
+        /**
+         * nothing or only part of the output was written
+         */
+        FAILED
+    }
+
+    /**
+     * Conversion of a single file, from input to output.
+     */
+    @FunctionalInterface
+    public interface FileConversion {
+        /**
+         * @param metrics to be filled with the measures of this conversion
+         * @return OK or INVALID, depending on the validation of the output, or NOT_VALIDATED
+         * @throws Exception if the conversion failed
+         */
+        Status convert(Path input, Path output, ConversionMetrics metrics) throws Exception;
+    }
+
+    public static class Job {
+        private final Path input;
+        private final Path output;
+
+        public Job(Path input, Path output) {
+            this.input = input;
+            this.output = output;
+        }
+
+        public Path getInput() {
+            return input;
+        }
+
+        public Path getOutput() {
+            return output;
+        }
+    }
+
+    public static class Result {
+        private final Job job;
+        private final Status status;
+        private final long millis;
+        private final long inputBytes;
+        private final Throwable error;
+        private final ConversionMetrics metrics;
+
+        Result(Job job, Status status, long millis, long inputBytes, Throwable error, ConversionMetrics metrics) {
+            this.job = job;
+            this.status = status;
+            this.millis = millis;
+            this.inputBytes = inputBytes;
+            this.error = error;
+            this.metrics = metrics;
+        }
+
+        public Job getJob() {
+            return job;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+
+        public long getInputBytes() {
+            return inputBytes;
+        }
+
+        /**
+         * @return the cause of failure, or null
+         */
+        public Throwable getError() {
+            return error;
+        }
+
+        /**
+         * @return measures of the stages done before success or failure
+         */
+        public ConversionMetrics getMetrics() {
+            return metrics;
+        }
+    }
+
+    /**
+     * Keeps command line values as they are. Paths given to -i may contain commas, that jcommander would otherwise
+     * split into several values.
+     */
+    public static class NoSplitter implements IParameterSplitter {
+        @Override
+        public List<String> split(String value) {
+            return Collections.singletonList(value);
+        }
+    }
+
+    private final int threads;
+
+    /**
+     * @param threads number of files converted at the same time
+     */
+    public BatchConverter(int threads) {
+        if(threads < 1) {
+            throw new IllegalArgumentException("At least 1 thread is needed, got "+threads);
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * @param inputs file names, directories or glob patterns
+     * @param manifest manifest file name, or null
+     * @param outputDir directory where outputs are written
+     * @param inputExtensions extensions of the files taken from directories, like "xml"
+     * @param outputExtension extension replacing the input one in output names
+     * @return the jobs, in the order the inputs were given
+     * @throws IOException
+     */
+    public static List<Job> collectJobs(List<String> inputs, String manifest, Path outputDir,
+                                        List<String> inputExtensions, String outputExtension) throws IOException {
+        List<Job> jobs = new ArrayList<>();
+
+        for(String input: inputs) {
+            Path path = Paths.get(input);
+            if(isGlob(input)) {
+                Path base = globBase(input);
+                PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:"+input);
+                for(Path p: walk(base)) {
+                    if(matcher.matches(p)) {
+                        jobs.add(new Job(p, outputDir.resolve(outputName(base.relativize(p), outputExtension))));
+                    }
+                }
+            }
+            else if(Files.isDirectory(path)) {
+                for(Path p: walk(path)) {
+                    if(hasExtension(p, inputExtensions)) {
+                        jobs.add(new Job(p, outputDir.resolve(outputName(path.relativize(p), outputExtension))));
+                    }
+                }
+            }
+            else {
+                jobs.add(new Job(path, outputDir.resolve(outputName(path.getFileName(), outputExtension))));
+            }
+        }
+
+        if(manifest != null) {
+            Path manifestPath = Paths.get(manifest);
+            Path manifestDir = manifestPath.toAbsolutePath().getParent();
+            try (BufferedReader reader = Files.newBufferedReader(manifestPath, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    line = line.trim();
+                    if(line.isEmpty() || line.startsWith("#")) {
+                        continue;
+                    }
+                    String[] fields = line.split("\t");
+                    Path input = manifestDir.resolve(fields[0].trim());
+                    Path output = fields.length > 1 ?
+                            outputDir.resolve(fields[1].trim())
+                            : outputDir.resolve(outputName(input.getFileName(), outputExtension));
+                    jobs.add(new Job(input, output));
+                }
+            }
+        }
+
+        // two inputs must not silently overwrite the same output
+        Set<Path> outputs = new HashSet<>();
+        for(Job job: jobs) {
+            if(!outputs.add(job.getOutput().toAbsolutePath().normalize())) {
+                throw new IllegalArgumentException("Several inputs would be written to "+job.getOutput()
+                        +", last one is "+job.getInput());
+            }
+        }
+
+        return jobs;
+    }
+
+    /**
+     * @param args values given on the command line
+     * @return true if the arguments can only be handled as a batch
+     */
+    public static boolean isBatch(List<String> args, String manifest) {
+        return manifest != null || args.size() != 1 || isGlob(args.get(0)) || Files.isDirectory(Paths.get(args.get(0)));
+    }
+
+    private static boolean isGlob(String input) {
+        return input.contains("*") || input.contains("?") || input.contains("[") || input.contains("{");
+    }
+
+    /**
+     * @return the longest leading part of the pattern without glob characters
+     */
+    private static Path globBase(String pattern) {
+        // the placeholder stands for the first segment holding a glob character
+        Path parent = Paths.get(pattern.substring(0, firstGlobChar(pattern)) + "_").getParent();
+        return parent == null ? Paths.get("") : parent;
+    }
+
+    private static int firstGlobChar(String pattern) {
+        for(int i=0; i < pattern.length(); i++) {
+            if("*?[{".indexOf(pattern.charAt(i)) != -1) {
+                return i;
+            }
+        }
+        return pattern.length();
+    }
+
+    private static List<Path> walk(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir.toString().isEmpty() ? Paths.get(".") : dir)) {
+            return paths
+                    .filter(Files::isRegularFile)
+                    .map(p -> dir.toString().isEmpty() ? Paths.get(".").relativize(p) : p)
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static boolean hasExtension(Path p, List<String> extensions) {
+        String name = p.getFileName().toString().toLowerCase();
+        for(String extension: extensions) {
+            if(name.endsWith("."+extension.toLowerCase())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param relative input path, relative to the output directory
+     * @return the same path with its extension replaced
+     */
+    static Path outputName(Path relative, String extension) {
+        String name = relative.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String outputName = (dot > 0 ? name.substring(0, dot) : name) + "." + extension;
+        return relative.getParent() == null ? Paths.get(outputName) : relative.getParent().resolve(outputName);
+    }
+
+    /**
+     * Convert all the jobs, wait until they are all done and log a report.
+     * @return the results in the same order as the jobs
+     */
+    public List<Result> run(List<Job> jobs, FileConversion conversion) {
+        logger.info("Converting "+jobs.size()+" files with "+threads+" threads");
+        long start = System.nanoTime();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Result>> futures = new ArrayList<>();
+        try {
+            for(Job job: jobs) {
+                futures.add(executor.submit(() -> convert(job, conversion)));
+            }
+
+            List<Result> results = new ArrayList<>();
+            for(Future<Result> future: futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    // convert() catches everything, this shouldn't happen
+                    throw new RuntimeException(e.getCause());
+                }
+            }
+
+            report(results, (System.nanoTime() - start) / 1000000);
+            return results;
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Batch conversion was interrupted", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Result convert(Job job, FileConversion conversion) {
+        long start = System.nanoTime();
+        long inputBytes = 0;
+        ConversionMetrics metrics = new ConversionMetrics();
+        try {
+            inputBytes = Files.size(job.getInput());
+            Path parent = job.getOutput().toAbsolutePath().getParent();
+            if(parent != null) {
+                Files.createDirectories(parent);
+            }
+            Status status = conversion.convert(job.getInput(), job.getOutput(), metrics);
+            return new Result(job, status, (System.nanoTime() - start) / 1000000, inputBytes, null, metrics);
+        } catch (Throwable e) {
+            logger.error("Conversion of "+job.getInput()+" failed", e);
+            return new Result(job, Status.FAILED, (System.nanoTime() - start) / 1000000, inputBytes, e, metrics);
+        }
+    }
+
+    private static void report(List<Result> results, long wallMillis) {
+        Map<Status, Integer> counts = new EnumMap<>(Status.class);
+        long totalBytes = 0;
+        for(Result result: results) {
+            counts.merge(result.getStatus(), 1, Integer::sum);
+            totalBytes += result.getInputBytes();
+            String message = String.format("%-7s %8d ms %10d bytes  %s -> %s",
+                    result.getStatus(), result.getMillis(), result.getInputBytes(),
+                    result.getJob().getInput(), result.getJob().getOutput());
+            if(result.getStatus() == Status.FAILED) {
+                logger.error(message+": "+result.getError());
+            }
+            else {
+                logger.info(message);
+            }
+        }
+
+        double seconds = Math.max(wallMillis, 1) / 1000.0;
+        logger.info(String.format("%d files in %.2f s: %d ok, %d invalid, %d not validated, %d failed. "
+                        + "%.2f files/s, %.2f MB/s",
+                results.size(), seconds,
+                counts.getOrDefault(Status.OK, 0),
+                counts.getOrDefault(Status.INVALID, 0),
+                counts.getOrDefault(Status.NOT_VALIDATED, 0),
+                counts.getOrDefault(Status.FAILED, 0),
+                results.size() / seconds,
+                totalBytes / seconds / (1024 * 1024)));
+    }
+
+    /**
+     * Write the metrics of all the conversions in one JSON array.
+     */
+    public static void writeMetrics(List<Result> results, Path file) throws IOException {
+        Map<String, ConversionMetrics> metricsByInput = new LinkedHashMap<>();
+        for(Result result: results) {
+            metricsByInput.put(result.getJob().getInput().toString(), result.getMetrics());
+        }
+        ConversionMetrics.writeJson(metricsByInput, file);
+    }
+
+    /**
+     * @return true if none of the results failed
+     */
+    public static boolean allConverted(List<Result> results) {
+        return results.stream().noneMatch(r -> r.getStatus() == Status.FAILED);
+    }
+}
@@ -3,12 +3,16 @@ package fr.curie.cd2sbgnml;
 import fr.curie.cd2sbgnml.graphics.CdShape;
 import fr.curie.cd2sbgnml.graphics.GeometryUtils;
 import fr.curie.cd2sbgnml.graphics.Link;
+import fr.curie.cd2sbgnml.graphics.Polyline;
+import fr.curie.cd2sbgnml.io.SbgnStreamEmitter;
+import fr.curie.cd2sbgnml.io.XmlFragment;
 import fr.curie.cd2sbgnml.model.*;
 import fr.curie.cd2sbgnml.model.Process;
 import fr.curie.cd2sbgnml.xmlcdwrappers.*;
 import org.sbfc.converter.GeneralConverter;
 import org.sbfc.converter.exceptions.ConversionException;
 import org.sbfc.converter.exceptions.ReadModelException;
+import org.sbfc.converter.exceptions.WriteModelException;
 import org.sbfc.converter.models.GeneralModel;
 import org.sbgn.Language;
 import org.sbgn.bindings.*;
@@ -29,7 +33,10 @@ import javax.xml.parsers.ParserConfigurationException;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static fr.curie.cd2sbgnml.model.ReactantModel.getSbgnClass;
 
@@ -37,233 +44,581 @@ public class CD2SBGNML extends GeneralConverter {
 
     final Logger logger = LoggerFactory.getLogger(CD2SBGNML.class);
 
-    List<Glyph> glyphList;
-    HashMap<String, Glyph> glyphMap;
-    List<StyleInfo> styleInfoList;
-    HashMap<String, Port> portMap;
+    /**
+     * Glyphs and ports of a conversion, to be referred to by the glyphs and arcs created after them.
+     */
+    static class Context extends ConversionContext {
+        /**
+         * what is kept of the glyphs written, see {@link Output#reference(Glyph)}
+         */
+        final HashMap<String, Glyph> glyphMap = new HashMap<>();
+        final HashMap<String, Port> portMap = new HashMap<>();
+        IdGenerator idGenerator;
+        /**
+         * ids taken from the generator
+         */
+        long idCount;
+        Output output;
+        long glyphCount;
+        long arcCount;
+        /**
+         * what is kept of this conversion for the next one, when converting incrementally
+         */
+        ConversionSnapshot snapshot;
+        /**
+         * where what is written is recorded, when converting incrementally
+         */
+        ConversionSnapshot.Segment segment;
+
+        @Override
+        protected void clearState() {
+            glyphMap.clear();
+            portMap.clear();
+            idGenerator = null;
+            idCount = 0;
+            output = null;
+            glyphCount = 0;
+            arcCount = 0;
+            snapshot = null;
+            segment = null;
+        }
+    }
+
+    /**
+     * Where the map goes as it is converted. Glyphs come first, in the order of the map, then arcs.
+     */
+    interface Output {
+        /**
+         * @param map without glyphs and arcs yet
+         */
+        void start(Map map) throws WriteModelException;
+
+        void glyph(Glyph glyph) throws WriteModelException;
+
+        void arc(Arc arc) throws WriteModelException;
+
+        void end() throws WriteModelException;
+
+        /**
+         * @return what is kept of a glyph to be referred to by the glyphs and arcs written after it, at least its id
+         * and its compartment reference
+         */
+        Glyph reference(Glyph glyph);
+    }
+
+    /**
+     * Builds the whole map in memory
+     */
+    private static class TreeOutput implements Output {
+        final Sbgn sbgn = new Sbgn();
+
+        @Override
+        public void start(Map map) {
+            sbgn.setMap(map);
+        }
+
+        @Override
+        public void glyph(Glyph glyph) {
+            sbgn.getMap().getGlyph().add(glyph);
+        }
+
+        @Override
+        public void arc(Arc arc) {
+            sbgn.getMap().getArc().add(arc);
+        }
+
+        @Override
+        public void end() {
+        }
+
+        @Override
+        public Glyph reference(Glyph glyph) {
+            return glyph;
+        }
+    }
+
+    /**
+     * Writes each glyph and arc as soon as it is created, and only keeps the ids of glyphs
+     */
+    private static class StreamOutput implements Output {
+        final SbgnStreamEmitter emitter;
+
+        StreamOutput(SbgnStreamEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        @Override
+        public void start(Map map) throws WriteModelException {
+            emitter.startMap(map);
+        }
+
+        @Override
+        public void glyph(Glyph glyph) throws WriteModelException {
+            emitter.glyph(glyph);
+        }
+
+        @Override
+        public void arc(Arc arc) throws WriteModelException {
+            emitter.arc(arc);
+        }
+
+        @Override
+        public void end() throws WriteModelException {
+            emitter.endMap();
+        }
+
+        @Override
+        public Glyph reference(Glyph glyph) {
+            Glyph reference = new Glyph();
+            reference.setId(glyph.getId());
+            reference.setCompartmentRef(glyph.getCompartmentRef());
+            return reference;
+        }
+    }
+
+    private final ConversionContext.Pool<Context> contexts = new ConversionContext.Pool<>(Context::new);
+
+    /**
+     * Measures of the last conversion to finish
+     */
+    private volatile ConversionMetrics metrics = new ConversionMetrics();
+
+    /**
+     * Under this number of reactions, reaction models are always built sequentially.
+     */
+    static final int PARALLEL_REACTION_THRESHOLD = 64;
+
+    private boolean parallel = true;
+
+    private Supplier<IdGenerator> idGeneratorFactory = IdGenerator::sequential;
+
+    private boolean incremental = false;
+
+    /**
+     * What is kept of the last conversion when converting incrementally, else null
+     */
+    private ConversionSnapshot lastSnapshot;
+
+    /**
+     * Incremental conversions are done one at a time, each one starting from the snapshot of the previous one
+     */
+    private final Object snapshotLock = new Object();
+
+    /**
+     * Reaction models, holding the geometry of each reaction, are independent from each other, as are the wrappers
+     * of species and reactions. By default they are built in parallel on the common fork-join pool for big maps.
+     * Glyphs and arcs are emitted in the same order in both cases.
+     * @param parallel false to build everything on the calling thread
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * @param idGeneratorFactory gives a new generator for each conversion, for the ids of glyphs and arcs that don't
+     *                           exist in CellDesigner. By default they come from counters, so that converting the
+     *                           same map twice gives the same result. Use IdGenerator::random for UUIDs.
+     */
+    public void setIdGenerator(Supplier<IdGenerator> idGeneratorFactory) {
+        this.idGeneratorFactory = idGeneratorFactory;
+    }
+
+    /**
+     * An incremental converter keeps the wrappers, reaction models, glyphs and arcs of its last conversion, and
+     * reuses them when converting a new version of the same map. Only the species and reactions that changed, and the
+     * reactions linking changed species, are wrapped and built again. The map is still read and written whole, and
+     * the output is the same as a full conversion. See {@link ConversionSnapshot} for what is reused.
+     *
+     * Useful when the same map is converted after each edit. The whole map of the last conversion is kept in memory,
+     * even when it is streamed, and conversions are done one at a time. Glyphs and arcs that are reused are shared
+     * with the maps returned by the previous conversions, which must not be modified.
+     * @param incremental true to keep the last conversion, false to drop it
+     */
+    public void setIncremental(boolean incremental) {
+        synchronized(snapshotLock) {
+            this.incremental = incremental;
+            this.lastSnapshot = null;
+        }
+    }
+
+    public boolean isIncremental() {
+        return incremental;
+    }
 
     public Sbgn toSbgn(Sbml sbml) {
-        Sbgn sbgn = new Sbgn();
-        Map map = new Map();
-        //map.setId("mapID"); don't put it to ensure 0.2 compatibility
-        //sbgn.getMap().add(map);
-        sbgn.setMap(map);
-        map.setLanguage(Language.PD.toString());
+        return toSbgn(sbml, new ConversionMetrics());
+    }
 
-        ModelWrapper modelW = ModelWrapper.create(sbml);
+    /**
+     * The converter keeps nothing of its conversions unless it is incremental, so it can be called from several
+     * threads at the same time.
+     * @param metrics filled with the stages of this conversion
+     */
+    public Sbgn toSbgn(Sbml sbml, ConversionMetrics metrics) {
+        TreeOutput output = new TreeOutput();
+        try {
+            toSbgn(sbml, output, metrics);
+        } catch (WriteModelException e) {
+            throw new IllegalStateException("Nothing is written when converting in memory", e);
+        }
+        return output.sbgn;
+    }
 
-        // put model notes into map notes
-        if(modelW.getModel().getNotes() != null) {
-            map.setNotes(getSBGNNotes(Utils.getNotes(modelW.getModel().getNotes())));
+    /**
+     * Convert a map straight to its output, without building it. Glyphs and arcs are written as soon as they are
+     * created, only their ids are kept. Same as {@link #toSbgn(Sbml, ConversionMetrics)} otherwise.
+     * @param emitter where the whole map is written, left open
+     * @param metrics filled with the stages of this conversion, which include the writing
+     */
+    public void toSbgn(Sbml sbml, SbgnStreamEmitter emitter, ConversionMetrics metrics) throws WriteModelException {
+        toSbgn(sbml, new StreamOutput(emitter), metrics);
+    }
+
+    private void toSbgn(Sbml sbml, Output output, ConversionMetrics metrics) throws WriteModelException {
+        if(!incremental) {
+            toSbgn(sbml, output, metrics, null);
+            return;
+        }
+        synchronized(snapshotLock) {
+            ConversionMetrics.Timer timer = metrics.start("fingerprints");
+            ConversionSnapshot snapshot = new ConversionSnapshot(sbml, lastSnapshot, parallel);
+            timer.setParallel(snapshot.isFingerprintedInParallel());
+            timer.stop();
+            // a failed conversion leaves nothing to reuse
+            lastSnapshot = null;
+            toSbgn(sbml, output, metrics, snapshot);
+            snapshot.done();
+            lastSnapshot = snapshot;
+        }
+    }
+
+    private void toSbgn(Sbml sbml, Output output, ConversionMetrics metrics, ConversionSnapshot snapshot)
+            throws WriteModelException {
+        Context ctx = contexts.acquire();
+        try {
+            ctx.metrics = metrics;
+            ctx.idGenerator = idGeneratorFactory.get();
+            ctx.output = output;
+            ctx.snapshot = snapshot;
+            toSbgn(sbml, ctx);
+            this.metrics = metrics;
+        } finally {
+            contexts.release(ctx);
         }
-        // put model annotations into map annotations
-        map.setExtension(getSBGNAnnotation(Utils.getRDFAnnotations(modelW.getModel().getAnnotation().getAny()), "mapID"));
+    }
 
-        //System.exit(1);
+    private void toSbgn(Sbml sbml, Context ctx) throws WriteModelException {
+        ConversionSnapshot snapshot = ctx.snapshot;
+        ConversionMetrics.Timer timer = ctx.metrics.start("wrap");
+        ModelWrapper modelW = snapshot == null ? ModelWrapper.create(sbml, parallel)
+                : ModelWrapper.create(sbml, parallel, snapshot.getPreviousWrapper(), snapshot.getReusedSpecies(),
+                snapshot.getReusedReactions());
+        timer.setParallel(modelW.isWrappedInParallel());
+        timer.stop();
+        ctx.metrics.count("compartments", modelW.getListOfCompartments());
+        ctx.metrics.count("species", modelW.getListOfSpecies());
+        ctx.metrics.count("includedSpecies", modelW.getListOfIncludedSpecies());
+        ctx.metrics.count("speciesAliases", modelW.getListOfSpeciesAliases());
+        ctx.metrics.count("complexAliases", modelW.getListOfComplexSpeciesAliases());
+        ctx.metrics.count("reactions", modelW.getListOfReactions());
+        if(snapshot != null) {
+            snapshot.modelW = modelW;
+        }
 
         logger.debug("number of species "+modelW.getListOfSpecies().size());
         logger.debug("number of included species "+modelW.getListOfIncludedSpecies().size());
         logger.debug("number of compartments "+modelW.getListOfCompartments().size());
         logger.debug("compartment aliases count: "+modelW.getListOfCompartmentAliases().size());
 
+        // reaction models are needed for the styles
+        timer = ctx.metrics.start("reactionModels");
+        List<GenericReactionModel> reactionModels = buildReactionModels(modelW.getListOfReactionWrapper(), ctx);
+        timer.setParallel(buildsInParallel(reactionModels.size()));
+        timer.stop();
 
-        this.glyphList = new ArrayList<>();
-        this.glyphMap = new HashMap<>();
-        // store all StyleInfos to be aggregated and added later
-        this.styleInfoList = new ArrayList<>();
-        this.portMap = new HashMap<>();
+        // style info objects are aggregated into the map extension, which comes before the glyphs
+        timer = ctx.metrics.start("styles");
+        SBGNBase.Extension ext = new SBGNBase.Extension();
+        ext.getAny().add(getAllStyles(collectStyleInfos(modelW, reactionModels), sbml));
+        timer.stop();
 
+        Map map = new Map();
+        //map.setId("mapID"); don't put it to ensure 0.2 compatibility
+        map.setLanguage(Language.PD.toString());
+        // put model notes into map notes
+        if(modelW.getModel().getNotes() != null) {
+            map.setNotes(getSBGNNotes(Utils.getNotes(modelW.getModel().getNotes())));
+        }
+        map.setExtension(ext);
+        ctx.output.start(map);
 
         // compartment section
-        for(Compartment compartment: modelW.getListOfCompartments()) {
-            processCompartment(compartment, modelW, map);
+        timer = ctx.metrics.start("compartments");
+        ConversionSnapshot.Segment compartments = writeSegment(
+                snapshot == null ? null : snapshot.reusableCompartments(), () -> {
+            for(Compartment compartment: modelW.getListOfCompartments()) {
+                processCompartment(compartment, modelW, ctx);
+            }
+        }, ctx);
+        if(snapshot != null) {
+            snapshot.compartments = compartments;
         }
 
+        timer.stop();
+
         // species section
+        timer = ctx.metrics.start("species");
+        long reusedSpecies = 0;
         for(SpeciesWrapper speciesW: modelW.getListOfSpeciesWrapper()) {
             //SpeciesWrapper speciesW = new SpeciesWrapper(species, modelW);
-            processSpecies(speciesW, modelW, map);
+            ConversionSnapshot.Segment previous = snapshot == null ? null
+                    : snapshot.reusableSpecies(speciesW.getId(), ctx.idCount);
+            ConversionSnapshot.Segment segment = writeSegment(previous,
+                    () -> processSpecies(speciesW, modelW, ctx), ctx);
+            if(snapshot != null) {
+                snapshot.species.put(speciesW.getId(), segment);
+                reusedSpecies += previous != null ? 1 : 0;
+            }
         }
 
-        // reactions
-        for(ReactionWrapper reactionW: modelW.getListOfReactionWrapper()) {
-            //ReactionWrapper reactionW = modelW.getReactionWrapperFor(reaction.getId());
-            GenericReactionModel genericReactionModel = ReactionModelFactory.create(reactionW);
+        timer.stop();
+
+        // reactions, process and logic gate glyphs
+        timer = ctx.metrics.start("reactions");
+        for(int i=0; i < reactionModels.size(); i++) {
+            ReactionWrapper reactionW = modelW.getListOfReactionWrapper().get(i);
+            GenericReactionModel genericReactionModel = reactionModels.get(i);
+            ConversionSnapshot.Segment segment = writeSegment(
+                    snapshot == null ? null : snapshot.reusableReaction(reactionW.getId()),
+                    () -> processReaction(reactionW, genericReactionModel, ctx), ctx);
+            if(snapshot != null) {
+                segment.model = genericReactionModel;
+                snapshot.reactions.put(reactionW.getId(), segment);
+            }
+        }
 
-            // PROCESS
-            logger.debug(reactionW.getId()+" "+reactionW.getReactantList().size());
+        timer.stop();
+
+        // text notes on the map
+        timer = ctx.metrics.start("texts");
+        ConversionSnapshot.Segment texts = writeSegment(
+                snapshot == null ? null : snapshot.reusableTexts(ctx.idCount), () -> processTexts(modelW, ctx), ctx);
+        if(snapshot != null) {
+            snapshot.texts = texts;
+        }
 
-            String processId = null;
-            if(reactionW.hasProcess()) {
-                Process process = genericReactionModel.getProcess();
-                Point2D processCoord = process.getGlyph().getCenter();
+        timer.stop();
+
+        // arcs come after all the glyphs
+        timer = ctx.metrics.start("arcs");
+        for(int i=0; i < reactionModels.size(); i++) {
+            ConversionSnapshot.Segment segment = snapshot == null ? null
+                    : snapshot.reactions.get(modelW.getListOfReactionWrapper().get(i).getId());
+            if(segment != null && segment.arcs != null) {
+                // arcs of a reused reaction, pointed to the glyphs and ports of this conversion
+                for(Arc arc: segment.arcs) {
+                    arc.setSource(currentEnd(arc.getSource(), ctx));
+                    arc.setTarget(currentEnd(arc.getTarget(), ctx));
+                    writeArc(arc, ctx);
+                }
+                continue;
+            }
+            if(segment != null) {
+                segment.arcs = new ArrayList<>();
+            }
+            ctx.segment = segment;
+            for(LinkModel ln: reactionModels.get(i).getLinkModels()) {
+                writeArc(getArc(ln, ctx), ctx);
+            }
+            ctx.segment = null;
+        }
+        ctx.output.end();
+        timer.stop();
 
-                Glyph processGlyph = new Glyph();
-                processGlyph.setClazz(Process.getSbgnClass(genericReactionModel.getCdReactionType().toString()));
-                processId = process.getId();
-                processGlyph.setId(processId);
+        ctx.metrics.count("glyphs", ctx.glyphCount);
+        ctx.metrics.count("arcs", ctx.arcCount);
+        if(snapshot != null) {
+            ctx.metrics.count("reusedSpecies", reusedSpecies);
+        }
+    }
 
-                // include process into correct compartment
-                // only if base reactants and products are in the same compartment, else no decision is taken
-                String processCompartmentId = null;
+    /**
+     * Process and logic gate glyphs of a reaction
+     */
+    private void processReaction(ReactionWrapper reactionW, GenericReactionModel genericReactionModel, Context ctx)
+            throws WriteModelException {
+        // PROCESS
+        logger.debug(reactionW.getId()+" "+reactionW.getReactantList().size());
+
+        String processId = null;
+        if(reactionW.hasProcess()) {
+            Process process = genericReactionModel.getProcess();
+            Point2D processCoord = process.getGlyph().getCenter();
+
+            Glyph processGlyph = new Glyph();
+            processGlyph.setClazz(Process.getSbgnClass(genericReactionModel.getCdReactionType().toString()));
+            processId = process.getId();
+            processGlyph.setId(processId);
+
+            // include process into correct compartment
+            // only if base reactants and products are in the same compartment, else no decision is taken
+            String processCompartmentId = null;
+            boolean sameCompartmentForAllReactants = true;
+
+            List<ReactantWrapper> combinedBaseWrapper = new ArrayList<>(reactionW.getBaseReactants());
+            combinedBaseWrapper.addAll(reactionW.getBaseProducts());
+
+            for(ReactantWrapper reactantW: combinedBaseWrapper) {
+                String reactantCompId = reactantW.getAliasW().getSpeciesW().getCompartment();
+                if(processCompartmentId == null) {
+                    processCompartmentId = reactantCompId;
+                }
+                else if(!processCompartmentId.equals(reactantCompId)) {
+                    sameCompartmentForAllReactants = false;
+                    break;
+                }
+            }
+
+            logger.debug("Final process compartment is: "+processCompartmentId);
+
+            if (sameCompartmentForAllReactants && !processCompartmentId.equals("default")) {
+                processGlyph.setCompartmentRef(ctx.glyphMap.get(processCompartmentId));
+            }
+
+            Bbox processBbox = new Bbox();
+            processBbox.setX((float) processCoord.getX() - process.getSize() / 2);
+            processBbox.setY((float) processCoord.getY() - process.getSize() / 2);
+            processBbox.setH(process.getSize());
+            processBbox.setW(process.getSize());
+            processGlyph.setBbox(processBbox);
+
+            // put reaction into process glyph
+            // TODO if no process, add notes into the arc
+            processGlyph.setNotes(getSBGNNotes(reactionW.getNotes()));
+            processGlyph.setExtension(getSBGNAnnotation(reactionW.getAnnotations(), processId));
+
+            // TODO process style ?
+
+            // ports
+            Port p1 = new Port();
+            String p1Id = processId+"_p1";
+            p1.setId(p1Id);
+            p1.setX((float) process.getPortIn().getX());
+            p1.setY((float) process.getPortIn().getY());
+            processGlyph.getPort().add(p1);
+            putPort(p1Id, p1, ctx);
+
+            Port p2 = new Port();
+            String p2Id = processId+"_p2";
+            p2.setId(p2Id);
+            p2.setX((float) process.getPortOut().getX());
+            p2.setY((float) process.getPortOut().getY());
+            processGlyph.getPort().add(p2);
+            putPort(p2Id, p2, ctx);
+
+            processGlyph.setOrientation(process.getOrientation().name().toLowerCase());
+
+            putGlyph(processId, processGlyph, ctx);
+            writeGlyph(processGlyph, ctx);
+        }
+
+        // Possible logic gates
+        for(ReactionNodeModel nodeModel: genericReactionModel.getReactionNodeModels()) {
+            if(nodeModel instanceof LogicGate) {
+                LogicGate logicGate = (LogicGate) nodeModel;
+
+                Point2D logicCoord = logicGate.getGlyph().getCenter();
+
+                Glyph logicGlyph = new Glyph();
+                logicGlyph.setClazz(LogicGate.getSbgnClass(logicGate.getType()));
+
+                String logicId = logicGate.getId();
+                logicGlyph.setId(logicId);
+
+                Bbox logicBbox = new Bbox();
+                logicBbox.setX((float) logicCoord.getX() - logicGate.getSize() / 2);
+                logicBbox.setY((float) logicCoord.getY() - logicGate.getSize() / 2);
+                logicBbox.setH(logicGate.getSize());
+                logicBbox.setW(logicGate.getSize());
+                logicGlyph.setBbox(logicBbox);
+
+                // assign compartment
+                // find glyphs associated to this logic gate
+                List<Glyph> connectedGLyphs = new ArrayList<>();
+                for(LinkModel lm: genericReactionModel.getLinkModels()) {
+                    if(lm.getEnd().getId().equals(logicGate.getId())) {
+                        String modifierId = lm.getStart().getId();
+                        connectedGLyphs.add(ctx.glyphMap.get(modifierId));
+                    }
+                    else if(lm.getStart().getId().equals(logicGate.getId())) {
+                        String modifierId = lm.getEnd().getId();
+                        connectedGLyphs.add(ctx.glyphMap.get(modifierId));
+                    }
+                }
+
+                String logicCompartmentId = null;
                 boolean sameCompartmentForAllReactants = true;
+                Glyph compartmentGlyph = null;
 
-                List<ReactantWrapper> combinedBaseWrapper = new ArrayList<>(reactionW.getBaseReactants());
-                combinedBaseWrapper.addAll(reactionW.getBaseProducts());
+                for(Glyph g: connectedGLyphs) {
+                    String glyphCompartmentId;
+                    if(g.getCompartmentRef() == null) { // glyph is outside, no compartment defined
+                        glyphCompartmentId = "default";
+                    }
+                    else {
+                        glyphCompartmentId = ((Glyph) g.getCompartmentRef()).getId();
+                    }
 
-                for(ReactantWrapper reactantW: combinedBaseWrapper) {
-                    String reactantCompId = reactantW.getAliasW().getSpeciesW().getCompartment();
-                    if(processCompartmentId == null) {
-                        processCompartmentId = reactantCompId;
+                    if(logicCompartmentId == null) {
+                        logicCompartmentId = glyphCompartmentId;
+                        compartmentGlyph = (Glyph) g.getCompartmentRef();
                     }
-                    else if(!processCompartmentId.equals(reactantCompId)) {
+                    else if(!logicCompartmentId.equals(glyphCompartmentId)) {
                         sameCompartmentForAllReactants = false;
                         break;
                     }
                 }
 
-                logger.debug("Final process compartment is: "+processCompartmentId);
-
-                if (sameCompartmentForAllReactants && !processCompartmentId.equals("default")) {
-                    processGlyph.setCompartmentRef(this.glyphMap.get(processCompartmentId));
+                logger.debug("Final logic compartment is: "+logicCompartmentId);
+                if (sameCompartmentForAllReactants && !logicCompartmentId.equals("default")) {
+                    logicGlyph.setCompartmentRef(compartmentGlyph);
                 }
 
-                Bbox processBbox = new Bbox();
-                processBbox.setX((float) processCoord.getX() - process.getSize() / 2);
-                processBbox.setY((float) processCoord.getY() - process.getSize() / 2);
-                processBbox.setH(process.getSize());
-                processBbox.setW(process.getSize());
-                processGlyph.setBbox(processBbox);
-
-                // put reaction into process glyph
-                // TODO if no process, add notes into the arc
-                processGlyph.setNotes(getSBGNNotes(reactionW.getNotes()));
-                processGlyph.setExtension(getSBGNAnnotation(reactionW.getAnnotations(), processId));
-
-                // TODO process style ?
 
                 // ports
                 Port p1 = new Port();
-                String p1Id = processId+"_p1";
+                String p1Id = logicId+"_p1";
                 p1.setId(p1Id);
-                p1.setX((float) process.getPortIn().getX());
-                p1.setY((float) process.getPortIn().getY());
-                processGlyph.getPort().add(p1);
-                portMap.put(p1Id, p1);
+                p1.setX((float) logicGate.getPortIn().getX());
+                p1.setY((float) logicGate.getPortIn().getY());
+                logicGlyph.getPort().add(p1);
+                putPort(p1Id, p1, ctx);
 
                 Port p2 = new Port();
-                String p2Id = processId+"_p2";
+                String p2Id = logicId+"_p2";
                 p2.setId(p2Id);
-                p2.setX((float) process.getPortOut().getX());
-                p2.setY((float) process.getPortOut().getY());
-                processGlyph.getPort().add(p2);
-                portMap.put(p2Id, p2);
-
-                processGlyph.setOrientation(process.getOrientation().name().toLowerCase());
-
-                glyphList.add(processGlyph);
-                glyphMap.put(processId, processGlyph);
-                styleInfoList.add(genericReactionModel.getProcess().getStyleInfo());
-                map.getGlyph().add(processGlyph);
-            }
-
-            // Possible logic gates
-            for(ReactionNodeModel nodeModel: genericReactionModel.getReactionNodeModels()) {
-                if(nodeModel instanceof LogicGate) {
-                    LogicGate logicGate = (LogicGate) nodeModel;
-
-                    Point2D logicCoord = logicGate.getGlyph().getCenter();
-
-                    Glyph logicGlyph = new Glyph();
-                    logicGlyph.setClazz(LogicGate.getSbgnClass(logicGate.getType()));
-
-                    String logicId = logicGate.getId();
-                    logicGlyph.setId(logicId);
-
-                    Bbox logicBbox = new Bbox();
-                    logicBbox.setX((float) logicCoord.getX() - logicGate.getSize() / 2);
-                    logicBbox.setY((float) logicCoord.getY() - logicGate.getSize() / 2);
-                    logicBbox.setH(logicGate.getSize());
-                    logicBbox.setW(logicGate.getSize());
-                    logicGlyph.setBbox(logicBbox);
-
-                    // assign compartment
-                    // find glyphs associated to this logic gate
-                    List<Glyph> connectedGLyphs = new ArrayList<>();
-                    for(LinkModel lm: genericReactionModel.getLinkModels()) {
-                        if(lm.getEnd().getId().equals(logicGate.getId())) {
-                            String modifierId = lm.getStart().getId();
-                            connectedGLyphs.add(glyphMap.get(modifierId));
-                        }
-                        else if(lm.getStart().getId().equals(logicGate.getId())) {
-                            String modifierId = lm.getEnd().getId();
-                            connectedGLyphs.add(glyphMap.get(modifierId));
-                        }
-                    }
-
-                    String logicCompartmentId = null;
-                    boolean sameCompartmentForAllReactants = true;
-                    Glyph compartmentGlyph = null;
-
-                    for(Glyph g: connectedGLyphs) {
-                        String glyphCompartmentId;
-                        if(g.getCompartmentRef() == null) { // glyph is outside, no compartment defined
-                            glyphCompartmentId = "default";
-                        }
-                        else {
-                            glyphCompartmentId = ((Glyph) g.getCompartmentRef()).getId();
-                        }
-
-                        if(logicCompartmentId == null) {
-                            logicCompartmentId = glyphCompartmentId;
-                            compartmentGlyph = (Glyph) g.getCompartmentRef();
-                        }
-                        else if(!logicCompartmentId.equals(glyphCompartmentId)) {
-                            sameCompartmentForAllReactants = false;
-                            break;
-                        }
-                    }
-
-                    logger.debug("Final logic compartment is: "+logicCompartmentId);
-                    if (sameCompartmentForAllReactants && !logicCompartmentId.equals("default")) {
-                        logicGlyph.setCompartmentRef(compartmentGlyph);
-                    }
-
-
-                    // ports
-                    Port p1 = new Port();
-                    String p1Id = logicId+"_p1";
-                    p1.setId(p1Id);
-                    p1.setX((float) logicGate.getPortIn().getX());
-                    p1.setY((float) logicGate.getPortIn().getY());
-                    logicGlyph.getPort().add(p1);
-                    portMap.put(p1Id, p1);
-
-                    Port p2 = new Port();
-                    String p2Id = logicId+"_p2";
-                    p2.setId(p2Id);
-                    p2.setX((float) logicGate.getPortOut().getX());
-                    p2.setY((float) logicGate.getPortOut().getY());
-                    logicGlyph.getPort().add(p2);
-                    portMap.put(p2Id, p2);
-
-                    logicGlyph.setOrientation(logicGate.getOrientation().name().toLowerCase());
+                p2.setX((float) logicGate.getPortOut().getX());
+                p2.setY((float) logicGate.getPortOut().getY());
+                logicGlyph.getPort().add(p2);
+                putPort(p2Id, p2, ctx);
 
-                    glyphList.add(logicGlyph);
-                    glyphMap.put(logicId, logicGlyph);
-                    styleInfoList.add(logicGate.getStyleInfo());
-                    map.getGlyph().add(logicGlyph);
+                logicGlyph.setOrientation(logicGate.getOrientation().name().toLowerCase());
 
-                }
-            }
+                putGlyph(logicId, logicGlyph, ctx);
+                writeGlyph(logicGlyph, ctx);
 
-            for(LinkModel ln: genericReactionModel.getLinkModels()) {
-                styleInfoList.add(ln.getStyleInfo());
-                map.getArc().add(getArc(ln));
             }
         }
+    }
 
-        // text notes on the map
+    /**
+     * Text notes on the map
+     */
+    private void processTexts(ModelWrapper modelW, Context ctx) throws WriteModelException {
         for(TextWrapper textW: modelW.getListofTextWrapper()) {
             if(!textW.isVisible()) {
                 continue;
@@ -283,7 +638,7 @@ public class CD2SBGNML extends GeneralConverter {
             textGlyph.setLabel(textLabel);
 
             textGlyph.setClazz("annotation");
-            textGlyph.setId("text_"+UUID.randomUUID());
+            textGlyph.setId(newId("text_", ctx));
 
             // set reference point
             Glyph.Callout callout = new Glyph.Callout();
@@ -293,20 +648,203 @@ public class CD2SBGNML extends GeneralConverter {
             callout.setPoint(calloutPoint);
             textGlyph.setCallout(callout);
 
-            map.getGlyph().add(textGlyph);
+            writeGlyph(textGlyph, ctx);
         }
+    }
 
+    private static void writeGlyph(Glyph glyph, Context ctx) throws WriteModelException {
+        ctx.output.glyph(glyph);
+        ctx.glyphCount++;
+        if(ctx.segment != null) {
+            ctx.segment.glyphs.add(glyph);
+        }
+    }
 
-        // finally process style info objects
-        SBGNBase.Extension ext = new SBGNBase.Extension();
-        ext.getAny().add(getAllStyles(styleInfoList, sbml));
-        map.setExtension(ext);
+    private static void writeArc(Arc arc, Context ctx) throws WriteModelException {
+        ctx.output.arc(arc);
+        ctx.arcCount++;
+        if(ctx.segment != null) {
+            ctx.segment.arcs.add(arc);
+        }
+    }
+
+    /**
+     * Keep a glyph to be referred to by the glyphs and arcs created after it
+     */
+    private static void putGlyph(String key, Glyph glyph, Context ctx) {
+        Glyph reference = ctx.output.reference(glyph);
+        ctx.glyphMap.put(key, reference);
+        if(ctx.segment != null) {
+            ctx.segment.references.put(key, reference);
+        }
+    }
+
+    private static void putPort(String key, Port port, Context ctx) {
+        ctx.portMap.put(key, port);
+        if(ctx.segment != null) {
+            ctx.segment.ports.put(key, port);
+        }
+    }
+
+    private static String newId(String prefix, Context ctx) {
+        ctx.idCount++;
+        return ctx.idGenerator.newId(prefix);
+    }
+
+    private interface SegmentWriter {
+        void write() throws WriteModelException;
+    }
+
+    /**
+     * Write an element of the map, or write again what the previous conversion wrote for it.
+     * @param previous what the previous conversion wrote for the element, null to build it
+     * @return what is written for the element when converting incrementally, else null
+     */
+    private static ConversionSnapshot.Segment writeSegment(ConversionSnapshot.Segment previous, SegmentWriter writer,
+                                                           Context ctx) throws WriteModelException {
+        if(previous != null) {
+            ctx.glyphMap.putAll(previous.references);
+            ctx.portMap.putAll(previous.ports);
+            for(Glyph glyph: previous.glyphs) {
+                writeGlyph(glyph, ctx);
+            }
+            // the next ids are the ones a full conversion would give
+            ctx.idGenerator.skip(previous.idCount);
+            ctx.idCount += previous.idCount;
+            return previous;
+        }
+        if(ctx.snapshot == null) {
+            writer.write();
+            return null;
+        }
+        ConversionSnapshot.Segment segment = new ConversionSnapshot.Segment(ctx.idCount);
+        ctx.segment = segment;
+        try {
+            writer.write();
+        } finally {
+            ctx.segment = null;
+        }
+        segment.idCount = ctx.idCount - segment.firstId;
+        return segment;
+    }
+
+    /**
+     * @param end source or target of an arc of the previous conversion
+     * @return the glyph or port of this conversion with the same id
+     */
+    private static Object currentEnd(Object end, Context ctx) {
+        Object current = null;
+        if(end instanceof Port) {
+            current = ctx.portMap.get(((Port) end).getId());
+        }
+        else if(end instanceof Glyph) {
+            current = ctx.glyphMap.get(((Glyph) end).getId());
+        }
+        return current != null ? current : end;
+    }
+
+    /**
+     * @return style info of compartments, species, then processes, logic gates and links of each reaction, in the
+     * order of the glyphs and arcs
+     */
+    List<StyleInfo> collectStyleInfos(ModelWrapper modelW, List<GenericReactionModel> reactionModels) {
+        List<StyleInfo> styleInfoList = new ArrayList<>();
+        for(Compartment compartment: modelW.getListOfCompartments()) {
+            if(!compartment.getId().equals("default")) {
+                for(CompartmentAlias alias : modelW.getCompartmentAliasFor(compartment.getId())) {
+                    styleInfoList.add(new StyleInfo(alias, compartment.getId()+"_"+alias.getId()));
+                }
+            }
+        }
+        for(SpeciesWrapper species: modelW.getListOfSpeciesWrapper()) {
+            if(!species.isIncludedSpecies()) {
+                for(AliasWrapper alias : species.getAliases()) {
+                    collectIncludedStyleInfos(species, alias, modelW, styleInfoList);
+                    styleInfoList.add(alias.getStyleInfo());
+                }
+            }
+        }
+        for(GenericReactionModel genericReactionModel: reactionModels) {
+            if(genericReactionModel.hasProcess()) {
+                styleInfoList.add(genericReactionModel.getProcess().getStyleInfo());
+            }
+            for(ReactionNodeModel nodeModel: genericReactionModel.getReactionNodeModels()) {
+                if(nodeModel instanceof LogicGate) {
+                    styleInfoList.add(nodeModel.getStyleInfo());
+                }
+            }
+            for(LinkModel ln: genericReactionModel.getLinkModels()) {
+                styleInfoList.add(ln.getStyleInfo());
+            }
+        }
+        return styleInfoList;
+    }
+
+    /**
+     * Same traversal as {@link #processSpeciesAlias}
+     */
+    private void collectIncludedStyleInfos(SpeciesWrapper species, AliasWrapper alias, ModelWrapper modelW,
+                                           List<StyleInfo> styleInfoList) {
+        if(species.isComplex() && modelW.getIncludedAliasWrapperFor(alias.getId()) != null) {
+            for(AliasWrapper includedAlias: modelW.getIncludedAliasWrapperFor(alias.getId())) {
+                SpeciesWrapper includedSpecies = modelW.getSpeciesWrapperFor(includedAlias.getSpeciesId());
+                collectIncludedStyleInfos(includedSpecies, includedAlias, modelW, styleInfoList);
+                styleInfoList.add(includedAlias.getStyleInfo());
+            }
+        }
+    }
 
+    /**
+     * @return the model of each reaction, in the same order as the reactions, taken from the previous conversion
+     * for the reactions that are reused
+     */
+    List<GenericReactionModel> buildReactionModels(List<ReactionWrapper> reactionWrappers, Context ctx) {
+        boolean inParallel = buildsInParallel(reactionWrappers.size());
+        if(inParallel) {
+            logger.debug("Building "+reactionWrappers.size()+" reaction models in parallel");
+        }
 
-        return sbgn;
+        ConversionSnapshot snapshot = ctx.snapshot;
+        if(snapshot == null) {
+            return indexes(reactionWrappers.size(), inParallel)
+                    .mapToObj(i -> createReactionModel(reactionWrappers.get(i), ctx))
+                    .collect(Collectors.toList());
+        }
+
+        LongAdder reused = new LongAdder();
+        List<GenericReactionModel> reactionModels = indexes(reactionWrappers.size(), inParallel)
+                .mapToObj(i -> {
+                    ReactionWrapper reactionW = reactionWrappers.get(i);
+                    ConversionSnapshot.Segment previous = snapshot.reusableReaction(reactionW.getId());
+                    if(previous != null) {
+                        reused.increment();
+                        return previous.model;
+                    }
+                    return createReactionModel(reactionW, ctx);
+                })
+                .collect(Collectors.toList());
+
+        ctx.metrics.count("reusedReactionModels", reused.sum());
+        logger.info("Reused "+reused.sum()+" of "+reactionModels.size()+" reaction models");
+        return reactionModels;
+    }
+
+    private boolean buildsInParallel(int reactionCount) {
+        return parallel && reactionCount >= PARALLEL_REACTION_THRESHOLD;
+    }
+
+    static IntStream indexes(int size, boolean parallel) {
+        IntStream indexes = IntStream.range(0, size);
+        return parallel ? indexes.parallel() : indexes;
     }
 
-    public void processCompartment(Compartment compartment, ModelWrapper modelW, Map map) {
+    private GenericReactionModel createReactionModel(ReactionWrapper reactionW, Context ctx) {
+        // ids of a reaction don't depend on the thread or order in which it is built
+        return ReactionModelFactory.create(reactionW, ctx.idGenerator.forReaction(reactionW.getId()));
+    }
+
+    public void processCompartment(Compartment compartment, ModelWrapper modelW, Context ctx)
+            throws WriteModelException {
         if(! compartment.getId().equals("default")) {
             for(CompartmentAlias alias : modelW.getCompartmentAliasFor(compartment.getId())) {
                 Bounds cdBounds = alias.getBounds();
@@ -319,7 +857,7 @@ public class CD2SBGNML extends GeneralConverter {
                 String compartmentId = compartment.getId()+"_"+alias.getId();
                 compGlyph.setId(compartmentId);
                 if (!compartment.getOutside().equals("default")) {
-                    compGlyph.setCompartmentRef(glyphMap.get(compartment.getOutside()));
+                    compGlyph.setCompartmentRef(ctx.glyphMap.get(compartment.getOutside()));
                 }
 
                 // label
@@ -376,18 +914,17 @@ public class CD2SBGNML extends GeneralConverter {
                         Utils.getRDFAnnotations(compartment.getAnnotation().getAny()), compartmentId));
 
                 // keep references
-                glyphList.add(compGlyph);
-                glyphMap.put(compartment.getId(), compGlyph);
-                styleInfoList.add(new StyleInfo(alias, compartmentId));
+                putGlyph(compartment.getId(), compGlyph, ctx);
 
                 // add to output
-                map.getGlyph().add(compGlyph);
+                writeGlyph(compGlyph, ctx);
             }
         }
     }
 
-    public Glyph processSpeciesAlias(SpeciesWrapper species, AliasWrapper alias, ModelWrapper modelW, boolean isClone) {
-        Glyph glyph = getGlyph(alias, isClone);
+    public Glyph processSpeciesAlias(SpeciesWrapper species, AliasWrapper alias, ModelWrapper modelW, boolean isClone,
+                                     Context ctx) {
+        Glyph glyph = getGlyph(alias, isClone, ctx);
 
         if(species.getReferenceNotes() != null) {
             // TODO is piling up <html> elements in 1 note ok ?
@@ -409,16 +946,14 @@ public class CD2SBGNML extends GeneralConverter {
             else {
                 for(AliasWrapper includedAlias: modelW.getIncludedAliasWrapperFor(alias.getId())) {
                     SpeciesWrapper includedSpecies = modelW.getSpeciesWrapperFor(includedAlias.getSpeciesId());
-                    Glyph includedGlyph = processSpeciesAlias(includedSpecies, includedAlias, modelW, isClone);
+                    Glyph includedGlyph = processSpeciesAlias(includedSpecies, includedAlias, modelW, isClone, ctx);
                     glyph.getGlyph().add(includedGlyph);
 
                     /*
                     In ACSN, we need to keep references to included species also because some have links. Which
                     shouldn't happen.
                      */
-                    glyphList.add(includedGlyph);
-                    glyphMap.put(includedGlyph.getId(), includedGlyph);
-                    styleInfoList.add(includedAlias.getStyleInfo());
+                    putGlyph(includedGlyph.getId(), includedGlyph, ctx);
                 }
             }
         }
@@ -426,7 +961,7 @@ public class CD2SBGNML extends GeneralConverter {
         return glyph;
     }
 
-    public void processSpecies(SpeciesWrapper species, ModelWrapper modelW, Map map) {
+    public void processSpecies(SpeciesWrapper species, ModelWrapper modelW, Context ctx) throws WriteModelException {
         boolean isClone = false;
         if(species.getAliases().size() > 1) {
             isClone = true;
@@ -434,19 +969,17 @@ public class CD2SBGNML extends GeneralConverter {
         for(AliasWrapper alias : species.getAliases()) {
             // included species is already added inside its complex when complex is processed
             if(!species.isIncludedSpecies()) {
-                Glyph glyph = processSpeciesAlias(species, alias, modelW, isClone);
+                Glyph glyph = processSpeciesAlias(species, alias, modelW, isClone, ctx);
 
                 // keep references
-                glyphList.add(glyph);
-                glyphMap.put(glyph.getId(), glyph);
-                styleInfoList.add(alias.getStyleInfo());
+                putGlyph(glyph.getId(), glyph, ctx);
                 // add to map
-                map.getGlyph().add(glyph);
+                writeGlyph(glyph, ctx);
             }
         }
     }
 
-    public Glyph getGlyph(AliasWrapper aliasW, boolean isClone) {
+    public Glyph getGlyph(AliasWrapper aliasW, boolean isClone, Context ctx) {
         String id = aliasW.getSpeciesW().getId()+"_"+aliasW.getId();
         SpeciesWrapper species = aliasW.getSpeciesW();
 
@@ -457,7 +990,7 @@ public class CD2SBGNML extends GeneralConverter {
         // basic info
         glyph.setId(id);
         if (! species.isIncludedSpecies() && !species.getCompartment().equals("default")) {
-            glyph.setCompartmentRef(this.glyphMap.get(species.getCompartment()));
+            glyph.setCompartmentRef(ctx.glyphMap.get(species.getCompartment()));
         }
 
         // label
@@ -481,7 +1014,7 @@ public class CD2SBGNML extends GeneralConverter {
         // structural state
         if(species.getStructuralState() != null) {
 
-            Glyph statevar = getStateVariable("", species.getStructuralState(), bboxRect, 90);
+            Glyph statevar = getStateVariable("", species.getStructuralState(), bboxRect, 90, ctx);
             glyph.getGlyph().add(statevar);
 
         }
@@ -492,7 +1025,7 @@ public class CD2SBGNML extends GeneralConverter {
             Glyph unitOfInfo = getUnitOfInfo(aliasW.getInfo().getSbgnText(),
                     bboxRect,
                     // clockwork here !!!
-                    - GeometryUtils.unsignedRadianToSignedDegree(aliasW.getInfo().angle));
+                    - GeometryUtils.unsignedRadianToSignedDegree(aliasW.getInfo().angle), ctx);
             glyph.getGlyph().add(unitOfInfo);
 
         }
@@ -515,7 +1048,7 @@ public class CD2SBGNML extends GeneralConverter {
 
                 Glyph unitOfInfoMultimer = getUnitOfInfo("N:" + species.getMultimer(),
                         bboxRect,
-                        angle);
+                        angle, ctx);
                 glyph.getGlyph().add(unitOfInfoMultimer);
             }
 
@@ -524,7 +1057,7 @@ public class CD2SBGNML extends GeneralConverter {
         // state variables
         for(ResidueWrapper residueW: species.getResidues()) {
 
-            Glyph residue = getStateVariableFromResidueWrapper(residueW, bboxRect);
+            Glyph residue = getStateVariableFromResidueWrapper(residueW, bboxRect, ctx);
 
             glyph.getGlyph().add(residue);
         }
@@ -532,32 +1065,32 @@ public class CD2SBGNML extends GeneralConverter {
         // add additional units of info depending on the situation
         // eg for receptors, ion channels, truncated, genes...
         if(species.getType() == SpeciesWrapper.ReferenceType.RECEPTOR) {
-            Glyph receptorUnitOfInfo = getUnitOfInfo("receptor", bboxRect, 90);
+            Glyph receptorUnitOfInfo = getUnitOfInfo("receptor", bboxRect, 90, ctx);
             glyph.getGlyph().add(receptorUnitOfInfo);
         }
         else if(species.getType() == SpeciesWrapper.ReferenceType.ION_CHANNEL) {
-            Glyph receptorUnitOfInfo = getUnitOfInfo("ion channel", bboxRect, 90);
+            Glyph receptorUnitOfInfo = getUnitOfInfo("ion channel", bboxRect, 90, ctx);
             glyph.getGlyph().add(receptorUnitOfInfo);
 
             Glyph activeStateVar;
             if(aliasW.isActive()) {
-                activeStateVar = getStateVariable("", "open", bboxRect, -90);
+                activeStateVar = getStateVariable("", "open", bboxRect, -90, ctx);
             }
             else {
-                activeStateVar = getStateVariable("", "closed", bboxRect, -90);
+                activeStateVar = getStateVariable("", "closed", bboxRect, -90, ctx);
             }
             glyph.getGlyph().add(activeStateVar);
         }
         else if(species.getType() == SpeciesWrapper.ReferenceType.TRUNCATED) {
-            Glyph receptorUnitOfInfo = getUnitOfInfo("truncated", bboxRect, 90);
+            Glyph receptorUnitOfInfo = getUnitOfInfo("truncated", bboxRect, 90, ctx);
             glyph.getGlyph().add(receptorUnitOfInfo);
         }
         else if(species.getType() == SpeciesWrapper.ReferenceType.RNA) {
-            Glyph rnaUnitOfInfo = getUnitOfInfo("RNA", bboxRect, 90);
+            Glyph rnaUnitOfInfo = getUnitOfInfo("RNA", bboxRect, 90, ctx);
             glyph.getGlyph().add(rnaUnitOfInfo);
         }
         else if(species.getType() == SpeciesWrapper.ReferenceType.ANTISENSE_RNA) {
-            Glyph rnaUnitOfInfo = getUnitOfInfo("asRNA", bboxRect, 90);
+            Glyph rnaUnitOfInfo = getUnitOfInfo("asRNA", bboxRect, 90, ctx);
             glyph.getGlyph().add(rnaUnitOfInfo);
         }
         /*else if(species.getCdClass().equals("ION")) {
@@ -565,7 +1098,7 @@ public class CD2SBGNML extends GeneralConverter {
             glyph.getGlyph().add(ionUnitOfInfo);
         }*/
         else if(species.getCdClass().equals("DRUG")) {
-            Glyph drugUnitOfInfo = getUnitOfInfo("drug", bboxRect, 90);
+            Glyph drugUnitOfInfo = getUnitOfInfo("drug", bboxRect, 90, ctx);
             glyph.getGlyph().add(drugUnitOfInfo);
         }
 
@@ -580,7 +1113,7 @@ public class CD2SBGNML extends GeneralConverter {
         return glyph;
     }
 
-    public Glyph getStateVariable(String prefix, String value, Rectangle2D.Float parentBbox, float angle) {
+    public Glyph getStateVariable(String prefix, String value, Rectangle2D.Float parentBbox, float angle, Context ctx) {
 
         Glyph unitOfInfo = new Glyph();
 
@@ -598,12 +1131,13 @@ public class CD2SBGNML extends GeneralConverter {
         unitOfInfo.setBbox(infoBbox);
 
         unitOfInfo.setClazz("state variable");
-        unitOfInfo.setId("_" + UUID.randomUUID());
+        unitOfInfo.setId(newId("_", ctx));
 
         return unitOfInfo;
     }
 
-    public Glyph getStateVariableFromResidueWrapper(ResidueWrapper residueW, Rectangle2D.Float parentBbox) {
+    public Glyph getStateVariableFromResidueWrapper(ResidueWrapper residueW, Rectangle2D.Float parentBbox,
+                                                    Context ctx) {
 
         Glyph unitOfInfo = new Glyph();
 
@@ -631,12 +1165,12 @@ public class CD2SBGNML extends GeneralConverter {
         unitOfInfo.setBbox(infoBbox);
 
         unitOfInfo.setClazz("state variable");
-        unitOfInfo.setId("_" + UUID.randomUUID());
+        unitOfInfo.setId(newId("_", ctx));
 
         return unitOfInfo;
     }
 
-    public Glyph getUnitOfInfo(String text, Rectangle2D.Float parentBbox, float angle) {
+    public Glyph getUnitOfInfo(String text, Rectangle2D.Float parentBbox, float angle, Context ctx) {
 
         Glyph unitOfInfo = new Glyph();
         Label infoLabel = new Label();
@@ -652,21 +1186,21 @@ public class CD2SBGNML extends GeneralConverter {
         unitOfInfo.setBbox(infoBbox);
 
         unitOfInfo.setClazz("unit of information");
-        unitOfInfo.setId("_" + UUID.randomUUID());
+        unitOfInfo.setId(newId("_", ctx));
 
         return unitOfInfo;
     }
 
-    public Arc getArc(LinkModel linkM) {
+    public Arc getArc(LinkModel linkM, Context ctx) {
 
         /*
         In ACSN, some subunits of a complex have connections. They are not added to the global glyphMap index, so they
         cannot be referenced here.
          */
-        if(!this.glyphMap.containsKey(linkM.getStart().getId())) {
+        if(!ctx.glyphMap.containsKey(linkM.getStart().getId())) {
             logger.error("No source for link: "+linkM.getId()+" missing glyph "+linkM.getStart().getId());
         }
-        if(!this.glyphMap.containsKey(linkM.getEnd().getId())) {
+        if(!ctx.glyphMap.containsKey(linkM.getEnd().getId())) {
             logger.error("No target for link: "+linkM.getId()+" missing glyph "+linkM.getEnd().getId());
         }
 
@@ -684,7 +1218,7 @@ public class CD2SBGNML extends GeneralConverter {
             if(linkM.isReversed()) {
                 portNumber = "p1";
             }
-            source = portMap.get(genericSource.getId()+"_"+portNumber);
+            source = ctx.portMap.get(genericSource.getId()+"_"+portNumber);
             // TODO for reversible reactions, some product link can start from the input port!
         }
         else {
@@ -694,7 +1228,7 @@ public class CD2SBGNML extends GeneralConverter {
                         +". Outgoing arcs are forbidden for phenotypes in SBGN, but are kept here.");
             }
 
-            source = glyphMap.get(genericSource.getId());
+            source = ctx.glyphMap.get(genericSource.getId());
         }
 
         // here we want to avoid linking to a process' port if the link is a catalysis, stimulation and so on.
@@ -705,11 +1239,11 @@ public class CD2SBGNML extends GeneralConverter {
             if(linkM.isReversed()) {
                 portNumber = "p2";
             }
-            target = portMap.get(genericTarget.getId()+"_"+portNumber);
+            target = ctx.portMap.get(genericTarget.getId()+"_"+portNumber);
             // TODO for reversible reactions, some product link can start from the input port!
         }
         else {
-            target = glyphMap.get(genericTarget.getId());
+            target = ctx.glyphMap.get(genericTarget.getId());
         }
 
         arc1.setSource(source);
@@ -718,26 +1252,25 @@ public class CD2SBGNML extends GeneralConverter {
         arc1.setClazz(clazz);
         arc1.setId(linkM.getId());
 
-        Point2D startPoint = link.getStart();
-        Point2D endPoint = link.getEnd();
+        Polyline points = link.getPoints();
+        int last = points.size() - 1;
 
         // start end
         Arc.Start s1 = new Arc.Start();
-        s1.setX((float) startPoint.getX());
-        s1.setY((float) startPoint.getY());
+        s1.setX(points.getX(0));
+        s1.setY(points.getY(0));
         arc1.setStart(s1);
 
-        for(int i=0; i<link.getEditPoints().size() ; i++) {
-            Point2D p = link.getEditPoints().get(i);
+        for(int i=1; i < last; i++) {
             Arc.Next next = new Arc.Next();
-            next.setX((float) p.getX());
-            next.setY((float) p.getY());
+            next.setX(points.getX(i));
+            next.setY(points.getY(i));
             arc1.getNext().add(next);
         }
 
         Arc.End e1 = new Arc.End();
-        e1.setX((float) endPoint.getX());
-        e1.setY((float) endPoint.getY());
+        e1.setX(points.getX(last));
+        e1.setY(points.getY(last));
         arc1.setEnd(e1);
 
         return arc1;
@@ -841,17 +1374,37 @@ public class CD2SBGNML extends GeneralConverter {
             return null;
         }
 
-        // assume the first description is the one concerning our element, which should always be the case
-        Element description = (Element) rdf.getElementsByTagName("rdf:Description").item(0);
-        description.setAttribute("rdf:about", "#"+refId);
-
         SBGNBase.Extension newExt = new SBGNBase.Extension();
+        XmlFragment fragment = XmlFragment.of(rdf);
+        if(fragment != null && !fragment.isParsed()) {
+            // only the copy is parsed, to be modified, the rdf read is left as text
+            Element annotationElement = XmlFragment.element("<annotation>"+fragment.getXml()+"</annotation>");
+            setRdfAbout((Element) annotationElement.getFirstChild(), refId);
+            newExt.getAny().add(annotationElement);
+            return newExt;
+        }
+
+        setRdfAbout(rdf, refId);
         Element annotationElement = rdf.getOwnerDocument().createElement("annotation");
         annotationElement.appendChild(rdf.cloneNode(true));
         newExt.getAny().add(annotationElement);
         return newExt;
     }
 
+    private static void setRdfAbout(Element rdf, String refId) {
+        // assume the first description is the one concerning our element, which should always be the case
+        Element description = (Element) rdf.getElementsByTagName("rdf:Description").item(0);
+        description.setAttribute("rdf:about", "#"+refId);
+    }
+
+    /**
+     * @return measures of the last conversion to finish. Callers running conversions at the same time should give
+     * their own metrics to {@link #toSbgn(Sbml, ConversionMetrics)} instead.
+     */
+    public ConversionMetrics getMetrics() {
+        return metrics;
+    }
+
     public GeneralModel convert(GeneralModel generalModel) throws ConversionException, ReadModelException {
         CellDesignerSBFCModel cdModel = (CellDesignerSBFCModel) generalModel;
         return new SBGNSBFCModel(this.toSbgn(cdModel.getSbml()));
@@ -2,25 +2,85 @@ package fr.curie.cd2sbgnml;
 
 import com.beust.jcommander.JCommander;
 import com.beust.jcommander.Parameter;
+import com.beust.jcommander.ParameterException;
+import fr.curie.cd2sbgnml.io.CellDesignerStreamReader;
+import fr.curie.cd2sbgnml.io.ModelValidator;
+import fr.curie.cd2sbgnml.io.SbgnStreamEmitter;
+import fr.curie.cd2sbgnml.io.SbgnStreamWriter;
+import fr.curie.cd2sbgnml.io.SchemaRegistry;
 import org.sbfc.converter.exceptions.ConversionException;
 import org.sbfc.converter.exceptions.ReadModelException;
 import org.sbfc.converter.exceptions.WriteModelException;
-import org.sbgn.SbgnUtil;
+import org.sbgn.bindings.Sbgn;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.xml.sax.SAXException;
 
 import javax.xml.bind.JAXBException;
-import java.io.File;
+import javax.xml.bind.ValidationEvent;
+import javax.xml.validation.Schema;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 public class Cd2SbgnmlScript {
-    @Parameter(names = { "-i", "--input"}, required = true)
-    private String inputFileName;
 
-    @Parameter(names = { "-o", "--output" }, required = true)
+    private static final long WATCH_INTERVAL_MILLIS = 1000;
+
+    /**
+     * Converter shared by all the conversions of the JVM, it can run many of them at the same time
+     */
+    private static final CD2SBGNML converter = new CD2SBGNML();
+
+    @Parameter(names = { "-i", "--input"}, variableArity = true, splitter = BatchConverter.NoSplitter.class,
+            description = "Input file. Several files, directories or glob patterns switch to batch mode")
+    private List<String> inputFileNames = new ArrayList<>();
+
+    @Parameter(names = { "-o", "--output" }, required = true,
+            description = "Output file, or output directory in batch mode")
     private String outputFileName;
 
+    @Parameter(names = { "-m", "--manifest" },
+            description = "File listing inputs, one per line, optionally followed by a tab and the output")
+    private String manifestFileName;
+
+    @Parameter(names = { "-t", "--threads" }, description = "Number of files converted in parallel in batch mode")
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    @Parameter(names = { "--metrics" }, description = "JSON file where time and memory spent in each stage are written")
+    private String metricsFileName;
+
+    @Parameter(names = { "--cache" },
+            description = "Directory where outputs are cached, to skip the conversion of inputs already converted")
+    private String cacheDirName;
+
+    @Parameter(names = { "--cache-size" }, description = "Maximum size of the cache in MB")
+    private long cacheSizeMB = 1024;
+
+    @Parameter(names = { "-c", "--compact" }, description = "Write SBGN-ML without indentation")
+    private boolean compact = false;
+
+    @Parameter(names = { "--validation" }, description = "Validation of the output: ON, BACKGROUND or OFF")
+    private ModelValidator.Mode validation = ModelValidator.Mode.ON;
+
+    @Parameter(names = { "--binding" },
+            description = "How CellDesigner files are read: STAX, only what is converted, JAXB, the whole file, or LAZY, "
+                    + "only what is converted but keeping the rest as xml")
+    private CellDesignerStreamReader.Binding inputBinding = CellDesignerStreamReader.Binding.STAX;
+
+    @Parameter(names = { "--marshalling" },
+            description = "How SBGN-ML files are written: STREAM, as the map is converted, or JAXB, once built")
+    private SbgnStreamWriter.Marshalling outputMarshalling = SbgnStreamWriter.Marshalling.STREAM;
+
+    @Parameter(names = { "-w", "--watch" },
+            description = "Convert the input again each time it changes, only building again what changed")
+    private boolean watch = false;
+
     public static void main(String[] args) {
         Logger logger = LoggerFactory.getLogger(Cd2SbgnmlScript.class);
 
@@ -30,32 +90,400 @@ public class Cd2SbgnmlScript {
                 .build()
                 .parse(args);
 
-        convert(app.inputFileName, app.outputFileName);
+        if(app.inputFileNames.isEmpty() && app.manifestFileName == null) {
+            throw new ParameterException("An input or a manifest is required");
+        }
+
+        ConversionCache cache = null;
+        if(app.cacheDirName != null) {
+            try {
+                cache = new ConversionCache(Paths.get(app.cacheDirName), app.cacheSizeMB * 1024 * 1024);
+            } catch (IOException e) {
+                logger.error("Could not create cache directory "+app.cacheDirName, e);
+                System.exit(1);
+                return;
+            }
+        }
+
+        Options options = new Options()
+                .setBinding(app.inputBinding)
+                .setMarshalling(app.outputMarshalling)
+                .setCompact(app.compact)
+                .setValidation(app.validation)
+                .setCache(cache);
+
+        if(!BatchConverter.isBatch(app.inputFileNames, app.manifestFileName)) {
+            if(app.watch) {
+                watch(app.inputFileNames.get(0), app.outputFileName, options, app.metricsFileName);
+                return;
+            }
+            convert(app.inputFileNames.get(0), app.outputFileName, options, app.metricsFileName);
+            return;
+        }
+
+        List<BatchConverter.Job> jobs;
+        try {
+            jobs = BatchConverter.collectJobs(app.inputFileNames, app.manifestFileName, Paths.get(app.outputFileName),
+                    Collections.singletonList("xml"), "sbgn");
+        } catch (IOException e) {
+            logger.error("Could not list input files", e);
+            System.exit(1);
+            return;
+        }
+
+        List<BatchConverter.Result> results = new BatchConverter(app.threads).run(jobs,
+                (input, output, metrics) -> convert(input, output, options, metrics));
+        ModelValidator.awaitBackground();
+        if(app.metricsFileName != null) {
+            try {
+                BatchConverter.writeMetrics(results, Paths.get(app.metricsFileName));
+            } catch (IOException e) {
+                logger.error("Could not write metrics", e);
+            }
+        }
+        if(!BatchConverter.allConverted(results)) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * How a map is converted, read and written. Each conversion reads the options it is given, so conversions with
+     * different options can run at the same time.
+     */
+    public static class Options {
+        private CD2SBGNML converter = Cd2SbgnmlScript.converter;
+        private CellDesignerStreamReader.Binding binding = CellDesignerStreamReader.Binding.STAX;
+        private SbgnStreamWriter.Marshalling marshalling = SbgnStreamWriter.Marshalling.STREAM;
+        private boolean compact = false;
+        private ModelValidator.Mode validation = ModelValidator.Mode.ON;
+        private ConversionCache cache = null;
+
+        public Options() {
+        }
+
+        public Options(Options other) {
+            this.converter = other.converter;
+            this.binding = other.binding;
+            this.marshalling = other.marshalling;
+            this.compact = other.compact;
+            this.validation = other.validation;
+            this.cache = other.cache;
+        }
+
+        /**
+         * @param converter may be used by other threads at the same time, by default the one shared by the JVM
+         */
+        public Options setConverter(CD2SBGNML converter) {
+            this.converter = converter;
+            return this;
+        }
+
+        /**
+         * @param binding how the CellDesigner file is read, STAX by default
+         */
+        public Options setBinding(CellDesignerStreamReader.Binding binding) {
+            this.binding = binding;
+            return this;
+        }
+
+        /**
+         * @param marshalling how the SBGN-ML file is written, STREAM by default
+         */
+        public Options setMarshalling(SbgnStreamWriter.Marshalling marshalling) {
+            this.marshalling = marshalling;
+            return this;
+        }
+
+        /**
+         * @param compact true for output without indentation
+         */
+        public Options setCompact(boolean compact) {
+            this.compact = compact;
+            return this;
+        }
+
+        /**
+         * @param validation how the output is validated, ON by default
+         */
+        public Options setValidation(ModelValidator.Mode validation) {
+            this.validation = validation;
+            return this;
+        }
+
+        /**
+         * @param cache if not null, used to skip the conversion of an input already converted
+         */
+        public Options setCache(ConversionCache cache) {
+            this.cache = cache;
+            return this;
+        }
+
+        public CD2SBGNML getConverter() {
+            return converter;
+        }
+
+        public CellDesignerStreamReader.Binding getBinding() {
+            return binding;
+        }
+
+        public SbgnStreamWriter.Marshalling getMarshalling() {
+            return marshalling;
+        }
+
+        public boolean isCompact() {
+            return compact;
+        }
+
+        public ModelValidator.Mode getValidation() {
+            return validation;
+        }
+
+        public ConversionCache getCache() {
+            return cache;
+        }
+
+        /**
+         * @return true if maps are built before being written, false if they are streamed
+         */
+        private boolean isBuilt() {
+            return marshalling == SbgnStreamWriter.Marshalling.JAXB;
+        }
     }
 
     public static void convert(String inputFileName, String outputFileName) {
-        CD2SBGNML toSBGNConverter = new CD2SBGNML();
+        convert(inputFileName, outputFileName, new Options(), null);
+    }
+
+    /**
+     * @param metricsFileName if not null, time and memory spent in each stage are logged and written there as JSON
+     */
+    private static void convert(String inputFileName, String outputFileName, Options options,
+                                String metricsFileName) {
+        ConversionMetrics metrics = new ConversionMetrics();
+        try {
+            convert(Paths.get(inputFileName), Paths.get(outputFileName), options, metrics);
+        } catch (ConversionException | ReadModelException | WriteModelException | IOException e) {
+            e.printStackTrace();
+            return;
+        }
+        ModelValidator.awaitBackground();
+
+        if(metricsFileName != null) {
+            writeMetrics(metrics, metricsFileName);
+        }
+    }
+
+    /**
+     * Convert the input, and again each time it is modified, until the process is stopped. The same incremental
+     * converter is used, so that only the species and reactions that changed, and their neighbours, are built again.
+     * The converter and cache of the options are not used.
+     * @param metricsFileName if not null, time and memory spent in each stage are logged and written there as JSON
+     */
+    public static void watch(String inputFileName, String outputFileName, Options options, String metricsFileName) {
+        Logger logger = LoggerFactory.getLogger(Cd2SbgnmlScript.class);
+        CD2SBGNML converter = new CD2SBGNML();
+        converter.setIncremental(true);
+        Options watchOptions = new Options(options).setConverter(converter).setCache(null);
+        Path inputFile = Paths.get(inputFileName);
+        FileTime lastConverted = null;
+
+        while(!Thread.currentThread().isInterrupted()) {
+            try {
+                FileTime lastModified = Files.getLastModifiedTime(inputFile);
+                if(!lastModified.equals(lastConverted)) {
+                    lastConverted = lastModified;
+                    ConversionMetrics metrics = new ConversionMetrics();
+                    convert(inputFile, Paths.get(outputFileName), watchOptions, metrics);
+                    if(metricsFileName != null) {
+                        writeMetrics(metrics, metricsFileName);
+                    }
+                    logger.info("Waiting for changes of "+inputFileName);
+                }
+                Thread.sleep(WATCH_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ConversionException | ReadModelException | WriteModelException | IOException e) {
+                // the file may be read while being saved, it will be converted at its next modification
+                logger.error("Conversion of "+inputFileName+" failed", e);
+            }
+        }
+    }
+
+    private static void writeMetrics(ConversionMetrics metrics, String metricsFileName) {
+        Logger logger = LoggerFactory.getLogger(Cd2SbgnmlScript.class);
+        metrics.log(logger);
+        try {
+            metrics.writeJson(Paths.get(metricsFileName));
+        } catch (IOException e) {
+            logger.error("Could not write metrics", e);
+        }
+    }
+
+    /**
+     * Convert and validate a single map, or take its output from the cache if the same input was already converted
+     * with the same options. Only valid outputs are cached, so cached outputs are not validated again.
+     *
+     * Validation is done while writing, in the background or not at all. Outputs that were not validated in the
+     * calling thread are NOT_VALIDATED, in the background they are cached once found valid. Streamed maps are never
+     * built, so they are validated while they are written in the background mode too.
+     * @param inputFile CellDesigner file
+     * @param outputFile SBGN-ML file
+     * @param metrics filled with the read, conversion, write and cache stages
+     * @return OK, INVALID or NOT_VALIDATED
+     */
+    public static BatchConverter.Status convert(Path inputFile, Path outputFile, Options options,
+                                                ConversionMetrics metrics)
+            throws ReadModelException, ConversionException, WriteModelException, IOException {
+        ConversionCache cache = options.getCache();
+        String key = null;
+        if(cache != null) {
+            ConversionMetrics.Timer timer = metrics.start("cache");
+            try {
+                key = cache.key(inputFile, "cd2sbgnml", "compact="+options.isCompact());
+                if(cache.restore(key, outputFile)) {
+                    metrics.count("cacheHits", 1);
+                    return BatchConverter.Status.OK;
+                }
+            } finally {
+                timer.stop();
+            }
+            metrics.count("cacheHits", 0);
+        }
 
+        String cacheKey = key;
+        if(options.getValidation() == ModelValidator.Mode.OFF) {
+            convertFile(inputFile, outputFile, options, metrics, null);
+            return BatchConverter.Status.NOT_VALIDATED;
+        }
+        if(options.getValidation() == ModelValidator.Mode.BACKGROUND && options.isBuilt()) {
+            Sbgn sbgn = convertFile(inputFile, outputFile, options, metrics, null);
+            ModelValidator.runInBackground(() -> validateAndStore(sbgn, outputFile, metrics, cache, cacheKey));
+            return BatchConverter.Status.NOT_VALIDATED;
+        }
+        boolean valid = convertAndValidateFile(inputFile, outputFile, options, metrics);
+        if(valid) {
+            store(outputFile, metrics, cache, cacheKey);
+        }
+        return valid ? BatchConverter.Status.OK : BatchConverter.Status.INVALID;
+    }
+
+    /**
+     * Read, convert and write a single map.
+     * @param schema null to write without validating, else the map is validated while it is written, whether it is
+     *               streamed or built
+     * @return the map written, null if it was streamed to the output without being built
+     */
+    private static Sbgn convertFile(Path inputFile, Path outputFile, Options options, ConversionMetrics metrics,
+                                    Schema schema)
+            throws ReadModelException, ConversionException, WriteModelException {
 
         CellDesignerSBFCModel cdModel = new CellDesignerSBFCModel();
+        ConversionMetrics.Timer timer = metrics.start("read");
+        cdModel.setModelFromFile(inputFile.toString(), options.getBinding());
+        timer.stop();
+
+        SbgnStreamWriter writer = new SbgnStreamWriter().setFormatted(!options.isCompact()).setSchema(schema);
+        if(!options.isBuilt()) {
+            // glyphs and arcs are written during the conversion, only closing the file is left
+            SbgnStreamEmitter emitter = writer.open(outputFile);
+            try {
+                options.getConverter().toSbgn(cdModel.getSbml(), emitter, metrics);
+            } finally {
+                timer = metrics.start("write");
+                emitter.close();
+                timer.stop();
+            }
+            return null;
+        }
+
+        SBGNSBFCModel sbgnModel = new SBGNSBFCModel(options.getConverter().toSbgn(cdModel.getSbml(), metrics));
+
+        timer = metrics.start("write");
+        sbgnModel.modelToFile(outputFile.toString(), writer);
+        timer.stop();
+        return sbgnModel.getModel();
+    }
+
+    /**
+     * Convert a single map, validated as it is written and not parsed again.
+     * @return true if the output is valid, problems are logged
+     */
+    private static boolean convertAndValidateFile(Path inputFile, Path outputFile, Options options,
+                                                  ConversionMetrics metrics)
+            throws ReadModelException, ConversionException, WriteModelException {
+        ModelValidator.EventCollector collector = new ModelValidator.EventCollector();
         try {
-            cdModel.setModelFromFile(inputFileName);
-        } catch (ReadModelException e) {
-            e.printStackTrace();
+            convertFile(inputFile, outputFile, options, metrics, SchemaRegistry.SBGN.getSchema(collector));
+        } catch (SAXException e) {
+            throw new WriteModelException("Could not compile the SBGN-ML schema", e);
         }
+        List<ValidationEvent> events = collector.getEvents();
+        ModelValidator.log(LoggerFactory.getLogger(Cd2SbgnmlScript.class), "SBGN-ML output "+outputFile, events);
+        return ModelValidator.isValid(events);
+    }
+
+    /**
+     * Validate the map written to the output, and cache the output if it is valid.
+     * @param cache may be null
+     */
+    private static boolean validateAndStore(Sbgn sbgn, Path outputFile, ConversionMetrics metrics,
+                                            ConversionCache cache, String key) {
+        ConversionMetrics.Timer timer = metrics.start("validate");
+        boolean valid = validate(sbgn, outputFile.toString());
+        timer.stop();
+        if(valid) {
+            store(outputFile, metrics, cache, key);
+        }
+        return valid;
+    }
+
+    /**
+     * Cache a valid output.
+     * @param cache may be null
+     */
+    private static void store(Path outputFile, ConversionMetrics metrics, ConversionCache cache, String key) {
+        if(cache != null) {
+            ConversionMetrics.Timer timer = metrics.start("cache");
+            try {
+                cache.store(key, outputFile);
+            } catch (IOException e) {
+                LoggerFactory.getLogger(Cd2SbgnmlScript.class).error("Could not cache "+outputFile, e);
+            }
+            timer.stop();
+        }
+    }
 
+    /**
+     * Validate a map in memory, without reading back the file it was written to.
+     * @param sbgn a map that was built, streamed maps are validated while they are written
+     * @param outputFileName where the map was written, for messages
+     * @return true if the map is valid, problems are logged
+     */
+    public static boolean validate(Sbgn sbgn, String outputFileName) {
+        Logger logger = LoggerFactory.getLogger(Cd2SbgnmlScript.class);
         try {
-            SBGNSBFCModel sbgnModel = (SBGNSBFCModel) toSBGNConverter.convert(cdModel);
-            sbgnModel.modelToFile(outputFileName);
-        } catch (ConversionException | ReadModelException | WriteModelException e) {
-            e.printStackTrace();
+            List<ValidationEvent> events = ModelValidator.validate(SchemaRegistry.SBGN, sbgn);
+            ModelValidator.log(logger, "SBGN-ML output "+outputFileName, events);
+            return ModelValidator.isValid(events);
+        } catch (JAXBException e) {
+            logger.error("Could not validate "+outputFileName, e);
+            return false;
         }
+    }
 
-        // VALIDATION
+    /**
+     * @param outputFileName SBGN-ML file
+     * @return true if the file is valid, problems are logged
+     */
+    public static boolean validate(String outputFileName) {
+        Logger logger = LoggerFactory.getLogger(Cd2SbgnmlScript.class);
         try {
-            SbgnUtil.isValid(new File(outputFileName));
-        } catch (JAXBException | SAXException | IOException e) {
-            e.printStackTrace();
+            List<ValidationEvent> events = ModelValidator.validate(SchemaRegistry.SBGN, Paths.get(outputFileName));
+            ModelValidator.log(logger, "SBGN-ML output "+outputFileName, events);
+            return ModelValidator.isValid(events);
+        } catch (IOException e) {
+            logger.error("Could not validate "+outputFileName, e);
+            return false;
         }
     }
 }
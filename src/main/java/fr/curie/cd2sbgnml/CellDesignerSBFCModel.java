@@ -1,30 +1,23 @@
 package fr.curie.cd2sbgnml;
 
-import fr.curie.cd2sbgnml.xmlcdwrappers.Utils;
+import fr.curie.cd2sbgnml.io.CellDesignerStreamReader;
+import fr.curie.cd2sbgnml.io.JaxbContextRegistry;
+import fr.curie.cd2sbgnml.io.SchemaRegistry;
 import org.sbfc.converter.exceptions.ReadModelException;
 import org.sbfc.converter.exceptions.WriteModelException;
 import org.sbfc.converter.models.GeneralModel;
 import org.sbml.sbml.level2.version4.Sbml;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.xml.sax.ErrorHandler;
 
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
-import javax.xml.bind.Unmarshaller;
+import javax.xml.validation.Schema;
 import java.io.File;
-import java.io.IOException;
 import java.io.StringReader;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class CellDesignerSBFCModel implements GeneralModel {
 
-    private final Logger logger = LoggerFactory.getLogger(CellDesignerSBFCModel.class);
-
     private Sbml sbml;
 
     public CellDesignerSBFCModel() {
@@ -43,63 +36,46 @@ public class CellDesignerSBFCModel implements GeneralModel {
         return this.sbml;
     }
 
+    /**
+     * Streams the file directly into JAXB, see {@link CellDesignerStreamReader} for the fixes applied on the way.
+     * @param s path of the CellDesigner file
+     * @throws ReadModelException
+     */
     public void setModelFromFile(String s) throws ReadModelException {
-        byte[] encoded = new byte[0];
-        try {
-            encoded = Files.readAllBytes(Paths.get(s));
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-        String sbmlString = new String(encoded, StandardCharsets.UTF_8);
-        this.setModelFromString(sbmlString);
+        this.sbml = CellDesignerStreamReader.read(Paths.get(s));
     }
 
-    public void setModelFromString(String s) throws ReadModelException {
-        /*
-            ACSN and other maps don't have proper namespace: xmlns="http://www.sbml.org/sbml/level2"
-            we need to put a level here.
-         */
-        Pattern p = Pattern.compile("xmlns=\"http://www\\.sbml\\.org/sbml/level2\"");
-        Matcher m = p.matcher(s);
-        if(m.find()) {
-            logger.warn("Namespace definition was messed up, it has been set to: " +
-                    "xmlns=\"http://www.sbml.org/sbml/level2/version4\"");
-            s = s.replaceFirst("xmlns=\"http://www\\.sbml\\.org/sbml/level2\"",
-                    "xmlns=\"http://www.sbml.org/sbml/level2/version4\"");
-        }
-
-        /*
-            ACSN and other maps have their <celldesigner:extension> element removed, everywhere.
-         */
-        // if one extension is present, then consider the rest valid. If none, we need to add them.
-        Pattern p2 = Pattern.compile("<annotation>[\\n\\s]*<celldesigner:extension>");
-        Matcher m2 = p2.matcher(s);
-        if(!m2.find()) {
-            logger.warn("<celldesigner:extension> elements are missing, they were added automatically.");
-            s = s.replaceAll("<annotation>", "<annotation><celldesigner:extension>");
-            s = s.replaceAll("</annotation>", "</celldesigner:extension></annotation>");
-        }
-
-        try {
-            JAXBContext jaxbContext = JAXBContext.newInstance(Sbml.class);
-            Unmarshaller jaxbUnmarshaller = jaxbContext.createUnmarshaller();
-            this.sbml = (Sbml) jaxbUnmarshaller.unmarshal(new StringReader(s));
-
-        } catch (JAXBException e) {
-            e.printStackTrace();
-            throw new ReadModelException(e.getCause());
-        }
+    /**
+     * @param s path of the CellDesigner file
+     * @param binding {@link CellDesignerStreamReader.Binding#STAX} to only read what the translation to SBGN-ML uses,
+     *                {@link CellDesignerStreamReader.Binding#LAZY} to also keep the rest so that the model can be written back
+     * @throws ReadModelException
+     */
+    public void setModelFromFile(String s, CellDesignerStreamReader.Binding binding) throws ReadModelException {
+        this.sbml = CellDesignerStreamReader.read(Paths.get(s), binding);
+    }
 
+    public void setModelFromString(String s) throws ReadModelException {
+        this.sbml = CellDesignerStreamReader.read(new StringReader(s));
     }
 
     public void modelToFile(String s) throws WriteModelException {
+        modelToFile(s, null);
+    }
+
+    /**
+     * Write the map and validate it in the same pass, the marshaller checking what it writes against the schema.
+     * @param s path of the CellDesigner file
+     * @param schema null to write without validating, see {@link SchemaRegistry#getSchema(ErrorHandler)} to get all
+     *               the problems instead of failing at the first one
+     * @throws WriteModelException
+     */
+    public void modelToFile(String s, Schema schema) throws WriteModelException {
         File file = new File(s);
         Marshaller marshaller = null;
         try {
-            marshaller = JAXBContext.newInstance(Sbml.class).createMarshaller();
-            marshaller.setProperty(Marshaller.JAXB_ENCODING, "UTF-8");
-            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
-            marshaller.setProperty("com.sun.xml.bind.namespacePrefixMapper", new Utils.DefaultNamespacePrefixMapper());
+            marshaller = JaxbContextRegistry.CELLDESIGNER.getMarshaller();
+            marshaller.setSchema(schema);
             marshaller.marshal(this.sbml, file);
         } catch (JAXBException e) {
             throw new WriteModelException(e.getCause());
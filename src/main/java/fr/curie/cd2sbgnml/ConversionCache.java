@@ -0,0 +1,220 @@
+package fr.curie.cd2sbgnml;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.CodeSource;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * On disk cache of conversion outputs, so that maps that didn't change aren't converted again.
+ *
+ * Outputs are stored gzipped, under a key made from the hash of the input bytes, the version of the converter and
+ * the options of the conversion. This relies on conversions giving the same output for the same input, which is
+ * the case with the default sequential ids of CD2SBGNML.
+ *
+ * When the cache grows over its maximum size, least recently used entries are removed. Use is tracked through the
+ * modification time of the entries, so a cache directory can be shared by several threads and processes.
+ */
+public class ConversionCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConversionCache.class);
+
+    private static final String EXTENSION = ".gz";
+
+    private static volatile String converterVersion;
+
+    private final Path directory;
+    private final long maxBytes;
+
+    /**
+     * @param directory where entries are stored, created if needed
+     * @param maxBytes size above which least recently used entries are removed
+     * @throws IOException if the directory can't be created
+     */
+    public ConversionCache(Path directory, long maxBytes) throws IOException {
+        if(maxBytes < 0) {
+            throw new IllegalArgumentException("Cache size must be positive, got "+maxBytes);
+        }
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        Files.createDirectories(directory);
+    }
+
+    /**
+     * @param input file to convert
+     * @param options anything changing the output of the conversion, like its direction and output format
+     * @return hex SHA-256 of the input, converter version and options
+     */
+    public String key(Path input, String... options) throws IOException {
+        MessageDigest digest = sha256();
+        try (InputStream in = new DigestInputStream(Files.newInputStream(input), digest)) {
+            byte[] buffer = new byte[64 * 1024];
+            while(in.read(buffer) != -1) {
+                // digest is updated while reading
+            }
+        }
+        digest.update(getConverterVersion().getBytes(StandardCharsets.UTF_8));
+        for(String option: options) {
+            // separator, so that options can't be confused when concatenated
+            digest.update((byte) 0);
+            digest.update(option.getBytes(StandardCharsets.UTF_8));
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for(byte b: digest.digest()) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Write the cached output of a conversion, if present.
+     * @return true if the output was found in the cache and written
+     */
+    public boolean restore(String key, Path output) throws IOException {
+        Path entry = entryPath(key);
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(entry), 64 * 1024)) {
+            Files.copy(in, output, StandardCopyOption.REPLACE_EXISTING);
+        } catch (NoSuchFileException e) {
+            return false;
+        } catch (IOException e) {
+            // a corrupted entry is just a miss, it will be replaced
+            logger.warn("Could not read cache entry "+entry+", converting again", e);
+            Files.deleteIfExists(entry);
+            return false;
+        }
+
+        try {
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (NoSuchFileException e) {
+            // evicted meanwhile, output was written anyway
+        }
+        logger.debug("Output of "+key+" found in cache");
+        return true;
+    }
+
+    /**
+     * Add the output of a conversion to the cache, and evict old entries if needed.
+     */
+    public void store(String key, Path output) throws IOException {
+        // written aside first, so that other threads and processes never see partial entries
+        Path temp = Files.createTempFile(directory, key, ".tmp");
+        try {
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp), 64 * 1024)) {
+                Files.copy(output, out);
+            }
+            Files.move(temp, entryPath(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        evict();
+    }
+
+    /**
+     * Remove least recently used entries until the cache fits in its maximum size.
+     */
+    void evict() throws IOException {
+        List<Path> entries;
+        try (Stream<Path> paths = Files.list(directory)) {
+            entries = paths
+                    .filter(p -> p.getFileName().toString().endsWith(EXTENSION))
+                    .collect(Collectors.toList());
+        }
+
+        List<Entry> sortedEntries = new ArrayList<>();
+        long totalBytes = 0;
+        for(Path p: entries) {
+            try {
+                Entry entry = new Entry(p, Files.size(p), Files.getLastModifiedTime(p).toMillis());
+                sortedEntries.add(entry);
+                totalBytes += entry.bytes;
+            } catch (NoSuchFileException e) {
+                // removed by someone else
+            }
+        }
+        if(totalBytes <= maxBytes) {
+            return;
+        }
+
+        sortedEntries.sort(Comparator.comparingLong(e -> e.lastUsed));
+        for(Entry entry: sortedEntries) {
+            if(totalBytes <= maxBytes) {
+                break;
+            }
+            Files.deleteIfExists(entry.path);
+            totalBytes -= entry.bytes;
+            logger.debug("Evicted "+entry.path.getFileName()+" from cache");
+        }
+    }
+
+    private Path entryPath(String key) {
+        return directory.resolve(key + EXTENSION);
+    }
+
+    private static class Entry {
+        private final Path path;
+        private final long bytes;
+        private final long lastUsed;
+
+        Entry(Path path, long bytes, long lastUsed) {
+            this.path = path;
+            this.bytes = bytes;
+            this.lastUsed = lastUsed;
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // every java platform has to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return the version of the package, and the last modification of its jar or classes. Version alone isn't
+     * enough when running from classes being developed.
+     */
+    static String getConverterVersion() {
+        if(converterVersion == null) {
+            String version = ConversionCache.class.getPackage().getImplementationVersion();
+            long lastModified = 0;
+            CodeSource codeSource = ConversionCache.class.getProtectionDomain().getCodeSource();
+            try {
+                Path path = Paths.get(codeSource.getLocation().toURI());
+                if(Files.isDirectory(path)) {
+                    try (Stream<Path> paths = Files.walk(path)) {
+                        for(Path p: paths.filter(Files::isRegularFile).collect(Collectors.toList())) {
+                            lastModified = Math.max(lastModified, Files.getLastModifiedTime(p).toMillis());
+                        }
+                    }
+                }
+                else {
+                    lastModified = Files.getLastModifiedTime(path).toMillis();
+                }
+            } catch (IOException | URISyntaxException | RuntimeException e) {
+                logger.warn("Could not find the converter's location, cache entries only depend on its version");
+            }
+            converterVersion = version + "/" + lastModified;
+        }
+        return converterVersion;
+    }
+}
@@ -0,0 +1,87 @@
+package fr.curie.cd2sbgnml;
+
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * State of a single conversion: indexes of what was read and of what was already built, and the measures of the
+ * conversion. Converters keep none of it between calls, each conversion getting its own context, so one converter
+ * can run many conversions at the same time.
+ *
+ * Contexts are meant to be reused through a {@link Pool}. Clearing a context empties its collections but keeps their
+ * capacity, so that the next conversion of a map of the same size doesn't grow them again.
+ */
+public abstract class ConversionContext {
+
+    /**
+     * Measures of the current conversion, given by the caller
+     */
+    ConversionMetrics metrics;
+
+    /**
+     * Forget everything about the current conversion, keeping the capacity of the collections.
+     */
+    protected abstract void clearState();
+
+    public final void clear() {
+        clearState();
+        metrics = null;
+    }
+
+    /**
+     * Contexts waiting for a conversion. Contexts are created when none is waiting, so there are never more than the
+     * number of conversions running at the same time. When they are given back, only a few of them are kept.
+     */
+    public static class Pool<C extends ConversionContext> {
+        private final Supplier<C> factory;
+        private final int maxIdle;
+
+        /**
+         * the last context given back is taken first, its collections are the most likely to be in cache
+         */
+        private final ConcurrentLinkedDeque<C> idle = new ConcurrentLinkedDeque<>();
+        private final AtomicInteger idleCount = new AtomicInteger();
+
+        /**
+         * Keeps as many contexts as available processors.
+         */
+        public Pool(Supplier<C> factory) {
+            this(factory, Runtime.getRuntime().availableProcessors());
+        }
+
+        /**
+         * @param maxIdle number of contexts kept when they are given back, others are left to the garbage collector
+         */
+        public Pool(Supplier<C> factory, int maxIdle) {
+            this.factory = factory;
+            this.maxIdle = maxIdle;
+        }
+
+        /**
+         * @return an empty context, to be given back with {@link #release} once the conversion is done
+         */
+        public C acquire() {
+            C context = idle.pollFirst();
+            if(context == null) {
+                return factory.get();
+            }
+            idleCount.decrementAndGet();
+            return context;
+        }
+
+        /**
+         * Clear the context and keep it for the next conversion. It must not be used anymore by the caller.
+         */
+        public void release(C context) {
+            // cleared right away, so that the converted map can be garbage collected
+            context.clear();
+            if(idleCount.incrementAndGet() <= maxIdle) {
+                idle.offerFirst(context);
+            }
+            else {
+                idleCount.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package fr.curie.cd2sbgnml;
+
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Time and memory spent in each stage of a conversion, and number of elements processed.
+ *
+ * For each stage, wall time, CPU time and allocated bytes of the thread running it are recorded. CPU time and
+ * allocation are -1 when the JVM doesn't provide them. Work done by other threads for a stage is not included:
+ * stages that ran on several threads are flagged as parallel, their CPU time and allocation are only the share of
+ * the calling thread, not totals.
+ *
+ * Converters fill one of these for each conversion, available through their getMetrics() method after the
+ * conversion. It can be exported as JSON.
+ */
+public class ConversionMetrics {
+
+    private static final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    private static final boolean cpuTimeSupported = threadBean.isCurrentThreadCpuTimeSupported();
+    private static final boolean allocationSupported = threadBean instanceof com.sun.management.ThreadMXBean
+            && ((com.sun.management.ThreadMXBean) threadBean).isThreadAllocatedMemorySupported();
+
+    public static class Stage {
+        private final String name;
+        private final long wallNanos;
+        private final long cpuNanos;
+        private final long allocatedBytes;
+        private final boolean parallel;
+
+        Stage(String name, long wallNanos, long cpuNanos, long allocatedBytes, boolean parallel) {
+            this.name = name;
+            this.wallNanos = wallNanos;
+            this.cpuNanos = cpuNanos;
+            this.allocatedBytes = allocatedBytes;
+            this.parallel = parallel;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getWallNanos() {
+            return wallNanos;
+        }
+
+        /**
+         * @return CPU time of the thread, or -1 if not available
+         */
+        public long getCpuNanos() {
+            return cpuNanos;
+        }
+
+        /**
+         * @return bytes allocated by the thread, or -1 if not available
+         */
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+
+        /**
+         * @return true if other threads worked for the stage, which CPU time and allocation don't include
+         */
+        public boolean isParallel() {
+            return parallel;
+        }
+    }
+
+    /**
+     * Measure of a stage in progress, recorded when stopped.
+     * Can be used in try-with-resources, or stopped explicitly.
+     */
+    public class Timer implements AutoCloseable {
+        private final String name;
+        private final long wallStart;
+        private final long cpuStart;
+        private final long allocationStart;
+        private boolean parallel = false;
+        private boolean stopped = false;
+
+        private Timer(String name) {
+            this.name = name;
+            this.allocationStart = allocatedBytes();
+            this.cpuStart = cpuTime();
+            this.wallStart = System.nanoTime();
+        }
+
+        public void stop() {
+            if(stopped) {
+                return;
+            }
+            stopped = true;
+            long wall = System.nanoTime() - wallStart;
+            long cpu = cpuStart == -1 ? -1 : cpuTime() - cpuStart;
+            long allocated = allocationStart == -1 ? -1 : allocatedBytes() - allocationStart;
+            addStage(new Stage(name, wall, cpu, allocated, parallel));
+        }
+
+        /**
+         * @param parallel true if the stage ran on other threads too, to be called before stop
+         */
+        public void setParallel(boolean parallel) {
+            this.parallel = parallel;
+        }
+
+        @Override
+        public void close() {
+            stop();
+        }
+    }
+
+    private final List<Stage> stages = new ArrayList<>();
+    private final Map<String, Long> counts = new LinkedHashMap<>();
+
+    /**
+     * @param stage name of the stage, stages with the same name are kept separately
+     * @return the timer to stop at the end of the stage, on the same thread
+     */
+    public Timer start(String stage) {
+        return new Timer(stage);
+    }
+
+    /**
+     * @param name name of the counted elements, a previous count with the same name is replaced
+     */
+    public synchronized void count(String name, long value) {
+        counts.put(name, value);
+    }
+
+    public void count(String name, Collection<?> elements) {
+        count(name, elements.size());
+    }
+
+    private synchronized void addStage(Stage stage) {
+        stages.add(stage);
+    }
+
+    /**
+     * Append the stages and counts of another conversion step, typically the metrics of a converter.
+     */
+    public synchronized void addAll(ConversionMetrics other) {
+        synchronized (other) {
+            stages.addAll(other.stages);
+            counts.putAll(other.counts);
+        }
+    }
+
+    public synchronized List<Stage> getStages() {
+        return Collections.unmodifiableList(new ArrayList<>(stages));
+    }
+
+    public synchronized Map<String, Long> getCounts() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(counts));
+    }
+
+    private static long cpuTime() {
+        return cpuTimeSupported ? threadBean.getCurrentThreadCpuTime() : -1;
+    }
+
+    private static long allocatedBytes() {
+        if(!allocationSupported) {
+            return -1;
+        }
+        return ((com.sun.management.ThreadMXBean) threadBean).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Log one line per stage, and the counts. Parallel stages are flagged.
+     */
+    public void log(Logger logger) {
+        for(Stage stage: getStages()) {
+            logger.info(String.format("%-14s wall %8.1f ms  cpu %8.1f ms  alloc %10.1f MB%s",
+                    stage.getName(),
+                    stage.getWallNanos() / 1e6,
+                    stage.getCpuNanos() / 1e6,
+                    stage.getAllocatedBytes() / (1024.0 * 1024),
+                    stage.isParallel() ? "  (parallel, calling thread only)" : ""));
+        }
+        logger.info("Counts: "+getCounts());
+    }
+
+    /**
+     * @return {"stages": [{"name": ..., "wallNanos": ..., "cpuNanos": ..., "allocatedBytes": ..., "parallel": ...},
+     * ...], "counts": {name: value, ...}}, cpuNanos and allocatedBytes of a parallel stage being those of the calling
+     * thread only
+     */
+    public String toJson() {
+        StringBuilder sb = new StringBuilder();
+        appendJson(sb, "");
+        return sb.toString();
+    }
+
+    void appendJson(StringBuilder sb, String indent) {
+        sb.append("{\n").append(indent).append("  \"stages\": [");
+        List<Stage> stageList = getStages();
+        for(int i=0; i < stageList.size(); i++) {
+            Stage stage = stageList.get(i);
+            sb.append(i == 0 ? "\n" : ",\n").append(indent).append("    {")
+                    .append("\"name\": ").append(jsonString(stage.getName()))
+                    .append(", \"wallNanos\": ").append(stage.getWallNanos())
+                    .append(", \"cpuNanos\": ").append(stage.getCpuNanos())
+                    .append(", \"allocatedBytes\": ").append(stage.getAllocatedBytes())
+                    .append(", \"parallel\": ").append(stage.isParallel())
+                    .append("}");
+        }
+        sb.append(stageList.isEmpty() ? "" : "\n" + indent + "  ").append("],\n");
+
+        sb.append(indent).append("  \"counts\": {");
+        boolean first = true;
+        for(Map.Entry<String, Long> entry: getCounts().entrySet()) {
+            sb.append(first ? "\n" : ",\n").append(indent).append("    ")
+                    .append(jsonString(entry.getKey())).append(": ").append(entry.getValue());
+            first = false;
+        }
+        sb.append(first ? "" : "\n" + indent + "  ").append("}\n").append(indent).append("}");
+    }
+
+    public void writeJson(Path file) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(toJson());
+            writer.write("\n");
+        }
+    }
+
+    /**
+     * Write the metrics of several conversions in one JSON array.
+     * @param metricsByInput metrics of each converted file, by input file name
+     */
+    public static void writeJson(Map<String, ConversionMetrics> metricsByInput, Path file) throws IOException {
+        StringBuilder sb = new StringBuilder("[");
+        boolean first = true;
+        for(Map.Entry<String, ConversionMetrics> entry: metricsByInput.entrySet()) {
+            sb.append(first ? "\n" : ",\n").append("  {\"input\": ").append(jsonString(entry.getKey()))
+                    .append(", \"metrics\": ");
+            entry.getValue().appendJson(sb, "  ");
+            sb.append("}");
+            first = false;
+        }
+        sb.append("\n]\n");
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(sb.toString());
+        }
+    }
+
+    static String jsonString(String s) {
+        StringBuilder sb = new StringBuilder("\"");
+        for(char c: s.toCharArray()) {
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if(c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    }
+                    else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
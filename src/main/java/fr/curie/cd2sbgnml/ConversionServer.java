@@ -0,0 +1,361 @@
+package fr.curie.cd2sbgnml;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.Parameter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import fr.curie.cd2sbgnml.io.JaxbContextRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.bind.JAXBException;
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.*;
+
+/**
+ * Long running converter, so that JVM startup, JAXB contexts and caches are paid only once for many conversions.
+ *
+ * Requests are served either:
+ *  - over HTTP on localhost: POST the input document to /cd2sbgnml (optionally with ?compact=true) or /sbgnml2cd,
+ *  the converted document is sent back. The X-Conversion-Status header tells if it is OK or INVALID, failures are
+ *  answered with status 500 and the error message. GET /health answers OK once the server is warm.
+ *  - on stdin, one request per line: direction, input file and output file separated by tabs, like
+ *  "cd2sbgnml\tin.xml\tout.sbgn". One line is written on stdout for each request as it completes: status, time in
+ *  ms, input and output separated by tabs, and the error message for failures.
+ *
+ * Conversions run in a pool of worker threads. At most threads + queue size requests are accepted at the same time.
+ * Over that, HTTP requests are refused with status 503 and a Retry-After header, and stdin stops being read until
+ * a request completes.
+ */
+public class ConversionServer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConversionServer.class);
+
+    public enum Direction {
+        CD2SBGNML("cd2sbgnml", ".xml", ".sbgn"),
+        SBGNML2CD("sbgnml2cd", ".sbgn", ".xml");
+
+        private final String name;
+        private final String inputExtension;
+        private final String outputExtension;
+
+        Direction(String name, String inputExtension, String outputExtension) {
+            this.name = name;
+            this.inputExtension = inputExtension;
+            this.outputExtension = outputExtension;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return the direction with this name, case insensitive, or null
+         */
+        public static Direction fromName(String name) {
+            for(Direction direction: values()) {
+                if(direction.name.equalsIgnoreCase(name)) {
+                    return direction;
+                }
+            }
+            return null;
+        }
+    }
+
+    @Parameter(names = { "-p", "--port" }, description = "Port of the HTTP server on localhost")
+    private int port = 8080;
+
+    @Parameter(names = { "--stdin" }, description = "Read requests from stdin instead of HTTP")
+    private boolean stdin = false;
+
+    @Parameter(names = { "-t", "--threads" }, description = "Number of conversions running at the same time")
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    @Parameter(names = { "-q", "--queue" }, description = "Number of requests waiting for a thread before refusing")
+    private int queueSize = 64;
+
+    @Parameter(names = { "--cache" },
+            description = "Directory where outputs are cached, to skip the conversion of inputs already converted")
+    private String cacheDirName;
+
+    @Parameter(names = { "--cache-size" }, description = "Maximum size of the cache in MB")
+    private long cacheSizeMB = 1024;
+
+    private ExecutorService workers;
+    private Semaphore admissions;
+    private ConversionCache cache;
+
+    public static void main(String[] args) throws IOException {
+        ConversionServer server = new ConversionServer();
+        JCommander.newBuilder()
+                .addObject(server)
+                .build()
+                .parse(args);
+
+        PrintStream responses = System.out;
+        if(server.stdin) {
+            // logs are written to System.out, they must not be mixed with responses
+            System.setOut(System.err);
+        }
+
+        server.start();
+        if(server.stdin) {
+            server.serveStream(System.in, responses);
+            server.stop();
+        }
+        else {
+            server.serveHttp(new InetSocketAddress(InetAddress.getLoopbackAddress(), server.port));
+        }
+    }
+
+    public ConversionServer() {
+    }
+
+    /**
+     * @param threads number of conversions running at the same time
+     * @param queueSize number of requests waiting for a thread before refusing more
+     * @param cache may be null
+     */
+    public ConversionServer(int threads, int queueSize, ConversionCache cache) {
+        this.threads = threads;
+        this.queueSize = queueSize;
+        this.cache = cache;
+    }
+
+    /**
+     * Create the worker pool, and build what is costly to build during the first conversion.
+     */
+    public void start() throws IOException {
+        if(threads < 1) {
+            throw new IllegalArgumentException("At least 1 thread is needed, got "+threads);
+        }
+        if(queueSize < 0) {
+            throw new IllegalArgumentException("Queue size must be positive, got "+queueSize);
+        }
+        if(cache == null && cacheDirName != null) {
+            cache = new ConversionCache(Paths.get(cacheDirName), cacheSizeMB * 1024 * 1024);
+        }
+
+        long start = System.nanoTime();
+        try {
+            JaxbContextRegistry.CELLDESIGNER.getContext();
+            JaxbContextRegistry.SBGN.getContext();
+        } catch (JAXBException e) {
+            throw new IllegalStateException("Could not build JAXB contexts", e);
+        }
+        logger.info("JAXB contexts ready in "+(System.nanoTime() - start) / 1000000+" ms");
+
+        workers = Executors.newFixedThreadPool(threads);
+        admissions = new Semaphore(threads + queueSize);
+    }
+
+    /**
+     * Wait for the requests being converted, and release the threads.
+     */
+    public void stop() {
+        workers.shutdown();
+        try {
+            workers.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Convert a single file, on the calling thread.
+     * @return OK or INVALID, depending on the validation of the output
+     */
+    public BatchConverter.Status convert(Direction direction, Path input, Path output, boolean compact,
+                                         ConversionMetrics metrics) throws Exception {
+        if(direction == Direction.CD2SBGNML) {
+            return Cd2SbgnmlScript.convert(input, output,
+                    new Cd2SbgnmlScript.Options().setCompact(compact).setCache(cache), metrics);
+        }
+        return Sbgnml2CdScript.convert(input, output, new Sbgnml2CdScript.Options().setCache(cache), metrics);
+    }
+
+    /**
+     * Serve HTTP requests until the process is stopped.
+     */
+    public HttpServer serveHttp(InetSocketAddress address) throws IOException {
+        HttpServer server = HttpServer.create(address, 0);
+        for(Direction direction: Direction.values()) {
+            server.createContext("/"+direction.getName(), exchange -> handle(exchange, direction));
+        }
+        server.createContext("/health", exchange -> respond(exchange, 200, "OK"));
+        // handlers only wait for the workers, admissions bound what is really running
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        logger.info("Listening on http://"+address.getHostString()+":"+server.getAddress().getPort());
+        return server;
+    }
+
+    private void handle(HttpExchange exchange, Direction direction) throws IOException {
+        try {
+            if(!"POST".equals(exchange.getRequestMethod())) {
+                respond(exchange, 405, "Only POST is supported");
+                return;
+            }
+            if(!admissions.tryAcquire()) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                respond(exchange, 503, "Too many requests");
+                return;
+            }
+
+            Path input = null;
+            Path output = null;
+            try {
+                input = Files.createTempFile("cd2sbgnml-", direction.inputExtension);
+                output = Files.createTempFile("cd2sbgnml-", direction.outputExtension);
+                try (InputStream body = exchange.getRequestBody()) {
+                    Files.copy(body, input, StandardCopyOption.REPLACE_EXISTING);
+                }
+
+                boolean compact = Boolean.parseBoolean(queryParameter(exchange.getRequestURI(), "compact"));
+                Path in = input;
+                Path out = output;
+                long start = System.nanoTime();
+                Future<BatchConverter.Status> future = workers.submit(
+                        () -> convert(direction, in, out, compact, new ConversionMetrics()));
+                BatchConverter.Status status = future.get();
+
+                exchange.getResponseHeaders().set("Content-Type", "application/xml");
+                exchange.getResponseHeaders().set("X-Conversion-Status", status.name());
+                exchange.getResponseHeaders().set("X-Conversion-Millis",
+                        String.valueOf((System.nanoTime() - start) / 1000000));
+                exchange.sendResponseHeaders(200, Files.size(output));
+                try (OutputStream body = exchange.getResponseBody()) {
+                    Files.copy(output, body);
+                }
+            } catch (ExecutionException e) {
+                logger.error("Conversion failed", e.getCause());
+                respond(exchange, 500, String.valueOf(e.getCause()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                respond(exchange, 500, "Interrupted");
+            } finally {
+                admissions.release();
+                if(input != null) {
+                    Files.deleteIfExists(input);
+                }
+                if(output != null) {
+                    Files.deleteIfExists(output);
+                }
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * @return the decoded value of the first parameter of the query with this name, null if there is none
+     */
+    static String queryParameter(URI uri, String name) throws UnsupportedEncodingException {
+        String query = uri.getRawQuery();
+        if(query == null) {
+            return null;
+        }
+        for(String parameter: query.split("&")) {
+            int equals = parameter.indexOf('=');
+            String key = equals == -1 ? parameter : parameter.substring(0, equals);
+            if(name.equals(URLDecoder.decode(key, "UTF-8"))) {
+                return equals == -1 ? "" : URLDecoder.decode(parameter.substring(equals + 1), "UTF-8");
+            }
+        }
+        return null;
+    }
+
+    private static void respond(HttpExchange exchange, int code, String message) throws IOException {
+        byte[] bytes = (message + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(code, bytes.length);
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(bytes);
+        }
+    }
+
+    /**
+     * Serve the requests read from the input stream, until its end. Returns when all requests are answered.
+     */
+    public void serveStream(InputStream requests, PrintStream responses) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(requests, StandardCharsets.UTF_8));
+        int permits = threads + queueSize;
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if(line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split("\t");
+                Direction direction = Direction.fromName(fields[0]);
+                if(fields.length != 3 || direction == null) {
+                    answer(responses, BatchConverter.Status.FAILED, 0, line, "",
+                            "expected: cd2sbgnml|sbgnml2cd <tab> input <tab> output");
+                    continue;
+                }
+
+                Path input;
+                Path output;
+                try {
+                    input = Paths.get(fields[1]);
+                    output = Paths.get(fields[2]);
+                } catch (InvalidPathException e) {
+                    answer(responses, BatchConverter.Status.FAILED, 0, fields[1], fields[2], String.valueOf(e));
+                    continue;
+                }
+
+                // blocks reading while the workers are busy and the queue is full
+                admissions.acquire();
+                workers.execute(() -> {
+                    try {
+                        serveLine(direction, input, output, responses);
+                    } finally {
+                        admissions.release();
+                    }
+                });
+            }
+            // all permits back means all requests were answered
+            admissions.acquire(permits);
+            admissions.release(permits);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void serveLine(Direction direction, Path input, Path output, PrintStream responses) {
+        long start = System.nanoTime();
+        try {
+            Path parent = output.toAbsolutePath().getParent();
+            if(parent != null) {
+                Files.createDirectories(parent);
+            }
+            BatchConverter.Status status = convert(direction, input, output, false, new ConversionMetrics());
+            answer(responses, status, (System.nanoTime() - start) / 1000000, input.toString(), output.toString(), null);
+        } catch (Throwable e) {
+            logger.error("Conversion of "+input+" failed", e);
+            answer(responses, BatchConverter.Status.FAILED, (System.nanoTime() - start) / 1000000,
+                    input.toString(), output.toString(), String.valueOf(e));
+        }
+    }
+
+    private static void answer(PrintStream responses, BatchConverter.Status status, long millis,
+                               String input, String output, String error) {
+        String line = status + "\t" + millis + "\t" + input + "\t" + output
+                + (error == null ? "" : "\t" + error.replace('\n', ' ').replace('\t', ' '));
+        synchronized (responses) {
+            responses.println(line);
+            responses.flush();
+        }
+    }
+}
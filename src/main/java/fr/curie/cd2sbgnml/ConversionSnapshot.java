@@ -0,0 +1,464 @@
+package fr.curie.cd2sbgnml;
+
+import fr.curie.cd2sbgnml.io.XmlFragment;
+import fr.curie.cd2sbgnml.model.GenericReactionModel;
+import fr.curie.cd2sbgnml.xmlcdwrappers.ModelWrapper;
+import fr.curie.cd2sbgnml.xmlcdwrappers.ReactantWrapper;
+import fr.curie.cd2sbgnml.xmlcdwrappers.ReactionWrapper;
+import org.sbgn.bindings.Arc;
+import org.sbgn.bindings.Glyph;
+import org.sbgn.bindings.Port;
+import org.sbml._2001.ns.celldesigner.ListOfComplexSpeciesAliases.ComplexSpeciesAlias;
+import org.sbml._2001.ns.celldesigner.ModelAnnotationType;
+import org.sbml._2001.ns.celldesigner.SpeciesAlias;
+import org.sbml.sbml.level2.version4.Model;
+import org.sbml.sbml.level2.version4.Reaction;
+import org.sbml.sbml.level2.version4.Sbml;
+import org.sbml.sbml.level2.version4.Species;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+import javax.xml.bind.JAXBElement;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * What an incremental converter keeps of a conversion, so that the next version of the same map is converted by
+ * building again only what changed.
+ *
+ * Each species, with its aliases, and each reaction get a fingerprint, a hash of their CellDesigner elements. The
+ * rest of the map, like compartments, proteins or texts, gets a single one. When it changed, or when the ids of
+ * species, aliases or reactions are not unique, everything is built again.
+ *
+ * Otherwise the wrappers of unchanged species are reused. Reactions linking an alias of a changed species are its
+ * neighbours: they are wrapped and built again along with the changed reactions, the others keep their wrapper,
+ * model, glyphs and arcs. Glyphs of a species are kept unless a species included in its complexes changed, or the ids
+ * they took from the counter of the conversion moved. Compartments and texts only depend on the rest of the map, so
+ * they are kept too, texts unless their ids moved. Styles are aggregated again from the wrappers and models.
+ *
+ * What is kept is written again in the order of a full conversion, which gives the same output.
+ */
+class ConversionSnapshot {
+
+    /**
+     * What was written for an element of the map: its glyphs and arcs, the glyphs and ports that elements written
+     * after it refer to, and the ids it took from the counter of the conversion.
+     */
+    static class Segment {
+        final List<Glyph> glyphs = new ArrayList<>();
+        /**
+         * null until the arcs are written, after all the glyphs
+         */
+        List<Arc> arcs;
+        final LinkedHashMap<String, Glyph> references = new LinkedHashMap<>();
+        final LinkedHashMap<String, Port> ports = new LinkedHashMap<>();
+        final long firstId;
+        long idCount;
+        /**
+         * model of a reaction, holding its geometry
+         */
+        GenericReactionModel model;
+
+        Segment(long firstId) {
+            this.firstId = firstId;
+        }
+    }
+
+    /**
+     * Fields of the JAXB classes, collected once per class
+     */
+    private static final ConcurrentHashMap<Class<?>, List<Field>> fieldsByClass = new ConcurrentHashMap<>();
+
+    private final byte[] mapFingerprint;
+    private final Map<String, byte[]> speciesFingerprints;
+    private final Map<String, byte[]> reactionFingerprints;
+
+    /**
+     * For each species, the species whose glyphs hold its glyphs: itself, and the species of the complexes its
+     * aliases are included in.
+     */
+    private final Map<String, Set<String>> owners;
+
+    private final boolean uniqueIds;
+    private final boolean fingerprintedInParallel;
+
+    /**
+     * Snapshot of the previous version, until the conversion of this one is done
+     */
+    private ConversionSnapshot previous;
+    private final Set<String> reusedSpecies = new HashSet<>();
+    private final Set<String> reusedSpeciesGlyphs = new HashSet<>();
+    private final Set<String> reusedReactions = new HashSet<>();
+
+    // what the conversion built and wrote
+    ModelWrapper modelW;
+    Segment compartments;
+    Segment texts;
+    final Map<String, Segment> species = new HashMap<>();
+    final Map<String, Segment> reactions = new HashMap<>();
+
+    /**
+     * Fingerprint a map, and find what can be reused of the previous version.
+     * @param previous snapshot of the last conversion of the converter, or null
+     * @param parallel true to fingerprint the species and reactions of big maps in parallel
+     */
+    ConversionSnapshot(Sbml sbml, ConversionSnapshot previous, boolean parallel) {
+        Model model = sbml.getModel();
+        ModelAnnotationType.Extension extension = model.getAnnotation().getExtension();
+
+        List<String> speciesIds = new ArrayList<>();
+        List<Object> speciesElements = new ArrayList<>();
+        for(Species species: model.getListOfSpecies().getSpecies()) {
+            speciesIds.add(species.getId());
+            speciesElements.add(species);
+        }
+        // unlike the others which are there but empty, listOfIncludedSpecies may not be there at all
+        if(extension.getListOfIncludedSpecies() != null) {
+            for(org.sbml._2001.ns.celldesigner.Species species: extension.getListOfIncludedSpecies().getSpecies()) {
+                speciesIds.add(species.getId());
+                speciesElements.add(species);
+            }
+        }
+        List<Reaction> reactionElements = model.getListOfReactions() == null ? Collections.emptyList()
+                : model.getListOfReactions().getReaction();
+
+        // aliases of each species, complex aliases first as in the species wrappers
+        Map<String, List<Object>> aliasesBySpecies = new HashMap<>();
+        Map<String, String> aliasSpecies = new HashMap<>();
+        Map<String, String> aliasComplexes = new HashMap<>();
+        int aliasCount = 0;
+        for(ComplexSpeciesAlias alias: extension.getListOfComplexSpeciesAliases().getComplexSpeciesAlias()) {
+            if(alias != null) {
+                aliasesBySpecies.computeIfAbsent(alias.getSpecies(), k -> new ArrayList<>(1)).add(alias);
+                aliasSpecies.put(alias.getId(), alias.getSpecies());
+                aliasComplexes.put(alias.getId(), alias.getComplexSpeciesAlias());
+                aliasCount++;
+            }
+        }
+        for(SpeciesAlias alias: extension.getListOfSpeciesAliases().getSpeciesAlias()) {
+            if(alias != null) {
+                aliasesBySpecies.computeIfAbsent(alias.getSpecies(), k -> new ArrayList<>(1)).add(alias);
+                aliasSpecies.put(alias.getId(), alias.getSpecies());
+                aliasComplexes.put(alias.getId(), alias.getComplexSpeciesAlias());
+                aliasCount++;
+            }
+        }
+
+        // species, aliases and reactions are fingerprinted on their own, so a change in them doesn't change the rest
+        Set<Object> excluded = Collections.newSetFromMap(new IdentityHashMap<>());
+        excluded.add(model.getListOfSpecies());
+        excluded.add(extension.getListOfSpeciesAliases());
+        excluded.add(extension.getListOfComplexSpeciesAliases());
+        if(extension.getListOfIncludedSpecies() != null) {
+            excluded.add(extension.getListOfIncludedSpecies());
+        }
+        if(model.getListOfReactions() != null) {
+            excluded.add(model.getListOfReactions());
+        }
+        Fingerprint fingerprint = new Fingerprint();
+        addObject(fingerprint, sbml, excluded);
+        this.mapFingerprint = fingerprint.toBytes();
+
+        boolean speciesInParallel = parallel && speciesIds.size() >= CD2SBGNML.PARALLEL_REACTION_THRESHOLD;
+        boolean reactionsInParallel = parallel && reactionElements.size() >= CD2SBGNML.PARALLEL_REACTION_THRESHOLD;
+        this.fingerprintedInParallel = speciesInParallel || reactionsInParallel;
+
+        List<byte[]> speciesHashes = CD2SBGNML.indexes(speciesIds.size(), speciesInParallel)
+                .mapToObj(i -> fingerprint(speciesElements.get(i), aliasesBySpecies.get(speciesIds.get(i))))
+                .collect(Collectors.toList());
+        this.speciesFingerprints = new HashMap<>();
+        for(int i=0; i < speciesIds.size(); i++) {
+            this.speciesFingerprints.put(speciesIds.get(i), speciesHashes.get(i));
+        }
+
+        List<byte[]> reactionHashes = CD2SBGNML.indexes(reactionElements.size(), reactionsInParallel)
+                .mapToObj(i -> fingerprint(reactionElements.get(i), null))
+                .collect(Collectors.toList());
+        this.reactionFingerprints = new HashMap<>();
+        for(int i=0; i < reactionElements.size(); i++) {
+            this.reactionFingerprints.put(reactionElements.get(i).getId(), reactionHashes.get(i));
+        }
+
+        this.uniqueIds = speciesFingerprints.size() == speciesIds.size() && aliasSpecies.size() == aliasCount
+                && reactionFingerprints.size() == reactionElements.size();
+
+        this.owners = new HashMap<>();
+        for(String speciesId: speciesIds) {
+            this.owners.computeIfAbsent(speciesId, k -> new HashSet<>(2)).add(speciesId);
+        }
+        for(Map.Entry<String, String> alias: aliasSpecies.entrySet()) {
+            String root = alias.getKey();
+            // the number of steps is bounded in case complexes include each other
+            for(int i=0; i < aliasCount && aliasSpecies.containsKey(aliasComplexes.get(root)); i++) {
+                root = aliasComplexes.get(root);
+            }
+            this.owners.computeIfAbsent(alias.getValue(), k -> new HashSet<>(2)).add(aliasSpecies.get(root));
+        }
+
+        if(previous != null && previous.uniqueIds && this.uniqueIds
+                && Arrays.equals(previous.mapFingerprint, this.mapFingerprint)) {
+            this.previous = previous;
+            compare(previous);
+        }
+    }
+
+    private void compare(ConversionSnapshot previous) {
+        Set<String> changedSpecies = new HashSet<>();
+        for(Map.Entry<String, byte[]> entry: speciesFingerprints.entrySet()) {
+            if(!Arrays.equals(entry.getValue(), previous.speciesFingerprints.get(entry.getKey()))) {
+                changedSpecies.add(entry.getKey());
+            }
+        }
+        for(String speciesId: previous.speciesFingerprints.keySet()) {
+            if(!speciesFingerprints.containsKey(speciesId)) {
+                changedSpecies.add(speciesId);
+            }
+        }
+
+        // glyphs of a changed species may be in the glyphs of complexes, in this version or in the previous one
+        Set<String> changedGlyphs = new HashSet<>();
+        for(String speciesId: changedSpecies) {
+            changedGlyphs.addAll(owners.getOrDefault(speciesId, Collections.emptySet()));
+            changedGlyphs.addAll(previous.owners.getOrDefault(speciesId, Collections.emptySet()));
+        }
+
+        for(String speciesId: speciesFingerprints.keySet()) {
+            if(!changedSpecies.contains(speciesId)) {
+                reusedSpecies.add(speciesId);
+                if(!changedGlyphs.contains(speciesId)) {
+                    reusedSpeciesGlyphs.add(speciesId);
+                }
+            }
+        }
+
+        for(Map.Entry<String, byte[]> entry: reactionFingerprints.entrySet()) {
+            if(Arrays.equals(entry.getValue(), previous.reactionFingerprints.get(entry.getKey()))
+                    && linksUnchangedSpecies(previous.modelW.getReactionWrapperFor(entry.getKey()), changedSpecies)) {
+                reusedReactions.add(entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * @return true if all the aliases the reaction links belong to species that didn't change
+     */
+    private static boolean linksUnchangedSpecies(ReactionWrapper reactionW, Set<String> changedSpecies) {
+        if(reactionW == null) {
+            return false;
+        }
+        for(ReactantWrapper reactantW: reactionW.getReactantList()) {
+            if(reactantW.getAliasW() == null || changedSpecies.contains(reactantW.getAliasW().getSpeciesId())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    boolean isFingerprintedInParallel() {
+        return fingerprintedInParallel;
+    }
+
+    /**
+     * @return the wrapper of the previous version, or null if nothing is reused
+     */
+    ModelWrapper getPreviousWrapper() {
+        return previous == null ? null : previous.modelW;
+    }
+
+    /**
+     * @return ids of the species whose wrapper is reused
+     */
+    Set<String> getReusedSpecies() {
+        return reusedSpecies;
+    }
+
+    /**
+     * @return ids of the reactions whose wrapper, model, glyphs and arcs are reused
+     */
+    Set<String> getReusedReactions() {
+        return reusedReactions;
+    }
+
+    Segment reusableCompartments() {
+        return previous == null ? null : previous.compartments;
+    }
+
+    /**
+     * @param firstId ids taken from the counter before the glyphs of the species
+     * @return what was written for the species by the previous conversion, or null if it has to be built again
+     */
+    Segment reusableSpecies(String speciesId, long firstId) {
+        if(!reusedSpeciesGlyphs.contains(speciesId)) {
+            return null;
+        }
+        return reusable(previous.species.get(speciesId), firstId);
+    }
+
+    Segment reusableReaction(String reactionId) {
+        return reusedReactions.contains(reactionId) ? previous.reactions.get(reactionId) : null;
+    }
+
+    Segment reusableTexts(long firstId) {
+        return previous == null ? null : reusable(previous.texts, firstId);
+    }
+
+    /**
+     * @return the segment if its ids are the ones a full conversion would give, else null
+     */
+    private static Segment reusable(Segment segment, long firstId) {
+        return segment != null && segment.firstId == firstId ? segment : null;
+    }
+
+    /**
+     * Forget the previous version once the conversion is done, so that snapshots don't pile up.
+     */
+    void done() {
+        previous = null;
+        reusedSpecies.clear();
+        reusedSpeciesGlyphs.clear();
+        reusedReactions.clear();
+    }
+
+    /**
+     * Two independent 64 bits hashes of a sequence of strings, so accidental collisions are not to be feared.
+     * Much cheaper than a cryptographic digest for the many small values of a reaction.
+     */
+    private static class Fingerprint {
+        private long h1 = 0xcbf29ce484222325L;
+        private long h2 = 0x84222325cbf29ce4L;
+
+        void add(String s) {
+            if(s == null) {
+                addChar('\u0000');
+                return;
+            }
+            // length first, so that consecutive strings can't be confused
+            addChar((char) s.length());
+            addChar((char) (s.length() >>> 16));
+            for(int i=0; i < s.length(); i++) {
+                addChar(s.charAt(i));
+            }
+        }
+
+        void addChar(char c) {
+            h1 = (h1 ^ c) * 0x100000001b3L;
+            h2 = (h2 + c) * 0x9e3779b97f4a7c15L;
+            h2 ^= h2 >>> 29;
+        }
+
+        byte[] toBytes() {
+            return ByteBuffer.allocate(16).putLong(h1).putLong(h2).array();
+        }
+    }
+
+    /**
+     * @param element CellDesigner element of a species or a reaction
+     * @param aliases aliases of the species, or null
+     * @return hash of everything the wrapper and glyphs of the element are built from
+     */
+    private static byte[] fingerprint(Object element, List<Object> aliases) {
+        Fingerprint fingerprint = new Fingerprint();
+        Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        addObject(fingerprint, element, visited);
+        addObject(fingerprint, aliases, visited);
+        return fingerprint.toBytes();
+    }
+
+    /**
+     * Hash the content of a JAXB object tree: values of all fields, list elements and DOM content. Fragments that
+     * aren't parsed are hashed from their text, so that they stay unparsed.
+     * @param visited JAXB objects already hashed, or left out, which only add a marker
+     */
+    private static void addObject(Fingerprint fingerprint, Object o, Set<Object> visited) {
+        if(o == null) {
+            fingerprint.add(null);
+        }
+        else if(o instanceof String) {
+            fingerprint.add((String) o);
+        }
+        else if(o instanceof Number || o instanceof Boolean || o instanceof Character) {
+            fingerprint.add(o.toString());
+        }
+        else if(o instanceof Enum) {
+            fingerprint.add(((Enum<?>) o).name());
+        }
+        else if(o instanceof Collection) {
+            fingerprint.addChar((char) ((Collection<?>) o).size());
+            for(Object element: (Collection<?>) o) {
+                addObject(fingerprint, element, visited);
+            }
+        }
+        else if(o instanceof JAXBElement) {
+            fingerprint.add(((JAXBElement<?>) o).getName().toString());
+            addObject(fingerprint, ((JAXBElement<?>) o).getValue(), visited);
+        }
+        else if(o instanceof Node) {
+            XmlFragment fragment = o instanceof Element ? XmlFragment.of((Element) o) : null;
+            if(fragment != null && !fragment.isParsed()) {
+                fingerprint.add(fragment.getXml());
+            }
+            else {
+                addNode(fingerprint, (Node) o);
+            }
+        }
+        else if(o.getClass().getName().startsWith("org.sbml.")) {
+            if(!visited.add(o)) {
+                fingerprint.add("cycle");
+                return;
+            }
+            fingerprint.add(o.getClass().getName());
+            for(Field field: fields(o.getClass())) {
+                try {
+                    addObject(fingerprint, field.get(o), visited);
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+        else {
+            // other values, like QName or XMLGregorianCalendar
+            fingerprint.add(o.getClass().getName());
+            fingerprint.add(o.toString());
+        }
+    }
+
+    private static void addNode(Fingerprint fingerprint, Node node) {
+        fingerprint.addChar((char) node.getNodeType());
+        fingerprint.add(node.getNodeName());
+        fingerprint.add(node.getNamespaceURI());
+        fingerprint.add(node.getNodeValue());
+        NamedNodeMap attributes = node.getAttributes();
+        if(attributes != null) {
+            for(int i=0; i < attributes.getLength(); i++) {
+                addNode(fingerprint, attributes.item(i));
+            }
+        }
+        for(Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+            addNode(fingerprint, child);
+        }
+        fingerprint.addChar('\uffff');
+    }
+
+    private static List<Field> fields(Class<?> c) {
+        return fieldsByClass.computeIfAbsent(c, key -> {
+            List<Field> fields = new ArrayList<>();
+            for(Class<?> current = key; current != null && current != Object.class;
+                current = current.getSuperclass()) {
+                for(Field field: current.getDeclaredFields()) {
+                    if(!Modifier.isStatic(field.getModifiers())) {
+                        field.setAccessible(true);
+                        fields.add(field);
+                    }
+                }
+            }
+            // declared fields come in no particular order
+            fields.sort(Comparator.comparing(f -> f.getDeclaringClass().getName()+"."+f.getName()));
+            return fields;
+        });
+    }
+}
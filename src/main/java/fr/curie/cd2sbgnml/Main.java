@@ -1,6 +1,6 @@
 package fr.curie.cd2sbgnml;
 
-import fr.curie.cd2sbgnml.xmlcdwrappers.Utils;
+import fr.curie.cd2sbgnml.io.JaxbContextRegistry;
 import org.sbfc.converter.exceptions.ConversionException;
 import org.sbfc.converter.exceptions.ReadModelException;
 import org.sbfc.converter.exceptions.WriteModelException;
@@ -72,9 +72,7 @@ public class Main {
         Schema schema = null;
         try {
             schema = sf.newSchema(new File("schema/CellDesigner.xsd"));
-            JAXBContext jc = JAXBContext.newInstance(Sbml.class);
-
-            Unmarshaller unmarshaller = jc.createUnmarshaller();
+            Unmarshaller unmarshaller = JaxbContextRegistry.CELLDESIGNER.getUnmarshaller();
             unmarshaller.setSchema(schema);
             unmarshaller.setEventHandler(new ValidationEventCollector());
             Sbml sbml = (Sbml) unmarshaller.unmarshal(new File(inputFile));
@@ -129,10 +127,7 @@ public class Main {
 
 
             File file = new File("samples/newCD.xml");
-            Marshaller marshaller = JAXBContext.newInstance(Sbml.class).createMarshaller();
-            marshaller.setProperty(Marshaller.JAXB_ENCODING, "UTF-8");
-            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
-            marshaller.setProperty("com.sun.xml.bind.namespacePrefixMapper", new Utils.DefaultNamespacePrefixMapper());
+            Marshaller marshaller = JaxbContextRegistry.CELLDESIGNER.getMarshaller();
             marshaller.marshal(backCdModel.getSbml() , file);
 
 
@@ -168,9 +163,7 @@ public class Main {
         schema = null;
         try {
             schema = sf.newSchema(new File("schema/CellDesigner.xsd"));
-            JAXBContext jc = JAXBContext.newInstance(Sbml.class);
-
-            Unmarshaller unmarshaller = jc.createUnmarshaller();
+            Unmarshaller unmarshaller = JaxbContextRegistry.CELLDESIGNER.getUnmarshaller();
             unmarshaller.setSchema(schema);
             unmarshaller.setEventHandler(new ValidationEventCollector());
             Sbml sbml = (Sbml) unmarshaller.unmarshal(new File("samples/newCD.xml"));
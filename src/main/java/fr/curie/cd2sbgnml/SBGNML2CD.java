@@ -33,7 +33,6 @@ import java.awt.geom.AffineTransform;
 import java.awt.geom.Line2D;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
-import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.*;
 import java.util.AbstractMap.SimpleEntry;
@@ -47,68 +46,125 @@ public class SBGNML2CD extends GeneralConverter {
     final Logger logger = LoggerFactory.getLogger(SBGNML2CD.class);
 
     /**
-     * Global translation factors that are to be applied to all elements
+     * Indexes of the map being converted, and CellDesigner elements already created.
      */
-    Rectangle2D mapBounds;
-    Sbml sbml;
-    boolean mapHasStyle;
-    java.util.Map<String, StyleInfo> styleMap;
-    /**
-     * Keep track of created aliasWrappers to be referred to.
-     */
-    java.util.Map<String, AliasWrapper> aliasWrapperMap;
-    java.util.Map<String, SpeciesWrapper> speciesWrapperMap;
-    java.util.Map<String, Protein> protMap;
-    java.util.Map<String, RNA> rnaMap;
-    java.util.Map<String, Gene> geneMap;
-    java.util.Map<String, AntisenseRNA> asrnaMap;
+    static class Context extends ConversionContext {
+        /**
+         * Global translation factors that are to be applied to all elements
+         */
+        Rectangle2D mapBounds;
+        Sbml sbml;
+        boolean mapHasStyle;
+        java.util.Map<String, StyleInfo> styleMap;
+        /**
+         * Keep track of created aliasWrappers to be referred to.
+         */
+        final java.util.Map<String, AliasWrapper> aliasWrapperMap = new HashMap<>();
 
+        /*
+            Species and their references are written in the iteration order of these maps, which depends on their
+            capacity. They are created for each conversion, so that the output doesn't depend on previous ones.
+         */
+        java.util.Map<String, SpeciesWrapper> speciesWrapperMap;
+        java.util.Map<String, Protein> protMap;
+        java.util.Map<String, RNA> rnaMap;
+        java.util.Map<String, Gene> geneMap;
+        java.util.Map<String, AntisenseRNA> asrnaMap;
+
+        /**
+         * This map indexes all the arcs connected to each process node.
+         */
+        final java.util.Map<String, List<Arc>> processToArcs = new HashMap<>();
 
-    /**
-     * This map indexes all the arcs connected to each process node.
-     */
-    java.util.Map<String, List<Arc>> processToArcs;
+        /**
+         * This list will contain all arcs that are not linked to any process node.
+         * For example, phenotype arcs.
+         * Or AF map arcs.
+         */
+        final List<Arc> orphanArcs = new ArrayList<>();
 
-    /**
-     * This list will contain all arcs that are not linked to any process node.
-     * For example, phenotype arcs.
-     * Or AF map arcs.
-     */
-    List<Arc> orphanArcs;
+        /**
+         * HashSet containing all logic gate glyphs that aren't associated to any process.
+         * The set is first built with all logic gates in the map, and they are removed as reactions are processed, if
+         * they are connected to a process.
+         * After all reactions are processed, only the orphan logic gates will remain in the set.
+         */
+        final HashSet<Glyph> orphanLogicGates = new HashSet<>();
 
-    /**
-     * HashSet containing all logic gate glyphs that aren't associated to any process.
-     * The set is first built with all logic gates in the map, and they are removed as reactions are processed, if
-     * they are connected to a process.
-     * After all reactions are processed, only the orphan logic gates will remain in the set.
-     */
-    HashSet<Glyph> orphanLogicGates;
+        /**
+         * Those 2 maps index the source and target glyph attached to each link.
+         */
+        final java.util.Map<String, Glyph> arcToSource = new HashMap<>();
+        final java.util.Map<String, Glyph> arcToTarget = new HashMap<>();
+
+        final java.util.Map<String, Glyph> idToGlyph = new HashMap<>();
+
+        final java.util.Map<String, Glyph> portToGlyph = new HashMap<>();
+
+        final java.util.Map<String, List<Arc>> glyphToArc = new HashMap<>();
+
+        @Override
+        protected void clearState() {
+            mapBounds = null;
+            sbml = null;
+            mapHasStyle = false;
+            styleMap = null;
+            aliasWrapperMap.clear();
+            speciesWrapperMap = null;
+            protMap = null;
+            rnaMap = null;
+            geneMap = null;
+            asrnaMap = null;
+            processToArcs.clear();
+            orphanArcs.clear();
+            orphanLogicGates.clear();
+            arcToSource.clear();
+            arcToTarget.clear();
+            idToGlyph.clear();
+            portToGlyph.clear();
+            glyphToArc.clear();
+        }
+    }
+
+    private final ConversionContext.Pool<Context> contexts = new ConversionContext.Pool<>(Context::new);
 
     /**
-     * Those 2 maps index the source and target glyph attached to each link.
+     * Measures of the last conversion to finish
      */
-    java.util.Map<String, Glyph> arcToSource;
-    java.util.Map<String, Glyph> arcToTarget;
-
-    java.util.Map<String, Glyph> idToGlyph;
-
-    java.util.Map<String, Glyph> portToGlyph;
-
-    java.util.Map<String, List<Arc>> glyphToArc;
-
+    private volatile ConversionMetrics metrics = new ConversionMetrics();
 
     public Sbml toCD(Sbgn sbgn) {
+        return toCD(sbgn, new ConversionMetrics());
+    }
+
+    /**
+     * The converter keeps nothing of its conversions, so it can be called from several threads at the same time.
+     * @param metrics filled with the stages of this conversion
+     */
+    public Sbml toCD(Sbgn sbgn, ConversionMetrics metrics) {
+        Context ctx = contexts.acquire();
+        try {
+            ctx.metrics = metrics;
+            Sbml sbml = toCD(sbgn, ctx);
+            this.metrics = metrics;
+            return sbml;
+        } finally {
+            contexts.release(ctx);
+        }
+    }
 
+    private Sbml toCD(Sbgn sbgn, Context ctx) {
+        ConversionMetrics.Timer timer = ctx.metrics.start("prepare");
         sbgn = SBGNUtils.sanitizeIds(sbgn);
 
         // consider only the first map
         Map sbgnMap = sbgn.getMap(); //.get(0);
 
         // init celldesigner file
-        sbml = this.initFile(sbgnMap);
+        ctx.sbml = initFile(sbgnMap, ctx);
 
         // init the index maps
-        this.buildMaps(sbgnMap);
+        buildMaps(sbgnMap, ctx);
 
         // put notes and annotations from map to model
         if(sbgnMap.getNotes() != null
@@ -116,14 +172,14 @@ public class SBGNML2CD extends GeneralConverter {
             Element notesE = sbgnMap.getNotes().getAny().get(0);
             SBase.Notes notes = new SBase.Notes();
             notes.getAny().add(notesE);
-            sbml.getModel().setNotes(notes);
+            ctx.sbml.getModel().setNotes(notes);
         }
 
         if(sbgnMap.getExtension() != null) {
             for(Element e: sbgnMap.getExtension().getAny()){
                 if(e.getTagName().equals("annotation")) {
                     Element rdf = SBGNUtils.sanitizeRdfURNs((Element) e.getElementsByTagName("rdf:RDF").item(0));
-                    sbml.getModel().getAnnotation().getAny().add(rdf);
+                    ctx.sbml.getModel().getAnnotation().getAny().add(rdf);
                 }
             }
         }
@@ -134,12 +190,17 @@ public class SBGNML2CD extends GeneralConverter {
             layout all the glyph entities first. And then process the reaction through the process glyphs.
          */
 
+        timer.stop();
+        ctx.metrics.count("glyphs", sbgnMap.getGlyph());
+        ctx.metrics.count("arcs", sbgnMap.getArc());
+
         // first pass for EPNs
+        timer = ctx.metrics.start("entities");
         for(Glyph glyph: sbgnMap.getGlyph()){
             String clazz = glyph.getClazz();
             switch (GlyphClazz.fromClazz(clazz)) {
                 case COMPARTMENT:
-                    processCompartment(glyph);
+                    processCompartment(glyph, ctx);
                     break;
                 case MACROMOLECULE:
                 case MACROMOLECULE_MULTIMER:
@@ -152,16 +213,19 @@ public class SBGNML2CD extends GeneralConverter {
                 case SOURCE_AND_SINK:
                 case PERTURBING_AGENT:
                 case SUBMAP:
-                    processSpecies(glyph, false, false, null, null);
+                    processSpecies(glyph, false, false, null, null, ctx);
                     break;
                 case COMPLEX:
                 case COMPLEX_MULTIMER:
-                    processSpecies(glyph, false, true, null, null);
+                    processSpecies(glyph, false, true, null, null, ctx);
                     break;
             }
         }
 
+        timer.stop();
+
         // 2nd pass for process/reactions
+        timer = ctx.metrics.start("processes");
         for(Glyph glyph: sbgnMap.getGlyph()){
             String clazz = glyph.getClazz();
             switch (GlyphClazz.fromClazz(clazz)) {
@@ -170,60 +234,68 @@ public class SBGNML2CD extends GeneralConverter {
                 case UNCERTAIN_PROCESS:
                 case ASSOCIATION:
                 case DISSOCIATION:
-                    processReaction(glyph);
+                    processReaction(glyph, ctx);
                     break;
             }
         }
 
+        timer.stop();
+
         // now process the remaining orphan arcs
-        for(Arc orphanArc: orphanArcs) {
-            processOrphanArc(orphanArc);
+        timer = ctx.metrics.start("orphans");
+        for(Arc orphanArc: ctx.orphanArcs) {
+            processOrphanArc(orphanArc, ctx);
         }
 
         // process the remaining orphan logic gates
-        for(Glyph orphanLogic: orphanLogicGates) {
-            processLogicReaction(orphanLogic);
+        for(Glyph orphanLogic: ctx.orphanLogicGates) {
+            processLogicReaction(orphanLogic, ctx);
         }
 
-        processEnd();
+        timer.stop();
 
+        timer = ctx.metrics.start("finish");
+        processEnd(ctx);
+        timer.stop();
 
+        ctx.metrics.count("species", ctx.sbml.getModel().getListOfSpecies().getSpecies());
+        ctx.metrics.count("reactions", ctx.sbml.getModel().getListOfReactions().getReaction());
 
-        return sbml;
+        return ctx.sbml;
     }
 
-    private void processEnd() {
-        for(SpeciesWrapper speciesW: speciesWrapperMap.values()){
+    private void processEnd(Context ctx) {
+        for(SpeciesWrapper speciesW: ctx.speciesWrapperMap.values()){
             // add species to correct list
             if(speciesW.isIncludedSpecies()) {
                 ListOfIncludedSpecies listOfIncludedSpecies =
-                        sbml.getModel().getAnnotation().getExtension().getListOfIncludedSpecies();
+                        ctx.sbml.getModel().getAnnotation().getExtension().getListOfIncludedSpecies();
 
                 // create listofincluded if not already there
                 if(listOfIncludedSpecies == null) {
                     listOfIncludedSpecies = new ListOfIncludedSpecies();
-                    sbml.getModel().getAnnotation().getExtension().setListOfIncludedSpecies(listOfIncludedSpecies);
+                    ctx.sbml.getModel().getAnnotation().getExtension().setListOfIncludedSpecies(listOfIncludedSpecies);
                 }
                 org.sbml._2001.ns.celldesigner.Species species = speciesW.getCDIncludedSpecies();
                 listOfIncludedSpecies.getSpecies().add(species);
             }
             else {
                 Species species = speciesW.getCDNormalSpecies();
-                sbml.getModel().getListOfSpecies().getSpecies().add(species);
+                ctx.sbml.getModel().getListOfSpecies().getSpecies().add(species);
             }
         }
 
-        for(Protein p: protMap.values()) {
-            sbml.getModel().getAnnotation().getExtension().getListOfProteins().getProtein().add(p);
+        for(Protein p: ctx.protMap.values()) {
+            ctx.sbml.getModel().getAnnotation().getExtension().getListOfProteins().getProtein().add(p);
         }
-        for(Gene p: geneMap.values()) {
-            sbml.getModel().getAnnotation().getExtension().getListOfGenes().getGene().add(p);
+        for(Gene p: ctx.geneMap.values()) {
+            ctx.sbml.getModel().getAnnotation().getExtension().getListOfGenes().getGene().add(p);
         }
-        for(RNA p: rnaMap.values()) {
-            sbml.getModel().getAnnotation().getExtension().getListOfRNAs().getRNA().add(p);
+        for(RNA p: ctx.rnaMap.values()) {
+            ctx.sbml.getModel().getAnnotation().getExtension().getListOfRNAs().getRNA().add(p);
         }
-        for(AntisenseRNA p: asrnaMap.values()) {
-            sbml.getModel().getAnnotation().getExtension().getListOfAntisenseRNAs().getAntisenseRNA().add(p);
+        for(AntisenseRNA p: ctx.asrnaMap.values()) {
+            ctx.sbml.getModel().getAnnotation().getExtension().getListOfAntisenseRNAs().getAntisenseRNA().add(p);
         }
     }
 
@@ -232,8 +304,8 @@ public class SBGNML2CD extends GeneralConverter {
      * They can have more than 2 baseReactants. Instead of modifications, they have gateMembers listed.
      * @param logicGlyph
      */
-    private void processLogicReaction(Glyph logicGlyph) {
-        List<Arc> connectedArcs = glyphToArc.get(logicGlyph.getId());
+    private void processLogicReaction(Glyph logicGlyph, Context ctx) {
+        List<Arc> connectedArcs = ctx.glyphToArc.get(logicGlyph.getId());
         Point2D.Float logicCoords = new Point2D.Float(
                 logicGlyph.getBbox().getX() + logicGlyph.getBbox().getW() / 2,
                 logicGlyph.getBbox().getY() + logicGlyph.getBbox().getH() / 2
@@ -253,9 +325,9 @@ public class SBGNML2CD extends GeneralConverter {
         List<String> speciesModifiers = new ArrayList<>();
 
         for(Arc arc: reactants) {
-            Glyph g = arcToSource.get(arc.getId());
+            Glyph g = ctx.arcToSource.get(arc.getId());
 
-            AliasWrapper aliasW = aliasWrapperMap.get(g.getId()+"_alias1");
+            AliasWrapper aliasW = ctx.aliasWrapperMap.get(g.getId()+"_alias1");
 
             ReactantWrapper baseWrapper = new ReactantWrapper(aliasW, ReactantType.BASE_REACTANT);
             //baseWrapper.setAnchorPoint(AnchorPoint.CENTER); // set to CENTER for now, but better computed after
@@ -273,8 +345,8 @@ public class SBGNML2CD extends GeneralConverter {
             speciesModifiers.add(aliasW.getSpeciesId());
         }
 
-        Glyph baseProductGlyph = arcToTarget.get(productArc.getId());
-        AliasWrapper aliasW = aliasWrapperMap.get(baseProductGlyph.getId()+"_alias1");
+        Glyph baseProductGlyph = ctx.arcToTarget.get(productArc.getId());
+        AliasWrapper aliasW = ctx.aliasWrapperMap.get(baseProductGlyph.getId()+"_alias1");
         ReactantWrapper baseProductW = new ReactantWrapper(aliasW, ReactantType.BASE_PRODUCT);
         baseProductW.setModificationLinkType(
                 ModificationLinkType.valueOf(
@@ -290,15 +362,15 @@ public class SBGNML2CD extends GeneralConverter {
                 productArc,
                 logicCoords,
                 false,
-                new ReactionFeatures(false, true, false));
+                new ReactionFeatures(false, true, false), ctx);
         List<Point2D.Float> localEditPointsProduct = tmpProductLink.getKey().getEditPoints();
         Point2D.Float finalEndPoint = tmpProductLink.getKey().getEnd();
         Link productLink = tmpProductLink.getValue();
         // apply translation factor on logic gate
         Point2D.Float logicPoint = new Point2D.Float(
-                (float) (logicCoords.getX() - mapBounds.getX()),
-                (float) (logicCoords.getY() - mapBounds.getY()));
-        LineWrapper productLineWrapper = buildLineWrapper(productArc.getId(), localEditPointsProduct, logicPoint);
+                (float) (logicCoords.getX() - ctx.mapBounds.getX()),
+                (float) (logicCoords.getY() - ctx.mapBounds.getY()));
+        LineWrapper productLineWrapper = buildLineWrapper(productArc.getId(), localEditPointsProduct, logicPoint, ctx);
 
         LogicGateWrapper logicW = new LogicGateWrapper(
                 baseProductW,
@@ -319,7 +391,7 @@ public class SBGNML2CD extends GeneralConverter {
                     baseReactantArcs.get(i),
                     logicCoords,
                     true,
-                    new ReactionFeatures(false, true, false, true)).getKey().getEditPoints();
+                    new ReactionFeatures(false, true, false, true), ctx).getKey().getEditPoints();
 
             reactantW.setTargetLineIndex("-1,0");
             List<String> editPointStringList = new ArrayList<>();
@@ -328,7 +400,7 @@ public class SBGNML2CD extends GeneralConverter {
             }
 
             LineWrapper lineWrapper = buildLineWrapper(baseReactantArcs.get(i).getId(),
-                    localEditPoints0, null);
+                    localEditPoints0, null, ctx);
             reactantW.setLineWrapper(lineWrapper);
 
 
@@ -347,21 +419,21 @@ public class SBGNML2CD extends GeneralConverter {
         }
 
         Line line = new Line();
-        line.setWidth(BigDecimal.valueOf(1));
+        line.setWidth(1.0);
         line.setColor("ff000000");
 
 
         LineWrapper baseLineWrapper = new LineWrapper(null, baseReactionEditPointString, line);
         reactionW.setLineWrapper(baseLineWrapper);
 
-        sbml.getModel().getListOfReactions().getReaction().add(reactionW.getCDReaction());
+        ctx.sbml.getModel().getListOfReactions().getReaction().add(reactionW.getCDReaction());
 
 
     }
 
-    private void processReaction(Glyph processGlyph) {
+    private void processReaction(Glyph processGlyph, Context ctx) {
         // TODO add arc notes and annotations to reaction
-        List<Arc> connectedArcs = processToArcs.get(processGlyph.getId());
+        List<Arc> connectedArcs = ctx.processToArcs.get(processGlyph.getId());
         Point2D.Float processCoords = new Point2D.Float(
                 processGlyph.getBbox().getX(),
                 processGlyph.getBbox().getY()
@@ -421,12 +493,12 @@ public class SBGNML2CD extends GeneralConverter {
         for(Arc arc: reactants) {
             Glyph g;
             if(isReversible) { // what is considered reactant was previously a product
-                g = arcToTarget.get(arc.getId());
+                g = ctx.arcToTarget.get(arc.getId());
             }
             else {
-                g = arcToSource.get(arc.getId());
+                g = ctx.arcToSource.get(arc.getId());
             }
-            AliasWrapper aliasW = aliasWrapperMap.get(g.getId()+"_alias1");
+            AliasWrapper aliasW = ctx.aliasWrapperMap.get(g.getId()+"_alias1");
 
             // set the first 2 as basereactants for association, if dissociation or normal reaction only the 1st
             if((reactionCDClass == ReactionType.HETERODIMER_ASSOCIATION &&  i==1)
@@ -451,8 +523,8 @@ public class SBGNML2CD extends GeneralConverter {
 
         i = 0;
         for(Arc arc: products) {
-            Glyph g = arcToTarget.get(arc.getId());
-            AliasWrapper aliasW = aliasWrapperMap.get(g.getId()+"_alias1");
+            Glyph g = ctx.arcToTarget.get(arc.getId());
+            AliasWrapper aliasW = ctx.aliasWrapperMap.get(g.getId()+"_alias1");
 
             // for dissociation consider first 2 as base, for association and normal only the 1st
             if(i == 0 || (reactionCDClass == ReactionType.DISSOCIATION && i == 1)) {
@@ -476,8 +548,8 @@ public class SBGNML2CD extends GeneralConverter {
 
         i = 0;
         for(Arc arc: modifiers) {
-            Glyph g = arcToSource.get(arc.getId());
-            AliasWrapper aliasW = aliasWrapperMap.get(g.getId()+"_alias1");
+            Glyph g = ctx.arcToSource.get(arc.getId());
+            AliasWrapper aliasW = ctx.aliasWrapperMap.get(g.getId()+"_alias1");
 
             ReactantWrapper modifWrapper = new ReactantWrapper(aliasW, ReactantType.MODIFICATION);
             //baseWrapper.setAnchorPoint(AnchorPoint.CENTER); // set to CENTER for now, but better computed after
@@ -511,7 +583,8 @@ public class SBGNML2CD extends GeneralConverter {
                     processGlyph,
                     processCoords,
                     baseProductArcs.get(0),
-                    true
+                    true,
+                    ctx
             );
             Point2D.Float absAssocPoint = tmpResult.getKey();
             Point2D.Float localAssocPoint = tmpResult.getValue();
@@ -519,15 +592,15 @@ public class SBGNML2CD extends GeneralConverter {
 
             List<Point2D.Float> localEditPoints0 = baseLinkProcessingStep1(
                     baseReactantW0, baseReactantGlyphs.get(0),
-                    baseReactantArcs.get(0), absAssocPoint, true, reactionFeatures).getKey().getEditPoints();
+                    baseReactantArcs.get(0), absAssocPoint, true, reactionFeatures, ctx).getKey().getEditPoints();
 
             List<Point2D.Float> localEditPoints1 = baseLinkProcessingStep1(
                     baseReactantW1, baseReactantGlyphs.get(1),
-                    baseReactantArcs.get(1), absAssocPoint, true, reactionFeatures).getKey().getEditPoints();
+                    baseReactantArcs.get(1), absAssocPoint, true, reactionFeatures, ctx).getKey().getEditPoints();
 
             SimpleEntry<Link, Link> tmpResultPoints = baseLinkProcessingStep1(
                     baseProductW, baseProductGlyphs.get(0),
-                    baseProductArcs.get(0), absAssocPoint, false, reactionFeatures);
+                    baseProductArcs.get(0), absAssocPoint, false, reactionFeatures, ctx);
             List<Point2D.Float> localEditPoints2 = tmpResultPoints.getKey().getEditPoints();
             Point2D.Float finalEndPoint = tmpResultPoints.getKey().getEnd();
             Link productLink = tmpResultPoints.getValue();
@@ -541,7 +614,8 @@ public class SBGNML2CD extends GeneralConverter {
             LineWrapper lineWrapper = buildLineWrapperWithProcess(
                     arcsId2Editpoints,
                     processGlyph.getId(),
-                    localAssocPoint
+                    localAssocPoint,
+                    ctx
             );
 
             reactionW.setLineWrapper(lineWrapper);
@@ -559,7 +633,8 @@ public class SBGNML2CD extends GeneralConverter {
                     processGlyph,
                     processCoords,
                     baseReactantArcs.get(0),
-                    false
+                    false,
+                    ctx
             );
             Point2D.Float absDissocPoint = tmpResult.getKey();
             Point2D.Float localDissocPoint = tmpResult.getValue();
@@ -567,18 +642,18 @@ public class SBGNML2CD extends GeneralConverter {
 
             SimpleEntry<Link, Link> tmpResultPoints = baseLinkProcessingStep1(
                     baseReactantW, baseReactantGlyphs.get(0),
-                    baseReactantArcs.get(0), absDissocPoint, true, reactionFeatures);
+                    baseReactantArcs.get(0), absDissocPoint, true, reactionFeatures, ctx);
             List<Point2D.Float> localEditPoints0 = tmpResultPoints.getKey().getEditPoints();
             Point2D.Float finalStartPoint = tmpResultPoints.getKey().getStart();
             Link reactantLink = tmpResultPoints.getValue();
 
             List<Point2D.Float> localEditPoints1 = baseLinkProcessingStep1(
                     baseProductW1, baseProductGlyphs.get(0),
-                    baseProductArcs.get(0), absDissocPoint, false, reactionFeatures).getKey().getEditPoints();
+                    baseProductArcs.get(0), absDissocPoint, false, reactionFeatures, ctx).getKey().getEditPoints();
 
             List<Point2D.Float> localEditPoints2 = baseLinkProcessingStep1(
                     baseProductW2, baseProductGlyphs.get(1),
-                    baseProductArcs.get(1), absDissocPoint, false, reactionFeatures).getKey().getEditPoints();
+                    baseProductArcs.get(1), absDissocPoint, false, reactionFeatures, ctx).getKey().getEditPoints();
 
 
             processLine = getProcessLine(reactantLink, absDissocPoint, reactionFeatures);
@@ -590,7 +665,8 @@ public class SBGNML2CD extends GeneralConverter {
             LineWrapper lineWrapper = buildLineWrapperWithProcess(
                     arcsId2Editpoints,
                     processGlyph.getId(),
-                    localDissocPoint
+                    localDissocPoint,
+                    ctx
             );
 
             reactionW.setLineWrapper(lineWrapper);
@@ -681,7 +757,8 @@ public class SBGNML2CD extends GeneralConverter {
             LineWrapper lineWrapper = buildLineWrapperWithProcess(
                     arcsId2Editpoints,
                     processGlyph.getId(),
-                    null
+                    null,
+                    ctx
             );
 
             reactionW.setLineWrapper(lineWrapper);
@@ -746,7 +823,7 @@ public class SBGNML2CD extends GeneralConverter {
                             anchor0
                     ));
 
-            LineWrapper lineWrapper = buildLineWrapper(additionalArc.getId(), localEditPoints, null);
+            LineWrapper lineWrapper = buildLineWrapper(additionalArc.getId(), localEditPoints, null, ctx);
 
             additionalW.setLineWrapper(lineWrapper);
             reactionW.getAdditionalReactants().add(additionalW);
@@ -801,7 +878,7 @@ public class SBGNML2CD extends GeneralConverter {
                             finalEndPoint
                     ));
 
-            LineWrapper lineWrapper = buildLineWrapper(additionalArc.getId(), localEditPoints, null);
+            LineWrapper lineWrapper = buildLineWrapper(additionalArc.getId(), localEditPoints, null, ctx);
 
             additionalW.setLineWrapper(lineWrapper);
             reactionW.getAdditionalProducts().add(additionalW);
@@ -819,19 +896,19 @@ public class SBGNML2CD extends GeneralConverter {
                 So get only direct links to EPNs and connect them to newly created logicWrapper.
              */
             if(SBGNUtils.isLogicGate(modificationGlyph)) {
-                List<Arc> arcsConnectedToLogic = glyphToArc.get(modificationGlyph.getId());
+                List<Arc> arcsConnectedToLogic = ctx.glyphToArc.get(modificationGlyph.getId());
 
                 List<ReactantWrapper> connectedReactantsW = new ArrayList<>();
                 List<String> logicModifiers = new ArrayList<>();
                 List<String> logicAliases = new ArrayList<>();
                 for(Arc logicArc: arcsConnectedToLogic) {
-                    Glyph sourceGlyhp = arcToSource.get(logicArc.getId());
+                    Glyph sourceGlyhp = ctx.arcToSource.get(logicArc.getId());
                     // discard other connected logic gates, and the arc coming from the current gate itself
                     if(SBGNUtils.isLogicGate(sourceGlyhp)) {
                         continue;
                     }
 
-                    AliasWrapper aliasW = aliasWrapperMap.get(sourceGlyhp.getId()+"_alias1");
+                    AliasWrapper aliasW = ctx.aliasWrapperMap.get(sourceGlyhp.getId()+"_alias1");
 
                     ReactantWrapper modifWrapper = new ReactantWrapper(aliasW, ReactantType.MODIFICATION);
 
@@ -842,7 +919,7 @@ public class SBGNML2CD extends GeneralConverter {
                                             ArcClazz.fromClazz(modificationArc.getClazz()))));
 
                     ReactantWrapper processedLogicModifW = processModifierToLogic(logicArc, sourceGlyhp,
-                            modifWrapper, modificationGlyph);
+                            modifWrapper, modificationGlyph, ctx);
 
                     // we can't directly add the connected reactants, need the logic gate first.
                     //reactionW.getModifiers().add(processedLogicModifW);
@@ -853,7 +930,7 @@ public class SBGNML2CD extends GeneralConverter {
 
                 // process the logic gate itself
                 ReactantWrapper processedlogicW = processLogicGate(modificationArc,
-                        modificationGlyph, modificationW, pr);
+                        modificationGlyph, modificationW, pr, ctx);
 
                 LogicGateWrapper finalLogicW = new LogicGateWrapper(
                         processedlogicW,
@@ -863,7 +940,7 @@ public class SBGNML2CD extends GeneralConverter {
                         processedlogicW.getModificationLinkType()
                 );
 
-                orphanLogicGates.remove(modificationGlyph);
+                ctx.orphanLogicGates.remove(modificationGlyph);
 
                 /*SpeciesWrapper logicSpW = new SpeciesWrapper(modificationGlyph.getId(),
                         modificationGlyph.getId(), null);
@@ -882,7 +959,7 @@ public class SBGNML2CD extends GeneralConverter {
             // non logic gates modifiers
             else {
                 ReactantWrapper processedModifW = processModifier(modificationArc,
-                        modificationGlyph, modificationW, pr);
+                        modificationGlyph, modificationW, pr, ctx);
                 reactionW.getModifiers().add(processedModifW);
             }
 
@@ -890,7 +967,7 @@ public class SBGNML2CD extends GeneralConverter {
             for(ModifierSpeciesReference speciesReference:
                     reactionW.getCDReaction().getListOfModifiers().getModifierSpeciesReference()) {
                 String speciesId = speciesReference.getSpecies();
-                SpeciesWrapper speciesW = speciesWrapperMap.get(speciesId);
+                SpeciesWrapper speciesW = ctx.speciesWrapperMap.get(speciesId);
 
                 speciesW.getCatalyzedReactions().add(reactionW.getId());
             }
@@ -900,17 +977,17 @@ public class SBGNML2CD extends GeneralConverter {
         setNotes(reactionW, processGlyph);
         setAnnotations(reactionW, processGlyph);
 
-        sbml.getModel().getListOfReactions().getReaction().add(reactionW.getCDReaction());
+        ctx.sbml.getModel().getListOfReactions().getReaction().add(reactionW.getCDReaction());
 
     }
 
-    private void processOrphanArc(Arc orphanArc) {
+    private void processOrphanArc(Arc orphanArc, Context ctx) {
         // process orphan arcs
-        Glyph targetGlyph = arcToTarget.get(orphanArc.getId());
-        Glyph sourceGlyph = arcToSource.get(orphanArc.getId());
+        Glyph targetGlyph = ctx.arcToTarget.get(orphanArc.getId());
+        Glyph sourceGlyph = ctx.arcToSource.get(orphanArc.getId());
 
-        AliasWrapper sourceAliasW = aliasWrapperMap.get(sourceGlyph.getId()+"_alias1");
-        AliasWrapper targetAliasW = aliasWrapperMap.get(targetGlyph.getId()+"_alias1");
+        AliasWrapper sourceAliasW = ctx.aliasWrapperMap.get(sourceGlyph.getId()+"_alias1");
+        AliasWrapper targetAliasW = ctx.aliasWrapperMap.get(targetGlyph.getId()+"_alias1");
 
         // case where one of the glyphs could not be translated (ex: submaps)
         if(sourceAliasW == null || targetAliasW == null) {
@@ -961,7 +1038,7 @@ public class SBGNML2CD extends GeneralConverter {
                         finalEndPoint
                 ));
 
-        LineWrapper lineWrapper = buildLineWrapper(orphanArc.getId(), localEditPoints, null);
+        LineWrapper lineWrapper = buildLineWrapper(orphanArc.getId(), localEditPoints, null, ctx);
 
         ReactionWrapper reactionW = new ReactionWrapper(
                 orphanArc.getId(),
@@ -972,14 +1049,14 @@ public class SBGNML2CD extends GeneralConverter {
         reactionW.setLineWrapper(lineWrapper);
         reactionW.setHasProcess(false);
 
-        sbml.getModel().getListOfReactions().getReaction().add(reactionW.getCDReaction());
+        ctx.sbml.getModel().getListOfReactions().getReaction().add(reactionW.getCDReaction());
 
         /*additionalW.setLineWrapper(lineWrapper);
         reactionW.getAdditionalProducts().add(additionalW);*/
     }
 
     private ReactantWrapper processModifierToLogic(Arc modificationArc, Glyph modificationGlyph,
-                                            ReactantWrapper modificationW, Glyph logicGateGlyph) {
+                                            ReactantWrapper modificationW, Glyph logicGateGlyph, Context ctx) {
         List<Point2D.Float> modificationPoints = SBGNUtils.getPoints(modificationArc);
         if(logicGateGlyph.getPort().size() > 0) {
             modificationPoints.add(new Point2D.Float(
@@ -1026,14 +1103,14 @@ public class SBGNML2CD extends GeneralConverter {
                         finalEndPoint
                 ));
 
-        LineWrapper lineWrapper = buildLineWrapper(modificationArc.getId(), localEditPoints, null);
+        LineWrapper lineWrapper = buildLineWrapper(modificationArc.getId(), localEditPoints, null, ctx);
 
         modificationW.setLineWrapper(lineWrapper);
         return modificationW;
     }
 
     private ReactantWrapper processLogicGate(Arc modificationArc, Glyph modificationGlyph,
-                                            ReactantWrapper modificationW, Process pr) {
+                                            ReactantWrapper modificationW, Process pr, Context ctx) {
 
         List<Point2D.Float> modificationPoints = new ArrayList<>();
         if(modificationGlyph.getPort().size() > 0) {
@@ -1078,10 +1155,10 @@ public class SBGNML2CD extends GeneralConverter {
         // logic gates have their own coordinate added to the edit point, in global coord system
         // we need to adjust to map translation factor
         Point2D.Float logicPoint = new Point2D.Float(
-                (float) (finalStartPoint.getX() - mapBounds.getX()),
-                (float) (finalStartPoint.getY() - mapBounds.getY()));
+                (float) (finalStartPoint.getX() - ctx.mapBounds.getX()),
+                (float) (finalStartPoint.getY() - ctx.mapBounds.getY()));
 
-        LineWrapper lineWrapper = buildLineWrapper(modificationArc.getId(), localEditPoints, logicPoint);
+        LineWrapper lineWrapper = buildLineWrapper(modificationArc.getId(), localEditPoints, logicPoint, ctx);
 
         modificationW.setLineWrapper(lineWrapper);
         return modificationW;
@@ -1096,7 +1173,7 @@ public class SBGNML2CD extends GeneralConverter {
      * @return
      */
     private ReactantWrapper processModifier(Arc modificationArc, Glyph modificationGlyph,
-                                 ReactantWrapper modificationW, Object prOrLogic) {
+                                 ReactantWrapper modificationW, Object prOrLogic, Context ctx) {
         List<Point2D.Float> modificationPoints = SBGNUtils.getPoints(modificationArc);
 
         // gather only edit points, as they are the one who will undergo transformations into local
@@ -1135,8 +1212,8 @@ public class SBGNML2CD extends GeneralConverter {
         if(SBGNUtils.isLogicGate(modificationGlyph)) {
             // for logic gates, just take the center of the glyph
             finalStartPoint = new Point2D.Float(
-                    (float) (modificationGlyph.getBbox().getX() - mapBounds.getX() + modificationGlyph.getBbox().getW() / 2),
-                    (float) (modificationGlyph.getBbox().getY() - mapBounds.getY() + modificationGlyph.getBbox().getH() / 2)
+                    (float) (modificationGlyph.getBbox().getX() - ctx.mapBounds.getX() + modificationGlyph.getBbox().getW() / 2),
+                    (float) (modificationGlyph.getBbox().getY() - ctx.mapBounds.getY() + modificationGlyph.getBbox().getH() / 2)
             );
         }
         else {
@@ -1160,10 +1237,10 @@ public class SBGNML2CD extends GeneralConverter {
             Point2D.Float logicPoint = new Point2D.Float(
                     (float) finalStartPoint.getX(),
                     (float) finalStartPoint.getY());
-            lineWrapper = buildLineWrapper(modificationArc.getId(), localEditPoints, logicPoint);
+            lineWrapper = buildLineWrapper(modificationArc.getId(), localEditPoints, logicPoint, ctx);
         }
         else {
-            lineWrapper = buildLineWrapper(modificationArc.getId(), localEditPoints, null);
+            lineWrapper = buildLineWrapper(modificationArc.getId(), localEditPoints, null, ctx);
         }
 
         modificationW.setLineWrapper(lineWrapper);
@@ -1217,7 +1294,7 @@ public class SBGNML2CD extends GeneralConverter {
     }
 
     private void processSpecies(Glyph glyph, boolean isIncluded, boolean isComplex,
-                                String parentSpeciesId, String parentAliasId) {
+                                String parentSpeciesId, String parentAliasId, Context ctx) {
         String label = glyph.getLabel() == null ? "": glyph.getLabel().getText();
         label = Utils.UTF8charsToCD(label);
         List<Glyph> unitOfInfoList = glyph.getGlyph().stream()
@@ -1366,7 +1443,7 @@ public class SBGNML2CD extends GeneralConverter {
                             listOfModificationResidues.getModificationResidue().add(modificationResidue);
 
                             modificationResidue.setSide("none");
-                            modificationResidue.setAngle(BigDecimal.valueOf(resW.angle));
+                            modificationResidue.setAngle((double) resW.angle);
                             modificationResidue.setId(resW.id);
                             if(resW.name != null && !resW.name.isEmpty()) {
                                 modificationResidue.setName(resW.name);
@@ -1374,7 +1451,7 @@ public class SBGNML2CD extends GeneralConverter {
                         }
                     }
 
-                    protMap.put(referenceId, prot);
+                    ctx.protMap.put(referenceId, prot);
                     //sbml.getModel().getAnnotation().getExtension().getListOfProteins().getProtein().add(prot);
                     break;
                 case GENE:
@@ -1394,9 +1471,9 @@ public class SBGNML2CD extends GeneralConverter {
 
                             region.setId(resW.id);
                             region.setActive(false);
-                            region.setSize(BigDecimal.valueOf(0));
+                            region.setSize(0.0);
                             region.setType("Modification Site");
-                            region.setPos(BigDecimal.valueOf(resW.relativePos));
+                            region.setPos((double) resW.relativePos);
 
                             if(resW.name != null && !resW.name.isEmpty()) {
                                 region.setName(resW.name);
@@ -1404,7 +1481,7 @@ public class SBGNML2CD extends GeneralConverter {
                         }
                     }
 
-                    geneMap.put(referenceId, gene);
+                    ctx.geneMap.put(referenceId, gene);
                     //sbml.getModel().getAnnotation().getExtension().getListOfGenes().getGene().add(gene);
                     break;
                 case RNA:
@@ -1424,9 +1501,9 @@ public class SBGNML2CD extends GeneralConverter {
 
                             region.setId(resW.id);
                             // region.setActive(false); // <--- same as genes except no activity
-                            region.setSize(BigDecimal.valueOf(0));
+                            region.setSize(0.0);
                             region.setType("Modification Site");
-                            region.setPos(BigDecimal.valueOf(resW.relativePos));
+                            region.setPos((double) resW.relativePos);
 
                             if(resW.name != null && !resW.name.isEmpty()) {
                                 region.setName(resW.name);
@@ -1435,7 +1512,7 @@ public class SBGNML2CD extends GeneralConverter {
                     }
 
 
-                    rnaMap.put(referenceId, rna);
+                    ctx.rnaMap.put(referenceId, rna);
                     //sbml.getModel().getAnnotation().getExtension().getListOfRNAs().getRNA().add(rna);
                     break;
                 case ANTISENSE_RNA:
@@ -1455,9 +1532,9 @@ public class SBGNML2CD extends GeneralConverter {
 
                             region.setId(resW.id);
                             // region.setActive(false); // <--- same as genes except no activity
-                            region.setSize(BigDecimal.valueOf(0));
+                            region.setSize(0.0);
                             region.setType("Modification Site");
-                            region.setPos(BigDecimal.valueOf(resW.relativePos));
+                            region.setPos((double) resW.relativePos);
 
                             if(resW.name != null && !resW.name.isEmpty()) {
                                 region.setName(resW.name);
@@ -1465,7 +1542,7 @@ public class SBGNML2CD extends GeneralConverter {
                         }
                     }
 
-                    asrnaMap.put(referenceId, asrna);
+                    ctx.asrnaMap.put(referenceId, asrna);
                     //sbml.getModel().getAnnotation().getExtension().getListOfAntisenseRNAs().getAntisenseRNA().add(asrna);
                     break;
             }
@@ -1487,7 +1564,7 @@ public class SBGNML2CD extends GeneralConverter {
 
         // find and set the toplevel complex parent
         if(isIncluded) {
-            AliasWrapper parentComplexAliasW = aliasWrapperMap.get(parentAliasId);
+            AliasWrapper parentComplexAliasW = ctx.aliasWrapperMap.get(parentAliasId);
             // we need to go up the chain in case of multiple inclusion levels
             while(parentComplexAliasW.getTopLevelParent() != null) {
                 parentComplexAliasW = parentComplexAliasW.getTopLevelParent();
@@ -1546,7 +1623,7 @@ public class SBGNML2CD extends GeneralConverter {
             speciesW.setComplex(parentSpeciesId);
             speciesW.setIncludedSpecies(true);
         }
-        speciesWrapperMap.put(speciesW.getId(), speciesW);
+        ctx.speciesWrapperMap.put(speciesW.getId(), speciesW);
 
         // PROCESS ALIAS
         // compartmentRef
@@ -1556,15 +1633,15 @@ public class SBGNML2CD extends GeneralConverter {
 
         Rectangle2D.Float bounds = new Rectangle2D.Float();
         bounds.setRect(
-                glyph.getBbox().getX()- (float) mapBounds.getX(),
-                glyph.getBbox().getY()- (float) mapBounds.getY(),
+                glyph.getBbox().getX()- (float) ctx.mapBounds.getX(),
+                glyph.getBbox().getY()- (float) ctx.mapBounds.getY(),
                 glyph.getBbox().getW(),
                 glyph.getBbox().getH());
         aliasW.setBounds(bounds);
 
         // style
-        if(mapHasStyle)
-            aliasW.setStyleInfo(styleMap.get(glyph.getId()));
+        if(ctx.mapHasStyle)
+            aliasW.setStyleInfo(ctx.styleMap.get(glyph.getId()));
         else
             aliasW.setStyleInfo(new StyleInfo(aliasW.getId()));
 
@@ -1591,14 +1668,14 @@ public class SBGNML2CD extends GeneralConverter {
         // add alias to correct list
         if(isComplex) {
             ListOfComplexSpeciesAliases.ComplexSpeciesAlias complexSpeciesAlias = aliasW.getCDComplexSpeciesAlias();
-            sbml.getModel().getAnnotation().getExtension().getListOfComplexSpeciesAliases()
+            ctx.sbml.getModel().getAnnotation().getExtension().getListOfComplexSpeciesAliases()
                     .getComplexSpeciesAlias().add(complexSpeciesAlias);
         }
         else {
             SpeciesAlias speciesAlias = aliasW.getCDSpeciesAlias();
-            sbml.getModel().getAnnotation().getExtension().getListOfSpeciesAliases().getSpeciesAlias().add(speciesAlias);
+            ctx.sbml.getModel().getAnnotation().getExtension().getListOfSpeciesAliases().getSpeciesAlias().add(speciesAlias);
         }
-        aliasWrapperMap.put(aliasW.getId(), aliasW);
+        ctx.aliasWrapperMap.put(aliasW.getId(), aliasW);
 
         // recursively process included glyphs
         for(Glyph subglyph: glyph.getGlyph()) {
@@ -1611,22 +1688,22 @@ public class SBGNML2CD extends GeneralConverter {
                 if(subClazz == COMPLEX || subClazz == COMPLEX_MULTIMER) {
                     isSubGlyphComplex = true;
                 }
-                processSpecies(subglyph, true, isSubGlyphComplex, glyph.getId(), aliasId);
+                processSpecies(subglyph, true, isSubGlyphComplex, glyph.getId(), aliasId, ctx);
             }
         }
 
 
     }
 
-    private void processCompartment(Glyph glyph) {
+    private void processCompartment(Glyph glyph, Context ctx) {
 
         String label = glyph.getLabel() == null ? "": glyph.getLabel().getText();
         CompartmentWrapper compM = new CompartmentWrapper(
                 glyph.getId(),
                 label,
                 new Rectangle2D.Float(
-                        glyph.getBbox().getX() - (float) mapBounds.getX(),
-                        glyph.getBbox().getY() - (float) mapBounds.getY(),
+                        glyph.getBbox().getX() - (float) ctx.mapBounds.getX(),
+                        glyph.getBbox().getY() - (float) ctx.mapBounds.getY(),
                         glyph.getBbox().getW(),
                         glyph.getBbox().getH())
         );
@@ -1635,8 +1712,8 @@ public class SBGNML2CD extends GeneralConverter {
             compM.setOutside(((Glyph) glyph.getCompartmentRef()).getId());
         }
 
-        if(mapHasStyle) {
-            compM.setStyleInfo(styleMap.get(glyph.getId()));
+        if(ctx.mapHasStyle) {
+            compM.setStyleInfo(ctx.styleMap.get(glyph.getId()));
         }
 
         // label is precisely placed
@@ -1652,15 +1729,15 @@ public class SBGNML2CD extends GeneralConverter {
         setNotes(compM, glyph);
         setAnnotations(compM, glyph);
 
-        sbml.getModel().getListOfCompartments().getCompartment()
+        ctx.sbml.getModel().getListOfCompartments().getCompartment()
                 .add(compM.getCDCompartment());
-        sbml.getModel().getAnnotation().getExtension().getListOfCompartmentAliases().getCompartmentAlias()
+        ctx.sbml.getModel().getAnnotation().getExtension().getListOfCompartmentAliases().getCompartmentAlias()
                 .add(compM.getCDCompartmentAlias());
 
     }
 
 
-    private Sbml initFile(Map map) {
+    private Sbml initFile(Map map, Context ctx) {
 
         Sbml sbml = new Sbml();
         sbml.setLevel(BigInteger.valueOf(2));
@@ -1676,12 +1753,12 @@ public class SBGNML2CD extends GeneralConverter {
         model.setAnnotation(annotation);
 
         ModelAnnotationType.Extension ext = new ModelAnnotationType.Extension();
-        ext.setModelVersion(BigDecimal.valueOf(4.0));
+        ext.setModelVersion(4.0);
 
-        this.mapBounds = SBGNUtils.getMapBounds(map);
+        ctx.mapBounds = SBGNUtils.getMapBounds(map);
         ModelDisplay modelDisplay = new ModelDisplay();
-        modelDisplay.setSizeX((short) mapBounds.getWidth());
-        modelDisplay.setSizeY((short) mapBounds.getHeight());
+        modelDisplay.setSizeX((short) ctx.mapBounds.getWidth());
+        modelDisplay.setSizeY((short) ctx.mapBounds.getHeight());
         ext.setModelDisplay(modelDisplay);
 
         ext.setListOfSpeciesAliases(new ListOfSpeciesAliases());
@@ -1752,31 +1829,22 @@ public class SBGNML2CD extends GeneralConverter {
         return sbml;
     }
 
-    private void buildMaps(Map map) {
-
-        idToGlyph = new HashMap<>();
-        arcToSource = new HashMap<>();
-        arcToTarget = new HashMap<>();
-        processToArcs = new HashMap<>();
-        portToGlyph = new HashMap<>();
-        aliasWrapperMap = new HashMap<>();
-        speciesWrapperMap = new HashMap<>();
-        glyphToArc = new HashMap<>();
-        orphanArcs = new ArrayList<>();
-        orphanLogicGates = new HashSet<>();
-        protMap = new HashMap<>();
-        rnaMap = new HashMap<>();
-        geneMap = new HashMap<>();
-        asrnaMap = new HashMap<>();
+    private void buildMaps(Map map, Context ctx) {
+
+        ctx.speciesWrapperMap = new HashMap<>();
+        ctx.protMap = new HashMap<>();
+        ctx.rnaMap = new HashMap<>();
+        ctx.geneMap = new HashMap<>();
+        ctx.asrnaMap = new HashMap<>();
 
         // parse all the style info
-        styleMap = new HashMap<>();
-        mapHasStyle = false;
+        ctx.styleMap = new HashMap<>();
+        ctx.mapHasStyle = false;
         if(map.getExtension() != null) {
             for (Element e : map.getExtension().getAny()) {
                 if (e.getTagName().equals("renderInformation")) {
-                    styleMap = SBGNUtils.mapStyleinfo(e);
-                    mapHasStyle = true;
+                    ctx.styleMap = SBGNUtils.mapStyleinfo(e);
+                    ctx.mapHasStyle = true;
                 }
             }
         }
@@ -1784,16 +1852,16 @@ public class SBGNML2CD extends GeneralConverter {
         java.util.Map<String, Glyph> terminalId2Submap = new HashMap<>();
         for(Glyph g: map.getGlyph()) {
             GlyphClazz clazz = GlyphClazz.fromClazz(g.getClazz());
-            idToGlyph.put(g.getId(), g);
+            ctx.idToGlyph.put(g.getId(), g);
             for(Port p: g.getPort()) {
-                portToGlyph.put(p.getId(), g);
+                ctx.portToGlyph.put(p.getId(), g);
             }
             if(clazz == PROCESS || clazz == UNCERTAIN_PROCESS || clazz == OMITTED_PROCESS
                     || clazz == ASSOCIATION || clazz == DISSOCIATION) {
-                processToArcs.put(g.getId(), new ArrayList<>());
+                ctx.processToArcs.put(g.getId(), new ArrayList<>());
             }
             if(clazz == AND || clazz == OR || clazz == NOT) {
-                orphanLogicGates.add(g);
+                ctx.orphanLogicGates.add(g);
             }
 
             // in case of submap, go inside and index all terminals
@@ -1805,7 +1873,7 @@ public class SBGNML2CD extends GeneralConverter {
                 }
             }
 
-            glyphToArc.put(g.getId(), new ArrayList<>());
+            ctx.glyphToArc.put(g.getId(), new ArrayList<>());
         }
 
         for(Arc arc: map.getArc()) {
@@ -1815,7 +1883,7 @@ public class SBGNML2CD extends GeneralConverter {
 
             if(arc.getSource() instanceof Port) {
                 Port p = (Port) arc.getSource();
-                sourceGlyph = portToGlyph.get(p.getId());
+                sourceGlyph = ctx.portToGlyph.get(p.getId());
             }
             // for terminals, make links point directly at the parent submap
             else if(arc.getSource() instanceof Glyph && ((Glyph) arc.getSource()).getClazz().equals("terminal")) {
@@ -1827,11 +1895,11 @@ public class SBGNML2CD extends GeneralConverter {
             else { // glyph itself
                 sourceGlyph = (Glyph) arc.getSource();
             }
-            arcToSource.put(arc.getId(), sourceGlyph);
+            ctx.arcToSource.put(arc.getId(), sourceGlyph);
 
             if(arc.getTarget() instanceof Port) {
                 Port p = (Port) arc.getTarget();
-                targetGlyph = portToGlyph.get(p.getId());
+                targetGlyph = ctx.portToGlyph.get(p.getId());
             }
             // for terminals, make links point directly at the parent submap
             else if(arc.getTarget() instanceof Glyph && ((Glyph) arc.getTarget()).getClazz().equals("terminal")) {
@@ -1840,22 +1908,22 @@ public class SBGNML2CD extends GeneralConverter {
             else { // glyph itself
                 targetGlyph = (Glyph) arc.getTarget();
             }
-            arcToTarget.put(arc.getId(), targetGlyph);
+            ctx.arcToTarget.put(arc.getId(), targetGlyph);
 
-            if(processToArcs.containsKey(sourceGlyph.getId())){
-                processToArcs.get(sourceGlyph.getId()).add(arc);
+            if(ctx.processToArcs.containsKey(sourceGlyph.getId())){
+                ctx.processToArcs.get(sourceGlyph.getId()).add(arc);
                 isConnectedToProcess = true;
             }
-            if(processToArcs.containsKey(targetGlyph.getId())){
-                processToArcs.get(targetGlyph.getId()).add(arc);
+            if(ctx.processToArcs.containsKey(targetGlyph.getId())){
+                ctx.processToArcs.get(targetGlyph.getId()).add(arc);
                 isConnectedToProcess = true;
             }
 
-            if(glyphToArc.containsKey(sourceGlyph.getId())){
-                glyphToArc.get(sourceGlyph.getId()).add(arc);
+            if(ctx.glyphToArc.containsKey(sourceGlyph.getId())){
+                ctx.glyphToArc.get(sourceGlyph.getId()).add(arc);
             }
-            if(glyphToArc.containsKey(targetGlyph.getId())){
-                glyphToArc.get(targetGlyph.getId()).add(arc);
+            if(ctx.glyphToArc.containsKey(targetGlyph.getId())){
+                ctx.glyphToArc.get(targetGlyph.getId()).add(arc);
             }
 
             /*//
@@ -1868,7 +1936,7 @@ public class SBGNML2CD extends GeneralConverter {
                     &&
                         ((!SBGNUtils.isLogicGate(sourceGlyph)
                             && !SBGNUtils.isLogicGate(targetGlyph)))) {
-                orphanArcs.add(arc);
+                ctx.orphanArcs.add(arc);
             }
         }
 
@@ -1918,11 +1986,11 @@ public class SBGNML2CD extends GeneralConverter {
 
     public SimpleEntry<Link, Link> baseLinkProcessingStep1(ReactantWrapper reactantW, Glyph glyph, Arc arc,
                                        Point2D.Float absAssocPoint,
-                                       boolean isReactant, ReactionFeatures options) {
+                                       boolean isReactant, ReactionFeatures options, Context ctx) {
         // get point lists in correct order
         // apply the mapBounds correction to each point of the arc to get consistent coords
         List<Point2D.Float> reactantPoints0 = applyCorrection(SBGNUtils.getPoints(arc),
-                (float) mapBounds.getX(),(float) mapBounds.getY());
+                (float) ctx.mapBounds.getX(),(float) ctx.mapBounds.getY());
         if(options.isReversible() && isReactant) {
             Collections.reverse(reactantPoints0);
         }
@@ -1932,8 +2000,8 @@ public class SBGNML2CD extends GeneralConverter {
         // infer best anchorpoints possible
         Rectangle2D.Float baseRect0 = SBGNUtils.getRectangleFromGlyph(glyph);
         baseRect0.setRect(
-                baseRect0.getX() - mapBounds.getX(),
-                baseRect0.getY() - mapBounds.getY(),
+                baseRect0.getX() - ctx.mapBounds.getX(),
+                baseRect0.getY() - ctx.mapBounds.getY(),
                 baseRect0.getWidth(),
                 baseRect0.getHeight());
         AnchorPoint startAnchor0;
@@ -1979,7 +2047,7 @@ public class SBGNML2CD extends GeneralConverter {
     public SimpleEntry<Point2D.Float, Point2D.Float> getAssocDissocPoints(List<ReactantWrapper> reactants,
                                                                           Glyph processGlyph,
                                                                           Point2D.Float processCoords,
-                                                                          Arc arc, boolean isAssociation) {
+                                                                          Arc arc, boolean isAssociation, Context ctx) {
         // define association glyph absolute point
             /*
                 If there are ports, consider association to be on the first port, that way all the links are
@@ -2006,14 +2074,14 @@ public class SBGNML2CD extends GeneralConverter {
                 }
             }
             absAssocPoint = new Point2D.Float(
-                    consumptionPort.getX() - (float) mapBounds.getX(),
-                    consumptionPort.getY() - (float) mapBounds.getY());
+                    consumptionPort.getX() - (float) ctx.mapBounds.getX(),
+                    consumptionPort.getY() - (float) ctx.mapBounds.getY());
 
         }
         else {
             absAssocPoint = new Point2D.Float(
-                    (float) (processCoords.getX() - mapBounds.getX()),
-                    (float) (processCoords.getY() - mapBounds.getY())
+                    (float) (processCoords.getX() - ctx.mapBounds.getX()),
+                    (float) (processCoords.getY() - ctx.mapBounds.getY())
             );
         }
 
@@ -2063,7 +2131,7 @@ public class SBGNML2CD extends GeneralConverter {
      * @return
      */
     public LineWrapper buildLineWrapperWithProcess(java.util.Map<String, List<Point2D.Float>> arcIds2LocalEditPoints,
-                                                   String processGLyphId, Point2D.Float localAssocPoint) {
+                                                   String processGLyphId, Point2D.Float localAssocPoint, Context ctx) {
         // finally set up the xml elements and add to reactions
         List<String> arcsIds = new ArrayList<>();
         List<List<Point2D.Float>> editPointsList = new ArrayList<>();
@@ -2098,12 +2166,12 @@ public class SBGNML2CD extends GeneralConverter {
         /*
             Set a style only if all components' style are the same
          */
-        if(mapHasStyle) {
+        if(ctx.mapHasStyle) {
             boolean areAllStyleTheSame = true;
-            StyleInfo arcStyle1 = styleMap.get(arcsIds.get(0));
+            StyleInfo arcStyle1 = ctx.styleMap.get(arcsIds.get(0));
             // check all styles are homogeneous by comparing all other arcs styles to arcStyle1
             for(int i=1; i < arcsIds.size(); i++) {
-                StyleInfo arcStyle2 = styleMap.get(arcsIds.get(i));
+                StyleInfo arcStyle2 = ctx.styleMap.get(arcsIds.get(i));
                 if(arcStyle1.getLineWidth() != arcStyle2.getLineWidth()
                         || !arcStyle1.getLineColor().equals(arcStyle2.getLineColor())) {
                     areAllStyleTheSame = false;
@@ -2111,7 +2179,7 @@ public class SBGNML2CD extends GeneralConverter {
                 }
             }
             // finally check that all arc's styles are consistent with process glyph style
-            StyleInfo processGlyphStyle = styleMap.get(processGLyphId);
+            StyleInfo processGlyphStyle = ctx.styleMap.get(processGLyphId);
             if(arcStyle1.getLineWidth() != processGlyphStyle.getLineWidth()
                     || !arcStyle1.getLineColor().equals(processGlyphStyle.getLineColor())) {
                 areAllStyleTheSame = false;
@@ -2124,7 +2192,7 @@ public class SBGNML2CD extends GeneralConverter {
         }
 
         Line line = new Line();
-        line.setWidth(BigDecimal.valueOf(lineWidth));
+        line.setWidth((double) lineWidth);
         line.setColor(lineColor);
 
         List<String> editPointString = new ArrayList<>();
@@ -2158,12 +2226,13 @@ public class SBGNML2CD extends GeneralConverter {
      * @param additionalPoint for logic gates, their coordinates must be added at the end of the edit points string
      * @return
      */
-    public LineWrapper buildLineWrapper(String arcId, List<Point2D.Float> localEditPoints, Point2D.Float additionalPoint) {
+    public LineWrapper buildLineWrapper(String arcId, List<Point2D.Float> localEditPoints, Point2D.Float additionalPoint,
+                                        Context ctx) {
 
         String lineColor = "ff000000";
         float lineWidth = 1;
-        if(mapHasStyle) {
-            StyleInfo styleInfo = styleMap.get(arcId);
+        if(ctx.mapHasStyle) {
+            StyleInfo styleInfo = ctx.styleMap.get(arcId);
             lineWidth = styleInfo.getLineWidth();
             lineColor = styleInfo.getLineColor();
         }
@@ -2173,7 +2242,7 @@ public class SBGNML2CD extends GeneralConverter {
         ConnectScheme connectScheme = getSimpleConnectScheme(segmentCount, -1);
 
         LineType2 line = new LineType2();
-        line.setWidth(BigDecimal.valueOf(lineWidth));
+        line.setWidth((double) lineWidth);
         line.setColor(lineColor);
         line.setType("Straight");
 
@@ -2276,6 +2345,14 @@ public class SBGNML2CD extends GeneralConverter {
     }
 
 
+    /**
+     * @return measures of the last conversion to finish. Callers running conversions at the same time should give
+     * their own metrics to {@link #toCD(Sbgn, ConversionMetrics)} instead.
+     */
+    public ConversionMetrics getMetrics() {
+        return metrics;
+    }
+
     @Override
     public GeneralModel convert(GeneralModel generalModel) throws ConversionException, ReadModelException {
         SBGNSBFCModel sbgnModel = (SBGNSBFCModel) generalModel;
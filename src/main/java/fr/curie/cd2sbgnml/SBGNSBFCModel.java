@@ -1,16 +1,15 @@
 package fr.curie.cd2sbgnml;
 
+import fr.curie.cd2sbgnml.io.BomInputStream;
+import fr.curie.cd2sbgnml.io.SbgnStreamReader;
+import fr.curie.cd2sbgnml.io.SbgnStreamWriter;
 import org.sbfc.converter.exceptions.ReadModelException;
 import org.sbfc.converter.exceptions.WriteModelException;
 import org.sbfc.converter.models.SBGNModel;
 import org.sbgn.bindings.Sbgn;
 
-import javax.xml.bind.JAXBContext;
-import javax.xml.bind.JAXBException;
-import javax.xml.bind.Marshaller;
-import javax.xml.bind.Unmarshaller;
 import java.io.*;
-import java.util.stream.Collectors;
+import java.nio.file.Paths;
 
 public class SBGNSBFCModel extends SBGNModel {
 
@@ -30,47 +29,37 @@ public class SBGNSBFCModel extends SBGNModel {
         return model;
     }
 
+    /**
+     * Streams the file directly into JAXB, see {@link SbgnStreamReader}.
+     * @param fileName
+     * @throws ReadModelException
+     */
     public void setModelFromFile(String fileName) throws ReadModelException {
+        this.model = SbgnStreamReader.read(Paths.get(fileName));
+    }
 
-        try {
-            BufferedReader reader = new BufferedReader(
-                    new FileReader(fileName));
-            BOMskip(reader);
-            String content = reader.lines().collect(Collectors.joining());
-
-            // set given sbgn to always be 0.2 to avoid compatibility problems
-            content = content.replaceFirst("http://sbgn\\.org/libsbgn/0\\.3", "http://sbgn.org/libsbgn/0.2");
-
-            JAXBContext context = JAXBContext.newInstance("org.sbgn.bindings");
-            Unmarshaller unmarshaller = context.createUnmarshaller();
-            this.model = (Sbgn)unmarshaller.unmarshal(new StringReader(content));
-        } catch (IOException | JAXBException e) {
-            e.printStackTrace();
-        }
-
+    @Override
+    public void setModelFromString(String s) throws ReadModelException {
+        this.model = SbgnStreamReader.read(new StringReader(s));
     }
 
+    /**
+     * Formatted output, see {@link SbgnStreamWriter}.
+     * @param fileName
+     * @throws WriteModelException
+     */
     @Override
     public void modelToFile(String fileName) throws WriteModelException {
-        StringWriter sw = new StringWriter();
-        try {
-            Marshaller marshaller = JAXBContext.newInstance("org.sbgn.bindings").createMarshaller();
-            marshaller.setProperty(Marshaller.JAXB_ENCODING, "UTF-8");
-            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
-            //marshaller.setProperty("com.sun.xml.bind.namespacePrefixMapper", new Utils.DefaultNamespacePrefixMapper());
-            marshaller.marshal(this.model , sw);
-
-            String content = sw.toString();
-            // following line is when using 0.3 and processing 0.2
-            //content = content.replaceFirst("http://sbgn\\.org/libsbgn/0\\.3", "http://sbgn.org/libsbgn/0.2");
-
-            PrintWriter out = new PrintWriter(fileName);
-            out.println(content);
-            out.close();
-        } catch (JAXBException | FileNotFoundException e) {
-            e.printStackTrace();
-        }
+        modelToFile(fileName, new SbgnStreamWriter());
+    }
 
+    /**
+     * @param fileName
+     * @param writer configured writer, for compact output or another SBGN-ML namespace
+     * @throws WriteModelException
+     */
+    public void modelToFile(String fileName, SbgnStreamWriter writer) throws WriteModelException {
+        writer.write(this.model, Paths.get(fileName));
     }
 
     /**
@@ -78,7 +67,9 @@ public class SBGNSBFCModel extends SBGNModel {
      * See https://stackoverflow.com/a/18275066
      * @param reader
      * @throws IOException
+     * @deprecated files are now read through {@link BomInputStream}, which works at byte level
      */
+    @Deprecated
     public static void BOMskip(Reader reader) throws IOException {
         reader.mark(1);
         char[] possibleBOM = new char[1];
@@ -2,6 +2,9 @@ package fr.curie.cd2sbgnml;
 
 import com.beust.jcommander.JCommander;
 import com.beust.jcommander.Parameter;
+import com.beust.jcommander.ParameterException;
+import fr.curie.cd2sbgnml.io.ModelValidator;
+import fr.curie.cd2sbgnml.io.SchemaRegistry;
 import org.sbfc.converter.exceptions.ConversionException;
 import org.sbfc.converter.exceptions.ReadModelException;
 import org.sbfc.converter.exceptions.WriteModelException;
@@ -10,22 +13,51 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.xml.sax.SAXException;
 
-import javax.xml.XMLConstants;
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
-import javax.xml.bind.Unmarshaller;
-import javax.xml.bind.util.ValidationEventCollector;
+import javax.xml.bind.ValidationEvent;
 import javax.xml.validation.Schema;
-import javax.xml.validation.SchemaFactory;
-import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 public class Sbgnml2CdScript {
-    @Parameter(names = { "-i", "--input"}, required = true)
-    private String inputFileName;
 
-    @Parameter(names = { "-o", "--output" }, required = true)
+    /**
+     * Converter shared by all the conversions of the JVM, it can run many of them at the same time
+     */
+    private static final SBGNML2CD converter = new SBGNML2CD();
+
+    @Parameter(names = { "-i", "--input"}, variableArity = true, splitter = BatchConverter.NoSplitter.class,
+            description = "Input file. Several files, directories or glob patterns switch to batch mode")
+    private List<String> inputFileNames = new ArrayList<>();
+
+    @Parameter(names = { "-o", "--output" }, required = true,
+            description = "Output file, or output directory in batch mode")
     private String outputFileName;
 
+    @Parameter(names = { "-m", "--manifest" },
+            description = "File listing inputs, one per line, optionally followed by a tab and the output")
+    private String manifestFileName;
+
+    @Parameter(names = { "-t", "--threads" }, description = "Number of files converted in parallel in batch mode")
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    @Parameter(names = { "--metrics" }, description = "JSON file where time and memory spent in each stage are written")
+    private String metricsFileName;
+
+    @Parameter(names = { "--cache" },
+            description = "Directory where outputs are cached, to skip the conversion of inputs already converted")
+    private String cacheDirName;
+
+    @Parameter(names = { "--cache-size" }, description = "Maximum size of the cache in MB")
+    private long cacheSizeMB = 1024;
+
+    @Parameter(names = { "--validation" }, description = "Validation of the output: ON, BACKGROUND or OFF")
+    private ModelValidator.Mode validation = ModelValidator.Mode.ON;
+
     public static void main(String[] args) {
         Logger logger = LoggerFactory.getLogger(Sbgnml2CdScript.class);
 
@@ -35,41 +67,273 @@ public class Sbgnml2CdScript {
                 .build()
                 .parse(args);
 
-        convert(app.inputFileName, app.outputFileName);
-    }
+        if(app.inputFileNames.isEmpty() && app.manifestFileName == null) {
+            throw new ParameterException("An input or a manifest is required");
+        }
 
-    public static void convert(String inputFileName, String outputFileName) {
-        SBGNML2CD toCDConverter = new SBGNML2CD();
+        ConversionCache cache = null;
+        if(app.cacheDirName != null) {
+            try {
+                cache = new ConversionCache(Paths.get(app.cacheDirName), app.cacheSizeMB * 1024 * 1024);
+            } catch (IOException e) {
+                logger.error("Could not create cache directory "+app.cacheDirName, e);
+                System.exit(1);
+                return;
+            }
+        }
 
+        Options options = new Options()
+                .setValidation(app.validation)
+                .setCache(cache);
 
-        SBGNSBFCModel sbgnModel = new SBGNSBFCModel();
+        if(!BatchConverter.isBatch(app.inputFileNames, app.manifestFileName)) {
+            convert(app.inputFileNames.get(0), app.outputFileName, options, app.metricsFileName);
+            return;
+        }
+
+        List<BatchConverter.Job> jobs;
         try {
-            sbgnModel.setModelFromFile(inputFileName);
-        } catch (ReadModelException e) {
-            e.printStackTrace();
+            jobs = BatchConverter.collectJobs(app.inputFileNames, app.manifestFileName, Paths.get(app.outputFileName),
+                    Arrays.asList("sbgn", "sbgnml"), "xml");
+        } catch (IOException e) {
+            logger.error("Could not list input files", e);
+            System.exit(1);
+            return;
         }
 
+        List<BatchConverter.Result> results = new BatchConverter(app.threads).run(jobs,
+                (input, output, metrics) -> convert(input, output, options, metrics));
+        ModelValidator.awaitBackground();
+        if(app.metricsFileName != null) {
+            try {
+                BatchConverter.writeMetrics(results, Paths.get(app.metricsFileName));
+            } catch (IOException e) {
+                logger.error("Could not write metrics", e);
+            }
+        }
+        if(!BatchConverter.allConverted(results)) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * How a map is converted and validated. Each conversion reads the options it is given, so conversions with
+     * different options can run at the same time.
+     */
+    public static class Options {
+        private SBGNML2CD converter = Sbgnml2CdScript.converter;
+        private ModelValidator.Mode validation = ModelValidator.Mode.ON;
+        private ConversionCache cache = null;
+
+        /**
+         * @param converter may be used by other threads at the same time, by default the one shared by the JVM
+         */
+        public Options setConverter(SBGNML2CD converter) {
+            this.converter = converter;
+            return this;
+        }
+
+        /**
+         * @param validation how the output is validated, ON by default
+         */
+        public Options setValidation(ModelValidator.Mode validation) {
+            this.validation = validation;
+            return this;
+        }
+
+        /**
+         * @param cache if not null, used to skip the conversion of an input already converted
+         */
+        public Options setCache(ConversionCache cache) {
+            this.cache = cache;
+            return this;
+        }
+
+        public SBGNML2CD getConverter() {
+            return converter;
+        }
+
+        public ModelValidator.Mode getValidation() {
+            return validation;
+        }
+
+        public ConversionCache getCache() {
+            return cache;
+        }
+    }
+
+    public static void convert(String inputFileName, String outputFileName) {
+        convert(inputFileName, outputFileName, new Options(), null);
+    }
+
+    /**
+     * @param metricsFileName if not null, time and memory spent in each stage are logged and written there as JSON
+     */
+    private static void convert(String inputFileName, String outputFileName, Options options,
+                                String metricsFileName) {
+        Logger logger = LoggerFactory.getLogger(Sbgnml2CdScript.class);
+        ConversionMetrics metrics = new ConversionMetrics();
         try {
-            CellDesignerSBFCModel cellDesignerSBFCModel = (CellDesignerSBFCModel) toCDConverter.convert(sbgnModel);
-            cellDesignerSBFCModel.modelToFile(outputFileName);
-        } catch (ConversionException | ReadModelException | WriteModelException e) {
+            convert(Paths.get(inputFileName), Paths.get(outputFileName), options, metrics);
+        } catch (ConversionException | ReadModelException | WriteModelException | IOException e) {
             e.printStackTrace();
+            return;
+        }
+        ModelValidator.awaitBackground();
+
+        if(metricsFileName != null) {
+            metrics.log(logger);
+            try {
+                metrics.writeJson(Paths.get(metricsFileName));
+            } catch (IOException e) {
+                logger.error("Could not write metrics", e);
+            }
         }
+    }
+
+    /**
+     * Read, convert and write a single map.
+     * @param schema null to write without validating, else the map is validated while it is written
+     * @return the map written
+     */
+    private static Sbml convertFile(Path inputFile, Path outputFile, Options options, ConversionMetrics metrics,
+                                    Schema schema)
+            throws ReadModelException, ConversionException, WriteModelException {
+        SBGNSBFCModel sbgnModel = new SBGNSBFCModel();
+        ConversionMetrics.Timer timer = metrics.start("read");
+        sbgnModel.setModelFromFile(inputFile.toString());
+        timer.stop();
+
+        CellDesignerSBFCModel cellDesignerSBFCModel =
+                new CellDesignerSBFCModel(options.getConverter().toCD(sbgnModel.getModel(), metrics));
 
-        // VALIDATION
+        timer = metrics.start("write");
+        cellDesignerSBFCModel.modelToFile(outputFile.toString(), schema);
+        timer.stop();
+        return cellDesignerSBFCModel.getSbml();
+    }
+
+    /**
+     * Convert and validate a single map, or take its output from the cache if the same input was already converted
+     * with the same options. Only valid outputs are cached, so cached outputs are not validated again.
+     *
+     * Validation is done while writing, in the background or not at all. Outputs that were not validated in the
+     * calling thread are NOT_VALIDATED, in the background they are cached once found valid.
+     * @param inputFile SBGN-ML file
+     * @param outputFile CellDesigner file
+     * @param metrics filled with the read, conversion, write and cache stages
+     * @return OK, INVALID or NOT_VALIDATED
+     */
+    public static BatchConverter.Status convert(Path inputFile, Path outputFile, Options options,
+                                                ConversionMetrics metrics)
+            throws ReadModelException, ConversionException, WriteModelException, IOException {
+        ConversionCache cache = options.getCache();
+        String key = null;
+        if(cache != null) {
+            ConversionMetrics.Timer timer = metrics.start("cache");
+            try {
+                key = cache.key(inputFile, "sbgnml2cd");
+                if(cache.restore(key, outputFile)) {
+                    metrics.count("cacheHits", 1);
+                    return BatchConverter.Status.OK;
+                }
+            } finally {
+                timer.stop();
+            }
+            metrics.count("cacheHits", 0);
+        }
 
-        SchemaFactory sf = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+        String cacheKey = key;
+        switch (options.getValidation()) {
+            case OFF:
+                convertFile(inputFile, outputFile, options, metrics, null);
+                return BatchConverter.Status.NOT_VALIDATED;
+            case BACKGROUND:
+                Sbml sbml = convertFile(inputFile, outputFile, options, metrics, null);
+                ModelValidator.runInBackground(() -> validateAndStore(sbml, outputFile, metrics, cache, cacheKey));
+                return BatchConverter.Status.NOT_VALIDATED;
+            default:
+                // the output is validated by the marshaller as it is written, and not parsed again
+                ModelValidator.EventCollector collector = new ModelValidator.EventCollector();
+                try {
+                    convertFile(inputFile, outputFile, options, metrics,
+                            SchemaRegistry.CELLDESIGNER.getSchema(collector));
+                } catch (SAXException e) {
+                    throw new WriteModelException("Could not compile the CellDesigner schema", e);
+                }
+                List<ValidationEvent> events = collector.getEvents();
+                ModelValidator.log(LoggerFactory.getLogger(Sbgnml2CdScript.class),
+                        "CellDesigner output "+outputFile, events);
+                boolean valid = ModelValidator.isValid(events);
+                if(valid) {
+                    store(outputFile, metrics, cache, cacheKey);
+                }
+                return valid ? BatchConverter.Status.OK : BatchConverter.Status.INVALID;
+        }
+    }
+
+    /**
+     * Validate the map written to the output, and cache the output if it is valid.
+     * @param cache may be null
+     */
+    private static boolean validateAndStore(Sbml sbml, Path outputFile, ConversionMetrics metrics,
+                                            ConversionCache cache, String key) {
+        ConversionMetrics.Timer timer = metrics.start("validate");
+        boolean valid = validate(sbml, outputFile.toString());
+        timer.stop();
+        if(valid) {
+            store(outputFile, metrics, cache, key);
+        }
+        return valid;
+    }
+
+    /**
+     * Cache a valid output.
+     * @param cache may be null
+     */
+    private static void store(Path outputFile, ConversionMetrics metrics, ConversionCache cache, String key) {
+        if(cache != null) {
+            ConversionMetrics.Timer timer = metrics.start("cache");
+            try {
+                cache.store(key, outputFile);
+            } catch (IOException e) {
+                LoggerFactory.getLogger(Sbgnml2CdScript.class).error("Could not cache "+outputFile, e);
+            }
+            timer.stop();
+        }
+    }
+
+    /**
+     * Validate a map in memory, without reading back the file it was written to.
+     * @param outputFileName where the map was written, for messages
+     * @return true if the map is valid, problems are logged
+     */
+    public static boolean validate(Sbml sbml, String outputFileName) {
+        Logger logger = LoggerFactory.getLogger(Sbgnml2CdScript.class);
         try {
-            Schema schema = sf.newSchema(
-                            Sbgnml2CdScript.class.getResource("/schema/CellDesigner.xsd"));
-            JAXBContext jc = JAXBContext.newInstance(Sbml.class);
-
-            Unmarshaller unmarshaller = jc.createUnmarshaller();
-            unmarshaller.setSchema(schema);
-            unmarshaller.setEventHandler(new ValidationEventCollector());
-            unmarshaller.unmarshal(new File(outputFileName));
-        } catch (SAXException | JAXBException e) {
-            e.printStackTrace();
+            List<ValidationEvent> events = ModelValidator.validate(SchemaRegistry.CELLDESIGNER, sbml);
+            ModelValidator.log(logger, "CellDesigner output "+outputFileName, events);
+            return ModelValidator.isValid(events);
+        } catch (JAXBException e) {
+            logger.error("Could not validate "+outputFileName, e);
+            return false;
+        }
+    }
+
+    /**
+     * @param outputFileName CellDesigner file
+     * @return true if the file is valid, problems are logged
+     */
+    public static boolean validate(String outputFileName) {
+        Logger logger = LoggerFactory.getLogger(Sbgnml2CdScript.class);
+        try {
+            List<ValidationEvent> events = ModelValidator.validate(SchemaRegistry.CELLDESIGNER,
+                    Paths.get(outputFileName));
+            ModelValidator.log(logger, "CellDesigner output "+outputFileName, events);
+            return ModelValidator.isValid(events);
+        } catch (IOException e) {
+            logger.error("Could not validate "+outputFileName, e);
+            return false;
         }
     }
 }
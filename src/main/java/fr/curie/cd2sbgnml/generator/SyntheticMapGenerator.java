@@ -0,0 +1,404 @@
+package fr.curie.cd2sbgnml.generator;
+
+import fr.curie.cd2sbgnml.SBGNML2CD;
+import org.sbgn.Language;
+import org.sbgn.bindings.*;
+import org.sbml.sbml.level2.version4.Sbml;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Builds maps of any size, to measure conversion time and memory on maps bigger than the samples.
+ *
+ * SBGN-ML maps are built directly. CellDesigner maps are obtained by converting them with SBGNML2CD, which already
+ * knows how to produce species and complex aliases, compartments, reactions with edit points, logic gates and
+ * modifications from their SBGN-ML counterparts.
+ *
+ * Generated maps contain:
+ *  - compartments, laid out side by side, each holding a grid of species
+ *  - macromolecules, some of them with a state variable, simple chemicals and nucleic acid features
+ *  - complexes of 2 macromolecules
+ *  - process glyphs with 1 reactant and 1 product, the consumption arc having edit points
+ *  - modulations of processes, some of them coming from a logic gate with 2 inputs
+ *
+ * Which species take part in which reaction depends on the topology. The same settings and seed always give the
+ * same map.
+ */
+public class SyntheticMapGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyntheticMapGenerator.class);
+
+    public enum Topology {
+        /**
+         * reaction i transforms species i into species i+1
+         */
+        CHAIN,
+        /**
+         * reactants and products are picked uniformly
+         */
+        RANDOM,
+        /**
+         * half of the reactants, products and modifiers are picked among a few hub species, like ATP or water in
+         * real maps. Hubs are heavily cloned in the CellDesigner conversion.
+         */
+        HUB
+    }
+
+    private static final String[] SIMPLE_EPN_CLASSES = {"macromolecule", "simple chemical", "nucleic acid feature"};
+    private static final String[] MODIFIER_CLASSES = {"catalysis", "stimulation", "inhibition", "modulation"};
+
+    private static final float CELL_WIDTH = 220;
+    private static final float CELL_HEIGHT = 160;
+    private static final float MARGIN = 40;
+
+    private int compartmentCount = 4;
+    private int speciesCount = 1000;
+    private int reactionCount = 1000;
+    private double complexRatio = 0.1;
+    private double stateVariableRatio = 0.2;
+    private double modifierRatio = 0.3;
+    private double logicGateRatio = 0.1;
+    private int editPoints = 1;
+    private Topology topology = Topology.RANDOM;
+    private long seed = 42;
+
+    // state of the current generation
+    private Random random;
+    private int arcCount;
+    private List<Glyph> species;
+
+    public SyntheticMapGenerator setCompartmentCount(int compartmentCount) {
+        this.compartmentCount = compartmentCount;
+        return this;
+    }
+
+    public SyntheticMapGenerator setSpeciesCount(int speciesCount) {
+        this.speciesCount = speciesCount;
+        return this;
+    }
+
+    public SyntheticMapGenerator setReactionCount(int reactionCount) {
+        this.reactionCount = reactionCount;
+        return this;
+    }
+
+    /**
+     * @param complexRatio part of the species that are complexes
+     */
+    public SyntheticMapGenerator setComplexRatio(double complexRatio) {
+        this.complexRatio = complexRatio;
+        return this;
+    }
+
+    /**
+     * @param stateVariableRatio part of the macromolecules having a state variable
+     */
+    public SyntheticMapGenerator setStateVariableRatio(double stateVariableRatio) {
+        this.stateVariableRatio = stateVariableRatio;
+        return this;
+    }
+
+    /**
+     * @param modifierRatio part of the reactions having a modifier
+     */
+    public SyntheticMapGenerator setModifierRatio(double modifierRatio) {
+        this.modifierRatio = modifierRatio;
+        return this;
+    }
+
+    /**
+     * @param logicGateRatio part of the modifiers coming from a logic gate
+     */
+    public SyntheticMapGenerator setLogicGateRatio(double logicGateRatio) {
+        this.logicGateRatio = logicGateRatio;
+        return this;
+    }
+
+    /**
+     * @param editPoints number of intermediate points of consumption arcs
+     */
+    public SyntheticMapGenerator setEditPoints(int editPoints) {
+        this.editPoints = editPoints;
+        return this;
+    }
+
+    public SyntheticMapGenerator setTopology(Topology topology) {
+        this.topology = topology;
+        return this;
+    }
+
+    public SyntheticMapGenerator setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * @return a new CellDesigner map, the SBGN-ML conversion of {@link #generateSbgn()}
+     */
+    public Sbml generateCellDesigner() {
+        return new SBGNML2CD().toCD(generateSbgn());
+    }
+
+    /**
+     * @return a new SBGN-ML map
+     */
+    public Sbgn generateSbgn() {
+        if(compartmentCount < 1 || speciesCount < 2) {
+            throw new IllegalArgumentException("At least 1 compartment and 2 species are needed");
+        }
+        logger.info("Generating map with "+compartmentCount+" compartments, "+speciesCount+" species and "
+                +reactionCount+" reactions, "+topology+" topology");
+
+        random = new Random(seed);
+        arcCount = 0;
+        species = new ArrayList<>(speciesCount);
+
+        Sbgn sbgn = new Sbgn();
+        Map map = new Map();
+        map.setLanguage(Language.PD.toString());
+        sbgn.setMap(map);
+
+        // species are spread evenly in compartments, each compartment being a square grid
+        int perCompartment = (speciesCount + compartmentCount - 1) / compartmentCount;
+        int columns = (int) Math.ceil(Math.sqrt(perCompartment));
+        int rows = (perCompartment + columns - 1) / columns;
+        float compartmentWidth = columns * CELL_WIDTH + 2 * MARGIN;
+        float compartmentHeight = rows * CELL_HEIGHT + 2 * MARGIN;
+
+        List<Glyph> compartments = new ArrayList<>(compartmentCount);
+        for(int c=0; c < compartmentCount; c++) {
+            Glyph compartment = new Glyph();
+            compartment.setId("c"+c);
+            compartment.setClazz("compartment");
+            compartment.setLabel(label("compartment "+c));
+            compartment.setBbox(bbox(c * (compartmentWidth + MARGIN), 0, compartmentWidth, compartmentHeight));
+            map.getGlyph().add(compartment);
+            compartments.add(compartment);
+        }
+
+        for(int i=0; i < speciesCount; i++) {
+            int c = i % compartmentCount;
+            int cell = i / compartmentCount;
+            Bbox compartmentBox = compartments.get(c).getBbox();
+            float x = compartmentBox.getX() + MARGIN + (cell % columns) * CELL_WIDTH;
+            float y = compartmentBox.getY() + MARGIN + (cell / columns) * CELL_HEIGHT;
+
+            Glyph glyph = random.nextDouble() < complexRatio ?
+                    complex("s"+i, x, y)
+                    : simpleEntity("s"+i, SIMPLE_EPN_CLASSES[random.nextInt(SIMPLE_EPN_CLASSES.length)], x, y);
+            glyph.setCompartmentRef(compartments.get(c));
+            map.getGlyph().add(glyph);
+            species.add(glyph);
+        }
+
+        for(int r=0; r < reactionCount; r++) {
+            addReaction(map, r);
+        }
+
+        return sbgn;
+    }
+
+    private Glyph simpleEntity(String id, String clazz, float x, float y) {
+        Glyph glyph = new Glyph();
+        glyph.setId(id);
+        glyph.setClazz(clazz);
+        glyph.setLabel(label(clazz.substring(0, 1).toUpperCase() + id));
+        glyph.setBbox(bbox(x + 30, y + 40, 100, 40));
+
+        // CellDesigner modifications of other entities are not handled the same way
+        if(clazz.equals("macromolecule") && random.nextDouble() < stateVariableRatio) {
+            Glyph stateVariable = new Glyph();
+            stateVariable.setId(id+"_sv");
+            stateVariable.setClazz("state variable");
+            Glyph.State state = new Glyph.State();
+            state.setValue("P");
+            state.setVariable("S"+random.nextInt(500));
+            stateVariable.setState(state);
+            stateVariable.setBbox(bbox(x + 40, y + 32, 40, 16));
+            glyph.getGlyph().add(stateVariable);
+        }
+        return glyph;
+    }
+
+    private Glyph complex(String id, float x, float y) {
+        Glyph complex = new Glyph();
+        complex.setId(id);
+        complex.setClazz("complex");
+        complex.setLabel(label("Cplx"+id));
+        complex.setBbox(bbox(x + 10, y + 10, 160, 110));
+
+        for(int k=0; k < 2; k++) {
+            Glyph subunit = new Glyph();
+            subunit.setId(id+"_"+k);
+            subunit.setClazz("macromolecule");
+            subunit.setLabel(label("Sub"+k+id));
+            subunit.setBbox(bbox(x + 30, y + 25 + k * 45, 120, 35));
+            complex.getGlyph().add(subunit);
+        }
+        return complex;
+    }
+
+    private void addReaction(Map map, int r) {
+        Glyph reactant;
+        Glyph product;
+        switch (topology) {
+            case CHAIN:
+                reactant = species.get(r % speciesCount);
+                product = species.get((r + 1) % speciesCount);
+                break;
+            default:
+                reactant = pickSpecies();
+                do {
+                    product = pickSpecies();
+                } while (product == reactant);
+        }
+
+        float[] from = center(reactant.getBbox());
+        float[] to = center(product.getBbox());
+        float cx = (from[0] + to[0]) / 2;
+        float cy = (from[1] + to[1]) / 2;
+
+        Glyph process = new Glyph();
+        process.setId("p"+r);
+        process.setClazz("process");
+        process.setBbox(bbox(cx - 12, cy - 12, 24, 24));
+        Port in = port(process.getId()+".1", cx - 24, cy);
+        Port out = port(process.getId()+".2", cx + 24, cy);
+        process.getPort().add(in);
+        process.getPort().add(out);
+        map.getGlyph().add(process);
+
+        Arc consumption = arc("consumption", reactant, in, borderPoint(reactant.getBbox(), in.getX(), in.getY()),
+                new float[]{in.getX(), in.getY()});
+        addEditPoints(consumption);
+        map.getArc().add(consumption);
+
+        map.getArc().add(arc("production", out, product, new float[]{out.getX(), out.getY()},
+                borderPoint(product.getBbox(), out.getX(), out.getY())));
+
+        if(random.nextDouble() >= modifierRatio) {
+            return;
+        }
+
+        String modifierClass = MODIFIER_CLASSES[random.nextInt(MODIFIER_CLASSES.length)];
+        if(random.nextDouble() < logicGateRatio) {
+            Glyph gate = new Glyph();
+            gate.setId("g"+r);
+            gate.setClazz(random.nextBoolean() ? "and" : "or");
+            float gx = cx;
+            float gy = cy - 80;
+            gate.setBbox(bbox(gx - 15, gy - 15, 30, 30));
+            Port gateIn = port(gate.getId()+".1", gx, gy - 30);
+            Port gateOut = port(gate.getId()+".2", gx, gy + 30);
+            gate.getPort().add(gateIn);
+            gate.getPort().add(gateOut);
+            map.getGlyph().add(gate);
+
+            for(int k=0; k < 2; k++) {
+                Glyph input = pickSpecies();
+                map.getArc().add(arc("logic arc", input, gateIn,
+                        borderPoint(input.getBbox(), gateIn.getX(), gateIn.getY()),
+                        new float[]{gateIn.getX(), gateIn.getY()}));
+            }
+            map.getArc().add(arc(modifierClass, gateOut, process, new float[]{gateOut.getX(), gateOut.getY()},
+                    borderPoint(process.getBbox(), gateOut.getX(), gateOut.getY())));
+        }
+        else {
+            Glyph modifier = pickSpecies();
+            map.getArc().add(arc(modifierClass, modifier, process,
+                    borderPoint(modifier.getBbox(), cx, cy),
+                    borderPoint(process.getBbox(), center(modifier.getBbox())[0], center(modifier.getBbox())[1])));
+        }
+    }
+
+    private Glyph pickSpecies() {
+        if(topology == Topology.HUB && random.nextBoolean()) {
+            int hubs = Math.max(1, (int) Math.sqrt(speciesCount) / 4);
+            return species.get(random.nextInt(hubs));
+        }
+        return species.get(random.nextInt(speciesCount));
+    }
+
+    /**
+     * Put points on a zigzag along the arc
+     */
+    private void addEditPoints(Arc arc) {
+        float x0 = arc.getStart().getX();
+        float y0 = arc.getStart().getY();
+        float x1 = arc.getEnd().getX();
+        float y1 = arc.getEnd().getY();
+        for(int k=1; k <= editPoints; k++) {
+            float t = (float) k / (editPoints + 1);
+            float offset = k % 2 == 0 ? -20 : 20;
+            Arc.Next next = new Arc.Next();
+            next.setX(x0 + t * (x1 - x0) + offset);
+            next.setY(y0 + t * (y1 - y0) + offset);
+            arc.getNext().add(next);
+        }
+    }
+
+    private Arc arc(String clazz, Object source, Object target, float[] start, float[] end) {
+        Arc arc = new Arc();
+        arc.setId("a"+(arcCount++));
+        arc.setClazz(clazz);
+        arc.setSource(source);
+        arc.setTarget(target);
+        Arc.Start arcStart = new Arc.Start();
+        arcStart.setX(start[0]);
+        arcStart.setY(start[1]);
+        arc.setStart(arcStart);
+        Arc.End arcEnd = new Arc.End();
+        arcEnd.setX(end[0]);
+        arcEnd.setY(end[1]);
+        arc.setEnd(arcEnd);
+        return arc;
+    }
+
+    private static Port port(String id, float x, float y) {
+        Port port = new Port();
+        port.setId(id);
+        port.setX(x);
+        port.setY(y);
+        return port;
+    }
+
+    private static Label label(String text) {
+        Label label = new Label();
+        label.setText(text);
+        return label;
+    }
+
+    private static Bbox bbox(float x, float y, float w, float h) {
+        Bbox bbox = new Bbox();
+        bbox.setX(x);
+        bbox.setY(y);
+        bbox.setW(w);
+        bbox.setH(h);
+        return bbox;
+    }
+
+    private static float[] center(Bbox bbox) {
+        return new float[]{bbox.getX() + bbox.getW() / 2, bbox.getY() + bbox.getH() / 2};
+    }
+
+    /**
+     * @return the point where the segment from the center of the box to (x, y) crosses the border of the box
+     */
+    private static float[] borderPoint(Bbox bbox, float x, float y) {
+        float[] center = center(bbox);
+        float dx = x - center[0];
+        float dy = y - center[1];
+        if(dx == 0 && dy == 0) {
+            return center;
+        }
+        float scale = Math.min(
+                dx == 0 ? Float.MAX_VALUE : (bbox.getW() / 2) / Math.abs(dx),
+                dy == 0 ? Float.MAX_VALUE : (bbox.getH() / 2) / Math.abs(dy));
+        scale = Math.min(scale, 1);
+        return new float[]{center[0] + dx * scale, center[1] + dy * scale};
+    }
+}
@@ -0,0 +1,62 @@
+package fr.curie.cd2sbgnml.generator;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.Parameter;
+import fr.curie.cd2sbgnml.CellDesignerSBFCModel;
+import fr.curie.cd2sbgnml.SBGNSBFCModel;
+import fr.curie.cd2sbgnml.io.SbgnStreamWriter;
+import org.sbfc.converter.exceptions.WriteModelException;
+
+/**
+ * Writes a synthetic map, in SBGN-ML if the output ends with .sbgn or .sbgnml, in CellDesigner format otherwise.
+ */
+public class SyntheticMapScript {
+    @Parameter(names = { "-o", "--output" }, required = true)
+    private String outputFileName;
+
+    @Parameter(names = { "-s", "--species" })
+    private int species = 1000;
+
+    @Parameter(names = { "-r", "--reactions" })
+    private int reactions = 1000;
+
+    @Parameter(names = { "-c", "--compartments" })
+    private int compartments = 4;
+
+    @Parameter(names = { "--topology" }, description = "CHAIN, RANDOM or HUB")
+    private SyntheticMapGenerator.Topology topology = SyntheticMapGenerator.Topology.RANDOM;
+
+    @Parameter(names = { "--edit-points" }, description = "Number of edit points of consumption arcs")
+    private int editPoints = 1;
+
+    @Parameter(names = { "--seed" })
+    private long seed = 42;
+
+    @Parameter(names = { "--compact" }, description = "Write SBGN-ML without indentation")
+    private boolean compact = false;
+
+    public static void main(String[] args) throws WriteModelException {
+        SyntheticMapScript app = new SyntheticMapScript();
+        JCommander.newBuilder()
+                .addObject(app)
+                .build()
+                .parse(args);
+
+        SyntheticMapGenerator generator = new SyntheticMapGenerator()
+                .setSpeciesCount(app.species)
+                .setReactionCount(app.reactions)
+                .setCompartmentCount(app.compartments)
+                .setTopology(app.topology)
+                .setEditPoints(app.editPoints)
+                .setSeed(app.seed);
+
+        String name = app.outputFileName.toLowerCase();
+        if(name.endsWith(".sbgn") || name.endsWith(".sbgnml")) {
+            new SBGNSBFCModel(generator.generateSbgn())
+                    .modelToFile(app.outputFileName, new SbgnStreamWriter().setFormatted(!app.compact));
+        }
+        else {
+            new CellDesignerSBFCModel(generator.generateCellDesigner()).modelToFile(app.outputFileName);
+        }
+    }
+}
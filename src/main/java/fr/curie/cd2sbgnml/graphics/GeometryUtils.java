@@ -757,19 +757,26 @@ public class GeometryUtils {
      * @return a new list of points
      */
     public static List<Point2D.Float> convertPoints(List<Point2D.Float> points, List<AffineTransform> transforms) {
+        return new ArrayList<>(convertPoints(Polyline.of(points), transforms).asList());
+    }
 
-        List<Point2D.Float> convertedPoints = new ArrayList<>();
-        for (Point2D editP : points) {
-            Point2D p = new Point2D.Double(editP.getX(), editP.getY());
+    /**
+     * Apply a list of affine transforms to a polyline.
+     * @return a new polyline
+     */
+    public static Polyline convertPoints(Polyline points, List<AffineTransform> transforms) {
+        Polyline.Builder convertedPoints = Polyline.builder(points.size());
+        Point2D p = new Point2D.Double();
+        for(int i=0; i < points.size(); i++) {
+            p.setLocation(points.getX(i), points.getY(i));
 
             for(AffineTransform t: transforms) {
                 t.transform(p, p);
             }
 
-            convertedPoints.add(new Point2D.Float((float) p.getX(), (float) p.getY()));
-
+            convertedPoints.add((float) p.getX(), (float) p.getY());
         }
-        return convertedPoints;
+        return convertedPoints.build();
     }
 
     public static Point2D.Float getMiddle(Point2D.Float p1, Point2D.Float p2) {
@@ -787,12 +794,11 @@ public class GeometryUtils {
      * @return
      */
     public static Point2D.Float getMiddleOfPolylineSegment(List<Point2D.Float> points, int segment) {
-        if(points.size() < 2) {
-            throw new IllegalArgumentException("Polyline needs to have at least 2 points, "+ points.size()+" points provided.");
-        }
-        if(segment < 0 || segment > points.size() - 1) {
-            throw new IllegalArgumentException("segment has to be between 0 and polyline segment count, "+segment+" was provided.");
-        }
+        return getMiddleOfPolylineSegment(Polyline.of(points), segment);
+    }
+
+    public static Point2D.Float getMiddleOfPolylineSegment(Polyline points, int segment) {
+        checkPolylineSegment(points, segment);
 
         Point2D.Float p1 = points.get(segment);
         Point2D.Float p2 = points.get(segment + 1);
@@ -801,37 +807,49 @@ public class GeometryUtils {
     }
 
     public static SimpleEntry<List<Point2D.Float>, List<Point2D.Float>> splitPolylineAtSegment(List<Point2D.Float> points, int segment) {
-        if(points.size() < 2) {
-            throw new IllegalArgumentException("Polyline needs to have at least 2 points, "+ points.size()+" points provided.");
-        }
-        if(segment < 0 || segment > points.size() - 1) {
-            throw new IllegalArgumentException("segment has to be between 0 and polyline segment count, "+segment+" was provided.");
-        }
+        SimpleEntry<Polyline, Polyline> subLinks = splitPolylineAtSegment(Polyline.of(points), segment);
+        return new SimpleEntry<>(
+                new ArrayList<>(subLinks.getKey().asList()),
+                new ArrayList<>(subLinks.getValue().asList()));
+    }
 
-        List<Point2D.Float> subLinkPoints1 = new ArrayList<>();
-        List<Point2D.Float> subLinkPoints2 = new ArrayList<>();
-        List<Point2D.Float> currentSubLink = subLinkPoints1;
+    /**
+     * Split the segment in 2 at its middle.
+     * @return the polyline before the middle of the segment, and the polyline after it, both including the middle
+     */
+    public static SimpleEntry<Polyline, Polyline> splitPolylineAtSegment(Polyline points, int segment) {
+        checkPolylineSegment(points, segment);
 
-        for(int i=0; i < points.size() - 1; i++) {
-            Point2D.Float currentStartPoint = points.get(i);
-            Point2D.Float currenEndPoint = points.get(i + 1);
+        Polyline.Builder subLinkPoints1 = Polyline.builder(segment + 2);
+        Polyline.Builder subLinkPoints2 = Polyline.builder(points.size() - segment);
+        Polyline.Builder currentSubLink = subLinkPoints1;
 
-            currentSubLink.add(currentStartPoint);
+        for(int i=0; i < points.size() - 1; i++) {
+            currentSubLink.add(points.getX(i), points.getY(i));
 
             if(i == segment) { // split this segment in 2
-                Point2D.Float middle = getMiddle(currentStartPoint, currenEndPoint);
+                Point2D.Float middle = getMiddle(points.get(i), points.get(i + 1));
                 currentSubLink.add(middle);
                 currentSubLink = subLinkPoints2;
                 currentSubLink.add(middle);
             }
 
             if(i == points.size() - 2) {
-                currentSubLink.add(currenEndPoint);
+                currentSubLink.add(points.getX(i + 1), points.getY(i + 1));
             }
 
         }
 
-        return new SimpleEntry<>(subLinkPoints1, subLinkPoints2);
+        return new SimpleEntry<>(subLinkPoints1.build(), subLinkPoints2.build());
+    }
+
+    private static void checkPolylineSegment(Polyline points, int segment) {
+        if(points.size() < 2) {
+            throw new IllegalArgumentException("Polyline needs to have at least 2 points, "+ points.size()+" points provided.");
+        }
+        if(segment < 0 || segment > points.size() - 1) {
+            throw new IllegalArgumentException("segment has to be between 0 and polyline segment count, "+segment+" was provided.");
+        }
     }
 
     public static Point2D.Float normalizePoint(Point2D.Float p1,
@@ -876,26 +894,37 @@ public class GeometryUtils {
                                                              Glyph endGlyph,
                                                              AnchorPoint startAnchor,
                                                              AnchorPoint endAnchor) {
-        logger.trace("NORMALIZE points: " + points);
-        Point2D.Float cdSpaceStart = points.get(0);
-        Point2D.Float cdSpaceEnd = points.get(points.size() - 1);
+        return new ArrayList<>(getNormalizedEndPoints(Polyline.of(points),
+                startGlyph, endGlyph, startAnchor, endAnchor).asList());
+    }
 
-        List<Point2D.Float> result = new ArrayList<>();
+    /**
+     * Same as {@link #getNormalizedEndPoints(List, Glyph, Glyph, AnchorPoint, AnchorPoint)}, for polylines.
+     * @return a new polyline
+     */
+    public static Polyline getNormalizedEndPoints(Polyline points,
+                                                  Glyph startGlyph,
+                                                  Glyph endGlyph,
+                                                  AnchorPoint startAnchor,
+                                                  AnchorPoint endAnchor) {
+        logger.trace("NORMALIZE points: " + points);
+        Polyline.Builder result = Polyline.builder(points.size());
 
-        Point2D.Float normalized1 = normalizePoint(cdSpaceStart, points.get(1), startGlyph, startAnchor);
+        Point2D.Float normalized1 = normalizePoint(points.getFirst(), points.get(1), startGlyph, startAnchor);
         result.add(normalized1);
 
         for(int i=1; i < points.size() - 1; i++) {
-            result.add(points.get(i));
+            result.add(points.getX(i), points.getY(i));
         }
 
         Point2D.Float normalized2 = normalizePoint(
-                cdSpaceEnd, points.get(points.size() - 2), endGlyph, endAnchor);
+                points.getLast(), points.get(points.size() - 2), endGlyph, endAnchor);
         result.add(normalized2);
 
-        logger.trace("NORMALIZE RESULT: " + result);
+        Polyline normalized = result.build();
+        logger.trace("NORMALIZE RESULT: " + normalized);
 
-        return result;
+        return normalized;
     }
 
     /**
@@ -3,7 +3,6 @@ package fr.curie.cd2sbgnml.graphics;
 
 import java.awt.geom.Point2D;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -11,36 +10,46 @@ import java.util.List;
  */
 public class Link {
 
-    private Point2D.Float start;
-    private Point2D.Float end;
-    private List<Point2D.Float> editPoints;
+    /**
+     * start, edit points and end
+     */
+    private final Polyline points;
 
     public Link(List<Point2D.Float> pointList) {
-        this.start = pointList.get(0);
-        this.editPoints = new ArrayList<>();
-        for(int i=1; i < pointList.size() - 1; i++) {
-            this.editPoints.add(pointList.get(i));
-        }
-        this.end = pointList.get(pointList.size() - 1);
+        this(Polyline.of(pointList));
     }
 
+    public Link(Polyline points) {
+        this.points = points;
+    }
+
+    public Polyline getPoints() {
+        return points;
+    }
+
+    /**
+     * @return a read-only view of the start, edit points and end
+     */
     public List<Point2D.Float> getAllPoints() {
-        List<Point2D.Float> result = new ArrayList<>();
-        result.add(this.start);
-        result.addAll(this.editPoints);
-        result.add(this.end);
-        return result;
+        return points.asList();
     }
 
     public Point2D.Float getStart() {
-        return start;
+        return points.getFirst();
     }
 
     public Point2D.Float getEnd() {
-        return end;
+        return points.getLast();
+    }
+
+    public Polyline getEditPolyline() {
+        return points.subPolyline(1, points.size() - 1);
     }
 
+    /**
+     * @return a read-only view of the points between start and end
+     */
     public List<Point2D.Float> getEditPoints() {
-        return editPoints;
+        return points.asList().subList(1, points.size() - 1);
     }
 }
@@ -0,0 +1,191 @@
+package fr.curie.cd2sbgnml.graphics;
+
+import java.awt.geom.Point2D;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * An immutable list of points, packed as x0, y0, x1, y1... in a single float array.
+ *
+ * Maps carry millions of edit points, and a list of Point2D.Float costs an object per point on top of the list.
+ * Points are only created when asked for, by {@link #get} or by the list view of {@link #asList}.
+ */
+public final class Polyline {
+
+    public static final Polyline EMPTY = new Polyline(new float[0]);
+
+    private final float[] coords;
+
+    private Polyline(float[] coords) {
+        this.coords = coords;
+    }
+
+    public static Polyline of(List<? extends Point2D> points) {
+        float[] coords = new float[points.size() * 2];
+        int i = 0;
+        for(Point2D p: points) {
+            coords[i++] = (float) p.getX();
+            coords[i++] = (float) p.getY();
+        }
+        return new Polyline(coords);
+    }
+
+    public static Builder builder(int capacity) {
+        return new Builder(capacity);
+    }
+
+    public int size() {
+        return coords.length / 2;
+    }
+
+    public boolean isEmpty() {
+        return coords.length == 0;
+    }
+
+    public float getX(int i) {
+        checkIndex(i);
+        return coords[i * 2];
+    }
+
+    public float getY(int i) {
+        checkIndex(i);
+        return coords[i * 2 + 1];
+    }
+
+    /**
+     * @return a new point, changing it doesn't change the polyline
+     */
+    public Point2D.Float get(int i) {
+        checkIndex(i);
+        return new Point2D.Float(coords[i * 2], coords[i * 2 + 1]);
+    }
+
+    public Point2D.Float getFirst() {
+        return get(0);
+    }
+
+    public Point2D.Float getLast() {
+        return get(size() - 1);
+    }
+
+    /**
+     * @return the points from index from, included, to index to, excluded
+     */
+    public Polyline subPolyline(int from, int to) {
+        if(from < 0 || to > size() || from > to) {
+            throw new IndexOutOfBoundsException("from: "+from+" to: "+to+" size: "+size());
+        }
+        return new Polyline(Arrays.copyOfRange(coords, from * 2, to * 2));
+    }
+
+    /**
+     * @return the same points in the opposite order
+     */
+    public Polyline reverse() {
+        float[] reversed = new float[coords.length];
+        for(int i=0, j=coords.length - 2; j >= 0; i += 2, j -= 2) {
+            reversed[i] = coords[j];
+            reversed[i + 1] = coords[j + 1];
+        }
+        return new Polyline(reversed);
+    }
+
+    /**
+     * @return a copy of this polyline with the point at index i replaced
+     */
+    public Polyline with(int i, Point2D p) {
+        checkIndex(i);
+        float[] copy = coords.clone();
+        copy[i * 2] = (float) p.getX();
+        copy[i * 2 + 1] = (float) p.getY();
+        return new Polyline(copy);
+    }
+
+    /**
+     * @return a read-only view of the points, for code working with lists of points
+     */
+    public List<Point2D.Float> asList() {
+        return new PointList();
+    }
+
+    private void checkIndex(int i) {
+        if(i < 0 || i >= size()) {
+            throw new IndexOutOfBoundsException("Index: "+i+", Size: "+size());
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Polyline && Arrays.equals(coords, ((Polyline) o).coords);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(coords);
+    }
+
+    /**
+     * @return the same string as a list of Point2D.Float, without creating the points
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for(int i=0; i < coords.length; i += 2) {
+            if(i > 0) {
+                sb.append(", ");
+            }
+            sb.append("Point2D.Float[").append(coords[i]).append(", ").append(coords[i + 1]).append(']');
+        }
+        return sb.append(']').toString();
+    }
+
+    private class PointList extends AbstractList<Point2D.Float> implements RandomAccess {
+        @Override
+        public Point2D.Float get(int index) {
+            return Polyline.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return Polyline.this.size();
+        }
+    }
+
+    /**
+     * Appends points to a growing array, for polylines built point by point.
+     */
+    public static final class Builder {
+        private float[] coords;
+        private int length;
+
+        private Builder(int capacity) {
+            this.coords = new float[capacity * 2];
+        }
+
+        public Builder add(float x, float y) {
+            if(length + 2 > coords.length) {
+                coords = Arrays.copyOf(coords, Math.max(4, coords.length * 2));
+            }
+            coords[length++] = x;
+            coords[length++] = y;
+            return this;
+        }
+
+        public Builder add(Point2D p) {
+            return add((float) p.getX(), (float) p.getY());
+        }
+
+        public Builder addAll(Polyline polyline) {
+            for(int i=0; i < polyline.coords.length; i += 2) {
+                add(polyline.coords[i], polyline.coords[i + 1]);
+            }
+            return this;
+        }
+
+        public Polyline build() {
+            return new Polyline(length == coords.length ? coords : Arrays.copyOf(coords, length));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package fr.curie.cd2sbgnml.io;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Input stream skipping the byte order mark at the start of a file, if present.
+ * BOM is present in output of Newt, for example.
+ *
+ * This works on bytes, so unlike the old SBGNSBFCModel.BOMskip it doesn't depend on the platform's default charset
+ * (which on Windows turned the UTF-8 BOM into 3 chars starting with 00ef).
+ */
+public class BomInputStream extends FilterInputStream {
+
+    private final Charset charset;
+
+    public BomInputStream(InputStream in) throws IOException {
+        this(new PushbackInputStream(in, 3));
+    }
+
+    private BomInputStream(PushbackInputStream in) throws IOException {
+        super(in);
+        this.charset = skipBOM(in);
+    }
+
+    /**
+     * Read the first bytes, consume the BOM and push back anything else
+     * @return the charset given by the BOM, or null if no BOM was found
+     */
+    private static Charset skipBOM(PushbackInputStream in) throws IOException {
+        byte[] head = new byte[3];
+        int n = 0;
+        while (n < 3) {
+            int r = in.read(head, n, 3 - n);
+            if(r == -1) {
+                break;
+            }
+            n += r;
+        }
+
+        if(n == 3 && (head[0] & 0xFF) == 0xEF && (head[1] & 0xFF) == 0xBB && (head[2] & 0xFF) == 0xBF) {
+            return StandardCharsets.UTF_8;
+        }
+        if(n >= 2 && (head[0] & 0xFF) == 0xFE && (head[1] & 0xFF) == 0xFF) {
+            in.unread(head, 2, n - 2);
+            return StandardCharsets.UTF_16BE;
+        }
+        if(n >= 2 && (head[0] & 0xFF) == 0xFF && (head[1] & 0xFF) == 0xFE) {
+            in.unread(head, 2, n - 2);
+            return StandardCharsets.UTF_16LE;
+        }
+
+        in.unread(head, 0, n);
+        return null;
+    }
+
+    /**
+     * @return the charset indicated by the skipped BOM, or null if there was no BOM
+     */
+    public Charset getCharset() {
+        return charset;
+    }
+
+    public boolean hasBOM() {
+        return charset != null;
+    }
+}
@@ -0,0 +1,2169 @@
+package fr.curie.cd2sbgnml.io;
+
+import fr.curie.cd2sbgnml.xmlcdwrappers.Decimals;
+import org.sbml._2001.ns.celldesigner.*;
+import org.sbml.sbml.level2.version4.*;
+import org.sbml.sbml.level2.version4.Species;
+import org.w3c.dom.Element;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+
+import static fr.curie.cd2sbgnml.io.CellDesignerStreamReader.CELLDESIGNER_NS;
+import static fr.curie.cd2sbgnml.io.CellDesignerStreamReader.SBML_NS;
+
+/**
+ * Binds CellDesigner files to the classes generated by JAXB, straight from a stream reader, without the JAXB
+ * unmarshaller and its generic machinery.
+ *
+ * Only what the translation to SBGN-ML reads is bound. These elements are skipped without being looked at:
+ * function definitions, unit definitions, parameters, rules, events, kinetic laws, stoichiometry math, groups,
+ * species tags and block diagrams.
+ * The rest is bound as JAXB binds it, values that can't be parsed being left null. Notes and foreign annotations
+ * are kept as {@link XmlFragment}s, only parsed to DOM elements when used: their text is what JAXB would build, with
+ * all the namespaces in scope declared on the root, and without the whitespace before nested elements.
+ *
+ * When asked to, the elements above are kept instead of being skipped: their own attributes are bound, and their
+ * content is kept as fragments too.
+ *
+ * Each bind method is called on the start tag of its element, dispatches children with a switch on their local
+ * name, and returns on the end tag. An instance reads a single file.
+ */
+final class CellDesignerBinder {
+
+    private final XMLStreamReader reader;
+    private final boolean keepSkipped;
+
+    /**
+     * Namespace declarations in scope, as prefix, uri pairs, needed for the roots of fragments
+     */
+    private String[] namespaces = new String[16];
+    private int namespacesLength = 0;
+
+    /**
+     * Number of namespace declarations of each open element
+     */
+    private int[] declarationCounts = new int[32];
+    private int depth = 0;
+
+    private final StringBuilder text = new StringBuilder();
+    private final StringBuilder xml = new StringBuilder();
+
+    /**
+     * @param keepSkipped true to keep the skipped elements as fragments
+     */
+    CellDesignerBinder(XMLStreamReader reader, boolean keepSkipped) {
+        this.reader = reader;
+        this.keepSkipped = keepSkipped;
+    }
+
+    /**
+     * @return the content of the root sbml element
+     * @throws XMLStreamException if the xml is malformed or the root isn't sbml
+     */
+    Sbml bind() throws XMLStreamException {
+        int event = reader.getEventType();
+        while (event != XMLStreamReader.START_ELEMENT) {
+            event = reader.next();
+        }
+        if(!SBML_NS.equals(reader.getNamespaceURI()) || !reader.getLocalName().equals("sbml")) {
+            throw new XMLStreamException("Unexpected root element "+reader.getName(), reader.getLocation());
+        }
+        pushNamespaces();
+        return sbml();
+    }
+
+    /*
+     * sbml elements
+     */
+
+    private Sbml sbml() throws XMLStreamException {
+        Sbml sbml = new Sbml();
+        for(int i=0, n=reader.getAttributeCount(); i < n; i++) {
+            String value = reader.getAttributeValue(i);
+            switch (attributeName(i)) {
+                case "level": sbml.setLevel(bigInteger(value)); break;
+                case "version": sbml.setVersion(bigInteger(value)); break;
+                case "metaid": sbml.setMetaid(collapse(value)); break;
+            }
+        }
+        String name;
+        while ((name = nextChild(SBML_NS)) != null) {
+            switch (name) {
+                case "model": sbml.setModel(model()); break;
+                case "notes": sbml.setNotes(notes()); break;
+                default: skip();
+            }
+        }
+        return sbml;
+    }
+
+    private Model model() throws XMLStreamException {
+        Model model = new Model();
+        for(int i=0, n=reader.getAttributeCount(); i < n; i++) {
+            String value = reader.getAttributeValue(i);
+            switch (attributeName(i)) {
+                case "id": model.setId(value); break;
+                case "name": model.setName(value); break;
+                case "metaid": model.setMetaid(collapse(value)); break;
+            }
+        }
+        String name;
+        while ((name = nextChild(SBML_NS)) != null) {
+            switch (name) {
+                case "notes": model.setNotes(notes()); break;
+                case "annotation": model.setAnnotation(modelAnnotation()); break;
+                case "listOfCompartments": model.setListOfCompartments(listOfCompartments()); break;
+                case "listOfSpecies": model.setListOfSpecies(listOfSpecies()); break;
+                case "listOfReactions": model.setListOfReactions(listOfReactions()); break;
+                // function and unit definitions, parameters, rules and events
+                default:
+                    if(keepSkipped) {
+                        keptList(model, name);
+                    }
+                    else {
+                        skip();
+                    }
+            }
+        }
+        return model;
+    }
+
+    /**
+     * Keep the content of one of the lists of the model that are not bound, skip any other element
+     */
+    private void keptList(Model model, String name) throws XMLStreamException {
+        switch (name) {
+            case "listOfFunctionDefinitions": {
+                OriginalModel.ListOfFunctionDefinitions list = new OriginalModel.ListOfFunctionDefinitions();
+                listMetaid(list);
+                fragments(list.getAny());
+                model.setListOfFunctionDefinitions(list);
+                break;
+            }
+            case "listOfUnitDefinitions": {
+                OriginalModel.ListOfUnitDefinitions list = new OriginalModel.ListOfUnitDefinitions();
+                listMetaid(list);
+                fragments(list.getAny());
+                model.setListOfUnitDefinitions(list);
+                break;
+            }
+            case "listOfParameters": {
+                OriginalModel.ListOfParameters list = new OriginalModel.ListOfParameters();
+                listMetaid(list);
+                fragments(list.getAny());
+                model.setListOfParameters(list);
+                break;
+            }
+            case "listOfRules": {
+                OriginalModel.ListOfRules list = new OriginalModel.ListOfRules();
+                listMetaid(list);
+                fragments(list.getAny());
+                model.setListOfRules(list);
+                break;
+            }
+            case "listOfEvents": {
+                OriginalModel.ListOfEvents list = new OriginalModel.ListOfEvents();
+                listMetaid(list);
+                fragments(list.getAny());
+                model.setListOfEvents(list);
+                break;
+            }
+            default: skip();
+        }
+    }
+
+    /**
+     * Keep the children of the current element as fragments, whatever their namespace
+     * @param any where the children go
+     */
+    private void fragments(List<Element> any) throws XMLStreamException {
+        while (nextChild(SBML_NS) != null) {
+            any.add(fragment());
+        }
+    }
+
+    private SBase.Notes notes() throws XMLStreamException {
+        SBase.Notes notes = new SBase.Notes();
+        while (nextChild(SBML_NS) != null) {
+            notes.getAny().add(element());
+        }
+        return notes;
+    }
+
+    private OriginalModel.ListOfCompartments listOfCompartments() throws XMLStreamException {
+        OriginalModel.ListOfCompartments list = new OriginalModel.ListOfCompartments();
+        listMetaid(list);
+        String name;
+        while ((name = nextChild(SBML_NS)) != null) {
+            switch (name) {
+                case "compartment": list.getCompartment().add(compartment()); break;
+                case "notes": list.setNotes(notes()); break;
+                default: skip();
+            }
+        }
+        return list;
+    }
+
+    private Compartment compartment() throws XMLStreamException {
+        Compartment compartment = new Compartment();
+        for(int i=0, n=reader.getAttributeCount(); i < n; i++) {
+            String value = reader.getAttributeValue(i);
+            switch (attributeName(i)) {
+                case "id": compartment.setId(value); break;
+                case "name": compartment.setName(value); break;
+                case "size": compartment.setSize(xsdDouble(value)); break;
+                case "spatialDimensions": compartment.setSpatialDimensions(xsdInt(value)); break;
+                case "units": compartment.setUnits(value); break;
+                case "outside": compartment.setOutside(value); break;
+                case "constant": compartment.setConstant(xsdBoolean(value)); break;
+                case "metaid": compartment.setMetaid(collapse(value)); break;
+            }
+        }
+        String name;
+        while ((name = nextChild(SBML_NS)) != null) {
+            switch (name) {
+                case "notes": compartment.setNotes(notes()); break;
+                case "annotation": compartment.setAnnotation(compartmentAnnotation()); break;
+                default: skip();
+            }
+        }
+        return compartment;
+    }
+
+    private OriginalModel.ListOfSpecies listOfSpecies() throws XMLStreamException {
+        OriginalModel.ListOfSpecies list = new OriginalModel.ListOfSpecies();
+        listMetaid(list);
+        String name;
+        while ((name = nextChild(SBML_NS)) != null) {
+            switch (name) {
+                case "species": list.getSpecies().add(species()); break;
+                case "notes": list.setNotes(notes()); break;
+                default: skip();
+            }
+        }
+        return list;
+    }
+
+    private Species species() throws XMLStreamException {
+        Species species = new Species();
+        for(int i=0, n=reader.getAttributeCount(); i < n; i++) {
+            String value = reader.getAttributeValue(i);
+            switch (attributeName(i)) {
+                case "id": species.setId(value); break;
+                case "name": species.setName(value); break;
+                case "compartment": species.setCompartment(value); break;
+                case "initialAmount": species.setInitialAmount(xsdDouble(value)); break;
+                case "initialConcentration": species.setInitialConcentration(xsdDouble(value)); break;
+                case "substanceUnits": species.setSubstanceUnits(value); break;
+                case "spatialSizeUnits": species.setSpatialSizeUnits(value); break;
+                case "hasOnlySubstanceUnits": species.setHasOnlySubstanceUnits(xsdBoolean(value)); break;
+                case "boundaryCondition": species.setBoundaryCondition(xsdBoolean(value)); break;
+                case "charge": species.setCharge(bigInteger(value)); break;
+                case "constant": species.setConstant(xsdBoolean(value)); break;
+                case "metaid": species.setMetaid(collapse(value)); break;
+            }
+        }
+        String name;
+        while ((name = nextChild(SBML_NS)) != null) {
+            switch (name) {
+                case "notes": species.setNotes(notes()); break;
+                case "annotation": species.setAnnotation(speciesAnnotation()); break;
+                default: skip();
+            }
+        }
+        return species;
+    }
+
+    private OriginalModel.ListOfReactions listOfReactions() throws XMLStreamException {
+        OriginalModel.ListOfReactions list = new OriginalModel.ListOfReactions();
+        listMetaid(list);
+        String name;
+        while ((name = nextChild(SBML_NS)) != null) {
+            switch (name) {
+                case "reaction": list.getReaction().add(reaction()); break;
+                case "notes": list.setNotes(notes()); break;
+                default: skip();
+            }
+        }
+        return list;
+    }
+
+    private Reaction reaction() throws XMLStreamException {
+        Reaction reaction = new Reaction();
+        for(int i=0, n=reader.getAttributeCount(); i < n; i++) {
+            String value = reader.getAttributeValue(i);
+            switch (attributeName(i)) {
+                case "id": reaction.setId(value); break;
+                case "name": reaction.setName(value); break;
+                case "reversible": reaction.setReversible(xsdBoolean(value)); break;
+                case "fast": reaction.setFast(xsdBoolean(value)); break;
+                case "metaid": reaction.setMetaid(collapse(value)); break;
+            }
+        }
+        String name;
+        while ((name = nextChild(SBML_NS)) != null) {
+            switch (name) {
+                case "notes": reaction.setNotes(notes()); break;
+                case "annotation": reaction.setAnnotation(reactionAnnotation()); break;
+                case "listOfReactants": reaction.setListOfReactants(listOfSpeciesReferences()); break;
+                case "listOfProducts": reaction.setListOfProducts(listOfSpeciesReferences()); break;
+                case "listOfModifiers": reaction.setListOfModifiers(listOfModifierSpeciesReferences()); break;
+                case "kineticLaw":
+                    if(keepSkipped) {
+                        reaction.setKineticLaw(kineticLaw());
+                    }
+                    else {
+                        skip();
+                    }
+                    break;
+                default: skip();
+            }
+        }
+        return reaction;
+    }
+
+    private KineticLaw kineticLaw() throws XMLStreamException {
+        KineticLaw kineticLaw = new KineticLaw();
+        for(int i=0, n=reader.getAttributeCount(); i < n; i++) {
+            String value = reader.getAttributeValue(i);
+            switch (attributeName(i)) {
+                case "timeUnits": kineticLaw.setTimeUnits(value); break;
+                case "substanceUnits": kineticLaw.setSubstanceUnits(value); break;
+            }
+        }
+        listMetaid(kineticLaw);
+        fragments(kineticLaw.getAny());
+        return kineticLaw;
+    }
+
+    private ListOfSpeciesReferences listOfSpeciesReferences() throws XMLStreamException {
+        ListOfSpeciesReferences list = new ListOfSpeciesReferences();
+        listMetaid(list);
+        String name;
+        while ((name = nextChild(SBML_NS)) != null) {
+            switch (name) {
+                case "speciesReference": list.getSpeciesReference().add(speciesReference()); break;
+                case "notes": list.setNotes(notes()); break;
+                default: skip();
+            }
+        }
+        return list;
+    }
+
+    private SpeciesReference speciesReference() throws XMLStreamException {
+        SpeciesReference reference = new SpeciesReference();
+        for(int i=0, n=reader.getAttributeCount(); i < n; i++) {
+            String value = reader.getAttributeValue(i);
+            switch (attributeName(i)) {
+                case "species": reference.setSpecies(value); break;
+                case "stoichiometry": reference.setStoichiometry(xsdDouble(value)); break;
+                case "metaid": reference.setMetaid(collapse(value)); break;
+            }
+        }
+        String name;
+        while ((name = nextChild(SBML_NS)) != null) {
+            switch (name) {
+                case "notes": reference.setNotes(notes()); break;
+                case "annotation": reference.setAnnotation(speciesReferenceAnnotation()); break;
+                case "stoichiometryMath":
+                    if(keepSkipped) {
+                        StoichiometryMath math = new StoichiometryMath();
+                        listMetaid(math);
+                        fragments(math.getAny());
+                        reference.setStoichiometryMath(math);
+                    }
+                    else {
+                        skip();
+                    }
+                    break;
+                default: skip();
+            }
+        }
+        return reference;
+    }
+
+    private ListOfModifierSpeciesReferences listOfModifierSpeciesReferences() throws XMLStreamException {
+        ListOfModifierSpeciesReferences list = new ListOfModifierSpeciesReferences();
+        listMetaid(list);
+        String name;
+        while ((name = nextChild(SBML_NS)) != null) {
+            switch (name) {
+                case "modifierSpeciesReference":
+                    list.getModifierSpeciesReference().add(modifierSpeciesReference()); break;
+                case "notes": list.setNotes(notes()); break;
+                default: skip();
+            }
+        }
+        return list;
+    }
+
+    private ModifierSpeciesReference modifierSpeciesReference() throws XMLStreamException {
+        ModifierSpeciesReference reference = new ModifierSpeciesReference();
+        for(int i=0, n=reader.getAttributeCount(); i < n; i++) {
+            String value = reader.getAttributeValue(i);
+            switch (attributeName(i)) {
+                case "species": reference.setSpecies(value); break;
+                case "metaid": reference.setMetaid(collapse(value)); break;
+            }
+        }
+        String name;
+        while ((name = nextChild(SBML_NS)) != null) {
+            switch (name) {
+                case "notes": reference.setNotes(notes()); break;
+                case "annotation": reference.setAnnotation(speciesReferenceAnnotation()); break;
+                default: skip();
+            }
+        }
+        return reference;
+    }
+
+    /**
+     * metaid of the listOf elements, their only attribute
+     */
+    private void listMetaid(SBase list) {
+        for(int i=0, n=reader.getAttributeCount(); i < n; i++) {
+            if(attributeName(i).equals("metaid")) {
+                list.setMetaid(collapse(reader.getAttributeValue(i)));
+            }
+        }
+    }
+
+    /*
+     * annotations, a celldesigner extension followed by any other element
+     */
+
+    private ModelAnnotationType modelAnnotation() throws XMLStreamException {
+        ModelAnnotationType annotation = new ModelAnnotationType();
+        String name;
+        while ((name = nextChild(CELLDESIGNER_NS)) != null) {
+            if(name.equals("extension")) {
+                annotation.setExtension(modelExtension());
+            }
+            else {
+                annotation.getAny().add(element());
+            }
+        }
+        return annotation;
+    }
+
+    private CompartmentAnnotationType compartmentAnnotation() throws XMLStreamException {
+        CompartmentAnnotationType annotation = new CompartmentAnnotationType();
+        String name;
+        while ((name = nextChild(CELLDESIGNER_NS)) != null) {
+            if(name.equals("extension")) {
+                CompartmentAnnotationType.Extension extension = new CompartmentAnnotationType.Extension();
+                String childName;
+                while ((childName = nextChild(CELLDESIGNER_NS)) != null) {
+                    switch (childName) {
+                        case "name": extension.setName(text()); break;
+                        default: skip();
+                    }
+                }
+                annotation.setExtension(extension);
+            }
+            else {
+                annotation.getAny().add(element());
+            }
+        }
+        return annotation;
+    }
+
+    private SpeciesAnnotationType speciesAnnotation() throws XMLStreamException {
+        SpeciesAnnotationType annotation = new SpeciesAnnotationType();
+        String name;
+        while ((name = nextChild(CELLDESIGNER_NS)) != null) {
+            if(name.equals("extension")) {
+                SpeciesAnnotationType.Extension extension = new SpeciesAnnotationType.Extension();
+                String childName;
+                while ((childName = nextChild(CELLDESIGNER_NS)) != null) {
+                    switch (childName) {
+                        case "positionToCompartment": extension.setPositionToCompartment(text()); break;
+                        case "complexSpecies": extension.setComplexSpecies(text()); break;
+                        case "speciesIdentity": extension.setSpeciesIdentity(speciesIdentity()); break;
+                        case "listOfCatalyzedReactions":
+                            extension.setListOfCatalyzedReactions(listOfCatalyzedReactions()); break;
+                        default: skip();
+                    }
+                }
+                annotation.setExtension(extension);
+            }
+            else {
+                annotation.getAny().add(element());
+            }
+        }
+        return annotation;
+    }
+
+    private ReactionAnnotationType reactionAnnotation() throws XMLStreamException {
+        ReactionAnnotationType annotation = new ReactionAnnotationType();
+        String name;
+        while ((name = nextChild(CELLDESIGNER_NS)) != null) {
+            if(name.equals("extension")) {
+                annotation.setExtension(reactionExtension());
+            }
+            else {
+                annotation.getAny().add(element());
+            }
+        }
+        return annotation;
+    }
+
+    private SpeciesReferenceAnnotationType speciesReferenceAnnotation() throws XMLStreamException {
+        SpeciesReferenceAnnotationType annotation = new SpeciesReferenceAnnotationType();
+        String name;
+        while ((name = nextChild(CELLDESIGNER_NS)) != null) {
+            if(name.equals("extension")) {
+                SpeciesReferenceAnnotationType.Extension extension = new SpeciesReferenceAnnotationType.Extension();
+                String childName;
+                while ((childName = nextChild(CELLDESIGNER_NS)) != null) {
+                    switch (childName) {
+                        case "alias": extension.setAlias(text()); break;
+                        default: skip();
+                    }
+                }
+                annotation.setExtension(extension);
+            }
+            else {
+                annotation.getAny().add(element());
+            }
+        }
+        return annotation;
+    }
+
+    /*
+     * celldesigner elements of the model
+     */
+
+    private ModelAnnotationType.Extension modelExtension() throws XMLStreamException {
+        ModelAnnotationType.Extension extension = new ModelAnnotationType.Extension();
+        String name;
+        while ((name = nextChild(CELLDESIGNER_NS)) != null) {
+            switch (name) {
+                case "modelVersion": extension.setModelVersion(decimal(text())); break;
+                case "modelDisplay": extension.setModelDisplay(modelDisplay()); break;
+                case "listOfIncludedSpecies": extension.setListOfIncludedSpecies(listOfIncludedSpecies()); break;
+                case "listOfCompartmentAliases":
+                    extension.setListOfCompartmentAliases(listOfCompartmentAliases()); break;
+                case "listOfComplexSpeciesAliases":
+                    extension.setListOfComplexSpeciesAliases(listOfComplexSpeciesAliases()); break;
+                case "listOfSpeciesAliases": extension.setListOfSpeciesAliases(listOfSpeciesAliases()); break;
+                case "listOfProteins": extension.setListOfProteins(listOfProteins()); break;
+                case "listOfGenes": extension.setListOfGenes(listOfGenes()); break;
+                case "listOfRNAs": extension.setListOfRNAs(listOfRNAs()); break;
+                case "listOfAntisenseRNAs": extension.setListOfAntisenseRNAs(listOfAntisenseRNAs()); break;
+                case "listOfLayers": extension.setListOfLayers(listOfLayers()); break;
+                case "listOfGroups":
+                    if(keepSkipped) {
+                        ListOfGroups groups = new ListOfGroups();
+                        fragments(groups.getAny());
+                        extension.setListOfGroups(groups);
+                    }
+                    else {
+                        skip();
+                    }
+                    break;
+                case "listOfBlockDiagrams":
+                    if(keepSkipped) {
+                        ListOfBlockDiagrams blockDiagrams = new ListOfBlockDiagrams();
+                        fragments(blockDiagrams.getAny());
+                        extension.setListOfBlockDiagrams(blockDiagrams);
+                    }
+                    else {
+                        skip();
+                    }
+                    break;
+                default: skip();
+            }
+        }
+        return extension;
+    }
+
+    private ModelDisplay modelDisplay() throws XMLStreamException {
+        ModelDisplay display = new ModelDisplay();
+        for(int i=0, n=reader.getAttributeCount(); i < n; i++) {
+            Short value = xsdShort(reader.getAttributeValue(i));
+            if(value == null) {
+                continue;
+            }
+            switch (attributeName(i)) {
+                case "sizeX": display.setSizeX(value); break;
+                case "sizeY": display.setSizeY(value); break;
+            }
+        }
+        skip();
+        return display;
+    }
+
+    private ListOfIncludedSpecies listOfIncludedSpecies() throws XMLStreamException {
+        ListOfIncludedSpecies list = new ListOfIncludedSpecies();
+        String name;
+        while ((name = nextChild(CELLDESIGNER_NS)) != null) {
+            switch (name) {
+                case "species": list.getSpecies().add(includedSpecies()); break;
+                default: skip();
+            }
+        }
+        return list;
+    }
+
+    private org.sbml._2001.ns.celldesigner.Species includedSpecies() throws XMLStreamException {
+        org.sbml._2001.ns.celldesigner.Species species = new org.sbml._2001.ns.celldesigner.Species();
+        for(int i=0, n=reader.getAttributeCount(); i < n; i++) {
+            String value = reader.getAttributeValue(i);
+            switch (attributeName(i)) {
+                case "id": species.setId(value); break;
+                case "name": species.setName(value); break;
+                case "compartment": species.setCompartment(value); break;
+                case "initialAmount": species.setInitialAmount(xsdDouble(value)); break;
+                case "initialConcentration": species.setInitialConcentration(xsdDouble(value)); break;
+                case "substanceUnits": species.setSubstanceUnits(value); break;
+                case "spatialSizeUnits": species.setSpatialSizeUnits(value); break;
+                case "hasOnlySubstanceUnits": species.setHasOnlySubstanceUnits(xsdBoolean(value)); break;
+                case "boundaryCondition": species.setBoundaryCondition(xsdBoolean(value)); break;
+                case "charge": species.setCharge(bigInteger(value)); break;
+                case "constant": species.setConstant(xsdBoolean(value)); break;
+            }
+        }
+        String name;
+        while ((name = nextChild(CELLDESIGNER_NS)) != null) {
+            switch (name) {
+                case "notes": species.setNotes(cellDesignerNotes()); break;
+                case "annotation": species.setAnnotation(includedSpeciesAnnotation()); break;
+                default: skip();
+            }
+        }
+        return species;
+    }
+
+    private org.sbml._2001.ns.celldesigner.Species.Annotation includedSpeciesAnnotation() throws XMLStreamException {
+        org.sbml._2001.ns.celldesigner.Species.Annotation annotation =
+                new org.sbml._2001.ns.celldesigner.Species.Annotation();
+        String name;
+        while ((name = nextChild(CELLDESIGNER_NS)) != null) {
+            switch (name) {
+                case "positionToCompartment": annotation.setPositionToCompartment(text()); break;
+                case "complexSpecies": annotation.setComplexSpecies(text()); break;
+                case "speciesIdentity": annotation.setSpeciesIdentity(speciesIdentity()); break;
+                case "listOfCatalyzedReactions":
+                    annotation.setListOfCatalyzedReactions(listOfCatalyzedReactions()); break;
+                default: skip();
+            }
+        }
+        return annotation;
+    }
+
+    private Notes cellDesignerNotes() throws XMLStreamException {
+        Notes notes = new Notes();
+        while (nextChild(CELLDESIGNER_NS) != null) {
+            notes.getAny().add(element());
+        }
+        return notes;
+    }
+
+    private SpeciesIdentity speciesIdentity() throws XMLStreamException {
+        SpeciesIdentity identity = new SpeciesIdentity();
+        String name;
+        while ((name = nextChild(CELLDESIGNER_NS)) != null) {
+            switch (name) {
+                case "class": identity.setClazz(text()); break;
+                case "hypothetical": identity.setHypothetical(xsdBoolean(text())); break;
+                case "name": identity.setName(text()); break;
+                case "proteinReference": identity.setProteinReference(text()); break;
+                case "rnaReference": identity.setRnaReference(text()); break;
+                case "geneReference": identity.setGeneReference(text()); break;
+                case "antisensernaReference": identity.setAntisensernaReference(text()); break;
+                case "state": identity.setState(state()); break;
+                default: skip();
+            }
+        }
+        return identity;
+    }
+
+    private State state() throws XMLStreamException {
+        State state = new State();
+        String name;
+        while ((name = nextChild(CELLDESIGNER_NS)) != null) {
+            switch (name) {
+                case "homodimer": state.setHomodimer(bigInteger(text())); break;
+                case "listOfModifications": state.setListOfModifications(listOfModifications()); break;
+                case "listOfStructuralStates": state.setListOfStructuralStates(listOfStructuralStates()); break;
+                default: skip();
+            }
+        }
+        return state;
+    }
+
+    private ListOfModifications listOfModifications() throws XMLStreamException {
+        ListOfModifications list = new ListOfModifications();
+        String name;
+        while ((name = nextChild(CELLDESIGNER_NS)) != null) {
+            switch (name) {
+                case "modification":
+                    ListOfModifications.Modification modification = new ListOfModifications.Modification();
+                    for(int i=0, n=reader.getAttributeCount(); i < n; i++) {
+                        String value = reader.getAttributeValue(i);
+                        switch (attributeName(i)) {
+                            case "residue": modification.setResidue(value); break;
+                            case "state": modification.setState(value); break;
+                        }
+                    }
+                    skip();
+                    list.getModification().add(modification);
+                    break;
+                default: skip();
+            }
+        }
+        return list;
+    }
+
+    private ListOfStructuralStates listOfStructuralStates() throws XMLStreamException {
+        ListOfStructuralStates list = new ListOfStructuralStates();
+        String name;
+        while ((name = nextChild(CELLDESIGNER_NS)) != null) {
+            switch (name) {
+                case "structuralState":
+                    StructuralStates structuralState = new StructuralStates();
+                    for(int i=0, n=reader.getAttributeCount(); i < n; i++) {
+                        if(attributeName(i).equals("structuralState")) {
+                            structuralState.setStructuralState(reader.getAttributeValue(i));
+                        }
+                    }
+                    skip();
+                    list.setStructuralState(structuralState);
+                    break;
+                default: skip();
+            }
+        }
+        return list;
+    }
+
+    private ListOfCatalyzedReactions listOfCatalyzedReactions() throws XMLStreamException {
+        ListOfCatalyzedReactions list = new ListOfCatalyzedReactions();
+        String name;
+        while ((name = nextChild(CELLDESIGNER_NS)) != null) {
+            switch (name) {
+                case "catalyzed":
+                    Catalyzed catalyzed = new Catalyzed();
+                    for(int i=0, n=reader.getAttributeCount(); i < n; i++) {
+                        if(attributeName(i).equals("reaction")) {
+                            catalyzed.setReaction(reader.getAttributeValue(i));
+                        }
+                    }
+                    skip();
+                    list.getCatalyzed().add(catalyzed);
+                    break;
+                default: skip();
+            }
+        }
+        return list;
+    }
+
+    private ListOfCompartmentAliases listOfCompartmentAliases() throws XMLStreamException {
+        ListOfCompartmentAliases list = new ListOfCompartmentAliases();
+        String name;
+        while ((name = nextChild(CELLDESIGNER_NS)) != null) {
+            switch (name) {
+                case "compartmentAlias": list.getCompartmentAlias().add(compartmentAlias()); break;
+                default: skip();
+            }
+        }
+        return list;
+    }
+
+    private CompartmentAlias compartmentAlias() throws XMLStreamException {
+        CompartmentAlias alias = new CompartmentAlias();
+        for(int i=0, n=reader.getAttributeCount(); i < n; i++) {
+            String value = reader.getAttributeValue(i);
+            switch (attributeName(i)) {
+                case "compartment": alias.setCompartment(value); break;
+                case "id": alias.setId(value); break;
+            }
+        }
+        String name;
+        while ((name = nextChild(CELLDESIGNER_NS)) != null) {
+            switch (name) {
+                case "class": alias.setClazz(text()); break;
+                case "bounds": alias.setBounds(bounds()); break;
+                case "point": alias.setPoint(point()); break;
+                case "namePoint": alias.setNamePoint(point()); break;
+                case "doubleLine": alias.setDoubleLine(doubleLine()); break;
+                case "paint": alias.setPaint(paint()); break;
+                case "info": alias.setInfo(info()); break;
+                default: skip();
+            }
+        }
+        return alias;
+    }
+
+    private ListOfComplexSpeciesAliases listOfComplexSpeciesAliases() throws XMLStreamException {
+        ListOfComplexSpeciesAliases list = new ListOfComplexSpeciesAliases();
+        String name;
+        while ((name = nextChild(CELLDESIGNER_NS)) != null) {
+            switch (name) {
+                case "complexSpeciesAlias": list.getComplexSpeciesAlias().add(complexSpeciesAlias()); break;
+                default: skip();
+            }
+        }
+        return list;
+    }
+
+    private ListOfComplexSpeciesAliases.ComplexSpeciesAlias complexSpeciesAlias() throws XMLStreamException {
+        ListOfComplexSpeciesAliases.ComplexSpeciesAlias alias = new ListOfComplexSpeciesAliases.ComplexSpeciesAlias();
+        for(int i=0, n=reader.getAttributeCount(); i < n; i++) {
+            String value = reader.getAttributeValue(i);
+            switch (attributeName(i)) {
+                case "id": alias.setId(value); break;
+                case "species": alias.setSpecies(value); break;
+                case "compartmentAlias": alias.setCompartmentAlias(value); break;
+                case "complexSpeciesAlias": alias.setComplexSpeciesAlias(value); break;
+            }
+        }
+        String name;
+        while ((name = nextChild(CELLDESIGNER_NS)) != null) {
+            switch (name) {
+                case "activity": alias.setActivity(text()); break;
+                case "bounds": alias.setBounds(bounds()); break;
+                case "font":
+                    ComplexSpeciesAlias.Font font = new ComplexSpeciesAlias.Font();
+                    font.setSize(fontSize());
+                    alias.setFont(font);
+                    break;
+                case "view": alias.setView(view()); break;
+                case "backupSize":
+                    ComplexSpeciesAlias.BackupSize backupSize = new ComplexSpeciesAlias.BackupSize();
+                    for(int i=0, n=reader.getAttributeCount(); i < n; i++) {
+                        String value = reader.getAttributeValue(i);
+                        switch (attributeName(i)) {
+                            case "w": backupSize.setW(xsdDouble(value)); break;
+                            case "h": backupSize.setH(xsdDouble(value)); break;
+                        }
+                    }
+                    skip();
+                    alias.setBackupSize(backupSize);
+                    break;
+                case "backupView": alias.setBackupView(view()); break;
+                case "structuralState": alias.setStructuralState(structuralStateAngle()); break;
+                case "usualView": alias.setUsualView(usualView()); break;
+                case "briefView": alias.setBriefView(briefView()); break;
+                case "info": alias.setInfo(info()); break;
+                case "listOfSpeciesTag":
+                    if(keepSkipped) {
+                        alias.setListOfSpeciesTag(listOfSpeciesTag());
+                    }
+                    else {
+                        skip();
+                    }
+                    break;
+                default: skip();
+            }
+        }
+        return alias;
+    }
+
+    private ListOfSpeciesTag listOfSpeciesTag() throws XMLStreamException {
+        ListOfSpeciesTag list = new ListOfSpeciesTag();
+        fragments(list.getAny());
+        return list;
+    }
+
+    private ListOfSpeciesAliases listOfSpeciesAliases() throws XMLStreamException {
+        ListOfSpeciesAliases list = new ListOfSpeciesAliases();
+        String name;
+        while ((name = nextChild(CELLDESIGNER_NS)) != null) {
+            switch (name) {
+                case "speciesAlias": list.getSpeciesAlias().add(speciesAlias()); break;
+                default: skip();
+            }
+        }
+        return list;
+    }
+
+    private SpeciesAlias speciesAlias() throws XMLStreamException {
+        SpeciesAlias alias = new SpeciesAlias();
+        for(int i=0, n=reader.getAttributeCount(); i < n; i++) {
+            String value = reader.getAttributeValue(i);
+            switch (attributeName(i)) {
+                case "id": alias.setId(value); break;
+                case "species": alias.setSpecies(value); break;
+                case "compartmentAlias": alias.setCompartmentAlias(value); break;
+                case "complexSpeciesAlias": alias.setComplexSpeciesAlias(value); break;
+            }
+        }
+        String name;
+        while ((name = nextChild(CELLDESIGNER_NS)) != null) {
+            switch (name) {
+                case "activity": alias.setActivity(text()); break;
+                case "bounds": alias.setBounds(bounds()); break;
+                case "font":
+                    SpeciesAlias.Font font = new SpeciesAlias.Font();
+                    font.setSize(fontSize());
+                    alias.setFont(font);
+                    break;
+                case "view": alias.setView(view()); break;
+                case "structuralState": alias.setStructuralState(structuralStateAngle()); break;
+                case "usualView": alias.setUsualView(usualView()); break;
+                case "briefView": alias.setBriefView(briefView()); break;
+                case "info": alias.setInfo(info()); break;
+                case "listOfSpeciesTag":
+                    if(keepSkipped) {
+                        alias.setListOfSpeciesTag(listOfSpeciesTag());
+                    }
+                    else {
+                        skip();
+                    }
+                    break;
+                default: skip();
+            }
+        }
+        return alias;
+    }
+
+    private View view() throws XMLStreamException {
+        View view = new View();
+        for(int i=0, n=reader.getAttributeCount(); i < n; i++) {
+            if(attributeName(i).equals("state")) {
+                view.setState(reader.getAttributeValue(i));
+            }
+        }
+        skip();
+        return view;
+    }
+
+    private StructuralStateAngle structuralStateAngle() throws XMLStreamException {
+        StructuralStateAngle structuralState = new StructuralStateAngle();
+        for(int i=0, n=reader.getAttributeCount(); i < n; i++) {
+            if(attributeName(i).equals("angle")) {
+                structuralState.setAngle(xsdDouble(reader.getAttributeValue(i)));
+            }
+        }
+        skip();
+        return structuralState;
+    }
+
+    private UsualView usualView() throws XMLStreamException {
+        UsualView view = new UsualView();
+        String name;
+        while ((name = nextChild(CELLDESIGNER_NS)) != null) {
+            switch (name) {
+                case "innerPosition": view.setInnerPosition(innerPosition()); break;
+                case "boxSize": view.setBoxSize(boxSize()); break;
+                case "singleLine": view.setSingleLine(singleLine()); break;
+                case "paint": view.setPaint(paint()); break;
+                default: skip();
+            }
+        }
+        return view;
+    }
+
+    private BriefView briefView() throws XMLStreamException {
+        BriefView view = new BriefView();
+        String name;
+        while ((name = nextChild(CELLDESIGNER_NS)) != null) {
+            switch (name) {
+                case "innerPosition": view.setInnerPosition(innerPosition()); break;
+                case "boxSize": view.setBoxSize(boxSize()); break;
+                case "singleLine": view.setSingleLine(singleLine()); break;
+                case "paint": view.setPaint(paint()); break;
+                default: skip();
+            }
+        }
+        return view;
+    }
+
+    private InnerPosition innerPosition() throws XMLStreamException {
+        InnerPosition position = new InnerPosition();
+        for(int i=0, n=reader.getAttributeCount(); i < n; i++) {
+            String value = reader.getAttributeValue(i);
+            switch (attributeName(i)) {
+                case "x": position.setX(decimal(value)); break;
+                case "y": position.setY(decimal(value)); break;
+            }
+        }
+        skip();
+        return position;
+    }
+
+    private BoxSize boxSize() throws XMLStreamException {
+        BoxSize size = new BoxSize();
+        for(int i=0, n=reader.getAttributeCount(); i < n; i++) {
+            String value = reader.getAttributeValue(i);
+            switch (attributeName(i)) {
+                case "width": size.setWidth(decimal(value)); break;
+                case "height": size.setHeight(decimal(value)); break;
+            }
+        }
+        skip();
+        return size;
+    }
+
+    private SingleLine singleLine() throws XMLStreamException {
+        SingleLine line = new SingleLine();
+        for(int i=0, n=reader.getAttributeCount(); i < n; i++) {
+            if(attributeName(i).equals("width")) {
+                line.setWidth(decimal(reader.getAttributeValue(i)));
+            }
+        }
+        skip();
+        return line;
+    }
+
+    /**
+     * @return size attribute of a font element
+     */
+    private Integer fontSize() throws XMLStreamException {
+        Integer size = null;
+        for(int i=0, n=reader.getAttributeCount(); i < n; i++) {
+            if(attributeName(i).equals("size")) {
+                size = xsdInt(reader.getAttributeValue(i));
+            }
+        }
+        skip();
+        return size;
+    }
+
+    private ListOfProteins listOfProteins() throws XMLStreamException {
+        ListOfProteins list = new ListOfProteins();
+        String name;
+        while ((name = nextChild(CELLDESIGNER_NS)) != null) {
+            switch (name) {
+                case "protein": list.getProtein().add(protein()); break;
+                default: skip();
+            }
+        }
+        return list;
+    }
+
+    private Protein protein() throws XMLStreamException {
+        Protein protein = new Protein();
+        for(int i=0, n=reader.getAttributeCount(); i < n; i++) {
+            String value = reader.getAttributeValue(i);
+            switch (attributeName(i)) {
+                case "id": protein.setId(value); break;
+                case "name": protein.setName(value); break;
+                case "type": protein.setType(value); break;
+            }
+        }
+        String name;
+        while ((name = nextChild(CELLDESIGNER_NS)) != null) {
+            switch (name) {
+                case "notes": protein.setNotes(cellDesignerNotes()); break;
+                case "listOfBindingRegions": protein.setListOfBindingRegions(listOfBindingRegions()); break;
+                case "listOfModificationResidues":
+                    protein.setListOfModificationResidues(listOfModificationResidues()); break;
+                case "listOfStructuralStates": protein.setListOfStructuralStates(listOfStructuralStates()); break;
+                default: skip();
+            }
+        }
+        return protein;
+    }
+
+    private ListOfBindingRegions listOfBindingRegions() throws XMLStreamException {
+        ListOfBindingRegions list = new ListOfBindingRegions();
+        String name;
+        while ((name = nextChild(CELLDESIGNER_NS)) != null) {
+            switch (name) {
+                case "bindingRegion":
+                    BindingRegion region = new BindingRegion();
+                    for(int i=0, n=reader.getAttributeCount(); i < n; i++) {
+                        String value = reader.getAttributeValue(i);
+                        switch (attributeName(i)) {
+                            case "id": region.setId(value); break;
+                            case "name": region.setName(value); break;
+                            case "angle": region.setAngle(decimal(value)); break;
+                            case "size": region.setSize(decimal(value)); break;
+                        }
+                    }
+                    skip();
+                    list.getBindingRegion().add(region);
+                    break;
+                default: skip();
+            }
+        }
+        return list;
+    }
+
+    private ListOfModificationResidues listOfModificationResidues() throws XMLStreamException {
+        ListOfModificationResidues list = new ListOfModificationResidues();
+        String name;
+        while ((name = nextChild(CELLDESIGNER_NS)) != null) {
+            switch (name) {
+                case "modificationResidue":
+                    ModificationResidue residue = new ModificationResidue();
+                    for(int i=0, n=reader.getAttributeCount(); i < n; i++) {
+                        String value = reader.getAttributeValue(i);
+                        switch (attributeName(i)) {
+                            case "id": residue.setId(value); break;
+                            case "name": residue.setName(value); break;
+                            case "angle": residue.setAngle(decimal(value)); break;
+                            case "side": residue.setSide(value); break;
+                        }
+                    }
+                    skip();
+                    list.getModificationResidue().add(residue);
+                    break;
+                default: skip();
+            }
+        }
+        return list;
+    }
+
+    private ListOfGenes listOfGenes() throws XMLStreamException {
+        ListOfGenes list = new ListOfGenes();
+        String name;
+        while ((name = nextChild(CELLDESIGNER_NS)) != null) {
+            switch (name) {
+                case "gene":
+                    Gene gene = new Gene();
+                    for(int i=0, n=reader.getAttributeCount(); i < n; i++) {
+                        String value = reader.getAttributeValue(i);
+                        switch (attributeName(i)) {
+                            case "id": gene.setId(value); break;
+                            case "name": gene.setName(value); break;
+                            case "type": gene.setType(value); break;
+                        }
+                    }
+                    String childName;
+                    while ((childName = nextChild(CELLDESIGNER_NS)) != null) {
+                        switch (childName) {
+                            case "notes": gene.setNotes(cellDesignerNotes()); break;
+                            case "listOfRegions": gene.setListOfRegions(listOfRegions()); break;
+                            default: skip();
+                        }
+                    }
+                    list.getGene().add(gene);
+                    break;
+                default: skip();
+            }
+        }
+        return list;
+    }
+
+    private ListOfRNAs listOfRNAs() throws XMLStreamException {
+        ListOfRNAs list = new ListOfRNAs();
+        String name;
+        while ((name = nextChild(CELLDESIGNER_NS)) != null) {
+            switch (name) {
+                case "RNA":
+                    RNA rna = new RNA();
+                    for(int i=0, n=reader.getAttributeCount(); i < n; i++) {
+                        String value = reader.getAttributeValue(i);
+                        switch (attributeName(i)) {
+                            case "id": rna.setId(value); break;
+                            case "name": rna.setName(value); break;
+                            case "type": rna.setType(value); break;
+                        }
+                    }
+                    String childName;
+                    while ((childName = nextChild(CELLDESIGNER_NS)) != null) {
+                        switch (childName) {
+                            case "notes": rna.setNotes(cellDesignerNotes()); break;
+                            case "listOfRegions": rna.setListOfRegions(listOfRegions()); break;
+                            default: skip();
+                        }
+                    }
+                    list.getRNA().add(rna);
+                    break;
+                default: skip();
+            }
+        }
+        return list;
+    }
+
+    private ListOfAntisenseRNAs listOfAntisenseRNAs() throws XMLStreamException {
+        ListOfAntisenseRNAs list = new ListOfAntisenseRNAs();
+        String name;
+        while ((name = nextChild(CELLDESIGNER_NS)) != null) {
+            switch (name) {
+                case "AntisenseRNA":
+                    AntisenseRNA antisenseRNA = new AntisenseRNA();
+                    for(int i=0, n=reader.getAttributeCount(); i < n; i++) {
+                        String value = reader.getAttributeValue(i);
+                        switch (attributeName(i)) {
+                            case "id": antisenseRNA.setId(value); break;
+                            case "name": antisenseRNA.setName(value); break;
+                            case "type": antisenseRNA.setType(value); break;
+                        }
+                    }
+                    String childName;
+                    while ((childName = nextChild(CELLDESIGNER_NS)) != null) {
+                        switch (childName) {
+                            case "notes": antisenseRNA.setNotes(cellDesignerNotes()); break;
+                            case "listOfRegions": antisenseRNA.setListOfRegions(listOfRegions()); break;
+                            default: skip();
+                        }
+                    }
+                    list.getAntisenseRNA().add(antisenseRNA);
+                    break;
+                default: skip();
+            }
+        }
+        return list;
+    }
+
+    private ListOfRegions listOfRegions() throws XMLStreamException {
+        ListOfRegions list = new ListOfRegions();
+        String name;
+        while ((name = nextChild(CELLDESIGNER_NS)) != null) {
+            switch (name) {
+                case "region":
+                    ListOfRegions.Region region = new ListOfRegions.Region();
+                    for(int i=0, n=reader.getAttributeCount(); i < n; i++) {
+                        String value = reader.getAttributeValue(i);
+                        switch (attributeName(i)) {
+                            case "id": region.setId(value); break;
+                            case "size": region.setSize(decimal(value)); break;
+                            case "pos": region.setPos(decimal(value)); break;
+                            case "type": region.setType(value); break;
+                            case "name": region.setName(value); break;
+                            case "active": region.setActive(xsdBoolean(value)); break;
+                        }
+                    }
+                    skip();
+                    list.getRegion().add(region);
+                    break;
+                default: skip();
+            }
+        }
+        return list;
+    }
+
+    private ListOfLayers listOfLayers() throws XMLStreamException {
+        ListOfLayers list = new ListOfLayers();
+        String name;
+        while ((name = nextChild(CELLDESIGNER_NS)) != null) {
+            switch (name) {
+                case "layer": list.getLayer().add(layer()); break;
+                default: skip();
+            }
+        }
+        return list;
+    }
+
+    private Layer layer() throws XMLStreamException {
+        Layer layer = new Layer();
+        for(int i=0, n=reader.getAttributeCount(); i < n; i++) {
+            String value = reader.getAttributeValue(i);
+            switch (attributeName(i)) {
+                case "id": layer.setId(value); break;
+                case "name": layer.setName(value); break;
+                case "locked":
+                    Boolean locked = xsdBoolean(value);
+                    if(locked != null) {
+                        layer.setLocked(locked);
+                    }
+                    break;
+                case "visible":
+                    Boolean visible = xsdBoolean(value);
+                    if(visible != null) {
+                        layer.setVisible(visible);
+                    }
+                    break;
+            }
+        }
+        String name;
+        while ((name = nextChild(CELLDESIGNER_NS)) != null) {
+            switch (name) {
+                case "listOfTexts": layer.setListOfTexts(listOfTexts()); break;
+                case "listOfSquares": layer.setListOfSquares(listOfSquares()); break;
+                case "listOfFreeLines": layer.setListOfFreeLines(listOfFreeLines()); break;
+                default: skip();
+            }
+        }
+        return layer;
+    }
+
+    private ListOfTexts listOfTexts() throws XMLStreamException {
+        ListOfTexts list = new ListOfTexts();
+        String name;
+        while ((name = nextChild(CELLDESIGNER_NS)) != null) {
+            switch (name) {
+                case "layerSpeciesAlias": list.getLayerSpeciesAlias().add(layerSpeciesAlias()); break;
+                default: skip();
+            }
+        }
+        return list;
+    }
+
+    private LayerSpeciesAlias layerSpeciesAlias() throws XMLStreamException {
+        LayerSpeciesAlias alias = new LayerSpeciesAlias();
+        for(int i=0, n=reader.getAttributeCount(); i < n; i++) {
+            String value = reader.getAttributeValue(i);
+            switch (attributeName(i)) {
+                case "target": alias.setTarget(value); break;
+                case "targetId": alias.setTargetId(value); break;
+                case "x": alias.setX(decimal(value)); break;
+                case "y": alias.setY(decimal(value)); break;
+            }
+        }
+        String name;
+        while ((name = nextChild(CELLDESIGNER_NS)) != null) {
+            switch (name) {
+                case "layerNotes": alias.setLayerNotes(text()); break;
+                case "bounds": alias.setBounds(bounds()); break;
+                case "paint": alias.setPaint(paint()); break;
+                case "font":
+                    LayerSpeciesAlias.Font font = new LayerSpeciesAlias.Font();
+                    font.setSize(fontSize());
+                    alias.setFont(font);
+                    break;
+                default: skip();
+            }
+        }
+        return alias;
+    }
+
+    private ListOfSquares listOfSquares() throws XMLStreamException {
+        ListOfSquares list = new ListOfSquares();
+        String name;
+        while ((name = nextChild(CELLDESIGNER_NS)) != null) {
+            switch (name) {
+                case "layerCompartmentAlias":
+                    LayerCompartmentAlias alias = new LayerCompartmentAlias();
+                    for(int i=0, n=reader.getAttributeCount(); i < n; i++) {
+                        if(attributeName(i).equals("type")) {
+                            alias.setType(reader.getAttributeValue(i));
+                        }
+                    }
+                    String childName;
+                    while ((childName = nextChild(CELLDESIGNER_NS)) != null) {
+                        switch (childName) {
+                            case "bounds": alias.setBounds(bounds()); break;
+                            case "paint": alias.setPaint(paint()); break;
+                            default: skip();
+                        }
+                    }
+                    list.getLayerCompartmentAlias().add(alias);
+                    break;
+                default: skip();
+            }
+        }
+        return list;
+    }
+
+    private ListOfFreeLines listOfFreeLines() throws XMLStreamException {
+        ListOfFreeLines list = new ListOfFreeLines();
+        String name;
+        while ((name = nextChild(CELLDESIGNER_NS)) != null) {
+            switch (name) {
+                case "layerFreeLine":
+                    LayerFreeLine freeLine = new LayerFreeLine();
+                    for(int i=0, n=reader.getAttributeCount(); i < n; i++) {
+                        String value = reader.getAttributeValue(i);
+                        switch (attributeName(i)) {
+                            case "isArrow": freeLine.setIsArrow(xsdBoolean(value)); break;
+                            case "isDotted": freeLine.setIsDotted(xsdBoolean(value)); break;
+                        }
+                    }
+                    String childName;
+                    while ((childName = nextChild(CELLDESIGNER_NS)) != null) {
+                        switch (childName) {
+                            case "bounds": freeLine.setBounds(layerLineBounds()); break;
+                            case "line": freeLine.setLine(line()); break;
+                            default: skip();
+                        }
+                    }
+                    list.getLayerFreeLine().add(freeLine);
+                    break;
+                default: skip();
+            }
+        }
+        return list;
+    }
+
+    private LayerLineBounds layerLineBounds() throws XMLStreamException {
+        LayerLineBounds bounds = new LayerLineBounds();
+        for(int i=0, n=reader.getAttributeCount(); i < n; i++) {
+            String value = reader.getAttributeValue(i);
+            switch (attributeName(i)) {
+                case "sx": bounds.setSx(decimal(value)); break;
+                case "sy": bounds.setSy(decimal(value)); break;
+                case "ex": bounds.setEx(decimal(value)); break;
+                case "ey": bounds.setEy(decimal(value)); break;
+            }
+        }
+        skip();
+        return bounds;
+    }
+
+    /*
+     * celldesigner elements of reactions
+     */
+
+    private ReactionAnnotationType.Extension reactionExtension() throws XMLStreamException {
+        ReactionAnnotationType.Extension extension = new ReactionAnnotationType.Extension();
+        String name;
+        while ((name = nextChild(CELLDESIGNER_NS)) != null) {
+            switch (name) {
+                case "name": extension.setName(text()); break;
+                case "reactionType": extension.setReactionType(text()); break;
+                case "baseReactants": extension.setBaseReactants(baseReactants()); break;
+                case "baseProducts": extension.setBaseProducts(baseProducts()); break;
+                case "listOfReactantLinks": extension.setListOfReactantLinks(listOfReactantLinks()); break;
+                case "listOfProductLinks": extension.setListOfProductLinks(listOfProductLinks()); break;
+                case "connectScheme": extension.setConnectScheme(connectScheme()); break;
+                case "offset":
+                    Offset offset = new Offset();
+                    for(int i=0, n=reader.getAttributeCount(); i < n; i++) {
+                        String value = reader.getAttributeValue(i);
+                        switch (attributeName(i)) {
+                            case "x": offset.setX(decimal(value)); break;
+                            case "y": offset.setY(decimal(value)); break;
+                        }
+                    }
+                    skip();
+                    extension.setOffset(offset);
+                    break;
+                case "editPoints": extension.setEditPoints(editPoints()); break;
+                case "line": extension.setLine(line()); break;
+                case "listOfModification": extension.setListOfModification(listOfModification()); break;
+                case "listOfGateMember": extension.setListOfGateMember(listOfGateMember()); break;
+                default: skip();
+            }
+        }
+        return extension;
+    }
+
+    private BaseReactants baseReactants() throws XMLStreamException {
+        BaseReactants list = new BaseReactants();
+        String name;
+        while ((name = nextChild(CELLDESIGNER_NS)) != null) {
+            switch (name) {
+                case "baseReactant":
+                    BaseReactant reactant = new BaseReactant();
+                    for(int i=0, n=reader.getAttributeCount(); i < n; i++) {
+                        String value = reader.getAttributeValue(i);
+                        switch (attributeName(i)) {
+                            case "alias": reactant.setAlias(value); break;
+                            case "species": reactant.setSpecies(value); break;
+                        }
+                    }
+                    reactant.setLinkAnchor(linkAnchorChild());
+                    list.getBaseReactant().add(reactant);
+                    break;
+                default: skip();
+            }
+        }
+        return list;
+    }
+
+    private BaseProducts baseProducts() throws XMLStreamException {
+        BaseProducts list = new BaseProducts();
+        String name;
+        while ((name = nextChild(CELLDESIGNER_NS)) != null) {
+            switch (name) {
+                case "baseProduct":
+                    BaseProduct product = new BaseProduct();
+                    for(int i=0, n=reader.getAttributeCount(); i < n; i++) {
+                        String value = reader.getAttributeValue(i);
+                        switch (attributeName(i)) {
+                            case "alias": product.setAlias(value); break;
+                            case "species": product.setSpecies(value); break;
+                        }
+                    }
+                    product.setLinkAnchor(linkAnchorChild());
+                    list.getBaseProduct().add(product);
+                    break;
+                default: skip();
+            }
+        }
+        return list;
+    }
+
+    /**
+     * @return the linkAnchor child of the current element, the only one it has
+     */
+    private LinkAnchor linkAnchorChild() throws XMLStreamException {
+        LinkAnchor anchor = null;
+        String name;
+        while ((name = nextChild(CELLDESIGNER_NS)) != null) {
+            switch (name) {
+                case "linkAnchor": anchor = linkAnchor(); break;
+                default: skip();
+            }
+        }
+        return anchor;
+    }
+
+    private LinkAnchor linkAnchor() throws XMLStreamException {
+        LinkAnchor anchor = new LinkAnchor();
+        for(int i=0, n=reader.getAttributeCount(); i < n; i++) {
+            if(attributeName(i).equals("position")) {
+                anchor.setPosition(reader.getAttributeValue(i));
+            }
+        }
+        skip();
+        return anchor;
+    }
+
+    private ListOfReactantLinks listOfReactantLinks() throws XMLStreamException {
+        ListOfReactantLinks list = new ListOfReactantLinks();
+        String name;
+        while ((name = nextChild(CELLDESIGNER_NS)) != null) {
+            switch (name) {
+                case "reactantLink":
+                    ReactantLink link = new ReactantLink();
+                    for(int i=0, n=reader.getAttributeCount(); i < n; i++) {
+                        String value = reader.getAttributeValue(i);
+                        switch (attributeName(i)) {
+                            case "alias": link.setAlias(value); break;
+                            case "reactant": link.setReactant(value); break;
+                            case "targetLineIndex": link.setTargetLineIndex(value); break;
+                        }
+                    }
+                    String childName;
+                    while ((childName = nextChild(CELLDESIGNER_NS)) != null) {
+                        switch (childName) {
+                            case "linkAnchor": link.setLinkAnchor(linkAnchor()); break;
+                            case "connectScheme": link.setConnectScheme(connectScheme()); break;
+                            case "editPoints": link.setEditPoints(editPoints()); break;
+                            case "line": link.setLine(lineType2()); break;
+                            default: skip();
+                        }
+                    }
+                    list.getReactantLink().add(link);
+                    break;
+                default: skip();
+            }
+        }
+        return list;
+    }
+
+    private ListOfProductLinks listOfProductLinks() throws XMLStreamException {
+        ListOfProductLinks list = new ListOfProductLinks();
+        String name;
+        while ((name = nextChild(CELLDESIGNER_NS)) != null) {
+            switch (name) {
+                case "productLink":
+                    ProductLink link = new ProductLink();
+                    for(int i=0, n=reader.getAttributeCount(); i < n; i++) {
+                        String value = reader.getAttributeValue(i);
+                        switch (attributeName(i)) {
+                            case "alias": link.setAlias(value); break;
+                            case "product": link.setProduct(value); break;
+                            case "targetLineIndex": link.setTargetLineIndex(value); break;
+                        }
+                    }
+                    String childName;
+                    while ((childName = nextChild(CELLDESIGNER_NS)) != null) {
+                        switch (childName) {
+                            case "linkAnchor": link.setLinkAnchor(linkAnchor()); break;
+                            case "connectScheme": link.setConnectScheme(connectScheme()); break;
+                            case "editPoints": link.setEditPoints(editPoints()); break;
+                            case "line": link.setLine(lineType2()); break;
+                            default: skip();
+                        }
+                    }
+                    list.getProductLink().add(link);
+                    break;
+                default: skip();
+            }
+        }
+        return list;
+    }
+
+    private ConnectScheme connectScheme() throws XMLStreamException {
+        ConnectScheme scheme = new ConnectScheme();
+        for(int i=0, n=reader.getAttributeCount(); i < n; i++) {
+            String value = reader.getAttributeValue(i);
+            switch (attributeName(i)) {
+                case "connectPolicy": scheme.setConnectPolicy(value); break;
+                case "rectangleIndex": scheme.setRectangleIndex(value); break;
+            }
+        }
+        String name;
+        while ((name = nextChild(CELLDESIGNER_NS)) != null) {
+            switch (name) {
+                case "listOfLineDirection":
+                    ListOfLineDirection list = new ListOfLineDirection();
+                    String childName;
+                    while ((childName = nextChild(CELLDESIGNER_NS)) != null) {
+                        switch (childName) {
+                            case "lineDirection": list.getLineDirection().add(lineDirection()); break;
+                            default: skip();
+                        }
+                    }
+                    scheme.setListOfLineDirection(list);
+                    break;
+                default: skip();
+            }
+        }
+        return scheme;
+    }
+
+    private LineDirection lineDirection() throws XMLStreamException {
+        LineDirection direction = new LineDirection();
+        for(int i=0, n=reader.getAttributeCount(); i < n; i++) {
+            String value = reader.getAttributeValue(i);
+            switch (attributeName(i)) {
+                case "index":
+                    Short index = xsdShort(value);
+                    if(index != null) {
+                        direction.setIndex(index);
+                    }
+                    break;
+                case "value": direction.setValue(value); break;
+                case "arm": direction.setArm(xsdShort(value)); break;
+            }
+        }
+        skip();
+        return direction;
+    }
+
+    private EditPoints editPoints() throws XMLStreamException {
+        EditPoints editPoints = new EditPoints();
+        for(int i=0, n=reader.getAttributeCount(); i < n; i++) {
+            String value = reader.getAttributeValue(i);
+            switch (attributeName(i)) {
+                case "num0": editPoints.setNum0(xsdShort(value)); break;
+                case "num1": editPoints.setNum1(xsdShort(value)); break;
+                case "num2": editPoints.setNum2(xsdShort(value)); break;
+                case "omittedShapeIndex": editPoints.setOmittedShapeIndex(xsdShort(value)); break;
+                case "tShapeIndex": editPoints.setTShapeIndex(xsdShort(value)); break;
+            }
+        }
+        addTokens(text(), editPoints.getValue());
+        return editPoints;
+    }
+
+    private ListOfModification listOfModification() throws XMLStreamException {
+        ListOfModification list = new ListOfModification();
+        String name;
+        while ((name = nextChild(CELLDESIGNER_NS)) != null) {
+            switch (name) {
+                case "modification": list.getModification().add(modification()); break;
+                default: skip();
+            }
+        }
+        return list;
+    }
+
+    private ListOfGateMember listOfGateMember() throws XMLStreamException {
+        ListOfGateMember list = new ListOfGateMember();
+        String name;
+        while ((name = nextChild(CELLDESIGNER_NS)) != null) {
+            switch (name) {
+                case "GateMember": list.getGateMember().add(modification()); break;
+                default: skip();
+            }
+        }
+        return list;
+    }
+
+    private Modification modification() throws XMLStreamException {
+        Modification modification = new Modification();
+        for(int i=0, n=reader.getAttributeCount(); i < n; i++) {
+            String value = reader.getAttributeValue(i);
+            switch (attributeName(i)) {
+                case "aliases": modification.setAliases(value); break;
+                case "modifiers": modification.setModifiers(value); break;
+                case "type": modification.setType(value); break;
+                case "targetLineIndex": modification.setTargetLineIndex(value); break;
+                case "editPoints": addTokens(value, modification.getEditPoints()); break;
+                case "num0": modification.setNum0(bigInteger(value)); break;
+                case "num1": modification.setNum1(bigInteger(value)); break;
+                case "num2": modification.setNum2(bigInteger(value)); break;
+                case "modificationType": modification.setModificationType(value); break;
+                case "offsetX": modification.setOffsetX(decimal(value)); break;
+                case "offsetY": modification.setOffsetY(decimal(value)); break;
+            }
+        }
+        String name;
+        while ((name = nextChild(CELLDESIGNER_NS)) != null) {
+            switch (name) {
+                case "connectScheme": modification.setConnectScheme(connectScheme()); break;
+                case "linkTarget":
+                    LinkTarget target = new LinkTarget();
+                    for(int i=0, n=reader.getAttributeCount(); i < n; i++) {
+                        String value = reader.getAttributeValue(i);
+                        switch (attributeName(i)) {
+                            case "alias": target.setAlias(value); break;
+                            case "species": target.setSpecies(value); break;
+                        }
+                    }
+                    target.setLinkAnchor(linkAnchorChild());
+                    modification.getLinkTarget().add(target);
+                    break;
+                case "line": modification.setLine(line()); break;
+                default: skip();
+            }
+        }
+        return modification;
+    }
+
+    /*
+     * celldesigner elements shared by the model and reactions
+     */
+
+    private Bounds bounds() throws XMLStreamException {
+        Bounds bounds = new Bounds();
+        for(int i=0, n=reader.getAttributeCount(); i < n; i++) {
+            String value = reader.getAttributeValue(i);
+            switch (attributeName(i)) {
+                case "x": bounds.setX(decimal(value)); break;
+                case "y": bounds.setY(decimal(value)); break;
+                case "w": bounds.setW(decimal(value)); break;
+                case "h": bounds.setH(decimal(value)); break;
+            }
+        }
+        skip();
+        return bounds;
+    }
+
+    private Point point() throws XMLStreamException {
+        Point point = new Point();
+        for(int i=0, n=reader.getAttributeCount(); i < n; i++) {
+            String value = reader.getAttributeValue(i);
+            switch (attributeName(i)) {
+                case "x": point.setX(decimal(value)); break;
+                case "y": point.setY(decimal(value)); break;
+            }
+        }
+        skip();
+        return point;
+    }
+
+    private DoubleLine doubleLine() throws XMLStreamException {
+        DoubleLine line = new DoubleLine();
+        for(int i=0, n=reader.getAttributeCount(); i < n; i++) {
+            String value = reader.getAttributeValue(i);
+            switch (attributeName(i)) {
+                case "innerWidth": line.setInnerWidth(decimal(value)); break;
+                case "outerWidth": line.setOuterWidth(decimal(value)); break;
+                case "thickness": line.setThickness(decimal(value)); break;
+            }
+        }
+        skip();
+        return line;
+    }
+
+    private Paint paint() throws XMLStreamException {
+        Paint paint = new Paint();
+        for(int i=0, n=reader.getAttributeCount(); i < n; i++) {
+            String value = reader.getAttributeValue(i);
+            switch (attributeName(i)) {
+                case "color": paint.setColor(value); break;
+                case "scheme": paint.setScheme(value); break;
+            }
+        }
+        skip();
+        return paint;
+    }
+
+    private Info info() throws XMLStreamException {
+        Info info = new Info();
+        for(int i=0, n=reader.getAttributeCount(); i < n; i++) {
+            String value = reader.getAttributeValue(i);
+            switch (attributeName(i)) {
+                case "state": info.setState(value); break;
+                case "prefix": info.setPrefix(value); break;
+                case "label": info.setLabel(value); break;
+                case "angle": info.setAngle(decimal(value)); break;
+            }
+        }
+        skip();
+        return info;
+    }
+
+    private Line line() throws XMLStreamException {
+        Line line = new Line();
+        for(int i=0, n=reader.getAttributeCount(); i < n; i++) {
+            String value = reader.getAttributeValue(i);
+            switch (attributeName(i)) {
+                case "color": line.setColor(value); break;
+                case "width": line.setWidth(decimal(value)); break;
+            }
+        }
+        skip();
+        return line;
+    }
+
+    private LineType2 lineType2() throws XMLStreamException {
+        LineType2 line = new LineType2();
+        for(int i=0, n=reader.getAttributeCount(); i < n; i++) {
+            String value = reader.getAttributeValue(i);
+            switch (attributeName(i)) {
+                case "color": line.setColor(value); break;
+                case "width": line.setWidth(decimal(value)); break;
+                case "type": line.setType(value); break;
+            }
+        }
+        skip();
+        return line;
+    }
+
+    /*
+     * navigation
+     */
+
+    /**
+     * Move to the next child of the current element.
+     * @param namespace namespace of the children to dispatch
+     * @return the local name of the child if it is in the given namespace, an empty string if it isn't, or null if
+     * the end of the current element was reached
+     */
+    private String nextChild(String namespace) throws XMLStreamException {
+        while (true) {
+            int event = reader.next();
+            if(event == XMLStreamReader.START_ELEMENT) {
+                pushNamespaces();
+                return namespace.equals(reader.getNamespaceURI()) ? reader.getLocalName() : "";
+            }
+            if(event == XMLStreamReader.END_ELEMENT) {
+                popNamespaces();
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Move to the end of the current element, without looking at what it holds.
+     */
+    private void skip() throws XMLStreamException {
+        // the namespaces of the nested elements are never needed, they are not tracked
+        int level = 1;
+        while (level > 0) {
+            int event = reader.next();
+            if(event == XMLStreamReader.START_ELEMENT) {
+                level++;
+            }
+            else if(event == XMLStreamReader.END_ELEMENT) {
+                level--;
+            }
+        }
+        popNamespaces();
+    }
+
+    /**
+     * @return the text of the current element, as JAXB gives it to simple types: all of it, whitespace included.
+     * Nested elements are skipped.
+     */
+    private String text() throws XMLStreamException {
+        String first = null;
+        text.setLength(0);
+        while (true) {
+            switch (reader.next()) {
+                case XMLStreamReader.CHARACTERS:
+                case XMLStreamReader.CDATA:
+                case XMLStreamReader.SPACE:
+                    if(first == null) {
+                        first = reader.getText();
+                    }
+                    else {
+                        if(text.length() == 0) {
+                            text.append(first);
+                        }
+                        text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    }
+                    break;
+                case XMLStreamReader.START_ELEMENT:
+                    pushNamespaces();
+                    skip();
+                    break;
+                case XMLStreamReader.END_ELEMENT:
+                    popNamespaces();
+                    if(text.length() > 0) {
+                        return text.toString();
+                    }
+                    return first != null ? first : "";
+            }
+        }
+    }
+
+    /**
+     * Keep the current element as an {@link XmlFragment}, for notes and foreign annotations. Its text is what JAXB
+     * builds for elements bound to {@link org.w3c.dom.Element}, in a document of their own.
+     *
+     * All the namespaces in scope are declared on the returned element, and nested elements only declare their own.
+     * Text made only of whitespace is dropped when it comes before a nested element, comments and processing
+     * instructions are dropped.
+     */
+    private Element element() throws XMLStreamException {
+        return fragment(true);
+    }
+
+    /**
+     * Keep the current element as an {@link XmlFragment}, for the content of elements that are not bound. Same as
+     * {@link #element()}, except that whitespace after the last nested element is dropped too.
+     */
+    private Element fragment() throws XMLStreamException {
+        return fragment(false);
+    }
+
+    private Element fragment(boolean trailingWhitespace) throws XMLStreamException {
+        xml.setLength(0);
+        startTag(0);
+        int level = 1;
+        boolean afterNested = false;
+        text.setLength(0);
+        while (level > 0) {
+            switch (reader.next()) {
+                case XMLStreamReader.START_ELEMENT:
+                    pushNamespaces();
+                    if(!isWhitespace(text)) {
+                        escape(text, false);
+                    }
+                    text.setLength(0);
+                    startTag(namespacesLength - 2 * declarationCounts[depth - 1]);
+                    level++;
+                    afterNested = false;
+                    break;
+                case XMLStreamReader.END_ELEMENT:
+                    popNamespaces();
+                    if(trailingWhitespace || !afterNested || !isWhitespace(text)) {
+                        escape(text, false);
+                    }
+                    text.setLength(0);
+                    xml.append("</");
+                    appendQualifiedName(reader.getPrefix(), reader.getLocalName());
+                    xml.append('>');
+                    level--;
+                    afterNested = true;
+                    break;
+                case XMLStreamReader.CHARACTERS:
+                case XMLStreamReader.CDATA:
+                case XMLStreamReader.SPACE:
+                    text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    break;
+            }
+        }
+        return XmlFragment.element(xml.toString());
+    }
+
+    /**
+     * Write the start tag of the current element, with the namespaces declared from the given index of the scope.
+     * When the same prefix is declared more than once, only the innermost declaration is written.
+     */
+    private void startTag(int firstNamespace) {
+        xml.append('<');
+        appendQualifiedName(reader.getPrefix(), reader.getLocalName());
+        for(int i = firstNamespace; i < namespacesLength; i += 2) {
+            boolean redeclared = false;
+            for(int j = i + 2; j < namespacesLength && !redeclared; j += 2) {
+                redeclared = namespaces[j].equals(namespaces[i]);
+            }
+            if(!redeclared) {
+                xml.append(' ').append(XMLConstants.XMLNS_ATTRIBUTE);
+                if(!namespaces[i].isEmpty()) {
+                    xml.append(':').append(namespaces[i]);
+                }
+                xml.append("=\"");
+                escape(namespaces[i + 1], true);
+                xml.append('"');
+            }
+        }
+        for(int i=0, n=reader.getAttributeCount(); i < n; i++) {
+            xml.append(' ');
+            appendQualifiedName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i));
+            xml.append("=\"");
+            escape(reader.getAttributeValue(i), true);
+            xml.append('"');
+        }
+        xml.append('>');
+    }
+
+    private void appendQualifiedName(String prefix, String localName) {
+        if(prefix != null && !prefix.isEmpty()) {
+            xml.append(prefix).append(':');
+        }
+        xml.append(localName);
+    }
+
+    /**
+     * Append text to the fragment, with the characters that xml requires escaped. In attribute values, whitespace
+     * other than spaces is escaped too, so that it is read back as it is.
+     */
+    private void escape(CharSequence s, boolean attribute) {
+        for(int i=0, n=s.length(); i < n; i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '<': xml.append("&lt;"); break;
+                case '>': xml.append("&gt;"); break;
+                case '&': xml.append("&amp;"); break;
+                case '\r': xml.append("&#13;"); break;
+                case '"':
+                    if(attribute) {
+                        xml.append("&quot;");
+                    }
+                    else {
+                        xml.append(c);
+                    }
+                    break;
+                case '\n':
+                case '\t':
+                    if(attribute) {
+                        xml.append("&#").append((int) c).append(';');
+                    }
+                    else {
+                        xml.append(c);
+                    }
+                    break;
+                default: xml.append(c);
+            }
+        }
+    }
+
+    private void pushNamespaces() {
+        int count = reader.getNamespaceCount();
+        if(namespacesLength + 2 * count > namespaces.length) {
+            namespaces = Arrays.copyOf(namespaces, Math.max(namespaces.length * 2, namespacesLength + 2 * count));
+        }
+        for(int i=0; i < count; i++) {
+            namespaces[namespacesLength++] = nullToEmpty(reader.getNamespacePrefix(i));
+            namespaces[namespacesLength++] = nullToEmpty(reader.getNamespaceURI(i));
+        }
+        if(depth == declarationCounts.length) {
+            declarationCounts = Arrays.copyOf(declarationCounts, depth * 2);
+        }
+        declarationCounts[depth++] = count;
+    }
+
+    private void popNamespaces() {
+        namespacesLength -= 2 * declarationCounts[--depth];
+    }
+
+    /**
+     * @return the local name of an attribute without namespace, or an empty string for the others, as none of the
+     * bound attributes are qualified
+     */
+    private String attributeName(int index) {
+        String namespace = reader.getAttributeNamespace(index);
+        return namespace == null || namespace.isEmpty() ? reader.getAttributeLocalName(index) : "";
+    }
+
+    /*
+     * values, parsed as JAXB parses them
+     */
+
+    private static Double decimal(String value) {
+        try {
+            return Decimals.parse(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Double xsdDouble(String value) {
+        String s = value.trim();
+        switch (s) {
+            case "NaN": return Double.NaN;
+            case "INF": return Double.POSITIVE_INFINITY;
+            case "-INF": return Double.NEGATIVE_INFINITY;
+        }
+        // Double.parseDouble also accepts Infinity and suffixes like 1d, which xsd doesn't
+        if(s.isEmpty() || !isNumberBoundary(s.charAt(0)) || !isNumberBoundary(s.charAt(s.length() - 1))) {
+            return null;
+        }
+        try {
+            return Double.parseDouble(s);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static boolean isNumberBoundary(char c) {
+        return (c >= '0' && c <= '9') || c == '.' || c == '-' || c == '+';
+    }
+
+    private static Integer xsdInt(String value) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Short xsdShort(String value) {
+        Integer i = xsdInt(value);
+        return i == null ? null : (short) i.intValue();
+    }
+
+    private static BigInteger bigInteger(String value) {
+        String s = value.trim();
+        if(s.startsWith("+")) {
+            s = s.substring(1);
+        }
+        try {
+            return new BigInteger(s);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Boolean xsdBoolean(String value) {
+        switch (value.trim()) {
+            case "true":
+            case "1":
+                return Boolean.TRUE;
+            case "false":
+            case "0":
+                return Boolean.FALSE;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * @return the value with leading and trailing whitespace removed, and inner whitespace replaced by single spaces
+     */
+    private static String collapse(String value) {
+        boolean collapsed = true;
+        for(int i=0; i < value.length() && collapsed; i++) {
+            char c = value.charAt(i);
+            collapsed = !isWhitespace(c)
+                    || (c == ' ' && i > 0 && i < value.length() - 1 && value.charAt(i - 1) != ' ');
+        }
+        if(collapsed) {
+            return value;
+        }
+        StringBuilder sb = new StringBuilder(value.length());
+        for(String token: value.trim().split("[ \t\n\r]+")) {
+            if(sb.length() > 0) {
+                sb.append(' ');
+            }
+            sb.append(token);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Add the whitespace separated tokens of an xsd list
+     */
+    private static void addTokens(String value, List<String> list) {
+        int length = value.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && isWhitespace(value.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < length && !isWhitespace(value.charAt(i))) {
+                i++;
+            }
+            if(i > start) {
+                list.add(value.substring(start, i));
+            }
+        }
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+    }
+
+    private static boolean isWhitespace(CharSequence s) {
+        for(int i=0; i < s.length(); i++) {
+            if(!isWhitespace(s.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String nullToEmpty(String s) {
+        return s == null ? "" : s;
+    }
+}
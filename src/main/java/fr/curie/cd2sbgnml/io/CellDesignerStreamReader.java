@@ -0,0 +1,392 @@
+package fr.curie.cd2sbgnml.io;
+
+import org.sbfc.converter.exceptions.ReadModelException;
+import org.sbml.sbml.level2.version4.Sbml;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads CellDesigner files in one streaming pass, straight from the file into JAXB.
+ *
+ * Files coming from ACSN and other maps need some fixes before they can be unmarshalled. Those fixes used to be
+ * regex replacements on the whole file content, they are now applied on the fly by a stream reader filter:
+ *  - the sbml namespace without level, http://www.sbml.org/sbml/level2, is remapped to level2/version4
+ *  - annotation elements whose first child isn't a celldesigner:extension had it removed, one is inserted around
+ *  their content.
+ *
+ * Only the object graph built by JAXB is kept in memory, the raw text of the file is never fully loaded.
+ *
+ * Files can also be bound by {@link CellDesignerBinder}, which reads the stream itself and only binds what the
+ * translation to SBGN-ML uses, see {@link Binding}.
+ */
+public class CellDesignerStreamReader {
+
+    private static final Logger logger = LoggerFactory.getLogger(CellDesignerStreamReader.class);
+
+    static final String SBML_NS = "http://www.sbml.org/sbml/level2/version4";
+    static final String SBML_BROKEN_NS = "http://www.sbml.org/sbml/level2";
+    static final String CELLDESIGNER_NS = "http://www.sbml.org/2001/ns/celldesigner";
+
+    private static final XMLInputFactory inputFactory = createInputFactory();
+
+    /**
+     * How files are bound to the generated classes
+     */
+    public enum Binding {
+        /**
+         * the JAXB unmarshaller binds the whole file
+         */
+        JAXB,
+        /**
+         * {@link CellDesignerBinder} binds what the translation to SBGN-ML uses, several times faster than JAXB.
+         * If the file can't be read as xml, it is read again with JAXB to report the error. Bugs of the binder are
+         * not hidden by this fallback.
+         */
+        STAX,
+        /**
+         * same as {@link #STAX}, but what isn't bound is kept as {@link XmlFragment}s instead of being skipped: kinetic
+         * laws, stoichiometry math, the function definitions, unit definitions, parameters, rules and events of the
+         * model, and the groups, block diagrams and species tags of CellDesigner. They are only parsed when asked for,
+         * and written back as they were read.
+         */
+        LAZY
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    /**
+     * @param file a CellDesigner file
+     * @return the unmarshalled content
+     * @throws ReadModelException
+     */
+    public static Sbml read(Path file) throws ReadModelException {
+        return read(file, Binding.JAXB);
+    }
+
+    /**
+     * @param file a CellDesigner file
+     * @param binding how the file is bound
+     * @return the unmarshalled content, or only part of it with {@link Binding#STAX} and {@link Binding#LAZY}
+     * @throws ReadModelException
+     */
+    public static Sbml read(Path file, Binding binding) throws ReadModelException {
+        if(binding != Binding.JAXB) {
+            try {
+                return bind(file, binding == Binding.LAZY);
+            } catch (IOException | ReadModelException e) {
+                logger.warn("Could not bind "+file+" directly, it is read again with JAXB: "+e);
+            }
+        }
+        try (InputStream in = open(file)) {
+            return read(in);
+        } catch (IOException e) {
+            throw new ReadModelException("Could not read file "+file, e);
+        }
+    }
+
+    private static InputStream open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        return new BufferedInputStream(Channels.newInputStream(channel), 1 << 16);
+    }
+
+    /**
+     * Encoding is read from the xml declaration.
+     * @param in stream of CellDesigner xml, not closed by this method
+     * @return the unmarshalled content
+     * @throws ReadModelException
+     */
+    public static Sbml read(InputStream in) throws ReadModelException {
+        try {
+            return unmarshal(inputFactory.createXMLStreamReader(in));
+        } catch (XMLStreamException e) {
+            throw new ReadModelException(e);
+        }
+    }
+
+    /**
+     * @param reader character stream of CellDesigner xml, not closed by this method
+     * @return the unmarshalled content
+     * @throws ReadModelException
+     */
+    public static Sbml read(Reader reader) throws ReadModelException {
+        try {
+            return unmarshal(inputFactory.createXMLStreamReader(reader));
+        } catch (XMLStreamException e) {
+            throw new ReadModelException(e);
+        }
+    }
+
+    private static Sbml unmarshal(XMLStreamReader source) throws ReadModelException {
+        try {
+            Unmarshaller unmarshaller = JaxbContextRegistry.CELLDESIGNER.getUnmarshaller();
+            return (Sbml) unmarshaller.unmarshal(new FixupStreamReader(source));
+        } catch (JAXBException e) {
+            throw new ReadModelException(e.getCause() != null ? e.getCause() : e);
+        } finally {
+            close(source);
+        }
+    }
+
+    /**
+     * Bind with {@link CellDesignerBinder}, without falling back to JAXB
+     * @param keepSkipped true to keep what isn't bound as fragments
+     */
+    static Sbml bind(Path file, boolean keepSkipped) throws IOException, ReadModelException {
+        try (InputStream in = open(file)) {
+            return bind(inputFactory.createXMLStreamReader(in), keepSkipped);
+        } catch (XMLStreamException e) {
+            throw new ReadModelException(e);
+        }
+    }
+
+    private static Sbml bind(XMLStreamReader source, boolean keepSkipped) throws ReadModelException {
+        try {
+            return new CellDesignerBinder(new FixupStreamReader(source), keepSkipped).bind();
+        } catch (XMLStreamException e) {
+            throw new ReadModelException(e);
+        } finally {
+            close(source);
+        }
+    }
+
+    private static void close(XMLStreamReader source) {
+        try {
+            source.close();
+        } catch (XMLStreamException e) {
+            logger.warn("Could not close xml reader", e);
+        }
+    }
+
+    /**
+     * Stream reader applying the CellDesigner fixes described in the class documentation.
+     * When the file is correct, all calls are passed to the underlying reader.
+     *
+     * Missing extension elements are emitted as synthetic START_ELEMENT/END_ELEMENT events, during which the
+     * underlying reader doesn't move.
+     */
+    static class FixupStreamReader extends NamespaceRemappingStreamReader {
+
+        private static final QName EXTENSION = new QName(CELLDESIGNER_NS, "extension", "celldesigner");
+
+        private enum Hold {
+            /**
+             * next() advances the underlying reader
+             */
+            NONE,
+            /**
+             * next() must deliver the current event of the underlying reader, which wasn't inspected yet
+             */
+            UNPROCESSED,
+            /**
+             * next() must deliver the current event of the underlying reader as is
+             */
+            PROCESSED
+        }
+
+        private boolean rootSeen = false;
+        private boolean checkExtensionOnNext = false;
+        private boolean missingExtensionLogged = false;
+
+        /**
+         * True when an extension was inserted in the current annotation, and must be ended with it
+         */
+        private boolean extensionAdded = false;
+
+        /**
+         * Current synthetic event, or -1 if the underlying event is the current one.
+         */
+        private int syntheticEvent = -1;
+        private Hold hold = Hold.NONE;
+
+        FixupStreamReader(XMLStreamReader source) {
+            super(source, SBML_BROKEN_NS, SBML_NS);
+        }
+
+        @Override
+        public int next() throws XMLStreamException {
+            if(hold != Hold.NONE) {
+                Hold previous = hold;
+                hold = Hold.NONE;
+                syntheticEvent = -1;
+                if(previous == Hold.PROCESSED) {
+                    return super.getEventType();
+                }
+                return inspect(super.getEventType());
+            }
+
+            syntheticEvent = -1;
+            int event = super.next();
+
+            if(checkExtensionOnNext) {
+                checkExtensionOnNext = false;
+                // whitespace and comments between annotation and its first child are of no use to jaxb
+                while (event != START_ELEMENT && event != END_ELEMENT) {
+                    event = super.next();
+                }
+                if(event != START_ELEMENT || !isExtension(super.getNamespaceURI(), super.getLocalName())) {
+                    if(!missingExtensionLogged) {
+                        missingExtensionLogged = true;
+                        logger.warn("<celldesigner:extension> elements are missing, they were added automatically.");
+                    }
+                    extensionAdded = true;
+                    return synthetic(START_ELEMENT, Hold.UNPROCESSED);
+                }
+            }
+
+            return inspect(event);
+        }
+
+        private int synthetic(int event, Hold nextHold) {
+            syntheticEvent = event;
+            hold = nextHold;
+            return event;
+        }
+
+        /**
+         * Check an event of the underlying reader for the fixes to apply
+         */
+        private int inspect(int event) {
+            if(event == START_ELEMENT) {
+                if(!rootSeen) {
+                    rootSeen = true;
+                    if(SBML_BROKEN_NS.equals(getParent().getNamespaceURI())) {
+                        logger.warn("Namespace definition was messed up, it has been set to: " +
+                                "xmlns=\""+SBML_NS+"\"");
+                    }
+                }
+                if(isAnnotation()) {
+                    checkExtensionOnNext = true;
+                }
+            }
+            else if(event == END_ELEMENT && extensionAdded && isAnnotation()) {
+                extensionAdded = false;
+                return synthetic(END_ELEMENT, Hold.PROCESSED);
+            }
+            return event;
+        }
+
+        private boolean isAnnotation() {
+            return super.getLocalName().equals("annotation") && SBML_NS.equals(getNamespaceURI());
+        }
+
+        private static boolean isExtension(String namespaceURI, String localName) {
+            return localName.equals(EXTENSION.getLocalPart()) && EXTENSION.getNamespaceURI().equals(namespaceURI);
+        }
+
+        @Override
+        public boolean hasNext() throws XMLStreamException {
+            return hold != Hold.NONE || super.hasNext();
+        }
+
+        @Override
+        public int nextTag() throws XMLStreamException {
+            int event = next();
+            while ((event == CHARACTERS && isWhiteSpace())
+                    || event == SPACE || event == COMMENT || event == PROCESSING_INSTRUCTION) {
+                event = next();
+            }
+            if(event != START_ELEMENT && event != END_ELEMENT) {
+                throw new XMLStreamException("Expected start or end tag", getLocation());
+            }
+            return event;
+        }
+
+        @Override
+        public String getElementText() throws XMLStreamException {
+            if(syntheticEvent != -1) {
+                // a synthetic extension never holds text
+                throw new XMLStreamException("Element text content may not contain START_ELEMENT", getLocation());
+            }
+            return super.getElementText();
+        }
+
+        @Override
+        public int getEventType() {
+            return syntheticEvent != -1 ? syntheticEvent : super.getEventType();
+        }
+
+        @Override
+        public boolean isStartElement() {
+            return getEventType() == START_ELEMENT;
+        }
+
+        @Override
+        public boolean isEndElement() {
+            return getEventType() == END_ELEMENT;
+        }
+
+        @Override
+        public boolean isCharacters() {
+            return syntheticEvent == -1 && super.isCharacters();
+        }
+
+        @Override
+        public boolean isWhiteSpace() {
+            return syntheticEvent == -1 && super.isWhiteSpace();
+        }
+
+        @Override
+        public boolean hasText() {
+            return syntheticEvent == -1 && super.hasText();
+        }
+
+        @Override
+        public boolean hasName() {
+            return syntheticEvent != -1 || super.hasName();
+        }
+
+        @Override
+        public QName getName() {
+            return syntheticEvent != -1 ? EXTENSION : super.getName();
+        }
+
+        @Override
+        public String getLocalName() {
+            return syntheticEvent != -1 ? EXTENSION.getLocalPart() : super.getLocalName();
+        }
+
+        @Override
+        public String getPrefix() {
+            return syntheticEvent != -1 ? EXTENSION.getPrefix() : super.getPrefix();
+        }
+
+        @Override
+        public String getNamespaceURI() {
+            return syntheticEvent != -1 ? EXTENSION.getNamespaceURI() : super.getNamespaceURI();
+        }
+
+        @Override
+        public int getNamespaceCount() {
+            return syntheticEvent != -1 ? 0 : super.getNamespaceCount();
+        }
+
+        @Override
+        public int getAttributeCount() {
+            return syntheticEvent != -1 ? 0 : super.getAttributeCount();
+        }
+
+        @Override
+        public String getAttributeValue(String namespaceURI, String localName) {
+            return syntheticEvent != -1 ? null : super.getAttributeValue(namespaceURI, localName);
+        }
+    }
+}
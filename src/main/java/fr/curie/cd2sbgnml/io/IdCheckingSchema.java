@@ -0,0 +1,357 @@
+package fr.curie.cd2sbgnml.io;
+
+import org.w3c.dom.ls.LSResourceResolver;
+import org.w3c.dom.TypeInfo;
+import org.xml.sax.*;
+import org.xml.sax.helpers.XMLFilterImpl;
+
+import javax.xml.transform.Result;
+import javax.xml.transform.Source;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.sax.SAXResult;
+import javax.xml.validation.Schema;
+import javax.xml.validation.TypeInfoProvider;
+import javax.xml.validation.Validator;
+import javax.xml.validation.ValidatorHandler;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * A schema compiled with the xsd:ID, xsd:IDREF and xsd:IDREFS types of attributes replaced by the types of the same
+ * names in {@link #NAMESPACE}, along with the checks of these types: id values must be unique in the document, and
+ * references must point to one of them. See {@link SchemaRegistry}.
+ *
+ * Validator handlers given by this schema pass everything on to the validator handlers of the compiled schema, and do
+ * the checks with hash sets on what comes out of them, for the attributes they give one of these types. So it can be
+ * given to JAXB marshallers and unmarshallers like any other schema. Problems are reported like the validator does,
+ * except that all the references without id are reported at the end of the document, where the validator only
+ * reports one of them. Values that aren't NCNames, reported by the validator, are still counted as ids.
+ *
+ * JAXB marshallers make any validation error fatal, which stops writing at the first one. A schema made by
+ * {@link #reportingTo} gives validator handlers which report to its own error handler instead of the one they are
+ * given, so the whole document is written and all problems are known.
+ */
+class IdCheckingSchema extends Schema {
+
+    /**
+     * namespace of the types replacing those of XML Schema, which have the same names
+     */
+    static final String NAMESPACE = "http://cd2sbgnml.curie.fr/schema/ids";
+    static final String ID = "ID";
+    static final String IDREF = "IDREF";
+    static final String IDREFS = "IDREFS";
+
+    private final Schema schema;
+
+    /**
+     * local names of the attributes declared with one of the types, only these are checked
+     */
+    private final Set<String> attributeNames;
+
+    /**
+     * null to report to the error handler set on each validator
+     */
+    private final ErrorHandler reporter;
+
+    IdCheckingSchema(Schema schema, Set<String> attributeNames) {
+        this(schema, attributeNames, null);
+    }
+
+    private IdCheckingSchema(Schema schema, Set<String> attributeNames, ErrorHandler reporter) {
+        this.schema = schema;
+        this.attributeNames = attributeNames;
+        this.reporter = reporter;
+    }
+
+    /**
+     * @param reporter receives all the problems found by the validators of the returned schema
+     * @return the same schema, whose validators ignore the error handlers they are given
+     */
+    IdCheckingSchema reportingTo(ErrorHandler reporter) {
+        return new IdCheckingSchema(schema, attributeNames, reporter);
+    }
+
+    @Override
+    public ValidatorHandler newValidatorHandler() {
+        ValidatorHandler handler = schema.newValidatorHandler();
+        handler.setErrorHandler(reporter);
+        return new IdCheckingValidatorHandler(handler);
+    }
+
+    /**
+     * @return a validator feeding the sources to a validator handler, the result of validation is not supported
+     */
+    @Override
+    public Validator newValidator() {
+        return new Validator() {
+            private ErrorHandler errorHandler;
+            private LSResourceResolver resourceResolver;
+
+            @Override
+            public void reset() {
+                errorHandler = null;
+                resourceResolver = null;
+            }
+
+            @Override
+            public void validate(Source source, Result result) throws SAXException, IOException {
+                if(result != null) {
+                    throw new IllegalArgumentException("Validation results are not supported");
+                }
+                ValidatorHandler handler = newValidatorHandler();
+                handler.setErrorHandler(errorHandler);
+                handler.setResourceResolver(resourceResolver);
+                try {
+                    TransformerFactory.newInstance().newTransformer().transform(source, new SAXResult(handler));
+                } catch (TransformerException e) {
+                    if(e.getException() instanceof SAXException) {
+                        throw (SAXException) e.getException();
+                    }
+                    throw new SAXException(e);
+                }
+            }
+
+            @Override
+            public void setErrorHandler(ErrorHandler errorHandler) {
+                this.errorHandler = errorHandler;
+            }
+
+            @Override
+            public ErrorHandler getErrorHandler() {
+                return errorHandler;
+            }
+
+            @Override
+            public void setResourceResolver(LSResourceResolver resourceResolver) {
+                this.resourceResolver = resourceResolver;
+            }
+
+            @Override
+            public LSResourceResolver getResourceResolver() {
+                return resourceResolver;
+            }
+        };
+    }
+
+    private class IdCheckingValidatorHandler extends ValidatorHandler {
+        private final ValidatorHandler handler;
+        /**
+         * receives the output of the validator handler, where the types of attributes are known
+         */
+        private final IdChecker checker = new IdChecker();
+
+        private final Set<String> ids = new HashSet<>();
+        /**
+         * references to be checked at the end of the document, in the order they were found
+         */
+        private final Set<String> unresolvedIdrefs = new LinkedHashSet<>();
+        private Locator locator;
+        /**
+         * position of the last end tag, where the validator reports references without id
+         */
+        private int endLine = -1;
+        private int endColumn = -1;
+
+        IdCheckingValidatorHandler(ValidatorHandler handler) {
+            this.handler = handler;
+            handler.setContentHandler(checker);
+        }
+
+        @Override
+        public void setDocumentLocator(Locator locator) {
+            this.locator = locator;
+            handler.setDocumentLocator(locator);
+        }
+
+        @Override
+        public void startDocument() throws SAXException {
+            ids.clear();
+            unresolvedIdrefs.clear();
+            handler.startDocument();
+        }
+
+        @Override
+        public void endDocument() throws SAXException {
+            handler.endDocument();
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes atts) throws SAXException {
+            handler.startElement(uri, localName, qName, atts);
+        }
+
+        private class IdChecker extends XMLFilterImpl {
+            /**
+             * The types of the attributes can only be asked for here.
+             */
+            @Override
+            public void startElement(String uri, String localName, String qName, Attributes atts)
+                    throws SAXException {
+                for(int i=0; i < atts.getLength(); i++) {
+                    if(!attributeNames.contains(atts.getLocalName(i))) {
+                        continue;
+                    }
+                    TypeInfo type = handler.getTypeInfoProvider().getAttributeTypeInfo(i);
+                    if(type == null || !NAMESPACE.equals(type.getTypeNamespace())) {
+                        continue;
+                    }
+                    String value = atts.getValue(i).trim();
+                    switch (type.getTypeName()) {
+                        case ID:
+                            addId(value, qName.isEmpty() ? localName : qName,
+                                    atts.getQName(i).isEmpty() ? atts.getLocalName(i) : atts.getQName(i));
+                            break;
+                        case IDREF:
+                            addIdref(value);
+                            break;
+                        case IDREFS:
+                            for(String idref: value.split("\\s+")) {
+                                addIdref(idref);
+                            }
+                            break;
+                    }
+                }
+                super.startElement(uri, localName, qName, atts);
+            }
+
+            /**
+             * After the validator has reported its own problems, like it does.
+             */
+            @Override
+            public void endDocument() throws SAXException {
+                for(String idref: unresolvedIdrefs) {
+                    report(new SAXParseException("cvc-id.1: There is no ID/IDREF binding for IDREF '"+idref+"'.",
+                            locator == null ? null : locator.getPublicId(),
+                            locator == null ? null : locator.getSystemId(), endLine, endColumn));
+                }
+                super.endDocument();
+            }
+        }
+
+        private void addId(String value, String elementName, String attributeName) throws SAXException {
+            if(!ids.add(value)) {
+                report(exception("cvc-id.2: There are multiple occurrences of ID value '"+value+"'."));
+                report(exception("cvc-attribute.3: The value '"+value+"' of attribute '"+attributeName
+                        + "' on element '"+elementName+"' is not valid with respect to its type, '"+ID+"'."));
+            }
+            unresolvedIdrefs.remove(value);
+        }
+
+        private void addIdref(String value) {
+            if(!ids.contains(value)) {
+                unresolvedIdrefs.add(value);
+            }
+        }
+
+        /**
+         * Report to the error handler like the validator does, which throws if there is none.
+         */
+        private void report(SAXParseException e) throws SAXException {
+            if(handler.getErrorHandler() == null) {
+                throw e;
+            }
+            handler.getErrorHandler().error(e);
+        }
+
+        private SAXParseException exception(String message) {
+            return new SAXParseException(message, locator);
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            if(locator != null) {
+                endLine = locator.getLineNumber();
+                endColumn = locator.getColumnNumber();
+            }
+            handler.endElement(uri, localName, qName);
+        }
+
+        @Override
+        public void startPrefixMapping(String prefix, String uri) throws SAXException {
+            handler.startPrefixMapping(prefix, uri);
+        }
+
+        @Override
+        public void endPrefixMapping(String prefix) throws SAXException {
+            handler.endPrefixMapping(prefix);
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) throws SAXException {
+            handler.characters(ch, start, length);
+        }
+
+        @Override
+        public void ignorableWhitespace(char[] ch, int start, int length) throws SAXException {
+            handler.ignorableWhitespace(ch, start, length);
+        }
+
+        @Override
+        public void processingInstruction(String target, String data) throws SAXException {
+            handler.processingInstruction(target, data);
+        }
+
+        @Override
+        public void skippedEntity(String name) throws SAXException {
+            handler.skippedEntity(name);
+        }
+
+        @Override
+        public void setContentHandler(ContentHandler receiver) {
+            checker.setContentHandler(receiver);
+        }
+
+        @Override
+        public ContentHandler getContentHandler() {
+            return checker.getContentHandler();
+        }
+
+        @Override
+        public void setErrorHandler(ErrorHandler errorHandler) {
+            if(reporter == null) {
+                handler.setErrorHandler(errorHandler);
+            }
+        }
+
+        @Override
+        public ErrorHandler getErrorHandler() {
+            return handler.getErrorHandler();
+        }
+
+        @Override
+        public void setResourceResolver(LSResourceResolver resourceResolver) {
+            handler.setResourceResolver(resourceResolver);
+        }
+
+        @Override
+        public LSResourceResolver getResourceResolver() {
+            return handler.getResourceResolver();
+        }
+
+        @Override
+        public TypeInfoProvider getTypeInfoProvider() {
+            return handler.getTypeInfoProvider();
+        }
+
+        @Override
+        public boolean getFeature(String name) throws SAXNotRecognizedException, SAXNotSupportedException {
+            return handler.getFeature(name);
+        }
+
+        @Override
+        public void setFeature(String name, boolean value) throws SAXNotRecognizedException, SAXNotSupportedException {
+            handler.setFeature(name, value);
+        }
+
+        @Override
+        public Object getProperty(String name) throws SAXNotRecognizedException, SAXNotSupportedException {
+            return handler.getProperty(name);
+        }
+
+        @Override
+        public void setProperty(String name, Object object) throws SAXNotRecognizedException, SAXNotSupportedException {
+            handler.setProperty(name, object);
+        }
+    }
+}
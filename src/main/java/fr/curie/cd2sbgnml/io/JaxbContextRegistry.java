@@ -0,0 +1,133 @@
+package fr.curie.cd2sbgnml.io;
+
+import fr.curie.cd2sbgnml.xmlcdwrappers.Utils;
+import org.sbgn.bindings.Sbgn;
+import org.sbml.sbml.level2.version4.Sbml;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.bind.ValidationEventHandler;
+
+/**
+ * Central registry of the JAXB contexts used by the project.
+ *
+ * Building a context for the CellDesigner bindings (which pull the SBML and MathML packages) costs hundreds of
+ * milliseconds, so each context is built only once per JVM, the first time it is needed.
+ * JAXBContext is thread safe, but Marshaller and Unmarshaller are not: one instance of each is kept per thread and
+ * handed back with its default configuration each time it is requested.
+ */
+public enum JaxbContextRegistry {
+
+    /**
+     * Sbml Level 2 Version 4 with CellDesigner extensions
+     */
+    CELLDESIGNER {
+        @Override
+        JAXBContext buildContext() throws JAXBException {
+            return JAXBContext.newInstance(Sbml.class);
+        }
+
+        @Override
+        void setDefaultProperties(Marshaller marshaller) throws JAXBException {
+            super.setDefaultProperties(marshaller);
+            marshaller.setProperty("com.sun.xml.bind.namespacePrefixMapper", new Utils.DefaultNamespacePrefixMapper());
+        }
+    },
+
+    /**
+     * SBGN-ML, as bound by libsbgn
+     */
+    SBGN {
+        @Override
+        JAXBContext buildContext() throws JAXBException {
+            return JAXBContext.newInstance(Sbgn.class.getPackage().getName(), Sbgn.class.getClassLoader());
+        }
+    };
+
+    private volatile JAXBContext context;
+    private final ThreadLocal<Pooled<Marshaller>> marshallers = new ThreadLocal<>();
+    private final ThreadLocal<Pooled<Unmarshaller>> unmarshallers = new ThreadLocal<>();
+
+    abstract JAXBContext buildContext() throws JAXBException;
+
+    void setDefaultProperties(Marshaller marshaller) throws JAXBException {
+        marshaller.setProperty(Marshaller.JAXB_ENCODING, "UTF-8");
+        marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
+        marshaller.setProperty(Marshaller.JAXB_FRAGMENT, false);
+    }
+
+    /**
+     * @return the shared context, built on first call
+     * @throws JAXBException
+     */
+    public JAXBContext getContext() throws JAXBException {
+        JAXBContext result = context;
+        if(result == null) {
+            synchronized (this) {
+                result = context;
+                if(result == null) {
+                    result = buildContext();
+                    context = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the marshaller of the current thread, reset to its default configuration: UTF-8, formatted output
+     * and, for CellDesigner, the 'celldesigner' namespace prefix.
+     * The returned object must not be passed to other threads.
+     * @return
+     * @throws JAXBException
+     */
+    public Marshaller getMarshaller() throws JAXBException {
+        Pooled<Marshaller> pooled = marshallers.get();
+        if(pooled == null) {
+            Marshaller marshaller = getContext().createMarshaller();
+            pooled = new Pooled<>(marshaller, marshaller.getEventHandler());
+            marshallers.set(pooled);
+        }
+        Marshaller marshaller = pooled.instance;
+        marshaller.setSchema(null);
+        marshaller.setEventHandler(pooled.defaultEventHandler);
+        setDefaultProperties(marshaller);
+        return marshaller;
+    }
+
+    /**
+     * Returns the unmarshaller of the current thread, without schema and with its default event handler.
+     * The returned object must not be passed to other threads.
+     * @return
+     * @throws JAXBException
+     */
+    public Unmarshaller getUnmarshaller() throws JAXBException {
+        Pooled<Unmarshaller> pooled = unmarshallers.get();
+        if(pooled == null) {
+            Unmarshaller unmarshaller = getContext().createUnmarshaller();
+            pooled = new Pooled<>(unmarshaller, unmarshaller.getEventHandler());
+            unmarshallers.set(pooled);
+        }
+        Unmarshaller unmarshaller = pooled.instance;
+        unmarshaller.setSchema(null);
+        unmarshaller.setEventHandler(pooled.defaultEventHandler);
+        return unmarshaller;
+    }
+
+    /**
+     * A pooled (un)marshaller along with the event handler it was created with.
+     * The JAXB reference implementation is its own lenient default handler, which is not what setEventHandler(null)
+     * restores, so it has to be kept aside.
+     */
+    private static class Pooled<T> {
+        final T instance;
+        final ValidationEventHandler defaultEventHandler;
+
+        Pooled(T instance, ValidationEventHandler defaultEventHandler) {
+            this.instance = instance;
+            this.defaultEventHandler = defaultEventHandler;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package fr.curie.cd2sbgnml.io;
+
+import org.slf4j.Logger;
+import org.xml.sax.*;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.ValidationEvent;
+import javax.xml.bind.helpers.ValidationEventImpl;
+import javax.xml.bind.helpers.ValidationEventLocatorImpl;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.validation.ValidatorHandler;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Validation of models and files against the schemas of {@link SchemaRegistry}.
+ *
+ * Models are validated in memory, by marshalling them with the schema set on the marshaller, so that an output doesn't need to
+ * be read back from disk. Problems are returned as JAXB ValidationEvents, with their severity and location, instead of
+ * stopping at the first one.
+ *
+ * Validation can also be moved to a background thread, for callers that don't need to wait for its result.
+ */
+public class ModelValidator {
+
+    /**
+     * How outputs are validated by the scripts
+     */
+    public enum Mode {
+        /**
+         * validate before the conversion is considered done
+         */
+        ON,
+        /**
+         * validate in a background thread, problems are only logged
+         */
+        BACKGROUND,
+        /**
+         * don't validate
+         */
+        OFF
+    }
+
+    /**
+     * Maximum number of events logged by {@link #log}
+     */
+    private static final int MAX_LOGGED_EVENTS = 10;
+
+    private static final ExecutorService background = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "background-validation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private ModelValidator() {
+    }
+
+    /**
+     * @param root JAXB root element, like Sbgn or Sbml
+     * @return problems found, empty if the model is valid
+     * @throws JAXBException if the model can't be marshalled
+     */
+    public static List<ValidationEvent> validate(SchemaRegistry schema, Object root) throws JAXBException {
+        EventCollector collector = new EventCollector();
+        Marshaller marshaller = schema.getContextRegistry().getMarshaller();
+        try {
+            marshaller.setSchema(schema.getSchema(collector));
+        } catch (SAXException e) {
+            throw new JAXBException("Could not compile schema", e);
+        }
+        try {
+            // nothing to keep, the validator sits in the marshaller
+            marshaller.marshal(root, new DefaultHandler());
+        } catch (JAXBException e) {
+            // validation errors don't stop marshalling, only fatal ones do
+            if(!collector.hasFatalError) {
+                throw e;
+            }
+        }
+        return collector.getEvents();
+    }
+
+    /**
+     * @return problems found, including malformed XML, empty if the file is valid
+     */
+    public static List<ValidationEvent> validate(SchemaRegistry schema, Path file) throws IOException {
+        EventCollector collector = new EventCollector();
+        try (InputStream in = new BomInputStream(Files.newInputStream(file))) {
+            SAXParserFactory spf = SAXParserFactory.newInstance();
+            spf.setNamespaceAware(true);
+            XMLReader reader = spf.newSAXParser().getXMLReader();
+            ValidatorHandler validatorHandler = schema.getSchema().newValidatorHandler();
+            validatorHandler.setErrorHandler(collector);
+            reader.setContentHandler(validatorHandler);
+            reader.setErrorHandler(collector);
+            InputSource source = new InputSource(in);
+            source.setSystemId(file.toUri().toString());
+            reader.parse(source);
+        } catch (SAXException e) {
+            // already collected, unless it comes from the schema
+            if(!collector.hasFatalError) {
+                throw new IOException("Could not validate "+file, e);
+            }
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException(e);
+        }
+        return collector.getEvents();
+    }
+
+    /**
+     * Run a task, typically a validation and what depends on its result, in the background validation thread.
+     * Tasks are run one after the other, in the order they were given.
+     */
+    public static CompletableFuture<Void> runInBackground(Runnable task) {
+        return CompletableFuture.runAsync(task, background);
+    }
+
+    /**
+     * Wait until all the tasks given to {@link #runInBackground} so far are done.
+     */
+    public static void awaitBackground() {
+        try {
+            background.submit(() -> { }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // an empty task can't fail
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return true if none of the events is an error
+     */
+    public static boolean isValid(List<ValidationEvent> events) {
+        return events.stream().noneMatch(e -> e.getSeverity() != ValidationEvent.WARNING);
+    }
+
+    /**
+     * Log the first events, and how many were not logged.
+     * @param what description of the validated document, like "SBGN-ML output"
+     */
+    public static void log(Logger logger, String what, List<ValidationEvent> events) {
+        for(ValidationEvent event: events.subList(0, Math.min(events.size(), MAX_LOGGED_EVENTS))) {
+            String location = event.getLocator() == null || event.getLocator().getLineNumber() < 1 ? "" :
+                    " at line "+event.getLocator().getLineNumber();
+            String message = what+" is not valid"+location+": "+event.getMessage();
+            if(event.getSeverity() == ValidationEvent.WARNING) {
+                logger.warn(message);
+            }
+            else {
+                logger.error(message);
+            }
+        }
+        if(events.size() > MAX_LOGGED_EVENTS) {
+            logger.error((events.size() - MAX_LOGGED_EVENTS)+" more validation problems in "+what);
+        }
+    }
+
+    /**
+     * Keeps all the problems reported by the parser and validator, without stopping at the first one.
+     */
+    public static class EventCollector implements ErrorHandler {
+        private final List<ValidationEvent> events = new ArrayList<>();
+        private boolean hasFatalError = false;
+
+        @Override
+        public void warning(SAXParseException e) {
+            add(ValidationEvent.WARNING, e);
+        }
+
+        @Override
+        public void error(SAXParseException e) {
+            add(ValidationEvent.ERROR, e);
+        }
+
+        @Override
+        public void fatalError(SAXParseException e) throws SAXException {
+            add(ValidationEvent.FATAL_ERROR, e);
+            hasFatalError = true;
+            throw e;
+        }
+
+        public List<ValidationEvent> getEvents() {
+            return events;
+        }
+
+        private void add(int severity, SAXParseException e) {
+            events.add(new ValidationEventImpl(severity, e.getMessage(), new ValidationEventLocatorImpl(e), e));
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package fr.curie.cd2sbgnml.io;
+
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.util.StreamReaderDelegate;
+import java.util.Iterator;
+
+/**
+ * Stream reader presenting every element and attribute of one namespace as if it belonged to another namespace.
+ * Used to read files declaring a namespace that the JAXB bindings don't know, but with compatible content.
+ */
+public class NamespaceRemappingStreamReader extends StreamReaderDelegate {
+
+    private final String from;
+    private final String to;
+
+    /**
+     * @param source
+     * @param from namespace found in the file
+     * @param to namespace presented to the consumer
+     */
+    public NamespaceRemappingStreamReader(XMLStreamReader source, String from, String to) {
+        super(source);
+        this.from = from;
+        this.to = to;
+    }
+
+    String remap(String namespaceURI) {
+        return from.equals(namespaceURI) ? to : namespaceURI;
+    }
+
+    private QName remap(QName name) {
+        if(from.equals(name.getNamespaceURI())) {
+            return new QName(to, name.getLocalPart(), name.getPrefix());
+        }
+        return name;
+    }
+
+    @Override
+    public QName getName() {
+        return remap(super.getName());
+    }
+
+    @Override
+    public String getNamespaceURI() {
+        return remap(super.getNamespaceURI());
+    }
+
+    @Override
+    public String getNamespaceURI(String prefix) {
+        return remap(super.getNamespaceURI(prefix));
+    }
+
+    @Override
+    public String getNamespaceURI(int index) {
+        return remap(super.getNamespaceURI(index));
+    }
+
+    @Override
+    public NamespaceContext getNamespaceContext() {
+        NamespaceContext context = super.getNamespaceContext();
+        return new NamespaceContext() {
+            @Override
+            public String getNamespaceURI(String prefix) {
+                return remap(context.getNamespaceURI(prefix));
+            }
+
+            @Override
+            public String getPrefix(String namespaceURI) {
+                String prefix = context.getPrefix(namespaceURI);
+                if(prefix == null && to.equals(namespaceURI)) {
+                    prefix = context.getPrefix(from);
+                }
+                return prefix;
+            }
+
+            // raw type, as in the Java 8 signature of NamespaceContext.getPrefixes
+            @SuppressWarnings("rawtypes")
+            @Override
+            public Iterator getPrefixes(String namespaceURI) {
+                Iterator prefixes = context.getPrefixes(namespaceURI);
+                if(!prefixes.hasNext() && to.equals(namespaceURI)) {
+                    prefixes = context.getPrefixes(from);
+                }
+                return prefixes;
+            }
+        };
+    }
+
+    @Override
+    public String getAttributeNamespace(int index) {
+        return remap(super.getAttributeNamespace(index));
+    }
+
+    @Override
+    public QName getAttributeName(int index) {
+        return remap(super.getAttributeName(index));
+    }
+
+    @Override
+    public String getAttributeValue(String namespaceURI, String localName) {
+        String value = super.getAttributeValue(namespaceURI, localName);
+        if(value == null && to.equals(namespaceURI)) {
+            value = super.getAttributeValue(from, localName);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,192 @@
+package fr.curie.cd2sbgnml.io;
+
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * Stream writer putting every element and attribute of one namespace into another namespace, on the fly.
+ * Counterpart of NamespaceRemappingStreamReader, used to write with bindings of another version of a format.
+ */
+public class NamespaceRemappingStreamWriter implements XMLStreamWriter {
+
+    private final XMLStreamWriter target;
+    private final String from;
+    private final String to;
+
+    /**
+     * @param target
+     * @param from namespace given by the producer
+     * @param to namespace written in the output
+     */
+    public NamespaceRemappingStreamWriter(XMLStreamWriter target, String from, String to) {
+        this.target = target;
+        this.from = from;
+        this.to = to;
+    }
+
+    private String remap(String namespaceURI) {
+        return from.equals(namespaceURI) ? to : namespaceURI;
+    }
+
+    @Override
+    public void writeStartElement(String localName) throws XMLStreamException {
+        target.writeStartElement(localName);
+    }
+
+    @Override
+    public void writeStartElement(String namespaceURI, String localName) throws XMLStreamException {
+        target.writeStartElement(remap(namespaceURI), localName);
+    }
+
+    @Override
+    public void writeStartElement(String prefix, String localName, String namespaceURI) throws XMLStreamException {
+        target.writeStartElement(prefix, localName, remap(namespaceURI));
+    }
+
+    @Override
+    public void writeEmptyElement(String namespaceURI, String localName) throws XMLStreamException {
+        target.writeEmptyElement(remap(namespaceURI), localName);
+    }
+
+    @Override
+    public void writeEmptyElement(String prefix, String localName, String namespaceURI) throws XMLStreamException {
+        target.writeEmptyElement(prefix, localName, remap(namespaceURI));
+    }
+
+    @Override
+    public void writeEmptyElement(String localName) throws XMLStreamException {
+        target.writeEmptyElement(localName);
+    }
+
+    @Override
+    public void writeEndElement() throws XMLStreamException {
+        target.writeEndElement();
+    }
+
+    @Override
+    public void writeEndDocument() throws XMLStreamException {
+        target.writeEndDocument();
+    }
+
+    @Override
+    public void close() throws XMLStreamException {
+        target.close();
+    }
+
+    @Override
+    public void flush() throws XMLStreamException {
+        target.flush();
+    }
+
+    @Override
+    public void writeAttribute(String localName, String value) throws XMLStreamException {
+        target.writeAttribute(localName, value);
+    }
+
+    @Override
+    public void writeAttribute(String prefix, String namespaceURI, String localName, String value)
+            throws XMLStreamException {
+        target.writeAttribute(prefix, remap(namespaceURI), localName, value);
+    }
+
+    @Override
+    public void writeAttribute(String namespaceURI, String localName, String value) throws XMLStreamException {
+        target.writeAttribute(remap(namespaceURI), localName, value);
+    }
+
+    @Override
+    public void writeNamespace(String prefix, String namespaceURI) throws XMLStreamException {
+        target.writeNamespace(prefix, remap(namespaceURI));
+    }
+
+    @Override
+    public void writeDefaultNamespace(String namespaceURI) throws XMLStreamException {
+        target.writeDefaultNamespace(remap(namespaceURI));
+    }
+
+    @Override
+    public void writeComment(String data) throws XMLStreamException {
+        target.writeComment(data);
+    }
+
+    @Override
+    public void writeProcessingInstruction(String piTarget) throws XMLStreamException {
+        target.writeProcessingInstruction(piTarget);
+    }
+
+    @Override
+    public void writeProcessingInstruction(String piTarget, String data) throws XMLStreamException {
+        target.writeProcessingInstruction(piTarget, data);
+    }
+
+    @Override
+    public void writeCData(String data) throws XMLStreamException {
+        target.writeCData(data);
+    }
+
+    @Override
+    public void writeDTD(String dtd) throws XMLStreamException {
+        target.writeDTD(dtd);
+    }
+
+    @Override
+    public void writeEntityRef(String name) throws XMLStreamException {
+        target.writeEntityRef(name);
+    }
+
+    @Override
+    public void writeStartDocument() throws XMLStreamException {
+        target.writeStartDocument();
+    }
+
+    @Override
+    public void writeStartDocument(String version) throws XMLStreamException {
+        target.writeStartDocument(version);
+    }
+
+    @Override
+    public void writeStartDocument(String encoding, String version) throws XMLStreamException {
+        target.writeStartDocument(encoding, version);
+    }
+
+    @Override
+    public void writeCharacters(String text) throws XMLStreamException {
+        target.writeCharacters(text);
+    }
+
+    @Override
+    public void writeCharacters(char[] text, int start, int len) throws XMLStreamException {
+        target.writeCharacters(text, start, len);
+    }
+
+    @Override
+    public String getPrefix(String uri) throws XMLStreamException {
+        return target.getPrefix(remap(uri));
+    }
+
+    @Override
+    public void setPrefix(String prefix, String uri) throws XMLStreamException {
+        target.setPrefix(prefix, remap(uri));
+    }
+
+    @Override
+    public void setDefaultNamespace(String uri) throws XMLStreamException {
+        target.setDefaultNamespace(remap(uri));
+    }
+
+    @Override
+    public void setNamespaceContext(NamespaceContext context) throws XMLStreamException {
+        target.setNamespaceContext(context);
+    }
+
+    @Override
+    public NamespaceContext getNamespaceContext() {
+        return target.getNamespaceContext();
+    }
+
+    @Override
+    public Object getProperty(String name) throws IllegalArgumentException {
+        return target.getProperty(name);
+    }
+}
@@ -0,0 +1,1101 @@
+package fr.curie.cd2sbgnml.io;
+
+import org.sbfc.converter.exceptions.WriteModelException;
+import org.sbgn.bindings.*;
+import org.sbgn.bindings.Map;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.NamespaceSupport;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.validation.ValidatorHandler;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.List;
+
+/**
+ * Writes an SBGN-ML map piece by piece, as it is produced: first the header of the map, then its glyphs one by one,
+ * then its arcs. Each piece can be forgotten once written, so the whole map is never held in memory, neither as
+ * libsbgn objects nor as an intermediate tree. Obtained from {@link SbgnStreamWriter#open}.
+ *
+ * Elements and attributes are written by hand, in the order of the libsbgn 0.2 bindings, without the JAXB
+ * marshaller. The output is the same as the one of {@link SbgnStreamWriter#write}, byte for byte, including
+ * indentation, escaping, float formatting and the namespace declarations of notes and extensions, which are
+ * declared the way JAXB declares them when it writes DOM elements. Notes and extensions that are still unparsed
+ * {@link XmlFragment}s are written straight from their text, as if they were parsed.
+ *
+ * Glyph and arc objects given are not modified. Ids of the objects they refer to, like compartmentRef or arc source
+ * and target, are written from the objects themselves, which may only be stubs holding the id.
+ *
+ * The map can be validated as it is written, by a validator handler given the SAX events a namespace aware parser
+ * would report when reading the output back, indentation aside.
+ */
+public class SbgnStreamEmitter implements AutoCloseable {
+
+    private static final String XML_DECLARATION =
+            "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>";
+
+    /**
+     * Glyph.getOrientation() gives horizontal when the attribute is absent, JAXB reads the field
+     */
+    private static final Field glyphOrientation = orientationField();
+
+    private static Field orientationField() {
+        try {
+            Field field = Glyph.class.getDeclaredField("orientation");
+            field.setAccessible(true);
+            return field;
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private enum Part { DOCUMENT, GLYPHS, ARCS, ARCGROUPS, END }
+
+    private final Writer writer;
+    private final OutputStream out;
+    private final boolean closeStream;
+    private final boolean formatted;
+    private final String namespace;
+
+    private final char[] buffer = new char[1 << 13];
+    private int length = 0;
+
+    private Part part = Part.DOCUMENT;
+
+    /**
+     * Indentation state, as kept by JAXB: start tag waiting for its end, text written in the current element
+     */
+    private int depth = 0;
+    private boolean startTagOpen = false;
+    private boolean seenText = false;
+
+    /**
+     * Namespace bindings of the output, as prefix, uri pairs, bindings of the current element being at the end
+     */
+    private String[] prefixes = new String[8];
+    private String[] uris = new String[8];
+    private int bindings = 0;
+
+    /**
+     * Start of the bindings of the DOM element being written, which can still be modified
+     */
+    private int elementBase = 0;
+
+    /**
+     * Namespace bindings in scope inside the DOM element being written, independent from the output ones
+     */
+    private String[] domPrefixes = new String[8];
+    private String[] domUris = new String[8];
+    private int domBindings = 0;
+
+    /**
+     * Attributes of the DOM element being started, namespace declarations included, as name, uri and value
+     */
+    private String[] domAttributeNames = new String[8];
+    private String[] domAttributeUris = new String[8];
+    private String[] domAttributeValues = new String[8];
+    private int domAttributeCount = 0;
+
+    private final StringBuilder domText = new StringBuilder();
+
+    /**
+     * Receives the output as SAX events, null when not validating
+     */
+    private final ValidatorHandler validator;
+
+    /**
+     * Namespace scope of the output as a parser would see it, and start tag not reported yet with its attributes
+     */
+    private final NamespaceSupport validatorNamespaces = new NamespaceSupport();
+    private final AttributesImpl validatorAttributes = new AttributesImpl();
+    private String validatorStartTag = null;
+
+    /**
+     * @param validator null to write without validating
+     */
+    SbgnStreamEmitter(OutputStream out, boolean closeStream, boolean formatted, String namespace,
+                      ValidatorHandler validator) {
+        this.writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        this.out = out;
+        this.closeStream = closeStream;
+        this.formatted = formatted;
+        this.namespace = namespace;
+        this.validator = validator;
+    }
+
+    /**
+     * Write the beginning of the document, up to the map and its notes, extension and bbox. Glyphs, arcs and arc
+     * groups of the given map are not written, they are given separately afterwards.
+     * @throws IllegalStateException if already called
+     */
+    public void startMap(Map map) throws WriteModelException {
+        if(part != Part.DOCUMENT) {
+            throw new IllegalStateException("Map already started");
+        }
+        part = Part.GLYPHS;
+        try {
+            append(XML_DECLARATION);
+            validateStartDocument();
+            prefixes[0] = "xml";
+            uris[0] = XMLConstants.XML_NS_URI;
+            bindings = 1;
+            startTag("sbgn");
+            bind("", namespace);
+            namespaceDeclaration("", namespace);
+            startTag("map");
+            attribute("language", map.getLanguage());
+            base(map);
+            bbox("bbox", map.getBbox());
+        } catch (IOException e) {
+            throw new WriteModelException("Could not write map", e);
+        }
+    }
+
+    /**
+     * Write a top level glyph of the map, with its nested glyphs.
+     * @throws IllegalStateException if called before the map is started, or after arcs
+     */
+    public void glyph(Glyph glyph) throws WriteModelException {
+        advance(Part.GLYPHS);
+        try {
+            writeGlyph(glyph);
+        } catch (IOException e) {
+            throw new WriteModelException("Could not write glyph "+glyph.getId(), e);
+        }
+    }
+
+    /**
+     * Write an arc of the map, after all the glyphs.
+     * @throws IllegalStateException if called before the map is started, or after arc groups
+     */
+    public void arc(Arc arc) throws WriteModelException {
+        advance(Part.ARCS);
+        try {
+            writeArc(arc);
+        } catch (IOException e) {
+            throw new WriteModelException("Could not write arc "+arc.getId(), e);
+        }
+    }
+
+    /**
+     * Write an arc group of the map, after all the glyphs and arcs.
+     * @throws IllegalStateException if called before the map is started
+     */
+    public void arcgroup(Arcgroup arcgroup) throws WriteModelException {
+        advance(Part.ARCGROUPS);
+        try {
+            startTag("arcgroup");
+            attribute("class", arcgroup.getClazz());
+            base(arcgroup);
+            for(Glyph glyph: arcgroup.getGlyph()) {
+                writeGlyph(glyph);
+            }
+            for(Arc arc: arcgroup.getArc()) {
+                writeArc(arc);
+            }
+            endTag("arcgroup");
+        } catch (IOException e) {
+            throw new WriteModelException("Could not write arc group", e);
+        }
+    }
+
+    /**
+     * Close the map and the document, and flush everything to the output.
+     */
+    public void endMap() throws WriteModelException {
+        advance(Part.END);
+        try {
+            endTag("map");
+            endTag("sbgn");
+            validateEndDocument();
+            if(formatted) {
+                append('\n');
+            }
+            flushBuffer();
+            writer.flush();
+        } catch (IOException e) {
+            throw new WriteModelException("Could not write map", e);
+        }
+    }
+
+    /**
+     * Close the output if it is a file opened by {@link SbgnStreamWriter#open(java.nio.file.Path)}, else only
+     * flush it. The document is incomplete if {@link #endMap()} wasn't called.
+     */
+    @Override
+    public void close() throws WriteModelException {
+        try {
+            flushBuffer();
+            writer.flush();
+            if(closeStream) {
+                out.close();
+            }
+        } catch (IOException e) {
+            throw new WriteModelException("Could not close output", e);
+        }
+    }
+
+    /**
+     * Parts of the map come in the order of the schema, after the start of the map, and any of them may be empty
+     */
+    private void advance(Part to) {
+        if(part == Part.DOCUMENT || part.compareTo(to) > 0 || part == Part.END) {
+            throw new IllegalStateException("Cannot write "+to+" when at "+part);
+        }
+        part = to;
+    }
+
+    /*
+     * libsbgn elements, children and attributes in the order of the bindings
+     */
+
+    private void writeGlyph(Glyph glyph) throws IOException {
+        startTag("glyph");
+        attribute("class", glyph.getClazz());
+        attribute("orientation", orientation(glyph));
+        attribute("id", glyph.getId());
+        attribute("compartmentRef", idOf(glyph.getCompartmentRef()));
+        if(glyph.getCompartmentOrder() != null) {
+            attribute("compartmentOrder", glyph.getCompartmentOrder());
+        }
+        base(glyph);
+        label(glyph.getLabel());
+        Glyph.State state = glyph.getState();
+        if(state != null) {
+            startTag("state");
+            attribute("value", state.getValue());
+            attribute("variable", state.getVariable());
+            endTag("state");
+        }
+        Glyph.Clone clone = glyph.getClone();
+        if(clone != null) {
+            startTag("clone");
+            label(clone.getLabel());
+            endTag("clone");
+        }
+        Glyph.Callout callout = glyph.getCallout();
+        if(callout != null) {
+            startTag("callout");
+            attribute("target", idOf(callout.getTarget()));
+            Point point = callout.getPoint();
+            if(point != null) {
+                point("point", point.getX(), point.getY());
+            }
+            endTag("callout");
+        }
+        Glyph.Entity entity = glyph.getEntity();
+        if(entity != null) {
+            startTag("entity");
+            attribute("name", entity.getName());
+            endTag("entity");
+        }
+        bbox("bbox", glyph.getBbox());
+        for(Glyph child: glyph.getGlyph()) {
+            writeGlyph(child);
+        }
+        ports(glyph.getPort());
+        endTag("glyph");
+    }
+
+    private void writeArc(Arc arc) throws IOException {
+        startTag("arc");
+        attribute("class", arc.getClazz());
+        attribute("id", arc.getId());
+        attribute("source", idOf(arc.getSource()));
+        attribute("target", idOf(arc.getTarget()));
+        base(arc);
+        for(Glyph glyph: arc.getGlyph()) {
+            writeGlyph(glyph);
+        }
+        ports(arc.getPort());
+        Arc.Start start = arc.getStart();
+        if(start != null) {
+            point("start", start.getX(), start.getY());
+        }
+        for(Arc.Next next: arc.getNext()) {
+            startTag("next");
+            attribute("x", next.getX());
+            attribute("y", next.getY());
+            for(Point point: next.getPoint()) {
+                point("point", point.getX(), point.getY());
+            }
+            endTag("next");
+        }
+        Arc.End end = arc.getEnd();
+        if(end != null) {
+            startTag("end");
+            attribute("x", end.getX());
+            attribute("y", end.getY());
+            for(Point point: end.getPoint()) {
+                point("point", point.getX(), point.getY());
+            }
+            endTag("end");
+        }
+        endTag("arc");
+    }
+
+    private void base(SBGNBase base) throws IOException {
+        SBGNBase.Notes notes = base.getNotes();
+        if(notes != null) {
+            startTag("notes");
+            for(Element element: notes.getAny()) {
+                domElement(element);
+            }
+            endTag("notes");
+        }
+        SBGNBase.Extension extension = base.getExtension();
+        if(extension != null) {
+            startTag("extension");
+            for(Element element: extension.getAny()) {
+                domElement(element);
+            }
+            endTag("extension");
+        }
+    }
+
+    private void label(Label label) throws IOException {
+        if(label != null) {
+            startTag("label");
+            attribute("text", label.getText());
+            bbox("bbox", label.getBbox());
+            endTag("label");
+        }
+    }
+
+    private void bbox(String name, Bbox bbox) throws IOException {
+        if(bbox != null) {
+            startTag(name);
+            attribute("w", bbox.getW());
+            attribute("h", bbox.getH());
+            attribute("x", bbox.getX());
+            attribute("y", bbox.getY());
+            endTag(name);
+        }
+    }
+
+    private void ports(List<Port> ports) throws IOException {
+        for(Port port: ports) {
+            startTag("port");
+            attribute("id", port.getId());
+            attribute("x", port.getX());
+            attribute("y", port.getY());
+            endTag("port");
+        }
+    }
+
+    private void point(String name, float x, float y) throws IOException {
+        startTag(name);
+        attribute("x", x);
+        attribute("y", y);
+        endTag(name);
+    }
+
+    private static String orientation(Glyph glyph) {
+        try {
+            return (String) glyphOrientation.get(glyph);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @param referenced target of an IDREF attribute
+     * @return its id, null to leave the attribute out
+     */
+    private static String idOf(Object referenced) {
+        if(referenced == null) {
+            return null;
+        }
+        if(referenced instanceof Glyph) {
+            return ((Glyph) referenced).getId();
+        }
+        if(referenced instanceof Port) {
+            return ((Port) referenced).getId();
+        }
+        if(referenced instanceof Arc) {
+            return ((Arc) referenced).getId();
+        }
+        throw new IllegalArgumentException("Not an SBGN-ML element with an id: "+referenced);
+    }
+
+    /*
+     * DOM elements of notes and extensions
+     *
+     * JAXB writes them through a DOM to SAX identity transformation. The transformation keeps its own namespace
+     * scope, starting empty at each DOM element given, from which elements without namespace get the default one.
+     * Then each element's own binding and declarations are forced in the output scope, and the uri of namespaced
+     * attributes is declared there if needed. A binding of the default namespace by an ancestor, for example the
+     * SBGN-ML one, is moved to a generated prefix when an element without namespace needs to undeclare it.
+     */
+
+    private void domElement(Element root) throws IOException {
+        domBindings = 0;
+        XmlFragment fragment = XmlFragment.of(root);
+        if(fragment != null && !fragment.isParsed()) {
+            try {
+                XMLStreamReader reader = fragment.read();
+                try {
+                    reader.nextTag();
+                    fragmentElementTree(reader);
+                } finally {
+                    reader.close();
+                }
+            } catch (XMLStreamException e) {
+                throw new IOException("Could not write xml fragment "+fragment.getXml(), e);
+            }
+            return;
+        }
+        domElementTree(root);
+    }
+
+    private void domElementTree(Element element) throws IOException {
+        int domBase = domBindings;
+        int base = bindings;
+        NamedNodeMap attributes = element.getAttributes();
+        domAttributeCount = 0;
+        for(int i=0, n=attributes.getLength(); i < n; i++) {
+            Node attribute = attributes.item(i);
+            addDomAttribute(attribute.getNodeName(), attribute.getNamespaceURI(), attribute.getNodeValue());
+        }
+        String tagName = domStartTag(element.getNodeName(), element.getNamespaceURI());
+
+        for(Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            switch (child.getNodeType()) {
+                case Node.ELEMENT_NODE:
+                    flushDomText();
+                    domElementTree((Element) child);
+                    break;
+                case Node.TEXT_NODE:
+                case Node.CDATA_SECTION_NODE:
+                    domText.append(child.getNodeValue());
+                    break;
+                default:
+                    // comments and processing instructions are dropped, as by JAXB
+            }
+        }
+        flushDomText();
+        endTag(tagName);
+
+        bindings = base;
+        domBindings = domBase;
+    }
+
+    /**
+     * Same as {@link #domElementTree(Element)}, for an element read from the text of a fragment that isn't parsed,
+     * from its start tag to its end tag. The attributes are written in the order of a DOM attribute map.
+     */
+    private void fragmentElementTree(XMLStreamReader reader) throws IOException, XMLStreamException {
+        int domBase = domBindings;
+        int base = bindings;
+        domAttributeCount = 0;
+        for(int i=0, n=reader.getNamespaceCount(); i < n; i++) {
+            String prefix = reader.getNamespacePrefix(i);
+            String uri = reader.getNamespaceURI(i);
+            addDomAttribute(prefix == null || prefix.isEmpty() ?
+                            XMLConstants.XMLNS_ATTRIBUTE : XMLConstants.XMLNS_ATTRIBUTE+":"+prefix,
+                    XMLConstants.XMLNS_ATTRIBUTE_NS_URI, uri == null ? "" : uri);
+        }
+        for(int i=0, n=reader.getAttributeCount(); i < n; i++) {
+            addDomAttribute(qualifiedName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i)),
+                    reader.getAttributeNamespace(i), reader.getAttributeValue(i));
+        }
+        sortDomAttributes();
+        String uri = reader.getNamespaceURI();
+        String tagName = domStartTag(qualifiedName(reader.getPrefix(), reader.getLocalName()),
+                uri == null || uri.isEmpty() ? null : uri);
+
+        while (true) {
+            switch (reader.next()) {
+                case XMLStreamReader.START_ELEMENT:
+                    flushDomText();
+                    fragmentElementTree(reader);
+                    break;
+                case XMLStreamReader.CHARACTERS:
+                case XMLStreamReader.CDATA:
+                case XMLStreamReader.SPACE:
+                    domText.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    break;
+                case XMLStreamReader.END_ELEMENT:
+                    flushDomText();
+                    endTag(tagName);
+
+                    bindings = base;
+                    domBindings = domBase;
+                    return;
+            }
+        }
+    }
+
+    private void addDomAttribute(String name, String uri, String value) {
+        if(domAttributeCount == domAttributeNames.length) {
+            domAttributeNames = Arrays.copyOf(domAttributeNames, domAttributeCount * 2);
+            domAttributeUris = Arrays.copyOf(domAttributeUris, domAttributeCount * 2);
+            domAttributeValues = Arrays.copyOf(domAttributeValues, domAttributeCount * 2);
+        }
+        domAttributeNames[domAttributeCount] = name;
+        domAttributeUris[domAttributeCount] = uri;
+        domAttributeValues[domAttributeCount] = value;
+        domAttributeCount++;
+    }
+
+    /**
+     * Sort the attributes by name, as DOM attribute maps keep them
+     */
+    private void sortDomAttributes() {
+        for(int i=1; i < domAttributeCount; i++) {
+            String name = domAttributeNames[i];
+            String uri = domAttributeUris[i];
+            String value = domAttributeValues[i];
+            int j = i;
+            for(; j > 0 && domAttributeNames[j - 1].compareTo(name) > 0; j--) {
+                domAttributeNames[j] = domAttributeNames[j - 1];
+                domAttributeUris[j] = domAttributeUris[j - 1];
+                domAttributeValues[j] = domAttributeValues[j - 1];
+            }
+            domAttributeNames[j] = name;
+            domAttributeUris[j] = uri;
+            domAttributeValues[j] = value;
+        }
+    }
+
+    /**
+     * Bind the namespaces of a DOM element, and write its start tag with the attributes added before
+     * @param uri namespace of the element, null when it has none
+     * @return name of the tag written
+     */
+    private String domStartTag(String qualifiedName, String uri) throws IOException {
+        int domBase = domBindings;
+        for(int i=0; i < domAttributeCount; i++) {
+            String name = domAttributeNames[i];
+            if(name.startsWith("xmlns")) {
+                int colon = name.lastIndexOf(':');
+                domBind(colon > 0 ? name.substring(colon + 1) : "", domAttributeValues[i]);
+            }
+        }
+        for(int i=0; i < domAttributeCount; i++) {
+            String attributeUri = domAttributeUris[i];
+            if(!domAttributeNames[i].startsWith("xmlns") && attributeUri != null && !attributeUri.isEmpty()) {
+                domBind(prefixOf(domAttributeNames[i]), remap(attributeUri));
+            }
+        }
+
+        String prefix = prefixOf(qualifiedName);
+        if(uri == null) {
+            uri = domLookup(prefix);
+            if(uri == null) {
+                uri = "";
+            }
+        }
+        else {
+            uri = remap(uri);
+            domBind(prefix, uri);
+        }
+
+        int base = bindings;
+        elementBase = base;
+        int index = isDomBinding(domBase, prefix, uri) ? force(uri, prefix) : declare(uri, prefix, false);
+        for(int i=domBase; i < domBindings; i++) {
+            force(domUris[i], domPrefixes[i]);
+        }
+        int[] attributeIndexes = null;
+        for(int i=0; i < domAttributeCount; i++) {
+            String attributeUri = domAttributeUris[i];
+            if(!domAttributeNames[i].startsWith("xmlns") && attributeUri != null && !attributeUri.isEmpty()) {
+                if(attributeIndexes == null) {
+                    attributeIndexes = new int[domAttributeCount];
+                }
+                attributeIndexes[i] = declare(remap(attributeUri), prefixOf(domAttributeNames[i]), true);
+            }
+        }
+
+        String localName = localNameOf(qualifiedName);
+        String tagName = prefixes[index].isEmpty() ? localName : prefixes[index]+":"+localName;
+        startTag(tagName);
+        for(int i=base; i < bindings; i++) {
+            namespaceDeclaration(prefixes[i], uris[i]);
+        }
+        for(int i=0; i < domAttributeCount; i++) {
+            String name = domAttributeNames[i];
+            if(name.startsWith("xmlns")) {
+                continue;
+            }
+            String attributeUri = domAttributeUris[i];
+            // attributes created without namespace keep their name as is, even with a colon
+            if(attributeUri != null && !attributeUri.isEmpty()) {
+                name = prefixes[attributeIndexes[i]]+":"+localNameOf(name);
+            }
+            attribute(name, domAttributeValues[i]);
+        }
+        return tagName;
+    }
+
+    private void flushDomText() throws IOException {
+        if(domText.length() > 0) {
+            text(domText);
+            domText.setLength(0);
+        }
+    }
+
+    private String remap(String uri) {
+        return SbgnStreamReader.SBGN_02_NS.equals(uri) ? namespace : uri;
+    }
+
+    private static String prefixOf(String qualifiedName) {
+        int colon = qualifiedName.indexOf(':');
+        return colon > 0 ? qualifiedName.substring(0, colon) : "";
+    }
+
+    private static String localNameOf(String qualifiedName) {
+        int colon = qualifiedName.lastIndexOf(':');
+        return colon > 0 ? qualifiedName.substring(colon + 1) : qualifiedName;
+    }
+
+    private static String qualifiedName(String prefix, String localName) {
+        return prefix == null || prefix.isEmpty() ? localName : prefix + ":" + localName;
+    }
+
+    /**
+     * Bind a prefix in the DOM scope, unless it is already bound to the same uri
+     */
+    private void domBind(String prefix, String uri) {
+        if(uri.equals(domLookup(prefix))) {
+            return;
+        }
+        if(domBindings == domPrefixes.length) {
+            domPrefixes = Arrays.copyOf(domPrefixes, domBindings * 2);
+            domUris = Arrays.copyOf(domUris, domBindings * 2);
+        }
+        domPrefixes[domBindings] = prefix;
+        domUris[domBindings] = uri;
+        domBindings++;
+    }
+
+    private String domLookup(String prefix) {
+        for(int i=domBindings - 1; i >= 0; i--) {
+            if(domPrefixes[i].equals(prefix)) {
+                return domUris[i];
+            }
+        }
+        if(prefix.isEmpty()) {
+            return "";
+        }
+        return "xml".equals(prefix) ? XMLConstants.XML_NS_URI : null;
+    }
+
+    private boolean isDomBinding(int domBase, String prefix, String uri) {
+        for(int i=domBase; i < domBindings; i++) {
+            if(domPrefixes[i].equals(prefix) && domUris[i].equals(uri)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Binding of the output scope for an element or attribute uri, declaring it if needed
+     * @param preferredPrefix used for a new declaration if it isn't already taken
+     * @param requirePrefix true for attributes, which can't use the default namespace
+     * @return index of the binding
+     */
+    private int declare(String uri, String preferredPrefix, boolean requirePrefix) {
+        if(uri.isEmpty()) {
+            for(int i=bindings - 1; i >= 0; i--) {
+                if(uris[i].isEmpty()) {
+                    return i;
+                }
+                if(prefixes[i].isEmpty()) {
+                    // the default namespace is bound to a uri, which moves to another prefix
+                    String movedUri = uris[i];
+                    if(i >= elementBase) {
+                        uris[i] = "";
+                        bind(null, movedUri);
+                        return i;
+                    }
+                    bind(null, movedUri);
+                    return bind("", "");
+                }
+            }
+            return bind("", "");
+        }
+
+        for(int i=bindings - 1; i >= 0; i--) {
+            if(uris[i].equals(uri) && (!requirePrefix || !prefixes[i].isEmpty())) {
+                return i;
+            }
+            if(prefixes[i].equals(preferredPrefix)) {
+                preferredPrefix = null;
+            }
+        }
+        if(preferredPrefix == null && requirePrefix) {
+            preferredPrefix = uniquePrefix();
+        }
+        return bind(preferredPrefix, uri);
+    }
+
+    /**
+     * Binding of a prefix to a uri, declared unless the prefix is already bound to it
+     */
+    private int force(String uri, String prefix) {
+        for(int i=bindings - 1; i >= 0; i--) {
+            if(prefixes[i].equals(prefix)) {
+                if(uris[i].equals(uri)) {
+                    return i;
+                }
+                break;
+            }
+        }
+        return bind(prefix, uri);
+    }
+
+    /**
+     * @param prefix null for a generated one
+     */
+    private int bind(String prefix, String uri) {
+        if(bindings == prefixes.length) {
+            prefixes = Arrays.copyOf(prefixes, bindings * 2);
+            uris = Arrays.copyOf(uris, bindings * 2);
+        }
+        if(prefix == null) {
+            prefix = bindings == 1 ? "" : uniquePrefix();
+        }
+        prefixes[bindings] = prefix;
+        uris[bindings] = uri;
+        return bindings++;
+    }
+
+    private String uniquePrefix() {
+        String prefix = "ns"+bindings;
+        while (lookup(prefix) != null) {
+            prefix += "_";
+        }
+        return prefix;
+    }
+
+    private String lookup(String prefix) {
+        for(int i=bindings - 1; i >= 0; i--) {
+            if(prefixes[i].equals(prefix)) {
+                return uris[i];
+            }
+        }
+        return null;
+    }
+
+    /*
+     * Output, indented as JAXB does: 4 spaces per level, back to the margin every 8 levels, no indentation inside
+     * elements holding text
+     */
+
+    private void startTag(String name) throws IOException {
+        closeStartTag();
+        if(validator != null) {
+            validatorNamespaces.pushContext();
+            validatorAttributes.clear();
+            validatorStartTag = name;
+        }
+        if(formatted) {
+            if(!seenText) {
+                indent();
+            }
+            depth++;
+            seenText = false;
+        }
+        append('<');
+        append(name);
+        startTagOpen = true;
+    }
+
+    private void endTag(String name) throws IOException {
+        if(validator != null) {
+            validateEndTag(name);
+        }
+        if(formatted) {
+            depth--;
+            if(!startTagOpen && !seenText) {
+                indent();
+            }
+            seenText = false;
+        }
+        if(startTagOpen) {
+            append("/>");
+            startTagOpen = false;
+        }
+        else {
+            append("</");
+            append(name);
+            append('>');
+        }
+    }
+
+    private void closeStartTag() throws IOException {
+        if(startTagOpen) {
+            append('>');
+            startTagOpen = false;
+            if(validator != null) {
+                validateStartTag();
+            }
+        }
+    }
+
+    private void indent() throws IOException {
+        append('\n');
+        for(int i = depth % 8; i > 0; i--) {
+            append("    ");
+        }
+    }
+
+    private void text(CharSequence text) throws IOException {
+        seenText = true;
+        closeStartTag();
+        if(validator != null) {
+            char[] chars = text.toString().toCharArray();
+            try {
+                validator.characters(chars, 0, chars.length);
+            } catch (SAXException e) {
+                throw invalid(e);
+            }
+        }
+        for(int i=0, n=text.length(); i < n; i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<': append("&lt;"); break;
+                case '>': append("&gt;"); break;
+                case '&': append("&amp;"); break;
+                case '\r': append("&#13;"); break;
+                default: append(c);
+            }
+        }
+    }
+
+    /**
+     * @param value null to leave the attribute out
+     */
+    private void attribute(String name, String value) throws IOException {
+        if(value != null) {
+            if(validator != null) {
+                validatorAttributes.addAttribute("", name, name, "CDATA", value);
+            }
+            append(' ');
+            append(name);
+            append("=\"");
+            appendAttributeValue(value);
+            append('"');
+        }
+    }
+
+    private void attribute(String name, float value) throws IOException {
+        if(validator != null) {
+            validatorAttributes.addAttribute("", name, name, "CDATA", formatFloat(value));
+        }
+        append(' ');
+        append(name);
+        append("=\"");
+        appendFloat(value);
+        append('"');
+    }
+
+    /**
+     * @param prefix empty for the default namespace
+     */
+    private void namespaceDeclaration(String prefix, String uri) throws IOException {
+        if(prefix.isEmpty()) {
+            append(" xmlns=\"");
+        }
+        else {
+            append(" xmlns:");
+            append(prefix);
+            append("=\"");
+        }
+        appendAttributeValue(uri);
+        append('"');
+        if(validator != null) {
+            validatorNamespaces.declarePrefix(prefix, uri);
+        }
+    }
+
+    private void appendAttributeValue(String value) throws IOException {
+        for(int i=0, n=value.length(); i < n; i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '<': append("&lt;"); break;
+                case '>': append("&gt;"); break;
+                case '&': append("&amp;"); break;
+                case '"': append("&quot;"); break;
+                case '\n': append("&#10;"); break;
+                case '\r': append("&#13;"); break;
+                default: append(c);
+            }
+        }
+    }
+
+    /**
+     * Same as {@link #formatFloat(float)}.
+     *
+     * Coordinates are mostly integers or have a few decimals. For those, String.valueOf gives the shortest decimal
+     * that is read back as the same float, which is written directly instead of going through the general float to
+     * string conversion. A decimal with 3 digits after the point is the shortest one as long as floats are less than
+     * 0.001 apart, so up to 8192, and the same goes for 2 digits up to 65536 and 1 digit up to 524288.
+     */
+    private void appendFloat(float value) throws IOException {
+        float magnitude = Math.abs(value);
+        int scale = magnitude < 8192 ? 1000 : magnitude < 65536 ? 100 : magnitude < 524288 ? 10 : 0;
+        long scaled = Math.round(value * (double) scale);
+        // zero is left to String.valueOf for its sign
+        if(scale == 0 || scaled == 0 || (float) (scaled / (double) scale) != value) {
+            append(formatFloat(value));
+            return;
+        }
+        if(scaled < 0) {
+            append('-');
+            scaled = -scaled;
+        }
+        appendDigits(scaled / scale);
+        append('.');
+        int fraction = (int) (scaled % scale);
+        do {
+            scale /= 10;
+            append((char) ('0' + fraction / scale));
+            fraction %= scale;
+        } while (fraction != 0);
+    }
+
+    private void appendDigits(long value) throws IOException {
+        if(value >= 10) {
+            appendDigits(value / 10);
+        }
+        append((char) ('0' + value % 10));
+    }
+
+    /**
+     * @return the value as JAXB prints floats: NaN, INF, -INF, or as String.valueOf
+     */
+    static String formatFloat(float value) {
+        if(Float.isNaN(value)) {
+            return "NaN";
+        }
+        if(Float.isInfinite(value)) {
+            return value > 0 ? "INF" : "-INF";
+        }
+        return String.valueOf(value);
+    }
+
+    /*
+     * Validation, start tags being reported once complete, when they are closed
+     */
+
+    private void validateStartDocument() throws IOException {
+        if(validator != null) {
+            try {
+                validator.startDocument();
+            } catch (SAXException e) {
+                throw invalid(e);
+            }
+        }
+    }
+
+    private void validateEndDocument() throws IOException {
+        if(validator != null) {
+            try {
+                validator.endDocument();
+            } catch (SAXException e) {
+                throw invalid(e);
+            }
+        }
+    }
+
+    private void validateStartTag() throws IOException {
+        String tagName = validatorStartTag;
+        validatorStartTag = null;
+        try {
+            Enumeration<?> declared = validatorNamespaces.getDeclaredPrefixes();
+            while (declared.hasMoreElements()) {
+                String prefix = (String) declared.nextElement();
+                String uri = validatorNamespaces.getURI(prefix);
+                validator.startPrefixMapping(prefix, uri == null ? "" : uri);
+            }
+            for(int i=0, n=validatorAttributes.getLength(); i < n; i++) {
+                String name = validatorAttributes.getQName(i);
+                if(name.indexOf(':') > 0) {
+                    String[] parts = validatorNamespaces.processName(name, new String[3], true);
+                    if(parts != null) {
+                        validatorAttributes.setURI(i, parts[0]);
+                        validatorAttributes.setLocalName(i, parts[1]);
+                    }
+                }
+            }
+            String[] parts = elementName(tagName);
+            validator.startElement(parts[0], parts[1], tagName, validatorAttributes);
+        } catch (SAXException e) {
+            throw invalid(e);
+        }
+    }
+
+    private void validateEndTag(String tagName) throws IOException {
+        if(validatorStartTag != null) {
+            validateStartTag();
+        }
+        try {
+            String[] parts = elementName(tagName);
+            validator.endElement(parts[0], parts[1], tagName);
+            Enumeration<?> declared = validatorNamespaces.getDeclaredPrefixes();
+            while (declared.hasMoreElements()) {
+                validator.endPrefixMapping((String) declared.nextElement());
+            }
+        } catch (SAXException e) {
+            throw invalid(e);
+        }
+        validatorNamespaces.popContext();
+    }
+
+    /**
+     * @return uri and local name of an element, as a parser reads them
+     */
+    private String[] elementName(String tagName) {
+        String[] parts = validatorNamespaces.processName(tagName, new String[3], false);
+        // a prefix that isn't declared, which the validator reports as an unknown element
+        return parts != null ? parts : new String[] {"", tagName, tagName};
+    }
+
+    /**
+     * Validators only throw when they have no error handler, or when it throws
+     */
+    private static IOException invalid(SAXException e) {
+        return new IOException("Invalid output: "+e.getMessage(), e);
+    }
+
+    private void append(char c) throws IOException {
+        if(length == buffer.length) {
+            flushBuffer();
+        }
+        buffer[length++] = c;
+    }
+
+    private void append(String s) throws IOException {
+        int n = s.length();
+        if(length + n > buffer.length) {
+            flushBuffer();
+            if(n > buffer.length) {
+                writer.write(s);
+                return;
+            }
+        }
+        s.getChars(0, n, buffer, length);
+        length += n;
+    }
+
+    private void flushBuffer() throws IOException {
+        writer.write(buffer, 0, length);
+        length = 0;
+    }
+}
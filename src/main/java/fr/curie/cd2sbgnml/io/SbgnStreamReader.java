@@ -0,0 +1,106 @@
+package fr.curie.cd2sbgnml.io;
+
+import org.sbfc.converter.exceptions.ReadModelException;
+import org.sbgn.bindings.Sbgn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads SBGN-ML files in one streaming pass, straight from the file into JAXB.
+ *
+ * A possible BOM is skipped at byte level, and libsbgn 0.3 namespace is presented as 0.2 to avoid compatibility
+ * problems, as the bindings used are the 0.2 ones. Text content is kept as is, including line breaks.
+ */
+public class SbgnStreamReader {
+
+    private static final Logger logger = LoggerFactory.getLogger(SbgnStreamReader.class);
+
+    static final String SBGN_02_NS = "http://sbgn.org/libsbgn/0.2";
+    static final String SBGN_03_NS = "http://sbgn.org/libsbgn/0.3";
+
+    private static final XMLInputFactory inputFactory = createInputFactory();
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    /**
+     * @param file an SBGN-ML file
+     * @return the unmarshalled content
+     * @throws ReadModelException
+     */
+    public static Sbgn read(Path file) throws ReadModelException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             InputStream in = new BufferedInputStream(Channels.newInputStream(channel), 1 << 16)) {
+            return read(in);
+        } catch (IOException e) {
+            throw new ReadModelException("Could not read file "+file, e);
+        }
+    }
+
+    /**
+     * @param in stream of SBGN-ML, not closed by this method
+     * @return the unmarshalled content
+     * @throws ReadModelException
+     */
+    public static Sbgn read(InputStream in) throws ReadModelException {
+        try {
+            BomInputStream bomIn = new BomInputStream(in);
+            XMLStreamReader reader;
+            if(bomIn.hasBOM()) {
+                logger.debug("BOM found, "+bomIn.getCharset()+" encoding used");
+                reader = inputFactory.createXMLStreamReader(bomIn, bomIn.getCharset().name());
+            }
+            else {
+                reader = inputFactory.createXMLStreamReader(bomIn);
+            }
+            return unmarshal(reader);
+        } catch (IOException | XMLStreamException e) {
+            throw new ReadModelException(e);
+        }
+    }
+
+    /**
+     * @param reader character stream of SBGN-ML, not closed by this method
+     * @return the unmarshalled content
+     * @throws ReadModelException
+     */
+    public static Sbgn read(Reader reader) throws ReadModelException {
+        try {
+            return unmarshal(inputFactory.createXMLStreamReader(reader));
+        } catch (XMLStreamException e) {
+            throw new ReadModelException(e);
+        }
+    }
+
+    private static Sbgn unmarshal(XMLStreamReader source) throws ReadModelException {
+        try {
+            Unmarshaller unmarshaller = JaxbContextRegistry.SBGN.getUnmarshaller();
+            return (Sbgn) unmarshaller.unmarshal(new NamespaceRemappingStreamReader(source, SBGN_03_NS, SBGN_02_NS));
+        } catch (JAXBException e) {
+            throw new ReadModelException(e.getCause() != null ? e.getCause() : e);
+        } finally {
+            try {
+                source.close();
+            } catch (XMLStreamException e) {
+                logger.warn("Could not close xml reader", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package fr.curie.cd2sbgnml.io;
+
+import org.sbfc.converter.exceptions.WriteModelException;
+import org.sbgn.bindings.Sbgn;
+import org.xml.sax.ErrorHandler;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.validation.Schema;
+import javax.xml.validation.ValidatorHandler;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes SBGN-ML files by marshalling straight into the output file, without building the whole document as a
+ * string first. Output is always UTF-8.
+ *
+ * Two options are available:
+ *  - formatted (default) or compact output. Compact output has no indentation and no line breaks between elements,
+ *  it is smaller and faster to produce.
+ *  - the namespace written in the file. Bindings used are the libsbgn 0.2 ones, but the output can be declared in
+ *  another namespace, typically 0.3. In this case, the document goes through an XMLStreamWriter which renames the
+ *  namespace on the fly. JAXB doesn't indent through an XMLStreamWriter, so this output is always compact.
+ *
+ * Maps too big to be held in memory as a whole can be written piece by piece through {@link #open(Path)}, with the
+ * same options.
+ *
+ * Given a schema, maps are validated as they are written, in the same pass, whichever way they are written.
+ */
+public class SbgnStreamWriter {
+
+    /**
+     * How a converted map is written
+     */
+    public enum Marshalling {
+        /**
+         * the whole map is built, then marshalled by JAXB
+         */
+        JAXB,
+        /**
+         * glyphs and arcs are written by {@link SbgnStreamEmitter} as they are converted, the map is never built
+         */
+        STREAM
+    }
+
+    private static final XMLOutputFactory outputFactory = XMLOutputFactory.newInstance();
+
+    private boolean formatted = true;
+    private String namespace = SbgnStreamReader.SBGN_02_NS;
+    private Schema schema = null;
+
+    /**
+     * @param formatted false for compact output
+     * @return this writer
+     */
+    public SbgnStreamWriter setFormatted(boolean formatted) {
+        this.formatted = formatted;
+        return this;
+    }
+
+    /**
+     * @param namespace namespace of the written SBGN-ML elements, for example http://sbgn.org/libsbgn/0.3
+     * @return this writer
+     */
+    public SbgnStreamWriter setNamespace(String namespace) {
+        this.namespace = namespace;
+        return this;
+    }
+
+    /**
+     * @param schema null to write without validating, see {@link SchemaRegistry#getSchema(ErrorHandler)} to get all
+     *               the problems instead of failing at the first one
+     * @return this writer
+     */
+    public SbgnStreamWriter setSchema(Schema schema) {
+        this.schema = schema;
+        return this;
+    }
+
+    public boolean isFormatted() {
+        return formatted;
+    }
+
+    public String getNamespace() {
+        return namespace;
+    }
+
+    public Schema getSchema() {
+        return schema;
+    }
+
+    /**
+     * @param file created or truncated, closed with the returned emitter
+     * @return emitter writing a single map to the file
+     * @throws WriteModelException
+     */
+    public SbgnStreamEmitter open(Path file) throws WriteModelException {
+        try {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16);
+            return new SbgnStreamEmitter(out, true, formatted, namespace, newValidatorHandler());
+        } catch (IOException e) {
+            throw new WriteModelException("Could not write file "+file, e);
+        }
+    }
+
+    /**
+     * @param out not closed by the returned emitter, but flushed
+     * @return emitter writing a single map to the stream
+     */
+    public SbgnStreamEmitter open(OutputStream out) {
+        return new SbgnStreamEmitter(out, false, formatted, namespace, newValidatorHandler());
+    }
+
+    private ValidatorHandler newValidatorHandler() {
+        return schema == null ? null : schema.newValidatorHandler();
+    }
+
+    /**
+     * @param model
+     * @param file created or truncated
+     * @throws WriteModelException
+     */
+    public void write(Sbgn model, Path file) throws WriteModelException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+             OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16)) {
+            write(model, out);
+        } catch (IOException e) {
+            throw new WriteModelException("Could not write file "+file, e);
+        }
+    }
+
+    /**
+     * @param model
+     * @param out not closed by this method, but flushed
+     * @throws WriteModelException
+     */
+    public void write(Sbgn model, OutputStream out) throws WriteModelException {
+        try {
+            Marshaller marshaller = JaxbContextRegistry.SBGN.getMarshaller();
+            marshaller.setSchema(schema);
+            if(SbgnStreamReader.SBGN_02_NS.equals(namespace)) {
+                marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, formatted);
+                marshaller.marshal(model, out);
+            }
+            else {
+                XMLStreamWriter writer = new NamespaceRemappingStreamWriter(
+                        outputFactory.createXMLStreamWriter(out, "UTF-8"),
+                        SbgnStreamReader.SBGN_02_NS, namespace);
+                // the declaration written by JAXB through a stream writer doesn't state the encoding
+                marshaller.setProperty(Marshaller.JAXB_FRAGMENT, true);
+                writer.writeStartDocument("UTF-8", "1.0");
+                marshaller.marshal(model, writer);
+                writer.writeEndDocument();
+                writer.close();
+            }
+            out.flush();
+        } catch (JAXBException e) {
+            throw new WriteModelException(e.getCause() != null ? e.getCause() : e);
+        } catch (XMLStreamException | IOException e) {
+            throw new WriteModelException(e);
+        }
+    }
+}
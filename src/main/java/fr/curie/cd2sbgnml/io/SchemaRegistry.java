@@ -0,0 +1,324 @@
+package fr.curie.cd2sbgnml.io;
+
+import org.sbgn.SbgnUtil;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.w3c.dom.bootstrap.DOMImplementationRegistry;
+import org.w3c.dom.ls.DOMImplementationLS;
+import org.w3c.dom.ls.LSInput;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.SAXException;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.*;
+
+/**
+ * Central registry of the XML schemas the outputs are validated against.
+ *
+ * Compiling a schema takes from tens to hundreds of milliseconds, CellDesigner's one pulling the SBML and MathML
+ * schemas, so each schema is compiled only once per JVM, the first time it is needed. Schema is thread safe.
+ *
+ * The validator of the JDK checks xsd:ID and xsd:IDREF values with lists, which takes minutes on maps with tens of
+ * thousands of glyphs. So all the attributes declared with xsd:ID, xsd:IDREF or xsd:IDREFS are compiled with types of
+ * the same names restricting xsd:NCName, which has the same lexical space, declared in a schema document of their own.
+ * {@link IdCheckingSchema}, which wraps the compiled schema, checks the uniqueness of ids and the references to them
+ * with hash sets, for the attributes the validator gives one of these types. Compilation fails if the types are used
+ * in any other way, the validator would then check ids without knowing those of the attributes.
+ */
+public enum SchemaRegistry {
+
+    /**
+     * Sbml Level 2 Version 4 with CellDesigner extensions
+     */
+    CELLDESIGNER {
+        @Override
+        URL getLocation() {
+            return SchemaRegistry.class.getResource("/schema/CellDesigner.xsd");
+        }
+
+        @Override
+        public JaxbContextRegistry getContextRegistry() {
+            return JaxbContextRegistry.CELLDESIGNER;
+        }
+    },
+
+    /**
+     * SBGN-ML, as provided by libsbgn
+     */
+    SBGN {
+        @Override
+        URL getLocation() {
+            return SbgnUtil.class.getResource("/SBGN.xsd");
+        }
+
+        @Override
+        public JaxbContextRegistry getContextRegistry() {
+            return JaxbContextRegistry.SBGN;
+        }
+    };
+
+    /**
+     * prefix of the namespace of the relaxed types in the schema documents using them
+     */
+    private static final String RELAXED_PREFIX = "cd2sbgnml-ids";
+    private static final String RELAXED_LOCATION = "cd2sbgnml-ids.xsd";
+
+    private volatile Schema schema;
+
+    abstract URL getLocation();
+
+    /**
+     * @return the JAXB context of the documents this schema validates
+     */
+    public abstract JaxbContextRegistry getContextRegistry();
+
+    /**
+     * @return the shared schema, compiled on first call, which also checks ids and references to ids
+     * @throws SAXException if the schema can't be compiled
+     */
+    public Schema getSchema() throws SAXException {
+        Schema result = schema;
+        if(result == null) {
+            synchronized (this) {
+                result = schema;
+                if(result == null) {
+                    result = compile(getLocation());
+                    schema = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param errorHandler receives all the problems, which don't stop validation unless it throws
+     * @return the shared schema, whose validators report to the given handler whatever handler they are set. For JAXB
+     * marshallers, which otherwise stop at the first validation error.
+     * @throws SAXException if the schema can't be compiled
+     */
+    public Schema getSchema(ErrorHandler errorHandler) throws SAXException {
+        return ((IdCheckingSchema) getSchema()).reportingTo(errorHandler);
+    }
+
+    /**
+     * @param location of the schema, imported and included documents are read relative to it
+     * @return the schema with relaxed id types, and the checks of ids
+     */
+    static Schema compile(URL location) throws SAXException {
+        // schema documents by system id, including all imported and included ones
+        Map<String, Document> documents = new LinkedHashMap<>();
+        String relaxedLocation;
+        try {
+            load(location, documents);
+            // next to the schema, so that it is resolved like the other documents
+            relaxedLocation = new URL(location, RELAXED_LOCATION).toString();
+        } catch (IOException | ParserConfigurationException e) {
+            throw new SAXException("Could not read schema "+location, e);
+        }
+
+        Set<String> idAttributeNames = relaxIdTypes(documents, relaxedLocation);
+        if(!idAttributeNames.isEmpty()) {
+            documents.put(relaxedLocation, relaxedTypes());
+        }
+
+        Map<String, byte[]> serialized = new HashMap<>();
+        for(Map.Entry<String, Document> entry: documents.entrySet()) {
+            serialized.put(entry.getKey(), serialize(entry.getValue()));
+        }
+
+        SchemaFactory sf = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+        DOMImplementationLS ls = domImplementationLS();
+        // imports and includes are taken from the modified documents
+        sf.setResourceResolver((type, namespaceURI, publicId, systemId, baseURI) -> {
+            String resolved = resolve(baseURI, systemId);
+            if(resolved == null || !serialized.containsKey(resolved)) {
+                return null;
+            }
+            LSInput input = ls.createLSInput();
+            input.setSystemId(resolved);
+            input.setByteStream(new ByteArrayInputStream(serialized.get(resolved)));
+            return input;
+        });
+
+        String rootId = location.toString();
+        Schema schema = sf.newSchema(new StreamSource(new ByteArrayInputStream(serialized.get(rootId)), rootId));
+        return new IdCheckingSchema(schema, idAttributeNames);
+    }
+
+    private static void load(URL location, Map<String, Document> documents)
+            throws IOException, ParserConfigurationException, SAXException {
+        String systemId = location.toString();
+        if(documents.containsKey(systemId)) {
+            return;
+        }
+        DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
+        dbf.setNamespaceAware(true);
+        Document document = dbf.newDocumentBuilder().parse(systemId);
+        documents.put(systemId, document);
+
+        for(String tag: new String[] {"import", "include", "redefine"}) {
+            NodeList references = document.getElementsByTagNameNS(XMLConstants.W3C_XML_SCHEMA_NS_URI, tag);
+            for(int i=0; i < references.getLength(); i++) {
+                String schemaLocation = ((Element) references.item(i)).getAttribute("schemaLocation");
+                if(!schemaLocation.isEmpty()) {
+                    load(new URL(location, schemaLocation), documents);
+                }
+            }
+        }
+    }
+
+    private static String resolve(String baseURI, String systemId) {
+        if(systemId == null) {
+            return null;
+        }
+        try {
+            return baseURI == null ? new URL(systemId).toString() : new URL(new URL(baseURI), systemId).toString();
+        } catch (MalformedURLException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Change the xsd:ID, xsd:IDREF and xsd:IDREFS types of attribute declarations to the types of the same names in
+     * {@link IdCheckingSchema#NAMESPACE}, imported by the documents using them.
+     * @param relaxedLocation where the document declaring these types is imported from
+     * @return names of the attributes whose type was changed
+     * @throws SAXException if these types are used elsewhere than in attribute declarations
+     */
+    private static Set<String> relaxIdTypes(Map<String, Document> documents, String relaxedLocation)
+            throws SAXException {
+        Set<String> names = new HashSet<>();
+        for(Map.Entry<String, Document> entry: documents.entrySet()) {
+            Document document = entry.getValue();
+            boolean relaxed = false;
+            NodeList declarations = document.getElementsByTagNameNS(XMLConstants.W3C_XML_SCHEMA_NS_URI, "*");
+            for(int i=0; i < declarations.getLength(); i++) {
+                Element declaration = (Element) declarations.item(i);
+                for(String reference: new String[] {"type", "base", "itemType", "memberTypes"}) {
+                    for(String typeName: declaration.getAttribute(reference).trim().split("\\s+")) {
+                        String idType = idType(declaration, typeName);
+                        if(idType == null) {
+                            continue;
+                        }
+                        if(!declaration.getLocalName().equals("attribute") || !reference.equals("type")) {
+                            throw new SAXException(entry.getKey()+": xsd:"+idType+" is only supported as the type of"
+                                    + " attributes, not in "+reference+" of "+declaration.getTagName());
+                        }
+                        declaration.setAttribute("type", RELAXED_PREFIX+":"+idType);
+                        names.add(declaration.getAttribute("name"));
+                        relaxed = true;
+                    }
+                }
+            }
+            if(relaxed) {
+                importRelaxedTypes(document, relaxedLocation);
+            }
+        }
+        return names;
+    }
+
+    /**
+     * @return ID, IDREF or IDREFS if the qualified name is one of these XML Schema types, else null
+     */
+    private static String idType(Element declaration, String typeName) {
+        int colon = typeName.indexOf(':');
+        String prefix = colon == -1 ? null : typeName.substring(0, colon);
+        String localName = typeName.substring(colon + 1);
+        if((localName.equals(IdCheckingSchema.ID) || localName.equals(IdCheckingSchema.IDREF)
+                || localName.equals(IdCheckingSchema.IDREFS))
+                && XMLConstants.W3C_XML_SCHEMA_NS_URI.equals(declaration.lookupNamespaceURI(prefix))) {
+            return localName;
+        }
+        return null;
+    }
+
+    private static void importRelaxedTypes(Document document, String relaxedLocation) throws SAXException {
+        Element schema = document.getDocumentElement();
+        if(schema.lookupNamespaceURI(RELAXED_PREFIX) != null) {
+            throw new SAXException("Prefix "+RELAXED_PREFIX+" already used by "+document.getDocumentURI());
+        }
+        schema.setAttributeNS(XMLConstants.XMLNS_ATTRIBUTE_NS_URI, XMLConstants.XMLNS_ATTRIBUTE+":"+RELAXED_PREFIX,
+                IdCheckingSchema.NAMESPACE);
+        // imports may come first, before any definition
+        Element importElement = document.createElementNS(XMLConstants.W3C_XML_SCHEMA_NS_URI, "xs:import");
+        importElement.setAttribute("namespace", IdCheckingSchema.NAMESPACE);
+        importElement.setAttribute("schemaLocation", relaxedLocation);
+        schema.insertBefore(importElement, schema.getFirstChild());
+    }
+
+    /**
+     * @return schema document declaring the ID, IDREF and IDREFS types of {@link IdCheckingSchema#NAMESPACE}
+     */
+    private static Document relaxedTypes() throws SAXException {
+        String xs = XMLConstants.W3C_XML_SCHEMA_NS_URI;
+        Document document;
+        try {
+            DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
+            dbf.setNamespaceAware(true);
+            document = dbf.newDocumentBuilder().newDocument();
+        } catch (ParserConfigurationException e) {
+            throw new SAXException("Could not create the schema of relaxed ids", e);
+        }
+        Element schema = document.createElementNS(xs, "xs:schema");
+        schema.setAttribute("targetNamespace", IdCheckingSchema.NAMESPACE);
+        document.appendChild(schema);
+
+        for(String name: new String[] {IdCheckingSchema.ID, IdCheckingSchema.IDREF}) {
+            Element simpleType = document.createElementNS(xs, "xs:simpleType");
+            simpleType.setAttribute("name", name);
+            Element restriction = document.createElementNS(xs, "xs:restriction");
+            restriction.setAttribute("base", "xs:NCName");
+            simpleType.appendChild(restriction);
+            schema.appendChild(simpleType);
+        }
+
+        // like xsd:IDREFS, a non empty list
+        Element simpleType = document.createElementNS(xs, "xs:simpleType");
+        simpleType.setAttribute("name", IdCheckingSchema.IDREFS);
+        Element restriction = document.createElementNS(xs, "xs:restriction");
+        Element listType = document.createElementNS(xs, "xs:simpleType");
+        Element list = document.createElementNS(xs, "xs:list");
+        list.setAttribute("itemType", "xs:NCName");
+        listType.appendChild(list);
+        restriction.appendChild(listType);
+        Element minLength = document.createElementNS(xs, "xs:minLength");
+        minLength.setAttribute("value", "1");
+        restriction.appendChild(minLength);
+        simpleType.appendChild(restriction);
+        schema.appendChild(simpleType);
+        return document;
+    }
+
+    private static byte[] serialize(Document document) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            TransformerFactory.newInstance().newTransformer().transform(new DOMSource(document), new StreamResult(out));
+        } catch (TransformerException e) {
+            throw new IllegalStateException("Could not serialize schema", e);
+        }
+        return out.toByteArray();
+    }
+
+    private static DOMImplementationLS domImplementationLS() throws SAXException {
+        try {
+            return (DOMImplementationLS) DOMImplementationRegistry.newInstance().getDOMImplementation("LS");
+        } catch (ClassNotFoundException | InstantiationException | IllegalAccessException e) {
+            throw new SAXException("No DOM implementation available", e);
+        }
+    }
+}
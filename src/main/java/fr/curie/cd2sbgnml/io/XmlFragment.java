@@ -0,0 +1,211 @@
+package fr.curie.cd2sbgnml.io;
+
+import org.w3c.dom.Element;
+import org.xml.sax.SAXException;
+
+import javax.xml.bind.ValidationEventHandler;
+import javax.xml.bind.annotation.DomHandler;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.Source;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * An element of a CellDesigner file kept as its xml text: what is read but not converted, and must be written
+ * back as it was read (kinetic laws, math, unit definitions, parameters, rules and events), and the notes and
+ * annotations that are copied as they are to the output.
+ *
+ * The text stands on its own, all the namespaces in scope where the element was read are declared on it. It is
+ * handed out as a DOM element, see {@link #element(String)}, which is only parsed when one of its methods is called,
+ * except for its name. Until then, the text is what is written, and it can be read again with {@link #read()}
+ * without building a DOM. From then on, the parsed element is written, with the changes that may have been made to it.
+ *
+ * Lists of such elements are bound in the generated classes through {@link Handler}. Like the generated classes, they
+ * are not thread safe.
+ */
+public final class XmlFragment implements InvocationHandler {
+
+    private static final DocumentBuilderFactory documentBuilderFactory = createDocumentBuilderFactory();
+
+    private static final XMLInputFactory inputFactory = createInputFactory();
+
+    private static DocumentBuilderFactory createDocumentBuilderFactory() {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        return factory;
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    /**
+     * The text encoded in UTF-8, which takes half the memory of a string for the mostly ascii content of notes and
+     * annotations
+     */
+    private final byte[] xml;
+    private Element element;
+
+    private XmlFragment(byte[] xml) {
+        this.xml = xml;
+    }
+
+    /**
+     * @param xml a single element, with no xml declaration
+     * @return an element standing for the xml, parsed in a document of its own when first used
+     */
+    public static Element element(String xml) {
+        return element(xml.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Element element(byte[] xml) {
+        return (Element) Proxy.newProxyInstance(XmlFragment.class.getClassLoader(), new Class<?>[] { Element.class },
+                new XmlFragment(xml));
+    }
+
+    /**
+     * @return the fragment behind an element returned by {@link #element(String)}, null for any other element
+     */
+    public static XmlFragment of(Element element) {
+        if(Proxy.isProxyClass(element.getClass())) {
+            InvocationHandler handler = Proxy.getInvocationHandler(element);
+            if(handler instanceof XmlFragment) {
+                return (XmlFragment) handler;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return a copy of the element, to be modified or read without parsing the element itself: a new fragment of the
+     * same text for a fragment that isn't parsed, a deep clone for any other element
+     */
+    public static Element copy(Element element) {
+        XmlFragment fragment = of(element);
+        if(fragment != null && !fragment.isParsed()) {
+            return element(fragment.xml);
+        }
+        return (Element) element.cloneNode(true);
+    }
+
+    /**
+     * @return the text of the element as it was read, without the changes made to it once parsed
+     */
+    public String getXml() {
+        return new String(xml, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return true if the element was used, it is then written instead of the text
+     */
+    public boolean isParsed() {
+        return element != null;
+    }
+
+    /**
+     * @return a reader of the text as it was read, positioned before the element, whether it is parsed or not
+     * @throws XMLStreamException
+     */
+    public XMLStreamReader read() throws XMLStreamException {
+        return inputFactory.createXMLStreamReader(new ByteArrayInputStream(xml), StandardCharsets.UTF_8.name());
+    }
+
+    /**
+     * @return the qualified name of the element, from the start of its text
+     */
+    private String tagName() {
+        int end = 1;
+        while (end < xml.length && " \t\r\n/>".indexOf(xml[end]) < 0) {
+            end++;
+        }
+        return new String(xml, 1, end - 1, StandardCharsets.UTF_8);
+    }
+
+    private Element parse() {
+        if(element == null) {
+            try {
+                element = documentBuilderFactory.newDocumentBuilder()
+                        .parse(new ByteArrayInputStream(xml)).getDocumentElement();
+            } catch (ParserConfigurationException | SAXException | IOException e) {
+                throw new IllegalStateException("Could not parse xml fragment "+getXml(), e);
+            }
+        }
+        return element;
+    }
+
+    /**
+     * @return what is written, the text as it was read until the element is parsed
+     */
+    public Source getSource() {
+        if(element != null) {
+            return new DOMSource(element);
+        }
+        return new StreamSource(new ByteArrayInputStream(xml));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if(method.getDeclaringClass() == Object.class) {
+            switch (method.getName()) {
+                case "equals": return proxy == args[0];
+                case "hashCode": return System.identityHashCode(proxy);
+                default: return isParsed() ? element.toString() : getXml();
+            }
+        }
+        if(element == null && (method.getName().equals("getTagName") || method.getName().equals("getNodeName"))) {
+            return tagName();
+        }
+        try {
+            return method.invoke(parse(), args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Binds elements to fragments, for properties annotated with {@code @XmlAnyElement(XmlFragment.Handler.class)}.
+     * When JAXB unmarshals such elements, their text is written back from the parsed events. Elements that are not
+     * fragments are written as DOM elements.
+     */
+    public static class Handler implements DomHandler<Element, StreamResult> {
+
+        @Override
+        public StreamResult createUnmarshaller(ValidationEventHandler errorHandler) {
+            return new StreamResult(new StringWriter());
+        }
+
+        @Override
+        public Element getElement(StreamResult rt) {
+            String xml = rt.getWriter().toString();
+            // the identity transform used by JAXB writes a declaration first
+            if(xml.startsWith("<?xml")) {
+                xml = xml.substring(xml.indexOf("?>") + 2);
+            }
+            return element(xml);
+        }
+
+        @Override
+        public Source marshal(Element element, ValidationEventHandler errorHandler) {
+            XmlFragment fragment = of(element);
+            if(fragment != null) {
+                return fragment.getSource();
+            }
+            return new DOMSource(element);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+/**
+ * Reading, writing and validation of the xml formats handled by the translator.
+ *
+ * JAXB contexts for the generated CellDesigner bindings and for libsbgn are expensive to build, so they are created
+ * once per JVM in JaxbContextRegistry and shared by every model reader and writer of the project.
+ */
+package fr.curie.cd2sbgnml.io;
@@ -3,6 +3,7 @@ package fr.curie.cd2sbgnml.model;
 import fr.curie.cd2sbgnml.graphics.AnchorPoint;
 import fr.curie.cd2sbgnml.graphics.GeometryUtils;
 import fr.curie.cd2sbgnml.graphics.Link;
+import fr.curie.cd2sbgnml.graphics.Polyline;
 import fr.curie.cd2sbgnml.xmlcdwrappers.LineWrapper;
 import fr.curie.cd2sbgnml.xmlcdwrappers.ReactantWrapper;
 import fr.curie.cd2sbgnml.xmlcdwrappers.ReactionWrapper;
@@ -24,8 +25,8 @@ public class AssociationReactionModel extends GenericReactionModel {
 
     private final Logger logger = LoggerFactory.getLogger(AssociationReactionModel.class);
 
-    public AssociationReactionModel(ReactionWrapper reactionW) {
-        super(reactionW);
+    public AssociationReactionModel(ReactionWrapper reactionW, IdGenerator idGenerator) {
+        super(reactionW, idGenerator);
 
         ReactantWrapper startR1 = reactionW.getBaseReactants().get(0);
         ReactantWrapper startR2 = reactionW.getBaseReactants().get(1);
@@ -38,17 +39,17 @@ public class AssociationReactionModel extends GenericReactionModel {
         LineWrapper lineW = reactionW.getLineWrapper();
 
         // list edit points
-        List<Point2D.Float> editPoints = reactionW.getLineWrapper().getEditPoints();
+        Polyline editPoints = reactionW.getLineWrapper().getEditPolyline();
 
         // process association point
-        Point2D.Float assocGlyphLocalCoords = editPoints.get(editPoints.size() - 1); // last point listed in xml
+        Point2D.Float assocGlyphLocalCoords = editPoints.getLast(); // last point listed in xml
         Point2D.Float assocGlyphGlobalCoords = getAbsolutePoint(
                 startR1.getCenterPoint(),
                 startR2.getCenterPoint(),
                 endR.getCenterPoint(), assocGlyphLocalCoords);
         logger.trace("result: " + assocGlyphLocalCoords + " -> " + assocGlyphGlobalCoords);
 
-        String assocId = "assoc_" + UUID.randomUUID();
+        String assocId = this.getIdGenerator().newId("assoc_");
         AssocDissoc association = new AssocDissoc(assocGlyphGlobalCoords, assocId, new StyleInfo(assocId));
 
         // get the relevant points
@@ -60,19 +61,19 @@ public class AssociationReactionModel extends GenericReactionModel {
         // but we want the opposite, as a production arc it goes from reactant to process
 
         // branch 0
-        List<Point2D.Float> absoluteEditPoints0 = getBranchPoints(reactionW, association.getGlyph().getCenter(), startR1coordPoint, 0);
-        Collections.reverse(absoluteEditPoints0);
-        String link0Id = "cons_" + UUID.randomUUID();
+        Polyline absoluteEditPoints0 = getBranchPoints(reactionW, association.getGlyph().getCenter(), startR1coordPoint, 0);
+        absoluteEditPoints0 = absoluteEditPoints0.reverse();
+        String link0Id = this.getIdGenerator().newId("cons_");
         LinkModel link0 = new LinkModel(startModel0, association, new Link(absoluteEditPoints0),
                 link0Id, "consumption", new StyleInfo(lineW.getLineWidth(), lineW.getLineColor(), link0Id));
 
-        List<Point2D.Float> absoluteEditPoints1 = getBranchPoints(reactionW, association.getGlyph().getCenter(), startR2coordPoint, 1);
-        Collections.reverse(absoluteEditPoints1);
-        String link1Id = "cons_" + UUID.randomUUID();
+        Polyline absoluteEditPoints1 = getBranchPoints(reactionW, association.getGlyph().getCenter(), startR2coordPoint, 1);
+        absoluteEditPoints1 = absoluteEditPoints1.reverse();
+        String link1Id = this.getIdGenerator().newId("cons_");
         LinkModel link1 = new LinkModel(startModel1, association, new Link(absoluteEditPoints1),
                 link1Id, "consumption", new StyleInfo(lineW.getLineWidth(), lineW.getLineColor(), link1Id));
 
-        List<Point2D.Float> absoluteEditPoints2 = getBranchPoints(reactionW, association.getGlyph().getCenter(), endRcoordPoint, 2);
+        Polyline absoluteEditPoints2 = getBranchPoints(reactionW, association.getGlyph().getCenter(), endRcoordPoint, 2);
         absoluteEditPoints2 = GeometryUtils.getNormalizedEndPoints(absoluteEditPoints2,
                 association.getGlyph(),
                 endModel.getGlyph(),
@@ -89,7 +90,7 @@ public class AssociationReactionModel extends GenericReactionModel {
                 else, if the link is pointing to the center and not the border of the glyph, process will get shifted
                 as the link is longer than what it appears.
              */
-            String prId = "pr_"+UUID.randomUUID();
+            String prId = this.getIdGenerator().newId("pr_");
             Process process = new Process(
                     GeometryUtils.getMiddleOfPolylineSegment(absoluteEditPoints2, reactionW.getProcessSegmentIndex()),
                     prId,
@@ -97,7 +98,7 @@ public class AssociationReactionModel extends GenericReactionModel {
                     new StyleInfo(lineW.getLineWidth(),
                             lineW.getLineColor(), prId));
 
-            AbstractMap.SimpleEntry<List<Point2D.Float>, List<Point2D.Float>> subLinesTuple =
+            AbstractMap.SimpleEntry<Polyline, Polyline> subLinesTuple =
                     GeometryUtils.splitPolylineAtSegment(absoluteEditPoints2, reactionW.getProcessSegmentIndex());
 
             /*
@@ -105,33 +106,34 @@ public class AssociationReactionModel extends GenericReactionModel {
                 As it is not a valid SBGN thing, it is weirdly drawn by visualization tool.
                 Better if the link does not overlap the process here.
              */
-            List<Point2D.Float> normalizedSubLinesTuple1 = GeometryUtils.getNormalizedEndPoints(subLinesTuple.getKey(),
+            Polyline normalizedSubLinesTuple1 = GeometryUtils.getNormalizedEndPoints(subLinesTuple.getKey(),
                     association.getGlyph(),
                     process.getGlyph(),
                     AnchorPoint.CENTER,
                     AnchorPoint.CENTER);
 
-            List<Point2D.Float> normalizedSubLinesTuple2 = GeometryUtils.getNormalizedEndPoints(subLinesTuple.getValue(),
+            Polyline normalizedSubLinesTuple2 = GeometryUtils.getNormalizedEndPoints(subLinesTuple.getValue(),
                     process.getGlyph(),
                     endModel.getGlyph(),
                     AnchorPoint.CENTER,
                     AnchorPoint.CENTER);
 
             // PROCESS port management
-            Point2D.Float pIn = normalizedSubLinesTuple1.get(normalizedSubLinesTuple1.size() - 1);
-            Point2D.Float pOut = normalizedSubLinesTuple2.get(0);
+            Point2D.Float pIn = normalizedSubLinesTuple1.getLast();
+            Point2D.Float pOut = normalizedSubLinesTuple2.getFirst();
             process.setPorts(pIn, pOut);
 
             // replace the end and start points of the sublines by corresponding ports
-            normalizedSubLinesTuple1.set(normalizedSubLinesTuple1.size() - 1, process.getPortIn());
-            normalizedSubLinesTuple2.set(0, process.getPortOut());
+            normalizedSubLinesTuple1 = normalizedSubLinesTuple1.with(normalizedSubLinesTuple1.size() - 1,
+                    process.getPortIn());
+            normalizedSubLinesTuple2 = normalizedSubLinesTuple2.with(0, process.getPortOut());
 
-            String l21Id = "cons_" + UUID.randomUUID();
+            String l21Id = this.getIdGenerator().newId("cons_");
             LinkModel l21 = new LinkModel(association, process, new Link(normalizedSubLinesTuple1),
                     l21Id, "consumption", new StyleInfo(lineW.getLineWidth(),
                     lineW.getLineColor(), l21Id));
 
-            String l22Id = "prod_" + UUID.randomUUID();
+            String l22Id = this.getIdGenerator().newId("prod_");
             LinkModel l22 = new LinkModel(process, endModel, new Link(normalizedSubLinesTuple2),
                     l22Id, "production", new StyleInfo(lineW.getLineWidth(),
                     lineW.getLineColor(), l22Id));
@@ -3,6 +3,7 @@ package fr.curie.cd2sbgnml.model;
 import fr.curie.cd2sbgnml.graphics.AnchorPoint;
 import fr.curie.cd2sbgnml.graphics.GeometryUtils;
 import fr.curie.cd2sbgnml.graphics.Link;
+import fr.curie.cd2sbgnml.graphics.Polyline;
 import fr.curie.cd2sbgnml.xmlcdwrappers.LineWrapper;
 import fr.curie.cd2sbgnml.xmlcdwrappers.ReactantWrapper;
 import fr.curie.cd2sbgnml.xmlcdwrappers.ReactionWrapper;
@@ -24,8 +25,8 @@ public class DissociationReactionModel extends GenericReactionModel{
 
     private final Logger logger = LoggerFactory.getLogger(DissociationReactionModel.class);
 
-    public DissociationReactionModel(ReactionWrapper reactionW) {
-        super(reactionW);
+    public DissociationReactionModel(ReactionWrapper reactionW, IdGenerator idGenerator) {
+        super(reactionW, idGenerator);
 
         ReactantWrapper startR = reactionW.getBaseReactants().get(0);
         ReactantWrapper endR1 = reactionW.getBaseProducts().get(0);
@@ -38,17 +39,17 @@ public class DissociationReactionModel extends GenericReactionModel{
         LineWrapper lineW = reactionW.getLineWrapper();
 
         // list edit points
-        List<Point2D.Float> editPoints = reactionW.getLineWrapper().getEditPoints();
+        Polyline editPoints = reactionW.getLineWrapper().getEditPolyline();
 
         // process association point
-        Point2D.Float assocGlyphLocalCoords = editPoints.get(editPoints.size() - 1); // last point listed in xml
+        Point2D.Float assocGlyphLocalCoords = editPoints.getLast(); // last point listed in xml
         Point2D.Float assocGlyphGlobalCoords = getAbsolutePoint(
                 startR.getCenterPoint(),
                 endR1.getCenterPoint(),
                 endR2.getCenterPoint(), assocGlyphLocalCoords);
         logger.trace("result: " + assocGlyphLocalCoords + " -> " + assocGlyphGlobalCoords);
 
-        String dissocId = "dissoc_" + UUID.randomUUID();
+        String dissocId = this.getIdGenerator().newId("dissoc_");
         AssocDissoc dissociation = new AssocDissoc(assocGlyphGlobalCoords, dissocId, new StyleInfo(dissocId));
 
         // get the relevant points
@@ -57,33 +58,33 @@ public class DissociationReactionModel extends GenericReactionModel{
         Point2D.Float endR2coordPoint = endModel2.getAbsoluteAnchorCoordinate(endR2.getAnchorPoint());
 
         // branch 0
-        List<Point2D.Float> absoluteEditPoints0 = getBranchPoints(reactionW, dissociation.getGlyph().getCenter(), startRcoordPoint, 0);
-        Collections.reverse(absoluteEditPoints0);
+        Polyline absoluteEditPoints0 = getBranchPoints(reactionW, dissociation.getGlyph().getCenter(), startRcoordPoint, 0);
+        absoluteEditPoints0 = absoluteEditPoints0.reverse();
         absoluteEditPoints0 = GeometryUtils.getNormalizedEndPoints(absoluteEditPoints0,
                 startModel.getGlyph(),
                 dissociation.getGlyph(),
                 startModel.getAnchorPoint(),
                 AnchorPoint.CENTER);
 
-        List<Point2D.Float> absoluteEditPoints1 = getBranchPoints(reactionW, dissociation.getGlyph().getCenter(), endR1coordPoint, 1);
+        Polyline absoluteEditPoints1 = getBranchPoints(reactionW, dissociation.getGlyph().getCenter(), endR1coordPoint, 1);
         absoluteEditPoints1 = GeometryUtils.getNormalizedEndPoints(absoluteEditPoints1,
                 dissociation.getGlyph(),
                 endModel1.getGlyph(),
                 AnchorPoint.CENTER,
                 endModel1.getAnchorPoint());
 
-        String link1Id = "prod_" + UUID.randomUUID();
+        String link1Id = this.getIdGenerator().newId("prod_");
         LinkModel link1 = new LinkModel(dissociation, endModel1, new Link(absoluteEditPoints1),
                 link1Id, "production", new StyleInfo(lineW.getLineWidth(), lineW.getLineColor(), link1Id));
 
-        List<Point2D.Float> absoluteEditPoints2 = getBranchPoints(reactionW, dissociation.getGlyph().getCenter(), endR2coordPoint, 2);
+        Polyline absoluteEditPoints2 = getBranchPoints(reactionW, dissociation.getGlyph().getCenter(), endR2coordPoint, 2);
         absoluteEditPoints2 = GeometryUtils.getNormalizedEndPoints(absoluteEditPoints2,
                 dissociation.getGlyph(),
                 endModel2.getGlyph(),
                 AnchorPoint.CENTER,
                 endModel2.getAnchorPoint());
 
-        String link2Id = "prod_" + UUID.randomUUID();
+        String link2Id = this.getIdGenerator().newId("prod_");
         LinkModel link2 = new LinkModel(dissociation, endModel2, new Link(absoluteEditPoints2),
                 link2Id, "production", new StyleInfo(lineW.getLineWidth(), lineW.getLineColor(), link2Id));
 
@@ -98,7 +99,7 @@ public class DissociationReactionModel extends GenericReactionModel{
 
                 also here the segment indexes are reversed, as the number starts from dissociation glyph
              */
-            String prId = "pr_"+UUID.randomUUID();
+            String prId = this.getIdGenerator().newId("pr_");
             Process process = new Process(
                     GeometryUtils.getMiddleOfPolylineSegment(absoluteEditPoints0,
                             absoluteEditPoints0.size() - 2 - reactionW.getProcessSegmentIndex()),
@@ -106,7 +107,7 @@ public class DissociationReactionModel extends GenericReactionModel{
                     processAxis,
                     new StyleInfo(lineW.getLineWidth(), lineW.getLineColor(), prId));
 
-            AbstractMap.SimpleEntry<List<Point2D.Float>, List<Point2D.Float>> subLinesTuple =
+            AbstractMap.SimpleEntry<Polyline, Polyline> subLinesTuple =
                     GeometryUtils.splitPolylineAtSegment(absoluteEditPoints0,
                             absoluteEditPoints0.size() - 2 - reactionW.getProcessSegmentIndex());
 
@@ -115,31 +116,32 @@ public class DissociationReactionModel extends GenericReactionModel{
                 As it is not a valid SBGN thing, it is weirdly drawn by visualization tool.
                 Better if the link does not overlap the process here.
              */
-            List<Point2D.Float> normalizedSubLinesTuple1 = GeometryUtils.getNormalizedEndPoints(subLinesTuple.getKey(),
+            Polyline normalizedSubLinesTuple1 = GeometryUtils.getNormalizedEndPoints(subLinesTuple.getKey(),
                     startModel.getGlyph(),
                     process.getGlyph(),
                     startModel.getAnchorPoint(),
                     AnchorPoint.CENTER);
-            List<Point2D.Float> normalizedSubLinesTuple2 = GeometryUtils.getNormalizedEndPoints(subLinesTuple.getValue(),
+            Polyline normalizedSubLinesTuple2 = GeometryUtils.getNormalizedEndPoints(subLinesTuple.getValue(),
                     process.getGlyph(),
                     dissociation.getGlyph(),
                     AnchorPoint.CENTER,
                     AnchorPoint.CENTER);
 
             // port management
-            Point2D.Float pIn = normalizedSubLinesTuple1.get(normalizedSubLinesTuple1.size() - 1);
-            Point2D.Float pOut = normalizedSubLinesTuple2.get(0);
+            Point2D.Float pIn = normalizedSubLinesTuple1.getLast();
+            Point2D.Float pOut = normalizedSubLinesTuple2.getFirst();
             process.setPorts(pIn, pOut);
 
             // replace the end and start points of the sublines by corresponding ports
-            normalizedSubLinesTuple1.set(normalizedSubLinesTuple1.size() - 1, process.getPortIn());
-            normalizedSubLinesTuple2.set(0, process.getPortOut());
+            normalizedSubLinesTuple1 = normalizedSubLinesTuple1.with(normalizedSubLinesTuple1.size() - 1,
+                    process.getPortIn());
+            normalizedSubLinesTuple2 = normalizedSubLinesTuple2.with(0, process.getPortOut());
 
-            String l21Id = "cons_" + UUID.randomUUID();
+            String l21Id = this.getIdGenerator().newId("cons_");
             LinkModel l21 = new LinkModel(startModel, process, new Link(normalizedSubLinesTuple1),
                     l21Id, "consumption", new StyleInfo(lineW.getLineWidth(), lineW.getLineColor(), l21Id));
 
-            String l22Id = "cons_" + UUID.randomUUID();
+            String l22Id = this.getIdGenerator().newId("cons_");
             LinkModel l22 = new LinkModel(process, dissociation, new Link(normalizedSubLinesTuple2),
                     l22Id, "consumption", new StyleInfo(lineW.getLineWidth(), lineW.getLineColor(), l22Id));
             logger.trace("link edit points: "+l21.getLink().getStart()+" "+l21.getLink().getEditPoints());
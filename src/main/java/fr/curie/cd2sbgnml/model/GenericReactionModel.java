@@ -3,6 +3,7 @@ package fr.curie.cd2sbgnml.model;
 import fr.curie.cd2sbgnml.graphics.AnchorPoint;
 import fr.curie.cd2sbgnml.graphics.GeometryUtils;
 import fr.curie.cd2sbgnml.graphics.Link;
+import fr.curie.cd2sbgnml.graphics.Polyline;
 
 import fr.curie.cd2sbgnml.xmlcdwrappers.*;
 import fr.curie.cd2sbgnml.xmlcdwrappers.LogicGateWrapper.LogicGateType;
@@ -29,15 +30,19 @@ public class GenericReactionModel {
     private ReactionType cdReactionType;
     private boolean hasProcess;
     private String id;
+    private IdGenerator idGenerator;
 
-    public GenericReactionModel(ReactionWrapper reactionW) {
+    /**
+     * @param idGenerator creates the ids of the glyphs and arcs of this reaction
+     */
+    public GenericReactionModel(ReactionWrapper reactionW, IdGenerator idGenerator) {
         this.reactionNodeModels = new ArrayList<>();
         this.reactantModels = new ArrayList<>();
         this.linkModels = new ArrayList<>();
         this.cdReactionType = reactionW.getReactionType();
         this.hasProcess = reactionW.hasProcess();
         this.id = reactionW.getId();
-
+        this.idGenerator = idGenerator;
     }
 
     /**
@@ -55,16 +60,16 @@ public class GenericReactionModel {
 
             Point2D.Float processAnchorPoint = process.getAbsoluteAnchorCoords(logicW.getProcessAnchorIndex());
             // list edit points
-            List<Point2D.Float> editPoints = logicW.getLineWrapper().getEditPoints(); // ReactionWrapper.getEditPointsForModifier(reactionW.getReaction(), logicW.getPositionIndex());
+            Polyline editPoints = logicW.getLineWrapper().getEditPolyline(); // ReactionWrapper.getEditPointsForModifier(reactionW.getReaction(), logicW.getPositionIndex());
             logger.trace("gate edit points "+editPoints);
 
             // process logic gate point
-            Point2D.Float logicGateGlobalCoord = editPoints.get(editPoints.size() - 1); // last point listed in xml
-            editPoints = editPoints.subList(0, editPoints.size() - 1);
+            Point2D.Float logicGateGlobalCoord = editPoints.getLast(); // last point listed in xml
+            editPoints = editPoints.subPolyline(0, editPoints.size() - 1);
             logger.trace("Rest of edit points: "+editPoints);
 
 
-            String logicId = "logicglyph_" + UUID.randomUUID();
+            String logicId = this.getIdGenerator().newId("logicglyph_");
             LogicGate logicGate = new LogicGate(logicGateGlobalCoord, logicId,
                     logicW.getType(),
                     // logic gate inherits the style of its link pointing to the process
@@ -80,10 +85,11 @@ public class GenericReactionModel {
                     GeometryUtils.getTransformsToGlobalCoords(
                             logicGateGlobalCoord,
                             processAnchorPoint);
-            List<Point2D.Float> absoluteEditPoints = new ArrayList<>();
-            absoluteEditPoints.add(logicGateGlobalCoord);
-            absoluteEditPoints.addAll(GeometryUtils.convertPoints(editPoints, transformList));
-            absoluteEditPoints.add(processAnchorPoint);
+            Polyline absoluteEditPoints = Polyline.builder(editPoints.size() + 2)
+                    .add(logicGateGlobalCoord)
+                    .addAll(GeometryUtils.convertPoints(editPoints, transformList))
+                    .add(processAnchorPoint)
+                    .build();
 
             absoluteEditPoints = GeometryUtils.getNormalizedEndPoints(absoluteEditPoints,
                     logicGate.getGlyph(),
@@ -99,9 +105,9 @@ public class GenericReactionModel {
             logicGate.setPorts(pIn, pOut);
 
             // replace the end and start points of the sublines by corresponding ports
-            absoluteEditPoints.set(0, logicGate.getPortOut());
+            absoluteEditPoints = absoluteEditPoints.with(0, logicGate.getPortOut());
 
-            String logicArcId = "logicarc_" + UUID.randomUUID();
+            String logicArcId = this.getIdGenerator().newId("logicarc_");
             LinkModel logicLink = new LinkModel(logicGate, process, new Link(absoluteEditPoints),
                     logicArcId,
                     LinkModel.getSbgnClass(logicW.getModificationType()),
@@ -128,7 +134,7 @@ public class GenericReactionModel {
 
             //Reaction reaction = reactionW.getReaction();
             int modifIndex = reactantW.getPositionIndex();
-            List<Point2D.Float> editPoints = reactantW.getLineWrapper().getEditPoints();
+            Polyline editPoints = reactantW.getLineWrapper().getEditPolyline();
 
             // treat modifier as linked to a reactionNodeModel, either a process or a logic gate
             ReactionNodeModel genericNode = null;
@@ -194,10 +200,11 @@ public class GenericReactionModel {
                             modifModel.getAbsoluteAnchorCoordinate(
                                     reactantW.getAnchorPoint()),
                             genericNodeAnchorPoint);
-            List<Point2D.Float> absoluteEditPoints = new ArrayList<>();
-            absoluteEditPoints.add(modifModel.getAbsoluteAnchorCoordinate(reactantW.getAnchorPoint()));
-            absoluteEditPoints.addAll(GeometryUtils.convertPoints(editPoints, transformList));
-            absoluteEditPoints.add(genericNodeAnchorPoint);
+            Polyline absoluteEditPoints = Polyline.builder(editPoints.size() + 2)
+                    .add(modifModel.getAbsoluteAnchorCoordinate(reactantW.getAnchorPoint()))
+                    .addAll(GeometryUtils.convertPoints(editPoints, transformList))
+                    .add(genericNodeAnchorPoint)
+                    .build();
 
             absoluteEditPoints = GeometryUtils.getNormalizedEndPoints(absoluteEditPoints,
                     modifModel.getGlyph(),
@@ -205,7 +212,7 @@ public class GenericReactionModel {
                     modifModel.getAnchorPoint(),
                     AnchorPoint.E);
 
-            String modifId = "modif_" + UUID.randomUUID();
+            String modifId = this.getIdGenerator().newId("modif_");
             LinkModel modifLink = new LinkModel(modifModel, genericNode, new Link(absoluteEditPoints),
                     modifId,
                     linkType,
@@ -242,13 +249,15 @@ public class GenericReactionModel {
             int positionIndex = reactantW.getPositionIndex();
             logger.trace("POSITION INDEX "+positionIndex);
             //Reaction reaction = reactionW.getReaction();
-            List<Point2D.Float> editPoints = reactantW.getLineWrapper().getEditPoints();
+            Polyline editPoints = reactantW.getLineWrapper().getEditPolyline();
             logger.trace("ADDITIONAL REACT EDIT POINTS "+editPoints);
 
-            List<Point2D.Float> absoluteEditPoints = new ArrayList<>();
-            absoluteEditPoints.add(reactantModel.getAbsoluteAnchorCoordinate(reactantW.getAnchorPoint()));
-            absoluteEditPoints.addAll(GeometryUtils.convertPoints(editPoints, transformList));
-            absoluteEditPoints.add(process.getAbsoluteAnchorCoords(0));
+            Polyline convertedEditPoints = GeometryUtils.convertPoints(editPoints, transformList);
+            Polyline absoluteEditPoints = Polyline.builder(editPoints.size() + 2)
+                    .add(reactantModel.getAbsoluteAnchorCoordinate(reactantW.getAnchorPoint()))
+                    .addAll(convertedEditPoints)
+                    .add(process.getAbsoluteAnchorCoords(0))
+                    .build();
             logger.trace("ABSOLUTE POINTS: "+absoluteEditPoints);
 
             Point2D.Float normalizedStart = GeometryUtils.normalizePoint(absoluteEditPoints.get(0),
@@ -256,12 +265,13 @@ public class GenericReactionModel {
                     reactantModel.getGlyph(),
                     reactantModel.getAnchorPoint());
 
-            List<Point2D.Float> normalizedEditPoints = new ArrayList<>();
-            normalizedEditPoints.add(normalizedStart);
-            normalizedEditPoints.addAll(GeometryUtils.convertPoints(editPoints, transformList));
-            normalizedEditPoints.add(process.getPortIn());
+            Polyline normalizedEditPoints = Polyline.builder(editPoints.size() + 2)
+                    .add(normalizedStart)
+                    .addAll(convertedEditPoints)
+                    .add(process.getPortIn())
+                    .build();
 
-            String reactLinkId = "addreact_"+ UUID.randomUUID();
+            String reactLinkId = this.getIdGenerator().newId("addreact_");
             LinkModel reactLink = new LinkModel(reactantModel, process, new Link(normalizedEditPoints),
                     reactLinkId,
                     "consumption",
@@ -291,26 +301,29 @@ public class GenericReactionModel {
             int positionIndex = reactantW.getPositionIndex();
             logger.trace("POSITION INDEX "+positionIndex);
             //Reaction reaction = reactionW.getReaction();
-            List<Point2D.Float> editPoints = reactantW.getLineWrapper().getEditPoints();
+            Polyline editPoints = reactantW.getLineWrapper().getEditPolyline();
             logger.trace("ADDITIONAL REACT EDIT POINTS "+editPoints);
 
-            List<Point2D.Float> absoluteEditPoints = new ArrayList<>();
-            absoluteEditPoints.add(process.getAbsoluteAnchorCoords(1));
-            absoluteEditPoints.addAll(GeometryUtils.convertPoints(editPoints, transformList));
-            absoluteEditPoints.add(reactantModel.getAbsoluteAnchorCoordinate(reactantW.getAnchorPoint()));
+            Polyline convertedEditPoints = GeometryUtils.convertPoints(editPoints, transformList);
+            Polyline absoluteEditPoints = Polyline.builder(editPoints.size() + 2)
+                    .add(process.getAbsoluteAnchorCoords(1))
+                    .addAll(convertedEditPoints)
+                    .add(reactantModel.getAbsoluteAnchorCoordinate(reactantW.getAnchorPoint()))
+                    .build();
             logger.trace("ABSOLUTE POINTS: "+absoluteEditPoints);
 
-            Point2D.Float normalizedEnd = GeometryUtils.normalizePoint(absoluteEditPoints.get(absoluteEditPoints.size() - 1),
+            Point2D.Float normalizedEnd = GeometryUtils.normalizePoint(absoluteEditPoints.getLast(),
                     absoluteEditPoints.get(absoluteEditPoints.size() - 2),
                     reactantModel.getGlyph(),
                     reactantModel.getAnchorPoint());
 
-            List<Point2D.Float> normalizedEditPoints = new ArrayList<>();
-            normalizedEditPoints.add(process.getPortOut());
-            normalizedEditPoints.addAll(GeometryUtils.convertPoints(editPoints, transformList));
-            normalizedEditPoints.add(normalizedEnd);
+            Polyline normalizedEditPoints = Polyline.builder(editPoints.size() + 2)
+                    .add(process.getPortOut())
+                    .addAll(convertedEditPoints)
+                    .add(normalizedEnd)
+                    .build();
 
-            String reactLinkId = "addprod_" + UUID.randomUUID();
+            String reactLinkId = this.getIdGenerator().newId("addprod_");
             LinkModel reactLink = new LinkModel(process, reactantModel, new Link(normalizedEditPoints),
                     reactLinkId, "production",
                     new StyleInfo(reactantW.getLineWrapper().getLineWidth(),
@@ -354,25 +367,17 @@ public class GenericReactionModel {
     /**
      * already comprises start and end
      */
-    public static List<Point2D.Float> getBranchPoints(ReactionWrapper reactionW, Point2D.Float origin, Point2D.Float pX, int branch) {
+    public static Polyline getBranchPoints(ReactionWrapper reactionW, Point2D.Float origin, Point2D.Float pX, int branch) {
 
-        List<Point2D.Float> absoluteEditPoints = new ArrayList<>();
-        absoluteEditPoints.add(origin);
+        Polyline editPoints = reactionW.getEditPolylineForBranch(branch);
         logger.trace("local system: "+origin+" "+pX);
-        logger.trace("points for BRANCH "+branch+" "+ reactionW.getEditPointsForBranch(branch));
-
-        for (Point2D editP : reactionW.getEditPointsForBranch(branch)) {
-            Point2D p = new Point2D.Double(editP.getX(), editP.getY());
-
-            for(AffineTransform t: GeometryUtils.getTransformsToGlobalCoords(origin, pX)) {
-                t.transform(p, p);
-            }
-
-            logger.trace("BRANCH "+branch+" result: " + editP + " -> " + p.toString());
-            absoluteEditPoints.add(new Point2D.Float((float) p.getX(), (float) p.getY()));
+        logger.trace("points for BRANCH "+branch+" "+ editPoints);
 
-        }
-        absoluteEditPoints.add(pX);
+        Polyline absoluteEditPoints = Polyline.builder(editPoints.size() + 2)
+                .add(origin)
+                .addAll(GeometryUtils.convertPoints(editPoints, GeometryUtils.getTransformsToGlobalCoords(origin, pX)))
+                .add(pX)
+                .build();
         logger.trace("BRANCH "+branch+" stack: "+absoluteEditPoints);
 
         return absoluteEditPoints;
@@ -419,4 +424,8 @@ public class GenericReactionModel {
     public String getId() {
         return id;
     }
+
+    public IdGenerator getIdGenerator() {
+        return idGenerator;
+    }
 }
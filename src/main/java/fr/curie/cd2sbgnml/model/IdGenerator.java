@@ -0,0 +1,46 @@
+package fr.curie.cd2sbgnml.model;
+
+/**
+ * Creates ids for the glyphs and arcs that don't exist in CellDesigner, like processes, logic gates or the arcs
+ * of additional reactants.
+ *
+ * Reaction models of a map can be built concurrently, so each reaction gets its own generator through
+ * forReaction(). Ids of a reaction then don't depend on the order in which the reactions are built.
+ */
+public interface IdGenerator {
+
+    /**
+     * @param prefix start of the id, like "pr_"
+     * @return a new id, unique in the conversion
+     */
+    String newId(String prefix);
+
+    /**
+     * Move on as if count ids had been created, for elements whose ids were created by a previous conversion.
+     */
+    default void skip(long count) {
+        for(long i=0; i < count; i++) {
+            newId("");
+        }
+    }
+
+    /**
+     * @param reactionId CellDesigner id of a reaction
+     * @return the generator to use for the elements of this reaction
+     */
+    IdGenerator forReaction(String reactionId);
+
+    /**
+     * @return a generator of ids made from random UUIDs, different at each conversion
+     */
+    static IdGenerator random() {
+        return new RandomIdGenerator();
+    }
+
+    /**
+     * @return a generator of ids made from a counter, the same for each conversion of the same map
+     */
+    static IdGenerator sequential() {
+        return new SequentialIdGenerator("");
+    }
+}
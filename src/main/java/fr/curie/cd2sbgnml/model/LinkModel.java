@@ -5,12 +5,6 @@ import fr.curie.cd2sbgnml.xmlcdwrappers.StyleInfo;
 
 import org.sbgn.ArcClazz;
 
-import java.awt.geom.Point2D;
-
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-
 /**
  * A geometric link with more information about the reaction it is involved in, like its source and target
  * elements, its style and its class (determining arrow shapes).
@@ -135,17 +129,7 @@ public class LinkModel {
         this.end = orig_start;
 
         // reverse link direction and edit points
-        Point2D.Float newStart = this.getLink().getEnd();
-        Point2D.Float newEnd = this.getLink().getStart();
-        List<Point2D.Float> shallowCopy = this.getLink().getEditPoints().subList(
-                0, this.getLink().getEditPoints().size());
-        Collections.reverse(shallowCopy);
-        List<Point2D.Float> newEditPoints = new ArrayList<>();
-        newEditPoints.add(newStart);
-        newEditPoints.addAll(shallowCopy);
-        newEditPoints.add(newEnd);
-
-        this.link = new Link(newEditPoints);
+        this.link = new Link(this.getLink().getPoints().reverse());
 
         if(this.getSbgnClass().equals("production")) {
             this.sbgnClass = "consumption";
@@ -168,16 +152,13 @@ public class LinkModel {
      * @return
      */
     public LinkModel mergeWith(LinkModel m2, String newClass, String newId) {
-        List<Point2D.Float> newPoints = new ArrayList<>();
-
-        newPoints.add(this.getLink().getStart());
-        newPoints.addAll(this.getLink().getEditPoints());
-        newPoints.add(this.getLink().getEnd());
-
-        newPoints.addAll(m2.getLink().getEditPoints());
-        newPoints.add(m2.getLink().getEnd());
-
-        Link newLink = new Link(newPoints);
+        Polyline points1 = this.getLink().getPoints();
+        Polyline points2 = m2.getLink().getPoints();
+        // start of the 2nd is left out
+        Link newLink = new Link(Polyline.builder(points1.size() + points2.size() - 1)
+                .addAll(points1)
+                .addAll(points2.subPolyline(1, points2.size()))
+                .build());
         return new LinkModel(this.getStart(), m2.getEnd(),
                 newLink, newId, newClass, new StyleInfo(this.getStyleInfo(), newId));
     }
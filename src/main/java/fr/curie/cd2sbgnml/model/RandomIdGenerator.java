@@ -0,0 +1,24 @@
+package fr.curie.cd2sbgnml.model;
+
+import java.util.UUID;
+
+/**
+ * Ids like pr_4a6f2e1c-..., as done before ids could be reproduced.
+ */
+public class RandomIdGenerator implements IdGenerator {
+
+    @Override
+    public String newId(String prefix) {
+        return prefix + UUID.randomUUID();
+    }
+
+    @Override
+    public void skip(long count) {
+        // random ids don't depend on the ids created before them
+    }
+
+    @Override
+    public IdGenerator forReaction(String reactionId) {
+        return this;
+    }
+}
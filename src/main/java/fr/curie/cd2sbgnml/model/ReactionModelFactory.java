@@ -11,17 +11,24 @@ import static fr.curie.cd2sbgnml.xmlcdwrappers.ReactionType.TRUNCATION;
  */
 public class ReactionModelFactory {
     public static GenericReactionModel create(ReactionWrapper reactionWrapper) {
+        return create(reactionWrapper, IdGenerator.sequential().forReaction(reactionWrapper.getId()));
+    }
+
+    /**
+     * @param idGenerator creates the ids of the glyphs and arcs of the reaction
+     */
+    public static GenericReactionModel create(ReactionWrapper reactionWrapper, IdGenerator idGenerator) {
         if(reactionWrapper.getReactionType() == HETERODIMER_ASSOCIATION) {
-            return new AssociationReactionModel(reactionWrapper);
+            return new AssociationReactionModel(reactionWrapper, idGenerator);
         }
         else if(reactionWrapper.getReactionType() == DISSOCIATION) {
-            return new DissociationReactionModel(reactionWrapper);
+            return new DissociationReactionModel(reactionWrapper, idGenerator);
         }
         else if(reactionWrapper.getReactionType() == TRUNCATION) {
-            return new DissociationReactionModel(reactionWrapper);
+            return new DissociationReactionModel(reactionWrapper, idGenerator);
         }
         else {
-            return new SimpleReactionModel(reactionWrapper);
+            return new SimpleReactionModel(reactionWrapper, idGenerator);
         }
 
     }
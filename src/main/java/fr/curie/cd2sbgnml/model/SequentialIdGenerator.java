@@ -0,0 +1,38 @@
+package fr.curie.cd2sbgnml.model;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ids like pr_re12-1 for the elements of a reaction, or _1 for other elements.
+ *
+ * CellDesigner ids can't contain '-', so the counter of a reaction can't be confused with a part of another reaction
+ * id, nor ids derived from a generated one, like port ids, with another generated id. As with UUIDs, '-' is replaced
+ * by '_' when converting back to CellDesigner.
+ */
+public class SequentialIdGenerator implements IdGenerator {
+
+    private final String scope;
+    private final AtomicLong counter = new AtomicLong();
+
+    /**
+     * @param scope put between prefix and counter, like "re12-", or empty
+     */
+    SequentialIdGenerator(String scope) {
+        this.scope = scope;
+    }
+
+    @Override
+    public String newId(String prefix) {
+        return prefix + scope + counter.incrementAndGet();
+    }
+
+    @Override
+    public void skip(long count) {
+        counter.addAndGet(count);
+    }
+
+    @Override
+    public IdGenerator forReaction(String reactionId) {
+        return new SequentialIdGenerator(reactionId + "-");
+    }
+}
@@ -13,9 +13,7 @@ import java.awt.geom.Line2D;
 import java.awt.geom.Point2D;
 
 import java.util.AbstractMap;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
 
 /**
  * Used for construction of simple non-branching reactions.
@@ -24,8 +22,8 @@ public class SimpleReactionModel extends GenericReactionModel{
 
     private static final Logger logger = LoggerFactory.getLogger(SimpleReactionModel.class);
 
-    public SimpleReactionModel(ReactionWrapper reactionW) {
-        super(reactionW);
+    public SimpleReactionModel(ReactionWrapper reactionW, IdGenerator idGenerator) {
+        super(reactionW, idGenerator);
 
         ReactantWrapper startR = reactionW.getBaseReactants().get(0);
         ReactantWrapper endR = reactionW.getBaseProducts().get(0);
@@ -36,13 +34,14 @@ public class SimpleReactionModel extends GenericReactionModel{
         Point2D.Float baseLinkStartPoint = startModel.getAbsoluteAnchorCoordinate(startR.getAnchorPoint());
         Point2D.Float baseLinkEndPoint = endModel.getAbsoluteAnchorCoordinate(endR.getAnchorPoint());
 
-        List<Point2D.Float> editPoints = reactionW.getLineWrapper().getEditPoints();
+        Polyline editPoints = reactionW.getLineWrapper().getEditPolyline();
         List<AffineTransform> transformList = GeometryUtils.getTransformsToGlobalCoords(baseLinkStartPoint, baseLinkEndPoint);
 
-        List<Point2D.Float> absoluteEditPoints = new ArrayList<>();
-        absoluteEditPoints.add(baseLinkStartPoint);
-        absoluteEditPoints.addAll(GeometryUtils.convertPoints(editPoints, transformList));
-        absoluteEditPoints.add(baseLinkEndPoint);
+        Polyline absoluteEditPoints = Polyline.builder(editPoints.size() + 2)
+                .add(baseLinkStartPoint)
+                .addAll(GeometryUtils.convertPoints(editPoints, transformList))
+                .add(baseLinkEndPoint)
+                .build();
 
         absoluteEditPoints = GeometryUtils.getNormalizedEndPoints(absoluteEditPoints,
                 startModel.getGlyph(),
@@ -56,7 +55,7 @@ public class SimpleReactionModel extends GenericReactionModel{
                     absoluteEditPoints.get(reactionW.getProcessSegmentIndex() + 1));
             // corner case when both points of axis are the same, center is the same
 
-            String prId = "pr_"+UUID.randomUUID();
+            String prId = this.getIdGenerator().newId("pr_");
             Process process = new Process(
                     GeometryUtils.getMiddleOfPolylineSegment(absoluteEditPoints, reactionW.getProcessSegmentIndex()),
                     prId,
@@ -65,37 +64,37 @@ public class SimpleReactionModel extends GenericReactionModel{
                     new StyleInfo(reactionW.getLineWrapper().getLineWidth(),
                             reactionW.getLineWrapper().getLineColor(), prId));
 
-            AbstractMap.SimpleEntry<List<Point2D.Float>, List<Point2D.Float>> subLinesTuple =
+            AbstractMap.SimpleEntry<Polyline, Polyline> subLinesTuple =
                     GeometryUtils.splitPolylineAtSegment(absoluteEditPoints, reactionW.getProcessSegmentIndex());
 
-            List<Point2D.Float> subLinesTuple1 = GeometryUtils.getNormalizedEndPoints(subLinesTuple.getKey(),
+            Polyline subLinesTuple1 = GeometryUtils.getNormalizedEndPoints(subLinesTuple.getKey(),
                     startModel.getGlyph(),
                     process.getGlyph(),
                     startModel.getAnchorPoint(),
                     AnchorPoint.CENTER);
 
-            List<Point2D.Float> subLinesTuple2 = GeometryUtils.getNormalizedEndPoints(subLinesTuple.getValue(),
+            Polyline subLinesTuple2 = GeometryUtils.getNormalizedEndPoints(subLinesTuple.getValue(),
                     process.getGlyph(),
                     endModel.getGlyph(),
                     AnchorPoint.CENTER,
                     endModel.getAnchorPoint());
 
             // port management
-            Point2D.Float pIn = subLinesTuple1.get(subLinesTuple1.size() - 1);
-            Point2D.Float pOut = subLinesTuple2.get(0);
+            Point2D.Float pIn = subLinesTuple1.getLast();
+            Point2D.Float pOut = subLinesTuple2.getFirst();
             process.setPorts(pIn, pOut);
 
             // replace the end and start points of the sublines by corresponding ports
-            subLinesTuple1.set(subLinesTuple1.size() - 1, process.getPortIn());
-            subLinesTuple2.set(0, process.getPortOut());
+            subLinesTuple1 = subLinesTuple1.with(subLinesTuple1.size() - 1, process.getPortIn());
+            subLinesTuple2 = subLinesTuple2.with(0, process.getPortOut());
 
-            String l1Id = "cons_" + UUID.randomUUID();
+            String l1Id = this.getIdGenerator().newId("cons_");
             LinkModel l1 = new LinkModel(startModel, process, new Link(subLinesTuple1),
                     l1Id, "consumption",
                     new StyleInfo(reactionW.getLineWrapper().getLineWidth(),
                             reactionW.getLineWrapper().getLineColor(), l1Id));
 
-            String l2Id = "prod_" + UUID.randomUUID();
+            String l2Id = this.getIdGenerator().newId("prod_");
             LinkModel l2 = new LinkModel(process, endModel, new Link(subLinesTuple2),
                     l2Id, LinkModel.getSbgnClass(reactionW.getReactionType().toString()),
                     new StyleInfo(reactionW.getLineWrapper().getLineWidth(),
@@ -117,7 +116,7 @@ public class SimpleReactionModel extends GenericReactionModel{
             this.addAdditionalProducts(reactionW, process);
         }
         else {
-            String linkid = "direct_" + UUID.randomUUID();
+            String linkid = this.getIdGenerator().newId("direct_");
             LinkModel l1 = new LinkModel(startModel, endModel, new Link(absoluteEditPoints),
                     linkid, LinkModel.getSbgnClass(reactionW.getReactionType().toString()),
                     new StyleInfo(reactionW.getLineWrapper().getLineWidth(),
@@ -0,0 +1,63 @@
+package fr.curie.cd2sbgnml.xmlcdwrappers;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Elements grouped by the dense index of their owner, stored in a single array instead of a map of lists.
+ * The elements of owner i are at positions start[i] to start[i+1] - 1, in the order they were given.
+ */
+final class Adjacency<T> {
+
+    private final int[] start;
+    private final List<T> elements;
+
+    private Adjacency(int[] start, List<T> elements) {
+        this.start = start;
+        this.elements = elements;
+    }
+
+    /**
+     * @param owners number of owners, indexes go from 0 to owners - 1
+     * @param owner index of the owner of an element, or -1 if the element has none and is left out
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Adjacency<T> of(int owners, List<T> elements, ToIntFunction<T> owner) {
+        int[] ownerOf = new int[elements.size()];
+        int[] start = new int[owners + 1];
+        int i = 0;
+        for(T element: elements) {
+            int o = owner.applyAsInt(element);
+            ownerOf[i++] = o;
+            if(o >= 0) {
+                start[o + 1]++;
+            }
+        }
+        for(int o=0; o < owners; o++) {
+            start[o + 1] += start[o];
+        }
+
+        Object[] rows = new Object[start[owners]];
+        int[] next = Arrays.copyOf(start, owners);
+        i = 0;
+        for(T element: elements) {
+            int o = ownerOf[i++];
+            if(o >= 0) {
+                rows[next[o]++] = element;
+            }
+        }
+        return new Adjacency<>(start, Collections.unmodifiableList(Arrays.asList((T[]) rows)));
+    }
+
+    /**
+     * @return the elements of the owner, or null if it has none
+     */
+    List<T> get(int owner) {
+        if(owner < 0 || owner >= start.length - 1 || start[owner] == start[owner + 1]) {
+            return null;
+        }
+        return elements.subList(start[owner], start[owner + 1]);
+    }
+}
@@ -5,7 +5,6 @@ import org.sbml._2001.ns.celldesigner.ComplexSpeciesAlias.BackupSize;
 
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
-import java.math.BigDecimal;
 import java.util.AbstractMap.SimpleEntry;
 
 import static fr.curie.cd2sbgnml.xmlcdwrappers.Utils.bounds2Rect;
@@ -46,6 +45,11 @@ public class AliasWrapper {
      */
     private AliasWrapper topLevelParent;
 
+    /**
+     * Position of the alias in the list of alias wrappers of its ModelWrapper, -1 if it isn't in one.
+     */
+    private int index = -1;
+
     public AliasWrapper(String id, AliasType type, SpeciesWrapper speciesW) {
         this.id = id;
         this.aliasType = type;
@@ -193,13 +197,13 @@ public class AliasWrapper {
         Info info = new Info();
         if(this.getInfo() != null) {
             info.setState("open");
-            info.setAngle(BigDecimal.valueOf(this.getInfo().angle));
+            info.setAngle((double) this.getInfo().angle);
             info.setPrefix(this.getInfo().prefix);
             info.setLabel(this.getInfo().label);
         }
         else {
             info.setState("empty");
-            info.setAngle(BigDecimal.valueOf(-1.57));
+            info.setAngle(-1.57);
         }
         return info;
     }
@@ -207,15 +211,15 @@ public class AliasWrapper {
     private SimpleEntry<UsualView, BriefView> getViewElements() {
         // the 2 views components (will be the same)
         InnerPosition innerPosition = new InnerPosition();
-        innerPosition.setX(BigDecimal.valueOf(0));
-        innerPosition.setY(BigDecimal.valueOf(0));
+        innerPosition.setX(0.0);
+        innerPosition.setY(0.0);
 
         BoxSize boxSize = new BoxSize();
-        boxSize.setWidth(BigDecimal.valueOf(this.getBounds().getWidth()));
-        boxSize.setHeight(BigDecimal.valueOf(this.getBounds().getHeight()));
+        boxSize.setWidth(this.getBounds().getWidth());
+        boxSize.setHeight(this.getBounds().getHeight());
 
         SingleLine singleLine = new SingleLine();
-        singleLine.setWidth(BigDecimal.valueOf(this.getStyleInfo().getLineWidth()));
+        singleLine.setWidth((double) this.getStyleInfo().getLineWidth());
 
         Paint paint = new Paint();
         paint.setColor(this.getStyleInfo().getBgColor());
@@ -253,6 +257,14 @@ public class AliasWrapper {
         return complexAlias;
     }
 
+    int getIndex() {
+        return index;
+    }
+
+    void setIndex(int index) {
+        this.index = index;
+    }
+
     public String getCompartmentAlias() {
         return compartmentAlias;
     }
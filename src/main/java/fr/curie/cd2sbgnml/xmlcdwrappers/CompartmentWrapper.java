@@ -10,7 +10,6 @@ import org.w3c.dom.Element;
 
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
-import java.math.BigDecimal;
 
 public class CompartmentWrapper implements INotesFeature, IAnnotationsFeature {
 
@@ -96,20 +95,20 @@ public class CompartmentWrapper implements INotesFeature, IAnnotationsFeature {
 
         Bounds bounds = new Bounds();
         compAlias.setBounds(bounds);
-        bounds.setX(BigDecimal.valueOf(this.getBbox().getX()));
-        bounds.setY(BigDecimal.valueOf(this.getBbox().getY()));
-        bounds.setW(BigDecimal.valueOf(this.getBbox().getWidth()));
-        bounds.setH(BigDecimal.valueOf(this.getBbox().getHeight()));
+        bounds.setX(this.getBbox().getX());
+        bounds.setY(this.getBbox().getY());
+        bounds.setW(this.getBbox().getWidth());
+        bounds.setH(this.getBbox().getHeight());
 
         Point namePoint = new Point();
         compAlias.setNamePoint(namePoint);
-        namePoint.setX(BigDecimal.valueOf(this.namePoint.getX()));
-        namePoint.setY(BigDecimal.valueOf(this.namePoint.getY()));
+        namePoint.setX(this.namePoint.getX());
+        namePoint.setY(this.namePoint.getY());
 
         Info info = new Info();
         compAlias.setInfo(info);
         info.setState(this.getInfoState());
-        info.setAngle(BigDecimal.valueOf(this.getInfoAngle()));
+        info.setAngle((double) this.getInfoAngle());
 
         Paint paint = new Paint();
         compAlias.setPaint(paint);
@@ -128,9 +127,9 @@ public class CompartmentWrapper implements INotesFeature, IAnnotationsFeature {
         float innerwidth = (lineWidth -1) / 2;
         innerwidth = innerwidth > 4 ? 4 : innerwidth; // limit max size, needs to be less than outer
 
-        dbline.setThickness(BigDecimal.valueOf(lineWidth));
-        dbline.setOuterWidth(BigDecimal.valueOf(outerwidth));
-        dbline.setInnerWidth(BigDecimal.valueOf(innerwidth));
+        dbline.setThickness((double) lineWidth);
+        dbline.setOuterWidth((double) outerwidth);
+        dbline.setInnerWidth((double) innerwidth);
 
 
         return compAlias;
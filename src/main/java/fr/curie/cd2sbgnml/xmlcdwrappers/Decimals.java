@@ -0,0 +1,113 @@
+package fr.curie.cd2sbgnml.xmlcdwrappers;
+
+import java.math.BigDecimal;
+
+/**
+ * Conversion of the xsd:decimal attributes of CellDesigner files, like coordinates, sizes and angles, to and from double.
+ *
+ * JAXB binds xsd:decimal to BigDecimal by default, which is parsed digit by digit into an arbitrary precision number
+ * that is only ever converted to float afterwards. These methods are set as parse and print methods of the decimal type
+ * in schema/bindings.xjb, so the generated classes hold doubles instead.
+ */
+public final class Decimals {
+
+    /**
+     * Up to 10^22 powers of ten are exact doubles
+     */
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /**
+     * Integers with up to 15 digits are exact doubles
+     */
+    private static final int MAX_EXACT_DIGITS = 15;
+
+    private Decimals() {
+    }
+
+    /**
+     * Parse a decimal like 12.5 or -.75, leading and trailing whitespace being ignored.
+     *
+     * Decimals of up to 15 significant digits, which is all that CellDesigner writes, are read as an exact integer divided
+     * by an exact power of ten. The result is then correctly rounded. Others are read as a BigDecimal, like the default
+     * binding did, so that NaN, Infinity, type suffixes and hexadecimal are rejected as they were. Zero is never negative.
+     * @throws NumberFormatException if the value is not a number
+     */
+    public static double parse(String value) {
+        int start = 0;
+        int end = value.length();
+        while(start < end && value.charAt(start) <= ' ') {
+            start++;
+        }
+        while(end > start && value.charAt(end - 1) <= ' ') {
+            end--;
+        }
+
+        int i = start;
+        boolean negative = false;
+        if(i < end && (value.charAt(i) == '-' || value.charAt(i) == '+')) {
+            negative = value.charAt(i) == '-';
+            i++;
+        }
+        int signEnd = i;
+
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        for(; i < end; i++) {
+            char c = value.charAt(i);
+            if(c >= '0' && c <= '9') {
+                // leading zeros are not significant
+                if(mantissa != 0 || c != '0') {
+                    digits++;
+                }
+                mantissa = mantissa * 10 + (c - '0');
+                if(fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+            }
+            else if(c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            }
+            else {
+                break;
+            }
+        }
+
+        boolean hasDigits = i - signEnd > (fractionDigits >= 0 ? 1 : 0);
+        if(i < end || !hasDigits || digits > MAX_EXACT_DIGITS || fractionDigits >= POWERS_OF_TEN.length) {
+            // exponents, long fractions or not a number at all
+            return new BigDecimal(value.substring(start, end)).doubleValue();
+        }
+
+        double result = fractionDigits > 0 ? mantissa / POWERS_OF_TEN[fractionDigits] : mantissa;
+        // BigDecimal has no negative zero
+        return negative && result != 0 ? -result : result;
+    }
+
+    /**
+     * @param value null for absent attributes, JAXB also calls adapters for them
+     * @return the value in plain notation, as written by BigDecimal.valueOf(value).toPlainString(), because xsd:decimal
+     * doesn't allow exponents, or null to leave the attribute out
+     * @throws NumberFormatException if the value is NaN or infinite, which xsd:decimal can't hold
+     */
+    public static String print(Double value) {
+        if(value == null) {
+            return null;
+        }
+        if(value.isNaN() || value.isInfinite()) {
+            throw new NumberFormatException("Not a decimal: "+value);
+        }
+        if(value == 0) {
+            // negative zero included
+            return "0.0";
+        }
+        String s = Double.toString(value);
+        if(s.indexOf('E') == -1) {
+            return s;
+        }
+        return BigDecimal.valueOf(value).toPlainString();
+    }
+}
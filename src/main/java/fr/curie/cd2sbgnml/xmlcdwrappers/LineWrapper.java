@@ -1,9 +1,9 @@
 package fr.curie.cd2sbgnml.xmlcdwrappers;
 
+import fr.curie.cd2sbgnml.graphics.Polyline;
 import org.sbml._2001.ns.celldesigner.*;
 
 import java.awt.geom.Point2D;
-import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -17,7 +17,7 @@ public class LineWrapper {
     private String lineColor;
     private String lineType;
 
-    private List<Point2D.Float> editPoints;
+    private Polyline editPoints;
     private int num0, num1, num2;
     private int tShapeIndex;
 
@@ -40,30 +40,12 @@ public class LineWrapper {
 
     public LineWrapper(ConnectScheme connectScheme, List<String> editPoints, Line line) {
         this(connectScheme, line.getWidth().floatValue(), line.getColor(), null);
-        List<Point2D.Float> pointList = new ArrayList<>();
-        if(editPoints != null) {
-            for (String pointString : editPoints) {
-                String[] tmp = pointString.split(",");
-                float x = Float.parseFloat(tmp[0]);
-                float y = Float.parseFloat(tmp[1]);
-                pointList.add(new Point2D.Float(x, y));
-            }
-        }
-        this.editPoints = pointList;
+        this.editPoints = editPoints == null ? Polyline.EMPTY : ReactionWrapper.parseEditPoints(editPoints);
     }
 
     public LineWrapper(ConnectScheme connectScheme, List<String> editPoints, LineType2 line) {
         this(connectScheme, line.getWidth().floatValue(), line.getColor(), line.getType());
-        List<Point2D.Float> pointList = new ArrayList<>();
-        if(editPoints != null) {
-            for (String pointString : editPoints) {
-                String[] tmp = pointString.split(",");
-                float x = Float.parseFloat(tmp[0]);
-                float y = Float.parseFloat(tmp[1]);
-                pointList.add(new Point2D.Float(x, y));
-            }
-        }
-        this.editPoints = pointList;
+        this.editPoints = editPoints == null ? Polyline.EMPTY : ReactionWrapper.parseEditPoints(editPoints);
     }
 
     private LineWrapper(ConnectScheme connectScheme, float width, String color, String type) {
@@ -106,14 +88,7 @@ public class LineWrapper {
                 this.tShapeIndex = editPoints.getTShapeIndex();
             }
             if(editPoints.getValue() != null) { // should never be null
-                List<Point2D.Float> pointList = new ArrayList<>();
-                for (String pointString : editPoints.getValue()) {
-                    String[] tmp = pointString.split(",");
-                    float x = Float.parseFloat(tmp[0]);
-                    float y = Float.parseFloat(tmp[1]);
-                    pointList.add(new Point2D.Float(x, y));
-                }
-                this.editPoints = pointList;
+                this.editPoints = ReactionWrapper.parseEditPoints(editPoints.getValue());
             }
         }
     }
@@ -133,14 +108,14 @@ public class LineWrapper {
     public Line getCDLine() {
         Line line = new Line();
         line.setColor(this.getLineColor());
-        line.setWidth(BigDecimal.valueOf(this.getLineWidth()));
+        line.setWidth((double) this.getLineWidth());
         return line;
     }
 
     public LineType2 getCDLineType2() {
         LineType2 line = new LineType2();
         line.setColor(this.getLineColor());
-        line.setWidth(BigDecimal.valueOf(this.getLineWidth()));
+        line.setWidth((double) this.getLineWidth());
         line.setType(this.getLineType());
         return line;
     }
@@ -154,21 +129,30 @@ public class LineWrapper {
             editPoints.setTShapeIndex((short) this.gettShapeIndex());
         }
 
-        for(Point2D.Float p: this.getEditPoints()){
-            editPoints.getValue().add(p.getX()+","+p.getY());
+        Polyline points = this.getEditPolyline();
+        for(int i=0; i < points.size(); i++) {
+            editPoints.getValue().add(pointString(points, i));
         }
 
         return editPoints;
     }
 
     public List<String> editPointsAsStringList() {
-        List<String> editPointString = new ArrayList<>();
-        for(Point2D.Float p: this.getEditPoints()) {
-            editPointString.add(p.getX()+","+p.getY());
+        Polyline points = this.getEditPolyline();
+        List<String> editPointString = new ArrayList<>(points.size());
+        for(int i=0; i < points.size(); i++) {
+            editPointString.add(pointString(points, i));
         }
         return editPointString;
     }
 
+    /**
+     * @return x,y with the coordinates written as doubles, like Point2D.getX does
+     */
+    private static String pointString(Polyline points, int i) {
+        return (double) points.getX(i)+","+(double) points.getY(i);
+    }
+
     public float getLineWidth() {
         return lineWidth;
     }
@@ -193,14 +177,25 @@ public class LineWrapper {
         this.lineType = lineType;
     }
 
+    /**
+     * @return a read-only view of the edit points
+     */
     public List<Point2D.Float> getEditPoints() {
+        return this.getEditPolyline().asList();
+    }
+
+    public Polyline getEditPolyline() {
         if(editPoints == null) {
-            return new ArrayList<>();
+            return Polyline.EMPTY;
         }
         return editPoints;
     }
 
     public void setEditPoints(List<Point2D.Float> editPoints) {
+        this.editPoints = Polyline.of(editPoints);
+    }
+
+    public void setEditPoints(Polyline editPoints) {
         this.editPoints = editPoints;
     }
 
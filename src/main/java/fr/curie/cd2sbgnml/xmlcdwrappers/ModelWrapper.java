@@ -5,15 +5,27 @@ import org.sbml.sbml.level2.version4.*;
 import org.sbml.sbml.level2.version4.Species;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.w3c.dom.Element;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 public class ModelWrapper {
 
     private final Logger logger = LoggerFactory.getLogger(ModelWrapper.class);
 
+    /**
+     * Under this number of elements, wrappers are always created sequentially.
+     */
+    static final int PARALLEL_THRESHOLD = 64;
+
+    private boolean parallel;
+    private boolean wrappedInParallel = false;
 
     private Model model;
 
@@ -37,6 +49,7 @@ public class ModelWrapper {
     private HashMap<String, RNA> mapOfRna;
     private HashMap<String, AntisenseRNA> mapOfAntisenseRna;
     private HashMap<String, Gene> mapOfGene;
+    private HashMap<String, Element> mapOfReferenceNotes;
 
     private HashMap<String, List<CompartmentAlias>> compartment2aliasMap;
     private HashMap<String, List<SpeciesAlias>> species2aliasMap;
@@ -49,21 +62,51 @@ public class ModelWrapper {
     private HashMap<String, AliasWrapper> mapOfAliasWrapper;
 
 
-    private HashMap<String, List<AliasWrapper>> complexSpeciesAlias2speciesAliasWrapper;
+    /**
+     * included aliases by index of their complex alias wrapper
+     */
+    private Adjacency<AliasWrapper> complexSpeciesAlias2speciesAliasWrapper;
     //private HashMap<String, fr.curie.cd2sbgnml.xmlcdwrappers.AliasWrapper> globalAliasMap;
 
     private List<ReactionWrapper> listOfReactionWrapper;
     private HashMap<String, ReactionWrapper> mapOfReactionWrapper;
-    private HashMap<String, List<ReactantWrapper>> alias2reactantWrapper;
+    /**
+     * reactants by index of their alias wrapper
+     */
+    private Adjacency<ReactantWrapper> alias2reactantWrapper;
 
     public static ModelWrapper create(Sbml sbmlDoc) {
+        return create(sbmlDoc, false);
+    }
+
+    /**
+     * Species and reactions are wrapped independently from each other, only reading the elements indexed before.
+     * In parallel mode, they are wrapped on the common fork-join pool, and then added to the lists and maps in
+     * document order, so the result is the same as a sequential build.
+     * @param parallel true to wrap species and reactions of big maps in parallel
+     */
+    public static ModelWrapper create(Sbml sbmlDoc, boolean parallel) {
+        return create(sbmlDoc, parallel, null, Collections.emptySet(), Collections.emptySet());
+    }
+
+    /**
+     * Wrap a new version of a map, taking the wrappers of the species and reactions that didn't change from the
+     * wrapper of the previous version instead of creating them again. Lists and indexes are all built again.
+     * @param previous wrapper of the previous version, not to be used anymore as its alias wrappers get new indexes
+     * @param reusedSpecies ids of the species whose element and aliases are the same in both versions
+     * @param reusedReactions ids of the reactions whose element is the same in both versions, and whose aliases all
+     *                        belong to reused species
+     */
+    public static ModelWrapper create(Sbml sbmlDoc, boolean parallel, ModelWrapper previous,
+                                      Set<String> reusedSpecies, Set<String> reusedReactions) {
         ModelWrapper modelW = new ModelWrapper();
+        modelW.parallel = parallel;
         modelW.model = sbmlDoc.getModel();
         modelW.addBasicLists();
         modelW.addBasicMaps();
-        modelW.addWrapperListsAndMaps();
+        modelW.addWrapperListsAndMaps(previous, reusedSpecies);
         modelW.addComplexNestingIndex();
-        modelW.addReactionStructures();
+        modelW.addReactionStructures(previous, reusedReactions);
         return modelW;
     }
 
@@ -102,7 +145,13 @@ public class ModelWrapper {
         this.listOfRna = model.getAnnotation().getExtension().getListOfRNAs().getRNA();
         this.listOfAntisenseRna = model.getAnnotation().getExtension().getListOfAntisenseRNAs().getAntisenseRNA();
         this.listOfGene = model.getAnnotation().getExtension().getListOfGenes().getGene();
-        this.listOfLayers = model.getAnnotation().getExtension().getListOfLayers().getLayer();
+        // listOfLayers isn't written by SBGNML2CD when there is no text to put in it
+        if(model.getAnnotation().getExtension().getListOfLayers() != null) {
+            this.listOfLayers = model.getAnnotation().getExtension().getListOfLayers().getLayer();
+        }
+        else {
+            this.listOfLayers = new ArrayList<>();
+        }
 
         this.listofTextWrapper = new ArrayList<>();
         for(Layer layer: this.listOfLayers) {
@@ -119,78 +168,89 @@ public class ModelWrapper {
      * index celldesigner api elements through maps
      */
     private void addBasicMaps() {
-        this.mapOfSpecies = new HashMap<>();
-        for(Species species: this.listOfSpecies) {
-            this.mapOfSpecies.put(species.getId(), species);
-        }
-
-        this.mapOfIncludedSpecies = new HashMap<>();
-        for(org.sbml._2001.ns.celldesigner.Species species: this.listOfIncludedSpecies) {
-            this.mapOfIncludedSpecies.put(species.getId(), species);
-        }
-
-        this.mapOfProtein = new HashMap<>();
+        this.mapOfSpecies = index(this.listOfSpecies, Species::getId);
+        this.mapOfIncludedSpecies = index(this.listOfIncludedSpecies, org.sbml._2001.ns.celldesigner.Species::getId);
+        this.mapOfProtein = index(this.listOfProtein, Protein::getId);
+        this.mapOfRna = index(this.listOfRna, RNA::getId);
+        this.mapOfAntisenseRna = index(this.listOfAntisenseRna, AntisenseRNA::getId);
+        this.mapOfGene = index(this.listOfGene, Gene::getId);
+
+        // reference notes are shared by all the species of a reference, DOM elements must not be read concurrently
+        this.mapOfReferenceNotes = newHashMap(this.listOfProtein.size() + this.listOfRna.size()
+                + this.listOfAntisenseRna.size() + this.listOfGene.size());
         for(Protein pr: this.listOfProtein) {
-            this.mapOfProtein.put(pr.getId(), pr);
+            this.mapOfReferenceNotes.put(pr.getId(), Utils.getNotes(pr.getNotes()));
         }
-
-        this.mapOfRna = new HashMap<>();
         for(RNA pr: this.listOfRna) {
-            this.mapOfRna.put(pr.getId(), pr);
+            this.mapOfReferenceNotes.put(pr.getId(), Utils.getNotes(pr.getNotes()));
         }
-
-        this.mapOfAntisenseRna = new HashMap<>();
         for(AntisenseRNA pr: this.listOfAntisenseRna) {
-            this.mapOfAntisenseRna.put(pr.getId(), pr);
+            this.mapOfReferenceNotes.put(pr.getId(), Utils.getNotes(pr.getNotes()));
         }
-
-        this.mapOfGene = new HashMap<>();
         for(Gene pr: this.listOfGene) {
-            this.mapOfGene.put(pr.getId(), pr);
+            this.mapOfReferenceNotes.put(pr.getId(), Utils.getNotes(pr.getNotes()));
         }
 
 
-        this.compartment2aliasMap = new HashMap<>();
-        for(CompartmentAlias alias: this.listOfCompartmentAliases) {
-            if(!this.compartment2aliasMap.containsKey(alias.getCompartment())) {
-                this.compartment2aliasMap.put(alias.getCompartment(), new ArrayList<>());
-            }
-            this.compartment2aliasMap.get(alias.getCompartment()).add(alias);
-        }
+        this.compartment2aliasMap = group(this.listOfCompartmentAliases, CompartmentAlias::getCompartment);
+        this.species2aliasMap = group(this.listOfSpeciesAliases, SpeciesAlias::getSpecies);
+        this.complexSpecies2aliasMap = group(this.listOfComplexSpeciesAliases, ComplexSpeciesAlias::getSpecies);
+    }
 
-        this.species2aliasMap = new HashMap<>();
-        for(SpeciesAlias alias: this.listOfSpeciesAliases) {
-            if(!this.species2aliasMap.containsKey(alias.getSpecies())) {
-                this.species2aliasMap.put(alias.getSpecies(), new ArrayList<>());
-            }
-            this.species2aliasMap.get(alias.getSpecies()).add(alias);
+    /**
+     * @return a map holding the given number of entries without being resized
+     */
+    private static <K, V> HashMap<K, V> newHashMap(int expectedSize) {
+        return new HashMap<>((int) (expectedSize / 0.75f) + 1);
+    }
+
+    /**
+     * @return the elements by id, the last one winning if ids are not unique
+     */
+    private static <T> HashMap<String, T> index(List<T> elements, Function<T, String> id) {
+        HashMap<String, T> map = newHashMap(elements.size());
+        for(T element: elements) {
+            map.put(id.apply(element), element);
         }
+        return map;
+    }
 
-        this.complexSpecies2aliasMap = new HashMap<>();
-        for(ComplexSpeciesAlias alias: this.listOfComplexSpeciesAliases) {
-            if(!this.complexSpecies2aliasMap.containsKey(alias.getSpecies())) {
-                this.complexSpecies2aliasMap.put(alias.getSpecies(), new ArrayList<>());
-            }
-            this.complexSpecies2aliasMap.get(alias.getSpecies()).add(alias);
+    /**
+     * @return the elements by key, in the order of the list
+     */
+    private static <T> HashMap<String, List<T>> group(List<? extends T> elements, Function<T, String> key) {
+        HashMap<String, List<T>> map = newHashMap(elements.size());
+        for(T element: elements) {
+            // most keys have a single element
+            map.computeIfAbsent(key.apply(element), k -> new ArrayList<>(1)).add(element);
         }
+        return map;
     }
 
     /**
      * create, store and index wrappers for celldesigner api elements
      */
-    private void addWrapperListsAndMaps() {
-        this.listOfSpeciesWrapper = new ArrayList<>();
-        this.listofAliasWrapper = new ArrayList<>();
-        this.mapOfSpeciesWrapper = new HashMap<>();
-        this.mapOfAliasWrapper = new HashMap<>();
+    private void addWrapperListsAndMaps(ModelWrapper previous, Set<String> reusedSpecies) {
+        int speciesCount = this.listOfSpecies.size() + this.listOfIncludedSpecies.size();
+        int aliasCount = this.listOfSpeciesAliases.size() + this.listOfComplexSpeciesAliases.size();
+        this.listOfSpeciesWrapper = new ArrayList<>(speciesCount);
+        this.listofAliasWrapper = new ArrayList<>(aliasCount);
+        this.mapOfSpeciesWrapper = newHashMap(speciesCount);
+        this.mapOfAliasWrapper = newHashMap(aliasCount);
 
         logger.info("Wrapping "+this.listOfSpecies.size()+" species");
-        for(Species species: this.listOfSpecies) {
+        List<SpeciesWrapper> speciesWrappers = wrapAll(this.listOfSpecies, species -> {
+            if(reusedSpecies.contains(species.getId())) {
+                return previous.getSpeciesWrapperFor(species.getId());
+            }
             logger.debug("Parse species: "+species.getId());
-            SpeciesWrapper speciesW = new SpeciesWrapper(species, this);
+            return new SpeciesWrapper(species, this);
+        });
+        for(SpeciesWrapper speciesW: speciesWrappers) {
             this.listOfSpeciesWrapper.add(speciesW);
             this.mapOfSpeciesWrapper.put(speciesW.getId(), speciesW);
             for(AliasWrapper aliasW : speciesW.getAliases()) {
+                aliasW.setIndex(this.listofAliasWrapper.size());
                 this.listofAliasWrapper.add(aliasW);
                 this.mapOfAliasWrapper.put(aliasW.getId(), aliasW);
             }
@@ -198,12 +258,18 @@ public class ModelWrapper {
         logger.info(this.listofAliasWrapper.size()+" alias wrapper added");
 
         logger.info("Wrapping "+this.listOfIncludedSpecies.size()+" included species");
-        for(org.sbml._2001.ns.celldesigner.Species species: this.listOfIncludedSpecies) {
+        List<SpeciesWrapper> includedSpeciesWrappers = wrapAll(this.listOfIncludedSpecies, species -> {
+            if(reusedSpecies.contains(species.getId())) {
+                return previous.getSpeciesWrapperFor(species.getId());
+            }
             logger.debug("Parse included species: "+species.getId());
-            SpeciesWrapper speciesW = new SpeciesWrapper(species, this);
+            return new SpeciesWrapper(species, this);
+        });
+        for(SpeciesWrapper speciesW: includedSpeciesWrappers) {
             this.listOfSpeciesWrapper.add(speciesW);
             this.mapOfSpeciesWrapper.put(speciesW.getId(), speciesW);
             for(AliasWrapper aliasW : speciesW.getAliases()) {
+                aliasW.setIndex(this.listofAliasWrapper.size());
                 this.listofAliasWrapper.add(aliasW);
                 this.mapOfAliasWrapper.put(aliasW.getId(), aliasW);
             }
@@ -214,50 +280,57 @@ public class ModelWrapper {
     }
 
     private void addComplexNestingIndex() {
-        // complex nesting tree
-        this.complexSpeciesAlias2speciesAliasWrapper = new HashMap<>();
-        //this.globalAliasMap = new HashMap<>();
+        // complex nesting tree, complex aliases first then species aliases
+        List<AliasWrapper> nestedAliases =
+                new ArrayList<>(this.listOfComplexSpeciesAliases.size() + this.listOfSpeciesAliases.size());
         for(ComplexSpeciesAlias complexAlias: this.listOfComplexSpeciesAliases) {
-            //logger.info("Fetching wrapper for complex alias: "+complexAlias.getId());
-            AliasWrapper aliasW = this.getAliasWrapperFor(complexAlias.getId());
-            if(aliasW.getComplexAlias() != null) {
-                if(!this.complexSpeciesAlias2speciesAliasWrapper.containsKey(aliasW.getComplexAlias())) {
-                    this.complexSpeciesAlias2speciesAliasWrapper.put(aliasW.getComplexAlias(), new ArrayList<>());
-                }
-                this.complexSpeciesAlias2speciesAliasWrapper.get(aliasW.getComplexAlias()).add(aliasW);
-            }
-            //globalAliasMap.put(complexAlias.getId(), aliasW);
+            nestedAliases.add(this.getAliasWrapperFor(complexAlias.getId()));
         }
         for(SpeciesAlias alias: this.listOfSpeciesAliases) {
-            //logger.info("Fetching wrapper for alias: "+alias.getId());
-            AliasWrapper aliasW = this.getAliasWrapperFor(alias.getId());
-            if(aliasW.getComplexAlias() != null) {
-                if(!this.complexSpeciesAlias2speciesAliasWrapper.containsKey(aliasW.getComplexAlias())) {
-                    this.complexSpeciesAlias2speciesAliasWrapper.put(aliasW.getComplexAlias(), new ArrayList<>());
-                }
-                this.complexSpeciesAlias2speciesAliasWrapper.get(aliasW.getComplexAlias()).add(aliasW);
-            }
-            //globalAliasMap.put(alias.getId(), aliasW);
+            nestedAliases.add(this.getAliasWrapperFor(alias.getId()));
         }
+        this.complexSpeciesAlias2speciesAliasWrapper = Adjacency.of(this.listofAliasWrapper.size(), nestedAliases,
+                aliasW -> aliasW.getComplexAlias() == null ? -1 : indexOf(aliasW.getComplexAlias()));
     }
 
-    private void addReactionStructures() {
-        this.listOfReactionWrapper = new ArrayList<>();
-        this.mapOfReactionWrapper = new HashMap<>();
-        this.alias2reactantWrapper = new HashMap<>();
-
-        for(Reaction reaction: this.listOfReactions) {
+    private void addReactionStructures(ModelWrapper previous, Set<String> reusedReactions) {
+        List<ReactionWrapper> reactionWrappers = wrapAll(this.listOfReactions, reaction -> {
+            if(reusedReactions.contains(reaction.getId())) {
+                return previous.getReactionWrapperFor(reaction.getId());
+            }
             logger.info("Parse reaction "+reaction.getId());
-            ReactionWrapper reactionW = new ReactionWrapper(reaction, this);
+            return new ReactionWrapper(reaction, this);
+        });
+
+        this.listOfReactionWrapper = new ArrayList<>(reactionWrappers.size());
+        this.mapOfReactionWrapper = newHashMap(reactionWrappers.size());
+        List<ReactantWrapper> reactants = new ArrayList<>();
+        for(ReactionWrapper reactionW: reactionWrappers) {
             this.listOfReactionWrapper.add(reactionW);
             this.mapOfReactionWrapper.put(reactionW.getId(), reactionW);
-            for(ReactantWrapper reactantW: reactionW.getReactantList()) {
-                if(!this.alias2reactantWrapper.containsKey(reactantW.getAliasW().getId())) {
-                    this.alias2reactantWrapper.put(reactantW.getAliasW().getId(), new ArrayList<>());
-                }
-                this.alias2reactantWrapper.get(reactantW.getAliasW().getId()).add(reactantW);
-            }
+            reactants.addAll(reactionW.getReactantList());
+        }
+        this.alias2reactantWrapper = Adjacency.of(this.listofAliasWrapper.size(), reactants,
+                reactantW -> indexOf(reactantW.getAliasW().getId()));
+    }
+
+    /**
+     * @return the index of the wrapper of the alias, or -1 if there is none
+     */
+    private int indexOf(String aliasId) {
+        AliasWrapper aliasW = this.getAliasWrapperFor(aliasId);
+        return aliasW == null ? -1 : aliasW.getIndex();
+    }
+
+    /**
+     * @return the wrappers of the elements, in the same order as the elements
+     */
+    private <T, W> List<W> wrapAll(List<T> elements, Function<T, W> wrapper) {
+        if(!this.parallel || elements.size() < PARALLEL_THRESHOLD) {
+            return elements.stream().map(wrapper).collect(Collectors.toList());
         }
+        this.wrappedInParallel = true;
+        return elements.parallelStream().map(wrapper).collect(Collectors.toList());
     }
 
     public Model getModel() {
@@ -332,6 +405,25 @@ public class ModelWrapper {
         return this.mapOfGene.get(id);
     }
 
+    /**
+     * @param referenceId id of a protein, RNA, antisense RNA or gene
+     * @return the notes of the reference, or null
+     */
+    public Element getReferenceNotes(String referenceId) {
+        return this.mapOfReferenceNotes.get(referenceId);
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * @return true if some wrappers were actually created on other threads, the map being big enough
+     */
+    public boolean isWrappedInParallel() {
+        return wrappedInParallel;
+    }
+
     public List<CompartmentAlias> getCompartmentAliasFor(String compartmentId) {
         return this.compartment2aliasMap.get(compartmentId);
     }
@@ -344,8 +436,11 @@ public class ModelWrapper {
         return this.complexSpecies2aliasMap.get(speciesId);
     }
 
+    /**
+     * @return the aliases directly included in the complex alias, or null if there is none
+     */
     public List<AliasWrapper> getIncludedAliasWrapperFor(String complexAliasId) {
-        return this.complexSpeciesAlias2speciesAliasWrapper.get(complexAliasId);
+        return this.complexSpeciesAlias2speciesAliasWrapper.get(indexOf(complexAliasId));
     }
 
     public AliasWrapper getAliasWrapperFor(String aliasId) {
@@ -373,7 +468,7 @@ public class ModelWrapper {
     }
 
     public List<ReactantWrapper> getReactionWrappersForAlias(String aliasId) {
-        return this.alias2reactantWrapper.get(aliasId);
+        return this.alias2reactantWrapper.get(indexOf(aliasId));
     }
 
     public List<Layer> getListOfLayers() {
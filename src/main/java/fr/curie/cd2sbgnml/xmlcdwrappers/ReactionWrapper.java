@@ -1,5 +1,6 @@
 package fr.curie.cd2sbgnml.xmlcdwrappers;
 
+import fr.curie.cd2sbgnml.graphics.Polyline;
 import org.sbml._2001.ns.celldesigner.*;
 import org.sbml._2001.ns.celldesigner.ReactionAnnotationType.Extension;
 import org.sbml.sbml.level2.version4.*;
@@ -176,13 +177,22 @@ public class ReactionWrapper implements INotesFeature, IAnnotationsFeature {
     }
 
     public static List<Point2D.Float> parseEditPointsString(List<String> editPointString) {
-        List<Point2D.Float> editPoints = new ArrayList<>();
-        editPointString.stream().
-                forEach(e -> {
-                    String[] tmp = e.split(",");
-                    editPoints.add(new Point2D.Float(Float.parseFloat(tmp[0]), Float.parseFloat(tmp[1])));
-                });
-        return editPoints;
+        return new ArrayList<>(parseEditPoints(editPointString).asList());
+    }
+
+    /**
+     * Parse strings of the form "x,y" to a polyline, without building intermediate points.
+     */
+    public static Polyline parseEditPoints(List<String> editPointString) {
+        Polyline.Builder editPoints = Polyline.builder(editPointString.size());
+        for(String e: editPointString) {
+            int comma = e.indexOf(',');
+            int end = e.indexOf(',', comma + 1);
+            editPoints.add(
+                    Float.parseFloat(e.substring(0, comma)),
+                    Float.parseFloat(e.substring(comma + 1, end == -1 ? e.length() : end)));
+        }
+        return editPoints.build();
     }
 
     /**
@@ -200,34 +210,27 @@ public class ReactionWrapper implements INotesFeature, IAnnotationsFeature {
     }
 
     public List<Point2D.Float> getEditPointsForBranch(int b) {
-        List<Point2D.Float> editPoints = this.getLineWrapper().getEditPoints();
+        return new ArrayList<>(this.getEditPolylineForBranch(b).asList());
+    }
+
+    public Polyline getEditPolylineForBranch(int b) {
+        Polyline editPoints = this.getLineWrapper().getEditPolyline();
         int num0 = this.getLineWrapper().getNum0();
         int num1 = this.getLineWrapper().getNum1();
         int num2 = this.getLineWrapper().getNum2();
 
-        List<Point2D.Float> finalEditPoints = new ArrayList<>();
         switch(b) {
             case 0:
-                for(int i=0; i < num0; i++) {
-                    finalEditPoints.add(editPoints.get(i));
-                }
-                break;
+                return editPoints.subPolyline(0, num0);
             case 1:
-                for(int i=num0; i < num0 + num1; i++) {
-                    finalEditPoints.add(editPoints.get(i));
-                }
-                break;
+                return editPoints.subPolyline(num0, num0 + num1);
             case 2:
                 // don't go to the end of edit points list, last one may be
                 // for association/dissociation point or for logic gate
-                for(int i=num0 + num1; i < num0 + num1 + num2; i++) {
-                    finalEditPoints.add(editPoints.get(i));
-                }
-                break;
+                return editPoints.subPolyline(num0 + num1, num0 + num1 + num2);
             default:
                 throw new RuntimeException("Value: "+b+" not allowed for branch index. Authorized values: 0, 1, 2.");
         }
-        return finalEditPoints;
     }
 
     /**
@@ -0,0 +1,207 @@
+package fr.curie.cd2sbgnml.xmlcdwrappers;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * Translation between the special characters encoding of CellDesigner, like _alpha_ or _br_, and UTF8 chars.
+ *
+ * Each string is scanned once. Encoded tokens are found through a table indexed by the character following their
+ * leading underscore, and characters to encode through a table indexed by the character itself. Tokens are matched
+ * from left to right, and a decoded character is never decoded again.
+ *
+ * The same names come back often in a map, so the last translations are kept in a bounded cache.
+ */
+class SpecialCharCodec {
+
+    /**
+     * Maximum number of translations kept, in each direction.
+     */
+    static final int CACHE_SIZE = 10000;
+
+    private static final String[][] SPECIAL_CHARS = {
+            {"_br_", "\n"},
+            {"_plus_", "+"},
+            {"_minus_", "-"},
+            {"_slash_", "/"},
+            {"_underscore_", "_"},
+            {"_space_", " "}
+    };
+
+    private static final String[][] GREEK_LETTERS = {
+            {"_alpha_", "α"}, {"_Alpha_", "Α"},
+            {"_beta_", "β"}, {"_Beta_", "Β"},
+            {"_gamma_", "γ"}, {"_Gamma_", "Γ"},
+            {"_delta_", "δ"}, {"_Delta_", "Δ"},
+            {"_epsilon_", "ε"}, {"_Epsilon_", "Ε"},
+            {"_zeta_", "ζ"}, {"_Zeta_", "Ζ"},
+            {"_eta_", "η"}, {"_Eta_", "Η"},
+            {"_theta_", "θ"}, {"_Theta_", "Θ"},
+            {"_iota_", "ι"}, {"_Iota_", "Ι"},
+            {"_kappa_", "κ"}, {"_Kappa_", "Κ"},
+            {"_lambda_", "λ"}, {"_Lambda_", "Λ"},
+            {"_mu_", "μ"}, {"_Mu_", "Μ"},
+            {"_nu_", "ν"}, {"_Nu_", "Ν"},
+            {"_xi_", "ξ"}, {"_Xi_", "Ξ"},
+            {"_omicron_", "ο"}, {"_Omicron_", "Ο"},
+            {"_pi_", "π"}, {"_Pi_", "Π"},
+            {"_rho_", "ρ"}, {"_Rho_", "Ρ"},
+            {"_sigma_", "σ"}, {"_Sigma_", "Σ"},
+            {"_tau_", "τ"}, {"_Tau_", "Τ"},
+            {"_upsilon_", "υ"}, {"_Upsilon_", "Υ"},
+            {"_phi_", "φ"}, {"_Phi_", "Φ"},
+            {"_chi_", "χ"}, {"_Chi_", "Χ"},
+            {"_psi_", "ψ"}, {"_Psi_", "Ψ"},
+            {"_omega_", "ω"}, {"_Omega_", "Ω"}
+    };
+
+    // get rid of super and subscript, for lack of management possibility
+    private static final String[][] REMOVED = {
+            {"_super_", ""},
+            {"_endsuper_", ""},
+            {"_sub_", ""},
+            {"_endsub_", ""}
+    };
+
+    /**
+     * Tokens, and their decoded value, by the character following their leading underscore.
+     */
+    private static final String[][][] decodingTable = new String[128][][];
+
+    /**
+     * Encoded token by character. Underscores are left as they are.
+     */
+    private static final String[] encodingTable;
+
+    /**
+     * Literal line breaks, as found in some SBGN-ML labels
+     */
+    private static final String ENCODED_LINE_BREAK = "&#10;";
+
+    private static final ConcurrentHashMap<String, String> decodingCache = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, String> encodingCache = new ConcurrentHashMap<>();
+
+    static {
+        for(String[][] tokens: new String[][][] {SPECIAL_CHARS, GREEK_LETTERS, REMOVED}) {
+            for(String[] token: tokens) {
+                char first = token[0].charAt(1);
+                String[][] candidates = decodingTable[first];
+                String[][] newCandidates = new String[candidates == null ? 1 : candidates.length + 1][];
+                if(candidates != null) {
+                    System.arraycopy(candidates, 0, newCandidates, 0, candidates.length);
+                }
+                newCandidates[newCandidates.length - 1] = token;
+                decodingTable[first] = newCandidates;
+            }
+        }
+
+        char maxChar = 0;
+        for(String[][] tokens: new String[][][] {SPECIAL_CHARS, GREEK_LETTERS}) {
+            for(String[] token: tokens) {
+                maxChar = (char) Math.max(maxChar, token[1].charAt(0));
+            }
+        }
+        encodingTable = new String[maxChar + 1];
+        for(String[][] tokens: new String[][][] {SPECIAL_CHARS, GREEK_LETTERS}) {
+            for(String[] token: tokens) {
+                if(!token[1].equals("_")) {
+                    encodingTable[token[1].charAt(0)] = token[0];
+                }
+            }
+        }
+    }
+
+    private SpecialCharCodec() {
+    }
+
+    static String decode(String s) {
+        // no token without underscore
+        if(s.indexOf('_') == -1) {
+            return s;
+        }
+        return cached(decodingCache, s, SpecialCharCodec::decodeTokens);
+    }
+
+    static String encode(String s) {
+        if(!needsEncoding(s)) {
+            return s;
+        }
+        return cached(encodingCache, s, SpecialCharCodec::encodeChars);
+    }
+
+    private static String cached(ConcurrentHashMap<String, String> cache, String s, UnaryOperator<String> translation) {
+        String result = cache.get(s);
+        if(result == null) {
+            result = translation.apply(s);
+            if(cache.size() >= CACHE_SIZE) {
+                cache.clear();
+            }
+            cache.put(s, result);
+        }
+        return result;
+    }
+
+    private static String decodeTokens(String s) {
+        StringBuilder sb = new StringBuilder(s.length());
+        int copied = 0;
+        int i = s.indexOf('_');
+        while(i != -1 && i < s.length() - 1) {
+            String[] token = tokenAt(s, i);
+            if(token != null) {
+                sb.append(s, copied, i).append(token[1]);
+                copied = i + token[0].length();
+                i = s.indexOf('_', copied);
+            }
+            else {
+                i = s.indexOf('_', i + 1);
+            }
+        }
+        return sb.append(s, copied, s.length()).toString();
+    }
+
+    /**
+     * @return the token starting at index i with its decoded value, or null
+     */
+    private static String[] tokenAt(String s, int i) {
+        char next = s.charAt(i + 1);
+        if(next >= decodingTable.length || decodingTable[next] == null) {
+            return null;
+        }
+        // tokens have no underscore inside, so at most one of them can match
+        for(String[] token: decodingTable[next]) {
+            if(s.startsWith(token[0], i)) {
+                return token;
+            }
+        }
+        return null;
+    }
+
+    private static boolean needsEncoding(String s) {
+        for(int i=0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if((c < encodingTable.length && encodingTable[c] != null)
+                    || (c == '&' && s.startsWith(ENCODED_LINE_BREAK, i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String encodeChars(String s) {
+        StringBuilder sb = new StringBuilder(s.length() + 16);
+        for(int i=0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if(c < encodingTable.length && encodingTable[c] != null) {
+                sb.append(encodingTable[c]);
+            }
+            else if(c == '&' && s.startsWith(ENCODED_LINE_BREAK, i)) {
+                sb.append("_br_");
+                i += ENCODED_LINE_BREAK.length() - 1;
+            }
+            else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -197,7 +197,7 @@ public class SpeciesWrapper implements INotesFeature, IAnnotationsFeature {
             this.type = getTypeFromString(prot.getType());
 
             // manage protein reference notes
-            this.referenceNotes = Utils.getNotes(prot.getNotes());
+            this.referenceNotes = modelW.getReferenceNotes(protId);
         }
         else if(identity.getRnaReference() != null) {
             String rnaId = identity.getRnaReference();
@@ -209,7 +209,7 @@ public class SpeciesWrapper implements INotesFeature, IAnnotationsFeature {
             }
 
             // manage reference notes
-            this.referenceNotes = Utils.getNotes(rna.getNotes());
+            this.referenceNotes = modelW.getReferenceNotes(rnaId);
 
         }
         else if(identity.getAntisensernaReference() != null) {
@@ -223,7 +223,7 @@ public class SpeciesWrapper implements INotesFeature, IAnnotationsFeature {
             }
 
             // manage reference notes
-            this.referenceNotes = Utils.getNotes(asrna.getNotes());
+            this.referenceNotes = modelW.getReferenceNotes(asrnaId);
 
         }
         else if(identity.getGeneReference() != null) {
@@ -240,7 +240,7 @@ public class SpeciesWrapper implements INotesFeature, IAnnotationsFeature {
 
 
             // manage reference notes
-            this.referenceNotes = Utils.getNotes(gene.getNotes());
+            this.referenceNotes = modelW.getReferenceNotes(geneId);
         }
 
 
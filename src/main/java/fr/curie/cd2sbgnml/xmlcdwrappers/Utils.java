@@ -1,13 +1,15 @@
 package fr.curie.cd2sbgnml.xmlcdwrappers;
 
 import com.sun.xml.bind.marshaller.NamespacePrefixMapper;
+import fr.curie.cd2sbgnml.io.XmlFragment;
 import org.sbml._2001.ns.celldesigner.Bounds;
 import org.sbml._2001.ns.celldesigner.Notes;
 import org.sbml.sbml.level2.version4.SBase;
 import org.w3c.dom.Element;
 
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.awt.geom.Rectangle2D;
-import java.math.BigDecimal;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -21,7 +23,7 @@ public class Utils {
      */
     public static Element getNotes(List<Element> xml) {
         for(Element e: xml) {
-            if(e.getElementsByTagName("html") != null && !isNoteEmpty(e)) {
+            if(!isNoteEmpty(e)) {
                 return e;
             }
         }
@@ -57,12 +59,12 @@ public class Utils {
             return h1;
         }
 
-        Element body1 = (Element) h1.getElementsByTagName("body").item(0);
-        Element body2 = (Element) h2.getElementsByTagName("body").item(0);
-        Element newElement = (Element) h1.cloneNode(true);
+        // notes kept as fragments are only parsed through copies, and left as text
+        Element body2 = (Element) XmlFragment.copy(h2).getElementsByTagName("body").item(0);
+        Element newElement = XmlFragment.copy(h1);
         Element newBody = (Element) newElement.getElementsByTagName("body").item(0);
         newBody.setTextContent(
-                body1.getTextContent()
+                newBody.getTextContent()
                 + "\n\n----- content merged by Celldesigner to SBGN-ML translation ------\n\n"
                 + body2.getTextContent()
         );
@@ -81,10 +83,20 @@ public class Utils {
      * </html>
      *
      * We don't want them. This function will return true if the <title> and <body> are empty.
+     * Notes that are still {@link XmlFragment}s are read from their text, without being parsed.
      * @param note
      * @return
      */
     public static boolean isNoteEmpty(Element note) {
+        XmlFragment fragment = XmlFragment.of(note);
+        if(fragment != null && !fragment.isParsed()) {
+            try {
+                return isNoteEmpty(fragment.read());
+            } catch (XMLStreamException e) {
+                throw new IllegalStateException("Could not read notes "+fragment.getXml(), e);
+            }
+        }
+
         Element title = (Element) note.getElementsByTagName("title").item(0);
         Element body = (Element) note.getElementsByTagName("body").item(0);
 
@@ -92,82 +104,52 @@ public class Utils {
                 && (body == null || body.getChildNodes().getLength() == 0);
     }
 
+    /**
+     * Same as {@link #isNoteEmpty(Element)}, for the first <title> and <body> elements read from a note
+     */
+    private static boolean isNoteEmpty(XMLStreamReader reader) throws XMLStreamException {
+        Boolean titleEmpty = null;
+        Boolean bodyEmpty = null;
+        String opened = null;
+        try {
+            // the note element itself isn't looked at
+            reader.nextTag();
+            while (reader.hasNext() && (titleEmpty == null || bodyEmpty == null)) {
+                int event = reader.next();
+                if(opened != null) {
+                    // an element has no child nodes when its end tag comes right after its start tag
+                    boolean empty = event == XMLStreamReader.END_ELEMENT;
+                    if(opened.equals("title")) {
+                        titleEmpty = empty;
+                    }
+                    else {
+                        bodyEmpty = empty;
+                    }
+                    opened = null;
+                }
+                if(event == XMLStreamReader.START_ELEMENT
+                        && (reader.getPrefix() == null || reader.getPrefix().isEmpty())) {
+                    String name = reader.getLocalName();
+                    if((name.equals("title") && titleEmpty == null) || (name.equals("body") && bodyEmpty == null)) {
+                        opened = name;
+                    }
+                }
+            }
+        } finally {
+            reader.close();
+        }
+
+        return (titleEmpty == null || titleEmpty) && (bodyEmpty == null || bodyEmpty);
+    }
+
     /**
      * Resolve some special encoded strings in CellDesigner as UTF8 chars.
+     * Super and subscript markers are removed.
      * @param s
      * @return
      */
     public static String interpretToUTF8(String s) {
-        // special chars
-        String newString = s.replaceAll("_br_", "\n")
-                .replaceAll("_plus_", "+")
-                .replaceAll("_minus_", "-")
-                .replaceAll("_slash_", "/")
-                .replaceAll("_underscore_", "_")
-                .replaceAll("_space_", " ");
-
-        // greek small letters
-        newString = newString
-                .replaceAll("_alpha_", "α")
-                .replaceAll("_beta_", "β")
-                .replaceAll("_gamma_", "γ")
-                .replaceAll("_delta_", "δ")
-                .replaceAll("_epsilon_", "ε")
-                .replaceAll("_zeta_", "ζ")
-                .replaceAll("_eta_", "η")
-                .replaceAll("_theta_", "θ")
-                .replaceAll("_iota_", "ι")
-                .replaceAll("_kappa_", "κ")
-                .replaceAll("_lambda_", "λ")
-                .replaceAll("_mu_", "μ")
-                .replaceAll("_nu_", "ν")
-                .replaceAll("_xi_", "ξ")
-                .replaceAll("_omicron_", "ο")
-                .replaceAll("_pi_", "π")
-                .replaceAll("_rho_", "ρ")
-                .replaceAll("_sigma_", "σ")
-                .replaceAll("_tau_", "τ")
-                .replaceAll("_upsilon_", "υ")
-                .replaceAll("_phi_", "φ")
-                .replaceAll("_chi_", "χ")
-                .replaceAll("_psi_", "ψ")
-                .replaceAll("_omega_", "ω");
-
-        // greek capital letters
-        newString = newString
-                .replaceAll("_Alpha_", "Α")
-                .replaceAll("_Beta_", "Β")
-                .replaceAll("_Gamma_", "Γ")
-                .replaceAll("_Delta_", "Δ")
-                .replaceAll("_Epsilon_", "Ε")
-                .replaceAll("_Zeta_", "Ζ")
-                .replaceAll("_Eta_", "Η")
-                .replaceAll("_Theta_", "Θ")
-                .replaceAll("_Iota_", "Ι")
-                .replaceAll("_Kappa_", "Κ")
-                .replaceAll("_Lambda_", "Λ")
-                .replaceAll("_Mu_", "Μ")
-                .replaceAll("_Nu_", "Ν")
-                .replaceAll("_Xi_", "Ξ")
-                .replaceAll("_Omicron_", "Ο")
-                .replaceAll("_Pi_", "Π")
-                .replaceAll("_Rho_", "Ρ")
-                .replaceAll("_Sigma_", "Σ")
-                .replaceAll("_Tau_", "Τ")
-                .replaceAll("_Upsilon_", "Υ")
-                .replaceAll("_Phi_", "Φ")
-                .replaceAll("_Chi_", "Χ")
-                .replaceAll("_Psi_", "Ψ")
-                .replaceAll("_Omega_", "Ω");
-
-        // get rid of super and subscript, for lack of management possibility
-        newString = newString
-                .replaceAll("_super_","")
-                .replaceAll("_endsuper_","")
-                .replaceAll("_sub_","")
-                .replaceAll("_endsub_","");
-
-        return newString;
+        return SpecialCharCodec.decode(s);
     }
 
     /**
@@ -176,72 +158,7 @@ public class Utils {
      * @return
      */
     public static String UTF8charsToCD(String s) {
-        // special chars
-        String newString =
-                s.replaceAll("\\n", "_br_") // actual line break
-                .replaceAll("\n", "_br_") // literal \n
-                .replaceAll("&#10;", "_br_") // encoded line break
-                .replaceAll("\\+", "_plus_")
-                .replaceAll("-", "_minus_")
-                .replaceAll("/", "_slash_")
-                //.replaceAll("_", "_underscore_")
-                .replaceAll(" ", "_space_");
-
-        // greek small letters
-        newString = newString
-                .replaceAll("α","_alpha_")
-                .replaceAll("β","_beta_")
-                .replaceAll("γ","_gamma_")
-                .replaceAll("δ","_delta_")
-                .replaceAll("ε","_epsilon_")
-                .replaceAll("ζ","_zeta_")
-                .replaceAll("η","_eta_")
-                .replaceAll("θ","_theta_")
-                .replaceAll("ι","_iota_")
-                .replaceAll("κ","_kappa_")
-                .replaceAll("λ","_lambda_")
-                .replaceAll("μ","_mu_")
-                .replaceAll("ν","_nu_")
-                .replaceAll("ξ","_xi_")
-                .replaceAll("ο","_omicron_")
-                .replaceAll("π","_pi_")
-                .replaceAll("ρ","_rho_")
-                .replaceAll("σ","_sigma_")
-                .replaceAll("τ","_tau_")
-                .replaceAll("υ","_upsilon_")
-                .replaceAll("φ","_phi_")
-                .replaceAll("χ","_chi_")
-                .replaceAll("ψ","_psi_")
-                .replaceAll("ω","_omega_");
-
-        // greek capital letters
-        newString = newString
-                .replaceAll("Α", "_Alpha_")
-                .replaceAll("Β", "_Beta_")
-                .replaceAll("Γ", "_Gamma_")
-                .replaceAll("Δ", "_Delta_")
-                .replaceAll("Ε", "_Epsilon_")
-                .replaceAll("Ζ", "_Zeta_")
-                .replaceAll("Η", "_Eta_")
-                .replaceAll("Θ", "_Theta_")
-                .replaceAll("Ι", "_Iota_")
-                .replaceAll("Κ", "_Kappa_")
-                .replaceAll("Λ", "_Lambda_")
-                .replaceAll("Μ", "_Mu_")
-                .replaceAll("Ν", "_Nu_")
-                .replaceAll("Ξ", "_Xi_")
-                .replaceAll("Ο", "_Omicron_")
-                .replaceAll("Π", "_Pi_")
-                .replaceAll("Ρ", "_Rho_")
-                .replaceAll("Σ", "_Sigma_")
-                .replaceAll("Τ", "_Tau_")
-                .replaceAll("Υ", "_Upsilon_")
-                .replaceAll("Φ", "_Phi_")
-                .replaceAll("Χ", "_Chi_")
-                .replaceAll("Ψ", "_Psi_")
-                .replaceAll("Ω", "_Omega_");
-
-        return newString;
+        return SpecialCharCodec.encode(s);
     }
 
     /**
@@ -296,10 +213,10 @@ public class Utils {
      */
     public static Bounds rect2Bounds(Rectangle2D r) {
         Bounds b = new Bounds();
-        b.setX(BigDecimal.valueOf(r.getX()));
-        b.setY(BigDecimal.valueOf(r.getY()));
-        b.setW(BigDecimal.valueOf(r.getWidth()));
-        b.setH(BigDecimal.valueOf(r.getHeight()));
+        b.setX(r.getX());
+        b.setY(r.getY());
+        b.setW(r.getWidth());
+        b.setH(r.getHeight());
         return b;
     }
 
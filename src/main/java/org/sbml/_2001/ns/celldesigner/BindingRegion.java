@@ -1,5 +1,5 @@
 //
-// This file was generated by the JavaTM Architecture for XML Binding(JAXB) Reference Implementation, v2.2.4-2 
+// This file was generated by the JavaTM Architecture for XML Binding(JAXB) Reference Implementation, v2.2.8-b130911.1802 
 // See <a href="http://java.sun.com/xml/jaxb">http://java.sun.com/xml/jaxb</a> 
 // Any modifications to this file will be lost upon recompilation of the source schema. 
 //
@@ -7,11 +7,13 @@
 
 package org.sbml._2001.ns.celldesigner;
 
-import java.math.BigDecimal;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlSchemaType;
 import javax.xml.bind.annotation.XmlType;
+import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
+import org.w3._2001.xmlschema.Adapter1;
 
 
 /**
@@ -39,23 +41,27 @@ import javax.xml.bind.annotation.XmlType;
 public class BindingRegion {
 
     @XmlAttribute(name = "angle")
-    protected BigDecimal angle;
+    @XmlJavaTypeAdapter(Adapter1 .class)
+    @XmlSchemaType(name = "decimal")
+    protected Double angle;
     @XmlAttribute(name = "id")
     protected String id;
     @XmlAttribute(name = "name")
     protected String name;
     @XmlAttribute(name = "size")
-    protected BigDecimal size;
+    @XmlJavaTypeAdapter(Adapter1 .class)
+    @XmlSchemaType(name = "decimal")
+    protected Double size;
 
     /**
      * Gets the value of the angle property.
      * 
      * @return
      *     possible object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public BigDecimal getAngle() {
+    public Double getAngle() {
         return angle;
     }
 
@@ -64,10 +70,10 @@ public class BindingRegion {
      * 
      * @param value
      *     allowed object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public void setAngle(BigDecimal value) {
+    public void setAngle(Double value) {
         this.angle = value;
     }
 
@@ -124,10 +130,10 @@ public class BindingRegion {
      * 
      * @return
      *     possible object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public BigDecimal getSize() {
+    public Double getSize() {
         return size;
     }
 
@@ -136,10 +142,10 @@ public class BindingRegion {
      * 
      * @param value
      *     allowed object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public void setSize(BigDecimal value) {
+    public void setSize(Double value) {
         this.size = value;
     }
 
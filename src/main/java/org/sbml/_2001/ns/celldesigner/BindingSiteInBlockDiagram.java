@@ -1,5 +1,5 @@
 //
-// This file was generated by the JavaTM Architecture for XML Binding(JAXB) Reference Implementation, v2.2.4-2 
+// This file was generated by the JavaTM Architecture for XML Binding(JAXB) Reference Implementation, v2.2.8-b130911.1802 
 // See <a href="http://java.sun.com/xml/jaxb">http://java.sun.com/xml/jaxb</a> 
 // Any modifications to this file will be lost upon recompilation of the source schema. 
 //
@@ -7,11 +7,12 @@
 
 package org.sbml._2001.ns.celldesigner;
 
-import java.math.BigDecimal;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlType;
+import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
+import org.w3._2001.xmlschema.Adapter1;
 
 
 /**
@@ -81,13 +82,16 @@ public class BindingSiteInBlockDiagram {
     @XmlAttribute(name = "id", required = true)
     protected short id;
     @XmlAttribute(name = "offsetY", required = true)
-    protected BigDecimal offsetY;
+    @XmlJavaTypeAdapter(Adapter1 .class)
+    protected Double offsetY;
     @XmlAttribute(name = "name", required = true)
     protected String name;
     @XmlAttribute(name = "nameOffsetX", required = true)
-    protected BigDecimal nameOffsetX;
+    @XmlJavaTypeAdapter(Adapter1 .class)
+    protected Double nameOffsetX;
     @XmlAttribute(name = "nameOffsetY", required = true)
-    protected BigDecimal nameOffsetY;
+    @XmlJavaTypeAdapter(Adapter1 .class)
+    protected Double nameOffsetY;
     @XmlAttribute(name = "protein", required = true)
     protected String protein;
 
@@ -112,10 +116,10 @@ public class BindingSiteInBlockDiagram {
      * 
      * @return
      *     possible object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public BigDecimal getOffsetY() {
+    public Double getOffsetY() {
         return offsetY;
     }
 
@@ -124,10 +128,10 @@ public class BindingSiteInBlockDiagram {
      * 
      * @param value
      *     allowed object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public void setOffsetY(BigDecimal value) {
+    public void setOffsetY(Double value) {
         this.offsetY = value;
     }
 
@@ -160,10 +164,10 @@ public class BindingSiteInBlockDiagram {
      * 
      * @return
      *     possible object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public BigDecimal getNameOffsetX() {
+    public Double getNameOffsetX() {
         return nameOffsetX;
     }
 
@@ -172,10 +176,10 @@ public class BindingSiteInBlockDiagram {
      * 
      * @param value
      *     allowed object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public void setNameOffsetX(BigDecimal value) {
+    public void setNameOffsetX(Double value) {
         this.nameOffsetX = value;
     }
 
@@ -184,10 +188,10 @@ public class BindingSiteInBlockDiagram {
      * 
      * @return
      *     possible object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public BigDecimal getNameOffsetY() {
+    public Double getNameOffsetY() {
         return nameOffsetY;
     }
 
@@ -196,10 +200,10 @@ public class BindingSiteInBlockDiagram {
      * 
      * @param value
      *     allowed object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public void setNameOffsetY(BigDecimal value) {
+    public void setNameOffsetY(Double value) {
         this.nameOffsetY = value;
     }
 
@@ -1,5 +1,5 @@
 //
-// This file was generated by the JavaTM Architecture for XML Binding(JAXB) Reference Implementation, v2.2.4-2 
+// This file was generated by the JavaTM Architecture for XML Binding(JAXB) Reference Implementation, v2.2.8-b130911.1802 
 // See <a href="http://java.sun.com/xml/jaxb">http://java.sun.com/xml/jaxb</a> 
 // Any modifications to this file will be lost upon recompilation of the source schema. 
 //
@@ -7,11 +7,12 @@
 
 package org.sbml._2001.ns.celldesigner;
 
-import java.math.BigDecimal;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlType;
+import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
+import org.w3._2001.xmlschema.Adapter1;
 
 
 /**
@@ -85,9 +86,11 @@ public class Block {
     @XmlAttribute(name = "y", required = true)
     protected short y;
     @XmlAttribute(name = "nameOffsetX", required = true)
-    protected BigDecimal nameOffsetX;
+    @XmlJavaTypeAdapter(Adapter1 .class)
+    protected Double nameOffsetX;
     @XmlAttribute(name = "nameOffsetY", required = true)
-    protected BigDecimal nameOffsetY;
+    @XmlJavaTypeAdapter(Adapter1 .class)
+    protected Double nameOffsetY;
 
     /**
      * Gets the value of the width property.
@@ -158,10 +161,10 @@ public class Block {
      * 
      * @return
      *     possible object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public BigDecimal getNameOffsetX() {
+    public Double getNameOffsetX() {
         return nameOffsetX;
     }
 
@@ -170,10 +173,10 @@ public class Block {
      * 
      * @param value
      *     allowed object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public void setNameOffsetX(BigDecimal value) {
+    public void setNameOffsetX(Double value) {
         this.nameOffsetX = value;
     }
 
@@ -182,10 +185,10 @@ public class Block {
      * 
      * @return
      *     possible object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public BigDecimal getNameOffsetY() {
+    public Double getNameOffsetY() {
         return nameOffsetY;
     }
 
@@ -194,10 +197,10 @@ public class Block {
      * 
      * @param value
      *     allowed object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public void setNameOffsetY(BigDecimal value) {
+    public void setNameOffsetY(Double value) {
         this.nameOffsetY = value;
     }
 
@@ -1,5 +1,5 @@
 //
-// This file was generated by the JavaTM Architecture for XML Binding(JAXB) Reference Implementation, v2.2.4-2 
+// This file was generated by the JavaTM Architecture for XML Binding(JAXB) Reference Implementation, v2.2.8-b130911.1802 
 // See <a href="http://java.sun.com/xml/jaxb">http://java.sun.com/xml/jaxb</a> 
 // Any modifications to this file will be lost upon recompilation of the source schema. 
 //
@@ -7,11 +7,12 @@
 
 package org.sbml._2001.ns.celldesigner;
 
-import java.math.BigDecimal;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlType;
+import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
+import org.w3._2001.xmlschema.Adapter1;
 
 
 /**
@@ -63,23 +64,27 @@ import javax.xml.bind.annotation.XmlType;
 public class Bounds {
 
     @XmlAttribute(name = "h", required = true)
-    protected BigDecimal h;
+    @XmlJavaTypeAdapter(Adapter1 .class)
+    protected Double h;
     @XmlAttribute(name = "w", required = true)
-    protected BigDecimal w;
+    @XmlJavaTypeAdapter(Adapter1 .class)
+    protected Double w;
     @XmlAttribute(name = "x", required = true)
-    protected BigDecimal x;
+    @XmlJavaTypeAdapter(Adapter1 .class)
+    protected Double x;
     @XmlAttribute(name = "y", required = true)
-    protected BigDecimal y;
+    @XmlJavaTypeAdapter(Adapter1 .class)
+    protected Double y;
 
     /**
      * Gets the value of the h property.
      * 
      * @return
      *     possible object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public BigDecimal getH() {
+    public Double getH() {
         return h;
     }
 
@@ -88,10 +93,10 @@ public class Bounds {
      * 
      * @param value
      *     allowed object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public void setH(BigDecimal value) {
+    public void setH(Double value) {
         this.h = value;
     }
 
@@ -100,10 +105,10 @@ public class Bounds {
      * 
      * @return
      *     possible object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public BigDecimal getW() {
+    public Double getW() {
         return w;
     }
 
@@ -112,10 +117,10 @@ public class Bounds {
      * 
      * @param value
      *     allowed object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public void setW(BigDecimal value) {
+    public void setW(Double value) {
         this.w = value;
     }
 
@@ -124,10 +129,10 @@ public class Bounds {
      * 
      * @return
      *     possible object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public BigDecimal getX() {
+    public Double getX() {
         return x;
     }
 
@@ -136,10 +141,10 @@ public class Bounds {
      * 
      * @param value
      *     allowed object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public void setX(BigDecimal value) {
+    public void setX(Double value) {
         this.x = value;
     }
 
@@ -148,10 +153,10 @@ public class Bounds {
      * 
      * @return
      *     possible object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public BigDecimal getY() {
+    public Double getY() {
         return y;
     }
 
@@ -160,10 +165,10 @@ public class Bounds {
      * 
      * @param value
      *     allowed object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public void setY(BigDecimal value) {
+    public void setY(Double value) {
         this.y = value;
     }
 
@@ -1,5 +1,5 @@
 //
-// This file was generated by the JavaTM Architecture for XML Binding(JAXB) Reference Implementation, v2.2.4-2 
+// This file was generated by the JavaTM Architecture for XML Binding(JAXB) Reference Implementation, v2.2.8-b130911.1802 
 // See <a href="http://java.sun.com/xml/jaxb">http://java.sun.com/xml/jaxb</a> 
 // Any modifications to this file will be lost upon recompilation of the source schema. 
 //
@@ -7,12 +7,13 @@
 
 package org.sbml._2001.ns.celldesigner;
 
-import java.math.BigDecimal;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlType;
+import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
+import org.w3._2001.xmlschema.Adapter1;
 
 
 /**
@@ -60,7 +61,8 @@ public class DegradedInBlockDiagram {
     @XmlAttribute(name = "id", required = true)
     protected short id;
     @XmlAttribute(name = "offsetY", required = true)
-    protected BigDecimal offsetY;
+    @XmlJavaTypeAdapter(Adapter1 .class)
+    protected Double offsetY;
 
     /**
      * Gets the value of the degradedShapeInBlockDiagram property.
@@ -107,10 +109,10 @@ public class DegradedInBlockDiagram {
      * 
      * @return
      *     possible object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public BigDecimal getOffsetY() {
+    public Double getOffsetY() {
         return offsetY;
     }
 
@@ -119,10 +121,10 @@ public class DegradedInBlockDiagram {
      * 
      * @param value
      *     allowed object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public void setOffsetY(BigDecimal value) {
+    public void setOffsetY(Double value) {
         this.offsetY = value;
     }
 
@@ -1,5 +1,5 @@
 //
-// This file was generated by the JavaTM Architecture for XML Binding(JAXB) Reference Implementation, v2.2.4-2 
+// This file was generated by the JavaTM Architecture for XML Binding(JAXB) Reference Implementation, v2.2.8-b130911.1802 
 // See <a href="http://java.sun.com/xml/jaxb">http://java.sun.com/xml/jaxb</a> 
 // Any modifications to this file will be lost upon recompilation of the source schema. 
 //
@@ -7,11 +7,12 @@
 
 package org.sbml._2001.ns.celldesigner;
 
-import java.math.BigDecimal;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlType;
+import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
+import org.w3._2001.xmlschema.Adapter1;
 
 
 /**
@@ -67,9 +68,11 @@ public class DegradedShapeInBlockDiagram {
     @XmlAttribute(name = "height", required = true)
     protected short height;
     @XmlAttribute(name = "offsetX", required = true)
-    protected BigDecimal offsetX;
+    @XmlJavaTypeAdapter(Adapter1 .class)
+    protected Double offsetX;
     @XmlAttribute(name = "offsetY", required = true)
-    protected BigDecimal offsetY;
+    @XmlJavaTypeAdapter(Adapter1 .class)
+    protected Double offsetY;
 
     /**
      * Gets the value of the width property.
@@ -108,10 +111,10 @@ public class DegradedShapeInBlockDiagram {
      * 
      * @return
      *     possible object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public BigDecimal getOffsetX() {
+    public Double getOffsetX() {
         return offsetX;
     }
 
@@ -120,10 +123,10 @@ public class DegradedShapeInBlockDiagram {
      * 
      * @param value
      *     allowed object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public void setOffsetX(BigDecimal value) {
+    public void setOffsetX(Double value) {
         this.offsetX = value;
     }
 
@@ -132,10 +135,10 @@ public class DegradedShapeInBlockDiagram {
      * 
      * @return
      *     possible object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public BigDecimal getOffsetY() {
+    public Double getOffsetY() {
         return offsetY;
     }
 
@@ -144,10 +147,10 @@ public class DegradedShapeInBlockDiagram {
      * 
      * @param value
      *     allowed object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public void setOffsetY(BigDecimal value) {
+    public void setOffsetY(Double value) {
         this.offsetY = value;
     }
 
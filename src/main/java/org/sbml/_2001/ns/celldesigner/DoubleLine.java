@@ -1,5 +1,5 @@
 //
-// This file was generated by the JavaTM Architecture for XML Binding(JAXB) Reference Implementation, v2.2.4-2 
+// This file was generated by the JavaTM Architecture for XML Binding(JAXB) Reference Implementation, v2.2.8-b130911.1802 
 // See <a href="http://java.sun.com/xml/jaxb">http://java.sun.com/xml/jaxb</a> 
 // Any modifications to this file will be lost upon recompilation of the source schema. 
 //
@@ -7,11 +7,12 @@
 
 package org.sbml._2001.ns.celldesigner;
 
-import java.math.BigDecimal;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlType;
+import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
+import org.w3._2001.xmlschema.Adapter1;
 
 
 /**
@@ -58,21 +59,24 @@ import javax.xml.bind.annotation.XmlType;
 public class DoubleLine {
 
     @XmlAttribute(name = "innerWidth", required = true)
-    protected BigDecimal innerWidth;
+    @XmlJavaTypeAdapter(Adapter1 .class)
+    protected Double innerWidth;
     @XmlAttribute(name = "outerWidth", required = true)
-    protected BigDecimal outerWidth;
+    @XmlJavaTypeAdapter(Adapter1 .class)
+    protected Double outerWidth;
     @XmlAttribute(name = "thickness", required = true)
-    protected BigDecimal thickness;
+    @XmlJavaTypeAdapter(Adapter1 .class)
+    protected Double thickness;
 
     /**
      * Gets the value of the innerWidth property.
      * 
      * @return
      *     possible object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public BigDecimal getInnerWidth() {
+    public Double getInnerWidth() {
         return innerWidth;
     }
 
@@ -81,10 +85,10 @@ public class DoubleLine {
      * 
      * @param value
      *     allowed object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public void setInnerWidth(BigDecimal value) {
+    public void setInnerWidth(Double value) {
         this.innerWidth = value;
     }
 
@@ -93,10 +97,10 @@ public class DoubleLine {
      * 
      * @return
      *     possible object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public BigDecimal getOuterWidth() {
+    public Double getOuterWidth() {
         return outerWidth;
     }
 
@@ -105,10 +109,10 @@ public class DoubleLine {
      * 
      * @param value
      *     allowed object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public void setOuterWidth(BigDecimal value) {
+    public void setOuterWidth(Double value) {
         this.outerWidth = value;
     }
 
@@ -117,10 +121,10 @@ public class DoubleLine {
      * 
      * @return
      *     possible object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public BigDecimal getThickness() {
+    public Double getThickness() {
         return thickness;
     }
 
@@ -129,10 +133,10 @@ public class DoubleLine {
      * 
      * @param value
      *     allowed object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public void setThickness(BigDecimal value) {
+    public void setThickness(Double value) {
         this.thickness = value;
     }
 
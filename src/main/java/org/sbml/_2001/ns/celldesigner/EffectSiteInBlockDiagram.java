@@ -1,5 +1,5 @@
 //
-// This file was generated by the JavaTM Architecture for XML Binding(JAXB) Reference Implementation, v2.2.4-2 
+// This file was generated by the JavaTM Architecture for XML Binding(JAXB) Reference Implementation, v2.2.8-b130911.1802 
 // See <a href="http://java.sun.com/xml/jaxb">http://java.sun.com/xml/jaxb</a> 
 // Any modifications to this file will be lost upon recompilation of the source schema. 
 //
@@ -7,11 +7,12 @@
 
 package org.sbml._2001.ns.celldesigner;
 
-import java.math.BigDecimal;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlType;
+import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
+import org.w3._2001.xmlschema.Adapter1;
 
 
 /**
@@ -84,15 +85,19 @@ public class EffectSiteInBlockDiagram {
     @XmlAttribute(name = "id", required = true)
     protected short id;
     @XmlAttribute(name = "offsetX", required = true)
-    protected BigDecimal offsetX;
+    @XmlJavaTypeAdapter(Adapter1 .class)
+    protected Double offsetX;
     @XmlAttribute(name = "offsetY", required = true)
-    protected BigDecimal offsetY;
+    @XmlJavaTypeAdapter(Adapter1 .class)
+    protected Double offsetY;
     @XmlAttribute(name = "name", required = true)
     protected String name;
     @XmlAttribute(name = "nameOffsetX", required = true)
-    protected BigDecimal nameOffsetX;
+    @XmlJavaTypeAdapter(Adapter1 .class)
+    protected Double nameOffsetX;
     @XmlAttribute(name = "nameOffsetY", required = true)
-    protected BigDecimal nameOffsetY;
+    @XmlJavaTypeAdapter(Adapter1 .class)
+    protected Double nameOffsetY;
     @XmlAttribute(name = "reaction")
     protected String reaction;
     @XmlAttribute(name = "species")
@@ -143,10 +148,10 @@ public class EffectSiteInBlockDiagram {
      * 
      * @return
      *     possible object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public BigDecimal getOffsetX() {
+    public Double getOffsetX() {
         return offsetX;
     }
 
@@ -155,10 +160,10 @@ public class EffectSiteInBlockDiagram {
      * 
      * @param value
      *     allowed object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public void setOffsetX(BigDecimal value) {
+    public void setOffsetX(Double value) {
         this.offsetX = value;
     }
 
@@ -167,10 +172,10 @@ public class EffectSiteInBlockDiagram {
      * 
      * @return
      *     possible object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public BigDecimal getOffsetY() {
+    public Double getOffsetY() {
         return offsetY;
     }
 
@@ -179,10 +184,10 @@ public class EffectSiteInBlockDiagram {
      * 
      * @param value
      *     allowed object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public void setOffsetY(BigDecimal value) {
+    public void setOffsetY(Double value) {
         this.offsetY = value;
     }
 
@@ -215,10 +220,10 @@ public class EffectSiteInBlockDiagram {
      * 
      * @return
      *     possible object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public BigDecimal getNameOffsetX() {
+    public Double getNameOffsetX() {
         return nameOffsetX;
     }
 
@@ -227,10 +232,10 @@ public class EffectSiteInBlockDiagram {
      * 
      * @param value
      *     allowed object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public void setNameOffsetX(BigDecimal value) {
+    public void setNameOffsetX(Double value) {
         this.nameOffsetX = value;
     }
 
@@ -239,10 +244,10 @@ public class EffectSiteInBlockDiagram {
      * 
      * @return
      *     possible object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public BigDecimal getNameOffsetY() {
+    public Double getNameOffsetY() {
         return nameOffsetY;
     }
 
@@ -251,10 +256,10 @@ public class EffectSiteInBlockDiagram {
      * 
      * @param value
      *     allowed object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public void setNameOffsetY(BigDecimal value) {
+    public void setNameOffsetY(Double value) {
         this.nameOffsetY = value;
     }
 
@@ -1,5 +1,5 @@
 //
-// This file was generated by the JavaTM Architecture for XML Binding(JAXB) Reference Implementation, v2.2.4-2 
+// This file was generated by the JavaTM Architecture for XML Binding(JAXB) Reference Implementation, v2.2.8-b130911.1802 
 // See <a href="http://java.sun.com/xml/jaxb">http://java.sun.com/xml/jaxb</a> 
 // Any modifications to this file will be lost upon recompilation of the source schema. 
 //
@@ -7,13 +7,14 @@
 
 package org.sbml._2001.ns.celldesigner;
 
-import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlType;
+import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
+import org.w3._2001.xmlschema.Adapter1;
 
 
 /**
@@ -92,9 +93,10 @@ import javax.xml.bind.annotation.XmlType;
 public class EndPointInBlockDiagram {
 
     @XmlAttribute(name = "offsetX", required = true)
-    protected List<BigDecimal> offsetX;
+    protected List<String> offsetX;
     @XmlAttribute(name = "offsetY", required = true)
-    protected BigDecimal offsetY;
+    @XmlJavaTypeAdapter(Adapter1 .class)
+    protected Double offsetY;
     @XmlAttribute(name = "residue")
     protected Short residue;
     @XmlAttribute(name = "bindingSite")
@@ -126,13 +128,13 @@ public class EndPointInBlockDiagram {
      * 
      * <p>
      * Objects of the following type(s) are allowed in the list
-     * {@link BigDecimal }
+     * {@link String }
      * 
      * 
      */
-    public List<BigDecimal> getOffsetX() {
+    public List<String> getOffsetX() {
         if (offsetX == null) {
-            offsetX = new ArrayList<BigDecimal>();
+            offsetX = new ArrayList<String>();
         }
         return this.offsetX;
     }
@@ -142,10 +144,10 @@ public class EndPointInBlockDiagram {
      * 
      * @return
      *     possible object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public BigDecimal getOffsetY() {
+    public Double getOffsetY() {
         return offsetY;
     }
 
@@ -154,10 +156,10 @@ public class EndPointInBlockDiagram {
      * 
      * @param value
      *     allowed object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public void setOffsetY(BigDecimal value) {
+    public void setOffsetY(Double value) {
         this.offsetY = value;
     }
 
@@ -1,5 +1,5 @@
 //
-// This file was generated by the JavaTM Architecture for XML Binding(JAXB) Reference Implementation, v2.2.4-2 
+// This file was generated by the JavaTM Architecture for XML Binding(JAXB) Reference Implementation, v2.2.8-b130911.1802 
 // See <a href="http://java.sun.com/xml/jaxb">http://java.sun.com/xml/jaxb</a> 
 // Any modifications to this file will be lost upon recompilation of the source schema. 
 //
@@ -7,12 +7,13 @@
 
 package org.sbml._2001.ns.celldesigner;
 
-import java.math.BigDecimal;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlType;
+import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
+import org.w3._2001.xmlschema.Adapter1;
 
 
 /**
@@ -84,13 +85,16 @@ public class ExternalNameForResidue {
     @XmlAttribute(name = "id", required = true)
     protected short id;
     @XmlAttribute(name = "offsetY", required = true)
-    protected BigDecimal offsetY;
+    @XmlJavaTypeAdapter(Adapter1 .class)
+    protected Double offsetY;
     @XmlAttribute(name = "name", required = true)
     protected String name;
     @XmlAttribute(name = "nameOffsetX", required = true)
-    protected BigDecimal nameOffsetX;
+    @XmlJavaTypeAdapter(Adapter1 .class)
+    protected Double nameOffsetX;
     @XmlAttribute(name = "nameOffsetY", required = true)
-    protected BigDecimal nameOffsetY;
+    @XmlJavaTypeAdapter(Adapter1 .class)
+    protected Double nameOffsetY;
     @XmlAttribute(name = "protein")
     protected String protein;
 
@@ -139,10 +143,10 @@ public class ExternalNameForResidue {
      * 
      * @return
      *     possible object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public BigDecimal getOffsetY() {
+    public Double getOffsetY() {
         return offsetY;
     }
 
@@ -151,10 +155,10 @@ public class ExternalNameForResidue {
      * 
      * @param value
      *     allowed object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public void setOffsetY(BigDecimal value) {
+    public void setOffsetY(Double value) {
         this.offsetY = value;
     }
 
@@ -187,10 +191,10 @@ public class ExternalNameForResidue {
      * 
      * @return
      *     possible object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public BigDecimal getNameOffsetX() {
+    public Double getNameOffsetX() {
         return nameOffsetX;
     }
 
@@ -199,10 +203,10 @@ public class ExternalNameForResidue {
      * 
      * @param value
      *     allowed object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public void setNameOffsetX(BigDecimal value) {
+    public void setNameOffsetX(Double value) {
         this.nameOffsetX = value;
     }
 
@@ -211,10 +215,10 @@ public class ExternalNameForResidue {
      * 
      * @return
      *     possible object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public BigDecimal getNameOffsetY() {
+    public Double getNameOffsetY() {
         return nameOffsetY;
     }
 
@@ -223,10 +227,10 @@ public class ExternalNameForResidue {
      * 
      * @param value
      *     allowed object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public void setNameOffsetY(BigDecimal value) {
+    public void setNameOffsetY(Double value) {
         this.nameOffsetY = value;
     }
 
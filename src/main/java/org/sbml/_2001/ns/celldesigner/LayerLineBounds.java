@@ -1,5 +1,5 @@
 //
-// This file was generated by the JavaTM Architecture for XML Binding(JAXB) Reference Implementation, v2.2.4-2 
+// This file was generated by the JavaTM Architecture for XML Binding(JAXB) Reference Implementation, v2.2.8-b130911.1802 
 // See <a href="http://java.sun.com/xml/jaxb">http://java.sun.com/xml/jaxb</a> 
 // Any modifications to this file will be lost upon recompilation of the source schema. 
 //
@@ -7,11 +7,13 @@
 
 package org.sbml._2001.ns.celldesigner;
 
-import java.math.BigDecimal;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlSchemaType;
 import javax.xml.bind.annotation.XmlType;
+import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
+import org.w3._2001.xmlschema.Adapter1;
 
 
 /**
@@ -39,23 +41,31 @@ import javax.xml.bind.annotation.XmlType;
 public class LayerLineBounds {
 
     @XmlAttribute(name = "sx")
-    protected BigDecimal sx;
+    @XmlJavaTypeAdapter(Adapter1 .class)
+    @XmlSchemaType(name = "decimal")
+    protected Double sx;
     @XmlAttribute(name = "sy")
-    protected BigDecimal sy;
+    @XmlJavaTypeAdapter(Adapter1 .class)
+    @XmlSchemaType(name = "decimal")
+    protected Double sy;
     @XmlAttribute(name = "ex")
-    protected BigDecimal ex;
+    @XmlJavaTypeAdapter(Adapter1 .class)
+    @XmlSchemaType(name = "decimal")
+    protected Double ex;
     @XmlAttribute(name = "ey")
-    protected BigDecimal ey;
+    @XmlJavaTypeAdapter(Adapter1 .class)
+    @XmlSchemaType(name = "decimal")
+    protected Double ey;
 
     /**
      * Gets the value of the sx property.
      * 
      * @return
      *     possible object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public BigDecimal getSx() {
+    public Double getSx() {
         return sx;
     }
 
@@ -64,10 +74,10 @@ public class LayerLineBounds {
      * 
      * @param value
      *     allowed object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public void setSx(BigDecimal value) {
+    public void setSx(Double value) {
         this.sx = value;
     }
 
@@ -76,10 +86,10 @@ public class LayerLineBounds {
      * 
      * @return
      *     possible object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public BigDecimal getSy() {
+    public Double getSy() {
         return sy;
     }
 
@@ -88,10 +98,10 @@ public class LayerLineBounds {
      * 
      * @param value
      *     allowed object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public void setSy(BigDecimal value) {
+    public void setSy(Double value) {
         this.sy = value;
     }
 
@@ -100,10 +110,10 @@ public class LayerLineBounds {
      * 
      * @return
      *     possible object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public BigDecimal getEx() {
+    public Double getEx() {
         return ex;
     }
 
@@ -112,10 +122,10 @@ public class LayerLineBounds {
      * 
      * @param value
      *     allowed object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public void setEx(BigDecimal value) {
+    public void setEx(Double value) {
         this.ex = value;
     }
 
@@ -124,10 +134,10 @@ public class LayerLineBounds {
      * 
      * @return
      *     possible object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public BigDecimal getEy() {
+    public Double getEy() {
         return ey;
     }
 
@@ -136,10 +146,10 @@ public class LayerLineBounds {
      * 
      * @param value
      *     allowed object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public void setEy(BigDecimal value) {
+    public void setEy(Double value) {
         this.ey = value;
     }
 
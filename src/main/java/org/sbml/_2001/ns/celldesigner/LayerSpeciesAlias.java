@@ -1,5 +1,5 @@
 //
-// This file was generated by the JavaTM Architecture for XML Binding(JAXB) Reference Implementation, v2.2.4-2 
+// This file was generated by the JavaTM Architecture for XML Binding(JAXB) Reference Implementation, v2.2.8-b130911.1802 
 // See <a href="http://java.sun.com/xml/jaxb">http://java.sun.com/xml/jaxb</a> 
 // Any modifications to this file will be lost upon recompilation of the source schema. 
 //
@@ -7,12 +7,14 @@
 
 package org.sbml._2001.ns.celldesigner;
 
-import java.math.BigDecimal;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlSchemaType;
 import javax.xml.bind.annotation.XmlType;
+import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
+import org.w3._2001.xmlschema.Adapter1;
 
 
 /**
@@ -71,9 +73,13 @@ public class LayerSpeciesAlias {
     @XmlAttribute(name = "targetId", required = true)
     protected String targetId;
     @XmlAttribute(name = "x", required = true)
-    protected BigDecimal x;
+    @XmlJavaTypeAdapter(Adapter1 .class)
+    @XmlSchemaType(name = "decimal")
+    protected Double x;
     @XmlAttribute(name = "y", required = true)
-    protected BigDecimal y;
+    @XmlJavaTypeAdapter(Adapter1 .class)
+    @XmlSchemaType(name = "decimal")
+    protected Double y;
 
     /**
      * Gets the value of the layerNotes property.
@@ -224,10 +230,10 @@ public class LayerSpeciesAlias {
      * 
      * @return
      *     possible object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public BigDecimal getX() {
+    public Double getX() {
         return x;
     }
 
@@ -236,10 +242,10 @@ public class LayerSpeciesAlias {
      * 
      * @param value
      *     allowed object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public void setX(BigDecimal value) {
+    public void setX(Double value) {
         this.x = value;
     }
 
@@ -248,10 +254,10 @@ public class LayerSpeciesAlias {
      * 
      * @return
      *     possible object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public BigDecimal getY() {
+    public Double getY() {
         return y;
     }
 
@@ -260,10 +266,10 @@ public class LayerSpeciesAlias {
      * 
      * @param value
      *     allowed object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public void setY(BigDecimal value) {
+    public void setY(Double value) {
         this.y = value;
     }
 
@@ -1,5 +1,5 @@
 //
-// This file was generated by the JavaTM Architecture for XML Binding(JAXB) Reference Implementation, v2.2.4-2 
+// This file was generated by the JavaTM Architecture for XML Binding(JAXB) Reference Implementation, v2.2.8-b130911.1802 
 // See <a href="http://java.sun.com/xml/jaxb">http://java.sun.com/xml/jaxb</a> 
 // Any modifications to this file will be lost upon recompilation of the source schema. 
 //
@@ -7,11 +7,12 @@
 
 package org.sbml._2001.ns.celldesigner;
 
-import java.math.BigDecimal;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlType;
+import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
+import org.w3._2001.xmlschema.Adapter1;
 
 
 /**
@@ -53,7 +54,8 @@ public class Line {
     @XmlAttribute(name = "color", required = true)
     protected String color;
     @XmlAttribute(name = "width", required = true)
-    protected BigDecimal width;
+    @XmlJavaTypeAdapter(Adapter1 .class)
+    protected Double width;
 
     /**
      * Gets the value of the color property.
@@ -84,10 +86,10 @@ public class Line {
      * 
      * @return
      *     possible object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public BigDecimal getWidth() {
+    public Double getWidth() {
         return width;
     }
 
@@ -96,10 +98,10 @@ public class Line {
      * 
      * @param value
      *     allowed object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public void setWidth(BigDecimal value) {
+    public void setWidth(Double value) {
         this.width = value;
     }
 
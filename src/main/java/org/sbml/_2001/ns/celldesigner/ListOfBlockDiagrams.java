@@ -11,7 +11,10 @@ import java.util.ArrayList;
 import java.util.List;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlAnyElement;
 import javax.xml.bind.annotation.XmlType;
+import fr.curie.cd2sbgnml.io.XmlFragment;
+import org.w3c.dom.Element;
 
 
 /**
@@ -37,11 +40,14 @@ import javax.xml.bind.annotation.XmlType;
  */
 @XmlAccessorType(XmlAccessType.FIELD)
 @XmlType(name = "listOfBlockDiagrams", propOrder = {
-    "blockDiagram"
+    "blockDiagram",
+    "any"
 })
 public class ListOfBlockDiagrams {
 
     protected List<BlockDiagram> blockDiagram;
+    @XmlAnyElement(XmlFragment.Handler.class)
+    protected List<Element> any;
 
     /**
      * Gets the value of the blockDiagram property.
@@ -72,4 +78,28 @@ public class ListOfBlockDiagrams {
         return this.blockDiagram;
     }
 
+    /**
+     * Gets the value of the any property: the content of the element, when it was kept
+     * as xml instead of being bound, see {@link fr.curie.cd2sbgnml.io.CellDesignerStreamReader.Binding#LAZY}.
+     * Its elements are then only parsed when first used, see {@link XmlFragment }.
+     * 
+     * <p>
+     * This accessor method returns a reference to the live list,
+     * not a snapshot. Therefore any modification you make to the
+     * returned list will be present inside the JAXB object.
+     * This is why there is not a <CODE>set</CODE> method for the any property.
+     * 
+     * <p>
+     * Objects of the following type(s) are allowed in the list
+     * {@link Element }
+     * 
+     * 
+     */
+    public List<Element> getAny() {
+        if (any == null) {
+            any = new ArrayList<Element>();
+        }
+        return this.any;
+    }
+
 }
@@ -11,8 +11,11 @@ import java.util.ArrayList;
 import java.util.List;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlAnyElement;
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlType;
+import fr.curie.cd2sbgnml.io.XmlFragment;
+import org.w3c.dom.Element;
 
 
 /**
@@ -36,12 +39,15 @@ import javax.xml.bind.annotation.XmlType;
  */
 @XmlAccessorType(XmlAccessType.FIELD)
 @XmlType(name = "listOfSpeciesTag", propOrder = {
-    "speciesTag"
+    "speciesTag",
+    "any"
 })
 public class ListOfSpeciesTag {
 
     @XmlElement(name = "SpeciesTag", required = true)
     protected List<SpeciesTag> speciesTag;
+    @XmlAnyElement(XmlFragment.Handler.class)
+    protected List<Element> any;
 
     /**
      * Gets the value of the speciesTag property.
@@ -72,4 +78,28 @@ public class ListOfSpeciesTag {
         return this.speciesTag;
     }
 
+    /**
+     * Gets the value of the any property: the content of the element, when it was kept
+     * as xml instead of being bound, see {@link fr.curie.cd2sbgnml.io.CellDesignerStreamReader.Binding#LAZY}.
+     * Its elements are then only parsed when first used, see {@link XmlFragment }.
+     * 
+     * <p>
+     * This accessor method returns a reference to the live list,
+     * not a snapshot. Therefore any modification you make to the
+     * returned list will be present inside the JAXB object.
+     * This is why there is not a <CODE>set</CODE> method for the any property.
+     * 
+     * <p>
+     * Objects of the following type(s) are allowed in the list
+     * {@link Element }
+     * 
+     * 
+     */
+    public List<Element> getAny() {
+        if (any == null) {
+            any = new ArrayList<Element>();
+        }
+        return this.any;
+    }
+
 }
@@ -1,5 +1,5 @@
 //
-// This file was generated by the JavaTM Architecture for XML Binding(JAXB) Reference Implementation, v2.2.4-2 
+// This file was generated by the JavaTM Architecture for XML Binding(JAXB) Reference Implementation, v2.2.8-b130911.1802 
 // See <a href="http://java.sun.com/xml/jaxb">http://java.sun.com/xml/jaxb</a> 
 // Any modifications to this file will be lost upon recompilation of the source schema. 
 //
@@ -7,7 +7,6 @@
 
 package org.sbml._2001.ns.celldesigner;
 
-import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 import javax.xml.bind.annotation.XmlAccessType;
@@ -15,6 +14,9 @@ import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlAnyElement;
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlType;
+import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
+import fr.curie.cd2sbgnml.io.XmlFragment;
+import org.w3._2001.xmlschema.Adapter1;
 import org.w3c.dom.Element;
 
 
@@ -71,7 +73,7 @@ public class ModelAnnotationType {
 
     @XmlElement(required = true)
     protected ModelAnnotationType.Extension extension;
-    @XmlAnyElement
+    @XmlAnyElement(XmlFragment.Handler.class)
     protected List<Element> any;
 
     /**
@@ -99,7 +101,8 @@ public class ModelAnnotationType {
     }
 
     /**
-     * Gets the value of the any property.
+     * Gets the value of the any property: its elements are kept as xml,
+     * and only parsed when first used, see {@link XmlFragment }.
      * 
      * <p>
      * This accessor method returns a reference to the live list,
@@ -177,8 +180,9 @@ public class ModelAnnotationType {
     })
     public static class Extension {
 
-        @XmlElement(required = true)
-        protected BigDecimal modelVersion;
+        @XmlElement(required = true, type = String.class)
+        @XmlJavaTypeAdapter(Adapter1 .class)
+        protected Double modelVersion;
         @XmlElement(required = true)
         protected ModelDisplay modelDisplay;
         protected ListOfIncludedSpecies listOfIncludedSpecies;
@@ -206,10 +210,10 @@ public class ModelAnnotationType {
          * 
          * @return
          *     possible object is
-         *     {@link BigDecimal }
+         *     {@link String }
          *     
          */
-        public BigDecimal getModelVersion() {
+        public Double getModelVersion() {
             return modelVersion;
         }
 
@@ -218,10 +222,10 @@ public class ModelAnnotationType {
          * 
          * @param value
          *     allowed object is
-         *     {@link BigDecimal }
+         *     {@link String }
          *     
          */
-        public void setModelVersion(BigDecimal value) {
+        public void setModelVersion(Double value) {
             this.modelVersion = value;
         }
 
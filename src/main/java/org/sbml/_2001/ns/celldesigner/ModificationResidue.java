@@ -1,5 +1,5 @@
 //
-// This file was generated by the JavaTM Architecture for XML Binding(JAXB) Reference Implementation, v2.2.4-2 
+// This file was generated by the JavaTM Architecture for XML Binding(JAXB) Reference Implementation, v2.2.8-b130911.1802 
 // See <a href="http://java.sun.com/xml/jaxb">http://java.sun.com/xml/jaxb</a> 
 // Any modifications to this file will be lost upon recompilation of the source schema. 
 //
@@ -7,12 +7,13 @@
 
 package org.sbml._2001.ns.celldesigner;
 
-import java.math.BigDecimal;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlSchemaType;
 import javax.xml.bind.annotation.XmlType;
+import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
+import org.w3._2001.xmlschema.Adapter1;
 
 
 /**
@@ -63,7 +64,8 @@ public class ModificationResidue {
     @XmlAttribute(name = "name")
     protected String name;
     @XmlAttribute(name = "angle")
-    protected BigDecimal angle;
+    @XmlJavaTypeAdapter(Adapter1 .class)
+    protected Double angle;
     @XmlAttribute(name = "side")
     @XmlSchemaType(name = "anySimpleType")
     protected String side;
@@ -121,10 +123,10 @@ public class ModificationResidue {
      * 
      * @return
      *     possible object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public BigDecimal getAngle() {
+    public Double getAngle() {
         return angle;
     }
 
@@ -133,10 +135,10 @@ public class ModificationResidue {
      * 
      * @param value
      *     allowed object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public void setAngle(BigDecimal value) {
+    public void setAngle(Double value) {
         this.angle = value;
     }
 
@@ -13,6 +13,7 @@ import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlAnyElement;
 import javax.xml.bind.annotation.XmlType;
+import fr.curie.cd2sbgnml.io.XmlFragment;
 import org.w3c.dom.Element;
 
 
@@ -43,11 +44,12 @@ import org.w3c.dom.Element;
 })
 public class Notes {
 
-    @XmlAnyElement
+    @XmlAnyElement(XmlFragment.Handler.class)
     protected List<Element> any;
 
     /**
-     * Gets the value of the any property.
+     * Gets the value of the any property: its elements are kept as xml,
+     * and only parsed when first used, see {@link XmlFragment }.
      * 
      * <p>
      * This accessor method returns a reference to the live list,
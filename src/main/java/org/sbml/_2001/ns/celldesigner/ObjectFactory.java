@@ -7,12 +7,13 @@
 
 package org.sbml._2001.ns.celldesigner;
 
-import java.math.BigDecimal;
 import java.math.BigInteger;
 import javax.xml.bind.JAXBElement;
 import javax.xml.bind.annotation.XmlElementDecl;
 import javax.xml.bind.annotation.XmlRegistry;
+import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
 import javax.xml.namespace.QName;
+import org.w3._2001.xmlschema.Adapter1;
 
 
 /**
@@ -1066,12 +1067,13 @@ public class ObjectFactory {
     }
 
     /**
-     * Create an instance of {@link JAXBElement }{@code <}{@link BigDecimal }{@code >}}
+     * Create an instance of {@link JAXBElement }{@code <}{@link Double }{@code >}}
      * 
      */
     @XmlElementDecl(namespace = "http://www.sbml.org/2001/ns/celldesigner", name = "modelVersion")
-    public JAXBElement<BigDecimal> createModelVersion(BigDecimal value) {
-        return new JAXBElement<BigDecimal>(_ModelVersion_QNAME, BigDecimal.class, null, value);
+    @XmlJavaTypeAdapter(Adapter1 .class)
+    public JAXBElement<Double> createModelVersion(Double value) {
+        return new JAXBElement<Double>(_ModelVersion_QNAME, Double.class, null, value);
     }
 
     /**
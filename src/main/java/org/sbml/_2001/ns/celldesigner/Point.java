@@ -1,5 +1,5 @@
 //
-// This file was generated by the JavaTM Architecture for XML Binding(JAXB) Reference Implementation, v2.2.4-2 
+// This file was generated by the JavaTM Architecture for XML Binding(JAXB) Reference Implementation, v2.2.8-b130911.1802 
 // See <a href="http://java.sun.com/xml/jaxb">http://java.sun.com/xml/jaxb</a> 
 // Any modifications to this file will be lost upon recompilation of the source schema. 
 //
@@ -7,11 +7,12 @@
 
 package org.sbml._2001.ns.celldesigner;
 
-import java.math.BigDecimal;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlType;
+import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
+import org.w3._2001.xmlschema.Adapter1;
 
 
 /**
@@ -49,19 +50,21 @@ import javax.xml.bind.annotation.XmlType;
 public class Point {
 
     @XmlAttribute(name = "x", required = true)
-    protected BigDecimal x;
+    @XmlJavaTypeAdapter(Adapter1 .class)
+    protected Double x;
     @XmlAttribute(name = "y", required = true)
-    protected BigDecimal y;
+    @XmlJavaTypeAdapter(Adapter1 .class)
+    protected Double y;
 
     /**
      * Gets the value of the x property.
      * 
      * @return
      *     possible object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public BigDecimal getX() {
+    public Double getX() {
         return x;
     }
 
@@ -70,10 +73,10 @@ public class Point {
      * 
      * @param value
      *     allowed object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public void setX(BigDecimal value) {
+    public void setX(Double value) {
         this.x = value;
     }
 
@@ -82,10 +85,10 @@ public class Point {
      * 
      * @return
      *     possible object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public BigDecimal getY() {
+    public Double getY() {
         return y;
     }
 
@@ -94,10 +97,10 @@ public class Point {
      * 
      * @param value
      *     allowed object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public void setY(BigDecimal value) {
+    public void setY(Double value) {
         this.y = value;
     }
 
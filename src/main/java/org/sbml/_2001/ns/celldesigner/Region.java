@@ -1,5 +1,5 @@
 //
-// This file was generated by the JavaTM Architecture for XML Binding(JAXB) Reference Implementation, v2.2.4-2 
+// This file was generated by the JavaTM Architecture for XML Binding(JAXB) Reference Implementation, v2.2.8-b130911.1802 
 // See <a href="http://java.sun.com/xml/jaxb">http://java.sun.com/xml/jaxb</a> 
 // Any modifications to this file will be lost upon recompilation of the source schema. 
 //
@@ -7,12 +7,13 @@
 
 package org.sbml._2001.ns.celldesigner;
 
-import java.math.BigDecimal;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlSeeAlso;
 import javax.xml.bind.annotation.XmlType;
+import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
+import org.w3._2001.xmlschema.Adapter1;
 
 
 /**
@@ -85,9 +86,11 @@ public class Region {
     @XmlAttribute(name = "id", required = true)
     protected String id;
     @XmlAttribute(name = "size", required = true)
-    protected BigDecimal size;
+    @XmlJavaTypeAdapter(Adapter1 .class)
+    protected Double size;
     @XmlAttribute(name = "pos")
-    protected BigDecimal pos;
+    @XmlJavaTypeAdapter(Adapter1 .class)
+    protected Double pos;
     @XmlAttribute(name = "type")
     protected String type;
     @XmlAttribute(name = "name")
@@ -124,10 +127,10 @@ public class Region {
      * 
      * @return
      *     possible object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public BigDecimal getSize() {
+    public Double getSize() {
         return size;
     }
 
@@ -136,10 +139,10 @@ public class Region {
      * 
      * @param value
      *     allowed object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public void setSize(BigDecimal value) {
+    public void setSize(Double value) {
         this.size = value;
     }
 
@@ -148,10 +151,10 @@ public class Region {
      * 
      * @return
      *     possible object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public BigDecimal getPos() {
+    public Double getPos() {
         return pos;
     }
 
@@ -160,10 +163,10 @@ public class Region {
      * 
      * @param value
      *     allowed object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public void setPos(BigDecimal value) {
+    public void setPos(Double value) {
         this.pos = value;
     }
 
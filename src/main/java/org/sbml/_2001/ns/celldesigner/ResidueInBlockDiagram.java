@@ -1,5 +1,5 @@
 //
-// This file was generated by the JavaTM Architecture for XML Binding(JAXB) Reference Implementation, v2.2.4-2 
+// This file was generated by the JavaTM Architecture for XML Binding(JAXB) Reference Implementation, v2.2.8-b130911.1802 
 // See <a href="http://java.sun.com/xml/jaxb">http://java.sun.com/xml/jaxb</a> 
 // Any modifications to this file will be lost upon recompilation of the source schema. 
 //
@@ -7,11 +7,12 @@
 
 package org.sbml._2001.ns.celldesigner;
 
-import java.math.BigDecimal;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlType;
+import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
+import org.w3._2001.xmlschema.Adapter1;
 
 
 /**
@@ -105,13 +106,16 @@ public class ResidueInBlockDiagram {
     @XmlAttribute(name = "id", required = true)
     protected short id;
     @XmlAttribute(name = "offsetX", required = true)
-    protected BigDecimal offsetX;
+    @XmlJavaTypeAdapter(Adapter1 .class)
+    protected Double offsetX;
     @XmlAttribute(name = "name")
     protected String name;
     @XmlAttribute(name = "nameOffsetX")
-    protected BigDecimal nameOffsetX;
+    @XmlJavaTypeAdapter(Adapter1 .class)
+    protected Double nameOffsetX;
     @XmlAttribute(name = "nameOffsetY")
-    protected BigDecimal nameOffsetY;
+    @XmlJavaTypeAdapter(Adapter1 .class)
+    protected Double nameOffsetY;
 
     /**
      * Gets the value of the residue property.
@@ -182,10 +186,10 @@ public class ResidueInBlockDiagram {
      * 
      * @return
      *     possible object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public BigDecimal getOffsetX() {
+    public Double getOffsetX() {
         return offsetX;
     }
 
@@ -194,10 +198,10 @@ public class ResidueInBlockDiagram {
      * 
      * @param value
      *     allowed object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public void setOffsetX(BigDecimal value) {
+    public void setOffsetX(Double value) {
         this.offsetX = value;
     }
 
@@ -230,10 +234,10 @@ public class ResidueInBlockDiagram {
      * 
      * @return
      *     possible object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public BigDecimal getNameOffsetX() {
+    public Double getNameOffsetX() {
         return nameOffsetX;
     }
 
@@ -242,10 +246,10 @@ public class ResidueInBlockDiagram {
      * 
      * @param value
      *     allowed object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public void setNameOffsetX(BigDecimal value) {
+    public void setNameOffsetX(Double value) {
         this.nameOffsetX = value;
     }
 
@@ -254,10 +258,10 @@ public class ResidueInBlockDiagram {
      * 
      * @return
      *     possible object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public BigDecimal getNameOffsetY() {
+    public Double getNameOffsetY() {
         return nameOffsetY;
     }
 
@@ -266,10 +270,10 @@ public class ResidueInBlockDiagram {
      * 
      * @param value
      *     allowed object is
-     *     {@link BigDecimal }
+     *     {@link String }
      *     
      */
-    public void setNameOffsetY(BigDecimal value) {
+    public void setNameOffsetY(Double value) {
         this.nameOffsetY = value;
     }
 
@@ -14,6 +14,7 @@ import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlAnyElement;
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlType;
+import fr.curie.cd2sbgnml.io.XmlFragment;
 import org.w3c.dom.Element;
 
 
@@ -63,7 +64,7 @@ public class SpeciesAnnotationType {
 
     @XmlElement(required = true)
     protected SpeciesAnnotationType.Extension extension;
-    @XmlAnyElement
+    @XmlAnyElement(XmlFragment.Handler.class)
     protected List<Element> any;
 
     /**
@@ -91,7 +92,8 @@ public class SpeciesAnnotationType {
     }
 
     /**
-     * Gets the value of the any property.
+     * Gets the value of the any property: its elements are kept as xml,
+     * and only parsed when first used, see {@link XmlFragment }.
      * 
      * <p>
      * This accessor method returns a reference to the live list,
@@ -7,12 +7,17 @@
 
 package org.sbml.sbml.level2.version4;
 
+import java.util.ArrayList;
+import java.util.List;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlAnyElement;
 import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlType;
+import fr.curie.cd2sbgnml.io.XmlFragment;
 import org.w3._1998.math.mathml.Math;
+import org.w3c.dom.Element;
 
 
 /**
@@ -40,7 +45,8 @@ import org.w3._1998.math.mathml.Math;
 @XmlAccessorType(XmlAccessType.FIELD)
 @XmlType(name = "KineticLaw", propOrder = {
     "math",
-    "listOfParameters"
+    "listOfParameters",
+    "any"
 })
 public class KineticLaw
     extends SBase
@@ -53,6 +59,8 @@ public class KineticLaw
     protected String timeUnits;
     @XmlAttribute(name = "substanceUnits")
     protected String substanceUnits;
+    @XmlAnyElement(XmlFragment.Handler.class)
+    protected List<Element> any;
 
     /**
      * Gets the value of the math property.
@@ -150,4 +158,28 @@ public class KineticLaw
         this.substanceUnits = value;
     }
 
+    /**
+     * Gets the value of the any property: the content of the element, when it was kept
+     * as xml instead of being bound, see {@link fr.curie.cd2sbgnml.io.CellDesignerStreamReader.Binding#LAZY}.
+     * Its elements are then only parsed when first used, see {@link XmlFragment }.
+     * 
+     * <p>
+     * This accessor method returns a reference to the live list,
+     * not a snapshot. Therefore any modification you make to the
+     * returned list will be present inside the JAXB object.
+     * This is why there is not a <CODE>set</CODE> method for the any property.
+     * 
+     * <p>
+     * Objects of the following type(s) are allowed in the list
+     * {@link Element }
+     * 
+     * 
+     */
+    public List<Element> getAny() {
+        if (any == null) {
+            any = new ArrayList<Element>();
+        }
+        return this.any;
+    }
+
 }
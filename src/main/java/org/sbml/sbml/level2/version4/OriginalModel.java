@@ -11,11 +11,14 @@ import java.util.ArrayList;
 import java.util.List;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlAnyElement;
 import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlElements;
 import javax.xml.bind.annotation.XmlSeeAlso;
 import javax.xml.bind.annotation.XmlType;
+import fr.curie.cd2sbgnml.io.XmlFragment;
+import org.w3c.dom.Element;
 
 
 /**
@@ -483,7 +486,8 @@ public class OriginalModel
      */
     @XmlAccessorType(XmlAccessType.FIELD)
     @XmlType(name = "", propOrder = {
-        "event"
+        "event",
+        "any"
     })
     public static class ListOfEvents
         extends SBase
@@ -491,6 +495,8 @@ public class OriginalModel
 
         @XmlElement(required = true)
         protected List<Event> event;
+        @XmlAnyElement(XmlFragment.Handler.class)
+        protected List<Element> any;
 
         /**
          * Gets the value of the event property.
@@ -521,6 +527,30 @@ public class OriginalModel
             return this.event;
         }
 
+        /**
+         * Gets the value of the any property: the content of the element, when it was kept
+         * as xml instead of being bound, see {@link fr.curie.cd2sbgnml.io.CellDesignerStreamReader.Binding#LAZY}.
+         * Its elements are then only parsed when first used, see {@link XmlFragment }.
+         * 
+         * <p>
+         * This accessor method returns a reference to the live list,
+         * not a snapshot. Therefore any modification you make to the
+         * returned list will be present inside the JAXB object.
+         * This is why there is not a <CODE>set</CODE> method for the any property.
+         * 
+         * <p>
+         * Objects of the following type(s) are allowed in the list
+         * {@link Element }
+         * 
+         * 
+         */
+        public List<Element> getAny() {
+            if (any == null) {
+                any = new ArrayList<Element>();
+            }
+            return this.any;
+        }
+
     }
 
 
@@ -545,7 +575,8 @@ public class OriginalModel
      */
     @XmlAccessorType(XmlAccessType.FIELD)
     @XmlType(name = "", propOrder = {
-        "functionDefinition"
+        "functionDefinition",
+        "any"
     })
     public static class ListOfFunctionDefinitions
         extends SBase
@@ -553,6 +584,8 @@ public class OriginalModel
 
         @XmlElement(required = true)
         protected List<FunctionDefinition> functionDefinition;
+        @XmlAnyElement(XmlFragment.Handler.class)
+        protected List<Element> any;
 
         /**
          * Gets the value of the functionDefinition property.
@@ -583,6 +616,30 @@ public class OriginalModel
             return this.functionDefinition;
         }
 
+        /**
+         * Gets the value of the any property: the content of the element, when it was kept
+         * as xml instead of being bound, see {@link fr.curie.cd2sbgnml.io.CellDesignerStreamReader.Binding#LAZY}.
+         * Its elements are then only parsed when first used, see {@link XmlFragment }.
+         * 
+         * <p>
+         * This accessor method returns a reference to the live list,
+         * not a snapshot. Therefore any modification you make to the
+         * returned list will be present inside the JAXB object.
+         * This is why there is not a <CODE>set</CODE> method for the any property.
+         * 
+         * <p>
+         * Objects of the following type(s) are allowed in the list
+         * {@link Element }
+         * 
+         * 
+         */
+        public List<Element> getAny() {
+            if (any == null) {
+                any = new ArrayList<Element>();
+            }
+            return this.any;
+        }
+
     }
 
 
@@ -607,7 +664,8 @@ public class OriginalModel
      */
     @XmlAccessorType(XmlAccessType.FIELD)
     @XmlType(name = "", propOrder = {
-        "parameter"
+        "parameter",
+        "any"
     })
     public static class ListOfParameters
         extends SBase
@@ -615,6 +673,8 @@ public class OriginalModel
 
         @XmlElement(required = true)
         protected List<Parameter> parameter;
+        @XmlAnyElement(XmlFragment.Handler.class)
+        protected List<Element> any;
 
         /**
          * Gets the value of the parameter property.
@@ -645,6 +705,30 @@ public class OriginalModel
             return this.parameter;
         }
 
+        /**
+         * Gets the value of the any property: the content of the element, when it was kept
+         * as xml instead of being bound, see {@link fr.curie.cd2sbgnml.io.CellDesignerStreamReader.Binding#LAZY}.
+         * Its elements are then only parsed when first used, see {@link XmlFragment }.
+         * 
+         * <p>
+         * This accessor method returns a reference to the live list,
+         * not a snapshot. Therefore any modification you make to the
+         * returned list will be present inside the JAXB object.
+         * This is why there is not a <CODE>set</CODE> method for the any property.
+         * 
+         * <p>
+         * Objects of the following type(s) are allowed in the list
+         * {@link Element }
+         * 
+         * 
+         */
+        public List<Element> getAny() {
+            if (any == null) {
+                any = new ArrayList<Element>();
+            }
+            return this.any;
+        }
+
     }
 
 
@@ -733,7 +817,8 @@ public class OriginalModel
      */
     @XmlAccessorType(XmlAccessType.FIELD)
     @XmlType(name = "", propOrder = {
-        "algebraicRuleOrAssignmentRuleOrRateRule"
+        "algebraicRuleOrAssignmentRuleOrRateRule",
+        "any"
     })
     public static class ListOfRules
         extends SBase
@@ -745,6 +830,8 @@ public class OriginalModel
             @XmlElement(name = "rateRule", type = RateRule.class)
         })
         protected List<Rule> algebraicRuleOrAssignmentRuleOrRateRule;
+        @XmlAnyElement(XmlFragment.Handler.class)
+        protected List<Element> any;
 
         /**
          * Gets the value of the algebraicRuleOrAssignmentRuleOrRateRule property.
@@ -777,6 +864,30 @@ public class OriginalModel
             return this.algebraicRuleOrAssignmentRuleOrRateRule;
         }
 
+        /**
+         * Gets the value of the any property: the content of the element, when it was kept
+         * as xml instead of being bound, see {@link fr.curie.cd2sbgnml.io.CellDesignerStreamReader.Binding#LAZY}.
+         * Its elements are then only parsed when first used, see {@link XmlFragment }.
+         * 
+         * <p>
+         * This accessor method returns a reference to the live list,
+         * not a snapshot. Therefore any modification you make to the
+         * returned list will be present inside the JAXB object.
+         * This is why there is not a <CODE>set</CODE> method for the any property.
+         * 
+         * <p>
+         * Objects of the following type(s) are allowed in the list
+         * {@link Element }
+         * 
+         * 
+         */
+        public List<Element> getAny() {
+            if (any == null) {
+                any = new ArrayList<Element>();
+            }
+            return this.any;
+        }
+
     }
 
 
@@ -863,7 +974,8 @@ public class OriginalModel
      */
     @XmlAccessorType(XmlAccessType.FIELD)
     @XmlType(name = "", propOrder = {
-        "unitDefinition"
+        "unitDefinition",
+        "any"
     })
     public static class ListOfUnitDefinitions
         extends SBase
@@ -871,6 +983,8 @@ public class OriginalModel
 
         @XmlElement(required = true)
         protected List<UnitDefinition> unitDefinition;
+        @XmlAnyElement(XmlFragment.Handler.class)
+        protected List<Element> any;
 
         /**
          * Gets the value of the unitDefinition property.
@@ -901,6 +1015,30 @@ public class OriginalModel
             return this.unitDefinition;
         }
 
+        /**
+         * Gets the value of the any property: the content of the element, when it was kept
+         * as xml instead of being bound, see {@link fr.curie.cd2sbgnml.io.CellDesignerStreamReader.Binding#LAZY}.
+         * Its elements are then only parsed when first used, see {@link XmlFragment }.
+         * 
+         * <p>
+         * This accessor method returns a reference to the live list,
+         * not a snapshot. Therefore any modification you make to the
+         * returned list will be present inside the JAXB object.
+         * This is why there is not a <CODE>set</CODE> method for the any property.
+         * 
+         * <p>
+         * Objects of the following type(s) are allowed in the list
+         * {@link Element }
+         * 
+         * 
+         */
+        public List<Element> getAny() {
+            if (any == null) {
+                any = new ArrayList<Element>();
+            }
+            return this.any;
+        }
+
     }
 
 }
@@ -19,6 +19,7 @@ import javax.xml.bind.annotation.XmlSeeAlso;
 import javax.xml.bind.annotation.XmlType;
 import javax.xml.bind.annotation.adapters.CollapsedStringAdapter;
 import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
+import fr.curie.cd2sbgnml.io.XmlFragment;
 import org.w3c.dom.Element;
 
 
@@ -172,11 +173,12 @@ public abstract class SBase {
     })
     public static class Notes {
 
-        @XmlAnyElement
+        @XmlAnyElement(XmlFragment.Handler.class)
         protected List<Element> any;
 
         /**
-         * Gets the value of the any property.
+         * Gets the value of the any property: its elements are kept as xml,
+         * and only parsed when first used, see {@link XmlFragment }.
          * 
          * <p>
          * This accessor method returns a reference to the live list,
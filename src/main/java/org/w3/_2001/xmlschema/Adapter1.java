@@ -0,0 +1,25 @@
+//
+// This file was generated by the JavaTM Architecture for XML Binding(JAXB) Reference Implementation, v2.2.8-b130911.1802 
+// See <a href="http://java.sun.com/xml/jaxb">http://java.sun.com/xml/jaxb</a> 
+// Any modifications to this file will be lost upon recompilation of the source schema. 
+//
+
+
+package org.w3._2001.xmlschema;
+
+import javax.xml.bind.annotation.adapters.XmlAdapter;
+
+public class Adapter1
+    extends XmlAdapter<String, Double>
+{
+
+
+    public Double unmarshal(String value) {
+        return (fr.curie.cd2sbgnml.xmlcdwrappers.Decimals.parse(value));
+    }
+
+    public String marshal(Double value) {
+        return (fr.curie.cd2sbgnml.xmlcdwrappers.Decimals.print(value));
+    }
+
+}
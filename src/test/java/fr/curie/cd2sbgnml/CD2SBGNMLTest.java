@@ -0,0 +1,217 @@
+package fr.curie.cd2sbgnml;
+
+import fr.curie.cd2sbgnml.io.CellDesignerStreamReader;
+import fr.curie.cd2sbgnml.io.SbgnStreamEmitter;
+import fr.curie.cd2sbgnml.io.SbgnStreamWriter;
+import fr.curie.cd2sbgnml.xmlcdwrappers.ModelWrapper;
+import fr.curie.cd2sbgnml.xmlcdwrappers.ReactantWrapper;
+import fr.curie.cd2sbgnml.xmlcdwrappers.ReactionWrapper;
+import org.junit.Test;
+import org.sbml._2001.ns.celldesigner.SpeciesAlias;
+import org.sbml._2001.ns.celldesigner.SpeciesIdentity;
+import org.sbml.sbml.level2.version4.Reaction;
+import org.sbml.sbml.level2.version4.Sbml;
+import org.sbml.sbml.level2.version4.Species;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class CD2SBGNMLTest {
+
+    private static final Path SAMPLE = Paths.get("samples", "dendcells.xml");
+
+    private static Sbml read(Path file) throws Exception {
+        return CellDesignerStreamReader.read(file);
+    }
+
+    private static byte[] streamed(CD2SBGNML converter, Sbml sbml, ConversionMetrics metrics) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (SbgnStreamEmitter emitter = new SbgnStreamWriter().open(out)) {
+            converter.toSbgn(sbml, emitter, metrics);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] built(CD2SBGNML converter, Sbml sbml, ConversionMetrics metrics) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new SbgnStreamWriter().write(converter.toSbgn(sbml, metrics), out);
+        return out.toByteArray();
+    }
+
+    /**
+     * @return an incremental converter that converted the sample once
+     */
+    private static CD2SBGNML incrementalAfterSample() throws Exception {
+        CD2SBGNML converter = new CD2SBGNML();
+        converter.setIncremental(true);
+        ConversionMetrics metrics = new ConversionMetrics();
+        streamed(converter, read(SAMPLE), metrics);
+        assertEquals(0, metrics.getCounts().get("reusedReactionModels").longValue());
+        return converter;
+    }
+
+    /**
+     * @return the number of reactions linking an alias of the species
+     */
+    private static int neighbours(Sbml sbml, String speciesId) {
+        int count = 0;
+        for(ReactionWrapper reactionW: ModelWrapper.create(sbml).getListOfReactionWrapper()) {
+            for(ReactantWrapper reactantW: reactionW.getReactantList()) {
+                if(reactantW.getAliasW() != null && reactantW.getAliasW().getSpeciesId().equals(speciesId)) {
+                    count++;
+                    break;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return the first species alias that is a base reactant
+     */
+    private static SpeciesAlias linkedAlias(Sbml sbml) {
+        Map<String, SpeciesAlias> aliases = new HashMap<>();
+        for(SpeciesAlias alias: sbml.getModel().getAnnotation().getExtension().getListOfSpeciesAliases()
+                .getSpeciesAlias()) {
+            aliases.put(alias.getId(), alias);
+        }
+        for(Reaction reaction: sbml.getModel().getListOfReactions().getReaction()) {
+            String aliasId = reaction.getAnnotation().getExtension().getBaseReactants().getBaseReactant().get(0)
+                    .getAlias();
+            if(aliases.containsKey(aliasId)) {
+                return aliases.get(aliasId);
+            }
+        }
+        throw new IllegalStateException("No species alias in reactions");
+    }
+
+    private static long count(ConversionMetrics metrics, String name) {
+        return metrics.getCounts().get(name);
+    }
+
+    //    <<<<< START incremental >>>>>
+
+    @Test
+    public void unchangedMapAllReused() throws Exception {
+        CD2SBGNML converter = incrementalAfterSample();
+        Sbml sbml = read(SAMPLE);
+        ConversionMetrics metrics = new ConversionMetrics();
+        byte[] output = streamed(converter, sbml, metrics);
+
+        assertEquals(sbml.getModel().getListOfReactions().getReaction().size(),
+                count(metrics, "reusedReactionModels"));
+        assertEquals(ModelWrapper.create(read(SAMPLE)).getListOfSpeciesWrapper().size(),
+                count(metrics, "reusedSpecies"));
+        assertArrayEquals(streamed(new CD2SBGNML(), read(SAMPLE), new ConversionMetrics()), output);
+    }
+
+    @Test
+    public void movedAliasSameAsFullConversion() throws Exception {
+        CD2SBGNML converter = incrementalAfterSample();
+        Sbml sbml = read(SAMPLE);
+        SpeciesAlias alias = linkedAlias(sbml);
+        alias.getBounds().setX(alias.getBounds().getX() + 25);
+        alias.getBounds().setW(alias.getBounds().getW() + 10);
+        ConversionMetrics metrics = new ConversionMetrics();
+        byte[] output = streamed(converter, sbml, metrics);
+
+        int reactionCount = sbml.getModel().getListOfReactions().getReaction().size();
+        int neighbours = neighbours(sbml, alias.getSpecies());
+        assertTrue(neighbours > 0);
+        assertEquals(reactionCount - neighbours, count(metrics, "reusedReactionModels"));
+        assertArrayEquals(streamed(new CD2SBGNML(), sbml, new ConversionMetrics()), output);
+    }
+
+    @Test
+    public void movedAliasBuiltSameAsFullConversion() throws Exception {
+        CD2SBGNML converter = new CD2SBGNML();
+        converter.setIncremental(true);
+        built(converter, read(SAMPLE), new ConversionMetrics());
+        Sbml sbml = read(SAMPLE);
+        SpeciesAlias alias = linkedAlias(sbml);
+        alias.getBounds().setY(alias.getBounds().getY() - 40);
+        ConversionMetrics metrics = new ConversionMetrics();
+        byte[] output = built(converter, sbml, metrics);
+
+        int reactionCount = sbml.getModel().getListOfReactions().getReaction().size();
+        assertEquals(reactionCount - neighbours(sbml, alias.getSpecies()), count(metrics, "reusedReactionModels"));
+        assertArrayEquals(built(new CD2SBGNML(), sbml, new ConversionMetrics()), output);
+    }
+
+    @Test
+    public void editedReactionSameAsFullConversion() throws Exception {
+        CD2SBGNML converter = incrementalAfterSample();
+        Sbml sbml = read(SAMPLE);
+        List<Reaction> reactions = sbml.getModel().getListOfReactions().getReaction();
+        Reaction reaction = null;
+        for(int i=reactions.size() / 2; reaction == null; i++) {
+            if(reactions.get(i).getAnnotation().getExtension().getReactionType().equals("STATE_TRANSITION")) {
+                reaction = reactions.get(i);
+            }
+        }
+        reaction.setReversible(!reaction.isReversible());
+        reaction.getAnnotation().getExtension().setReactionType("TRANSPORT");
+        ConversionMetrics metrics = new ConversionMetrics();
+        byte[] output = streamed(converter, sbml, metrics);
+
+        assertEquals(reactions.size() - 1, count(metrics, "reusedReactionModels"));
+        assertArrayEquals(streamed(new CD2SBGNML(), sbml, new ConversionMetrics()), output);
+    }
+
+    @Test
+    public void removedReactionSameAsFullConversion() throws Exception {
+        CD2SBGNML converter = incrementalAfterSample();
+        Sbml sbml = read(SAMPLE);
+        List<Reaction> reactions = sbml.getModel().getListOfReactions().getReaction();
+        reactions.remove(reactions.size() / 3);
+        ConversionMetrics metrics = new ConversionMetrics();
+        byte[] output = streamed(converter, sbml, metrics);
+
+        assertEquals(reactions.size(), count(metrics, "reusedReactionModels"));
+        assertArrayEquals(streamed(new CD2SBGNML(), sbml, new ConversionMetrics()), output);
+    }
+
+    @Test
+    public void shiftedIdsSameAsFullConversion() throws Exception {
+        CD2SBGNML converter = incrementalAfterSample();
+        Sbml sbml = read(SAMPLE);
+        // a multimer gets one more unit of information, so the ids of the glyphs after it move
+        Species multimer = null;
+        for(Species species: sbml.getModel().getListOfSpecies().getSpecies()) {
+            SpeciesIdentity identity = species.getAnnotation().getExtension().getSpeciesIdentity();
+            if(identity.getState() != null && identity.getState().getHomodimer() == null) {
+                identity.getState().setHomodimer(BigInteger.valueOf(2));
+                multimer = species;
+                break;
+            }
+        }
+        assertNotNull(multimer);
+        ConversionMetrics metrics = new ConversionMetrics();
+        byte[] output = streamed(converter, sbml, metrics);
+
+        int reactionCount = sbml.getModel().getListOfReactions().getReaction().size();
+        assertEquals(reactionCount - neighbours(sbml, multimer.getId()), count(metrics, "reusedReactionModels"));
+        assertArrayEquals(streamed(new CD2SBGNML(), sbml, new ConversionMetrics()), output);
+    }
+
+    @Test
+    public void otherMapNothingReused() throws Exception {
+        CD2SBGNML converter = incrementalAfterSample();
+        Path other = Paths.get("samples", "components44.xml");
+        ConversionMetrics metrics = new ConversionMetrics();
+        byte[] output = streamed(converter, read(other), metrics);
+
+        assertEquals(0, count(metrics, "reusedReactionModels"));
+        assertEquals(0, count(metrics, "reusedSpecies"));
+        assertArrayEquals(streamed(new CD2SBGNML(), read(other), new ConversionMetrics()), output);
+    }
+
+    //    <<<<< END incremental >>>>>
+}
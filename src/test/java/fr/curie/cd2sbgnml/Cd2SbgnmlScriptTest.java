@@ -0,0 +1,72 @@
+package fr.curie.cd2sbgnml;
+
+import fr.curie.cd2sbgnml.io.CellDesignerStreamReader;
+import fr.curie.cd2sbgnml.io.ModelValidator;
+import fr.curie.cd2sbgnml.io.SbgnStreamWriter;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.Assert.*;
+
+public class Cd2SbgnmlScriptTest {
+
+    private static final Path SAMPLE = Paths.get("samples", "dendcells.xml");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void defaultOptions() {
+        Cd2SbgnmlScript.Options options = new Cd2SbgnmlScript.Options();
+        assertEquals(CellDesignerStreamReader.Binding.STAX, options.getBinding());
+        assertEquals(SbgnStreamWriter.Marshalling.STREAM, options.getMarshalling());
+        assertEquals(ModelValidator.Mode.ON, options.getValidation());
+        assertFalse(options.isCompact());
+        assertNull(options.getCache());
+    }
+
+    @Test
+    public void optionsOnlyApplyToTheirConversion() throws Exception {
+        Path built = folder.getRoot().toPath().resolve("built.sbgn");
+        Path streamed = folder.getRoot().toPath().resolve("streamed.sbgn");
+
+        Cd2SbgnmlScript.Options jaxb = new Cd2SbgnmlScript.Options()
+                .setBinding(CellDesignerStreamReader.Binding.JAXB)
+                .setMarshalling(SbgnStreamWriter.Marshalling.JAXB);
+        assertEquals(BatchConverter.Status.OK, Cd2SbgnmlScript.convert(SAMPLE, built, jaxb, new ConversionMetrics()));
+
+        Cd2SbgnmlScript.Options defaults = new Cd2SbgnmlScript.Options();
+        assertEquals(SbgnStreamWriter.Marshalling.STREAM, defaults.getMarshalling());
+        assertEquals(BatchConverter.Status.OK,
+                Cd2SbgnmlScript.convert(SAMPLE, streamed, defaults, new ConversionMetrics()));
+
+        assertArrayEquals(Files.readAllBytes(built), Files.readAllBytes(streamed));
+    }
+
+    @Test
+    public void copiedOptions() {
+        Cd2SbgnmlScript.Options options = new Cd2SbgnmlScript.Options()
+                .setCompact(true)
+                .setValidation(ModelValidator.Mode.BACKGROUND);
+        Cd2SbgnmlScript.Options copy = new Cd2SbgnmlScript.Options(options)
+                .setMarshalling(SbgnStreamWriter.Marshalling.JAXB);
+
+        assertTrue(copy.isCompact());
+        assertEquals(ModelValidator.Mode.BACKGROUND, copy.getValidation());
+        assertEquals(SbgnStreamWriter.Marshalling.STREAM, options.getMarshalling());
+    }
+
+    @Test
+    public void notValidated() throws Exception {
+        Path output = folder.getRoot().toPath().resolve("output.sbgn");
+        Cd2SbgnmlScript.Options options = new Cd2SbgnmlScript.Options().setValidation(ModelValidator.Mode.OFF);
+        assertEquals(BatchConverter.Status.NOT_VALIDATED,
+                Cd2SbgnmlScript.convert(SAMPLE, output, options, new ConversionMetrics()));
+        assertTrue(Cd2SbgnmlScript.validate(output.toString()));
+    }
+}
@@ -0,0 +1,57 @@
+package fr.curie.cd2sbgnml;
+
+import fr.curie.cd2sbgnml.io.CellDesignerStreamReader;
+import org.junit.Test;
+
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class ConversionMetricsTest {
+
+    private static Map<String, Boolean> parallelStages(ConversionMetrics metrics) {
+        Map<String, Boolean> parallel = new HashMap<>();
+        for(ConversionMetrics.Stage stage: metrics.getStages()) {
+            parallel.put(stage.getName(), stage.isParallel());
+        }
+        return parallel;
+    }
+
+    @Test
+    public void parallelStageInJson() {
+        ConversionMetrics metrics = new ConversionMetrics();
+        ConversionMetrics.Timer timer = metrics.start("sequential");
+        timer.stop();
+        timer = metrics.start("parallel");
+        timer.setParallel(true);
+        timer.stop();
+
+        String json = metrics.toJson();
+        assertTrue(json, json.contains("\"name\": \"sequential\", ") && json.contains("\"parallel\": false}"));
+        assertTrue(json, json.contains("\"name\": \"parallel\", ") && json.contains("\"parallel\": true}"));
+    }
+
+    @Test
+    public void bigMapStagesFlaggedParallel() throws Exception {
+        ConversionMetrics metrics = new ConversionMetrics();
+        new CD2SBGNML().toSbgn(CellDesignerStreamReader.read(Paths.get("samples", "dendcells.xml")), metrics);
+
+        Map<String, Boolean> parallel = parallelStages(metrics);
+        assertTrue(parallel.get("wrap"));
+        assertTrue(parallel.get("reactionModels"));
+        assertFalse(parallel.get("styles"));
+        assertFalse(parallel.get("arcs"));
+    }
+
+    @Test
+    public void sequentialConversionNotFlagged() throws Exception {
+        CD2SBGNML converter = new CD2SBGNML();
+        converter.setParallel(false);
+        ConversionMetrics metrics = new ConversionMetrics();
+        converter.toSbgn(CellDesignerStreamReader.read(Paths.get("samples", "dendcells.xml")), metrics);
+
+        assertFalse(parallelStages(metrics).containsValue(true));
+    }
+}
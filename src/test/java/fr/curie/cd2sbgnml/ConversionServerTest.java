@@ -0,0 +1,43 @@
+package fr.curie.cd2sbgnml;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class ConversionServerTest {
+
+    @Test
+    public void queryParameterAmongOthers() throws Exception {
+        assertEquals("true", ConversionServer.queryParameter(new URI("/cd2sbgnml?compact=true"), "compact"));
+        assertEquals("true", ConversionServer.queryParameter(new URI("/cd2sbgnml?a=1&compact=true&b"), "compact"));
+        assertEquals("", ConversionServer.queryParameter(new URI("/cd2sbgnml?compact"), "compact"));
+        assertEquals("a b", ConversionServer.queryParameter(new URI("/cd2sbgnml?x=a%20b"), "x"));
+    }
+
+    @Test
+    public void queryParameterMissing() throws Exception {
+        assertNull(ConversionServer.queryParameter(new URI("/cd2sbgnml"), "compact"));
+        assertNull(ConversionServer.queryParameter(new URI("/cd2sbgnml?compactness=true"), "compact"));
+    }
+
+    @Test
+    public void invalidPathIsAnswered() throws Exception {
+        ConversionServer server = new ConversionServer(1, 0, null);
+        server.start();
+        ByteArrayOutputStream responses = new ByteArrayOutputStream();
+        String requests = "cd2sbgnml\tin\u0000put.xml\tout.sbgn\n";
+        server.serveStream(new ByteArrayInputStream(requests.getBytes(StandardCharsets.UTF_8)),
+                new PrintStream(responses, true, "UTF-8"));
+        server.stop();
+
+        String[] lines = new String(responses.toByteArray(), StandardCharsets.UTF_8).split("\n");
+        assertEquals(1, lines.length);
+        assertTrue(lines[0], lines[0].startsWith(BatchConverter.Status.FAILED + "\t"));
+    }
+}
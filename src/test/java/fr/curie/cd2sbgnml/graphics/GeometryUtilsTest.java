@@ -3,10 +3,13 @@ package fr.curie.cd2sbgnml.graphics;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.awt.geom.AffineTransform;
 import java.awt.geom.Line2D;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
+import java.util.AbstractMap.SimpleEntry;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
@@ -308,4 +311,78 @@ public class GeometryUtilsTest {
     }
 
     //    <<<<< END rectanglePerimeterPointFromAngle >>>>>
+
+    //    <<<<< START Polyline overloads >>>>>
+
+    @Test
+    public void getMiddleOfPolylineSegmentPolyline() {
+        Polyline poly = Polyline.of(poly4);
+        for(int i=0; i < poly4.size() - 1; i++) {
+            assertEquals(GeometryUtils.getMiddleOfPolylineSegment(poly4, i),
+                    GeometryUtils.getMiddleOfPolylineSegment(poly, i));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void getMiddleOfPolylineSegmentPolyline1Point() {
+        GeometryUtils.getMiddleOfPolylineSegment(Polyline.of(Collections.singletonList(p0)), 0);
+    }
+
+    @Test
+    public void splitPolylineAtSegment1Segment() {
+        SimpleEntry<Polyline, Polyline> res = GeometryUtils.splitPolylineAtSegment(Polyline.of(poly1), 0);
+        assertEquals(Arrays.asList(p0, new Point2D.Float(5, 5)), res.getKey().asList());
+        assertEquals(Arrays.asList(new Point2D.Float(5, 5), p10), res.getValue().asList());
+    }
+
+    @Test
+    public void splitPolylineAtSegment4SegmentsIndex1() {
+        SimpleEntry<Polyline, Polyline> res = GeometryUtils.splitPolylineAtSegment(Polyline.of(poly4), 1);
+        Point2D.Float middle = new Point2D.Float(12.5f, 7.5f);
+        assertEquals(Arrays.asList(p0, p10, middle), res.getKey().asList());
+        assertEquals(Arrays.asList(middle, poly4.get(2), poly4.get(3), poly4.get(4)), res.getValue().asList());
+    }
+
+    @Test
+    public void splitPolylineAtSegmentSameForLists() {
+        for(int i=0; i < poly4.size() - 1; i++) {
+            SimpleEntry<Polyline, Polyline> res = GeometryUtils.splitPolylineAtSegment(Polyline.of(poly4), i);
+            SimpleEntry<List<Point2D.Float>, List<Point2D.Float>> listRes = GeometryUtils.splitPolylineAtSegment(poly4, i);
+            assertEquals(listRes.getKey(), res.getKey().asList());
+            assertEquals(listRes.getValue(), res.getValue().asList());
+        }
+    }
+
+    @Test
+    public void convertPointsPolyline() {
+        List<AffineTransform> transforms = Arrays.asList(
+                AffineTransform.getTranslateInstance(10, 0),
+                AffineTransform.getScaleInstance(2, 3));
+        Polyline res = GeometryUtils.convertPoints(Polyline.of(poly1), transforms);
+        assertEquals(Arrays.asList(new Point2D.Float(20, 0), new Point2D.Float(40, 30)), res.asList());
+        assertEquals(GeometryUtils.convertPoints(poly1, transforms), res.asList());
+    }
+
+    @Test
+    public void convertPointsPolylineNoTransform() {
+        Polyline poly = Polyline.of(poly4);
+        assertEquals(poly, GeometryUtils.convertPoints(poly, Collections.<AffineTransform>emptyList()));
+    }
+
+    @Test
+    public void getNormalizedEndPoints3SegmentCenterPolyline(){
+        Polyline res = GeometryUtils.getNormalizedEndPoints(
+                Polyline.of(_3segmentp0p50),
+                square10AtOrigin,
+                square10AtX50,
+                AnchorPoint.CENTER,
+                AnchorPoint.CENTER);
+        assertEquals(4, res.size());
+        assertEquals(new Point2D.Float(5,5), res.getFirst());
+        assertEquals(_3segmentp0p50.get(1), res.get(1));
+        assertEquals(_3segmentp0p50.get(2), res.get(2));
+        assertEquals(new Point2D.Float(5,45), res.getLast());
+    }
+
+    //    <<<<< END Polyline overloads >>>>>
 }
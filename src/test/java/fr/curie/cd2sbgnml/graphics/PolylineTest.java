@@ -0,0 +1,222 @@
+package fr.curie.cd2sbgnml.graphics;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.geom.Point2D;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PolylineTest {
+
+    List<Point2D.Float> points3;
+    Polyline poly3;
+
+    @Before
+    public void setUp() {
+        points3 = Arrays.asList(
+                new Point2D.Float(0, 0),
+                new Point2D.Float(10, 5),
+                new Point2D.Float(20, -5));
+        poly3 = Polyline.of(points3);
+    }
+
+    //    <<<<< START of >>>>>
+
+    @Test
+    public void ofKeepsPoints() {
+        assertEquals(3, poly3.size());
+        assertEquals(points3, poly3.asList());
+        assertEquals(10f, poly3.getX(1), 0);
+        assertEquals(5f, poly3.getY(1), 0);
+        assertEquals(new Point2D.Float(0, 0), poly3.getFirst());
+        assertEquals(new Point2D.Float(20, -5), poly3.getLast());
+    }
+
+    @Test
+    public void ofEmptyList() {
+        Polyline empty = Polyline.of(Collections.<Point2D.Float>emptyList());
+        assertTrue(empty.isEmpty());
+        assertEquals(Polyline.EMPTY, empty);
+        assertEquals("[]", empty.toString());
+    }
+
+    @Test
+    public void getReturnsCopy() {
+        poly3.get(1).setLocation(100, 100);
+        assertEquals(new Point2D.Float(10, 5), poly3.get(1));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void getIndexTooHigh() {
+        poly3.get(3);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void getNegativeIndex() {
+        poly3.getX(-1);
+    }
+
+    @Test
+    public void toStringSameAsList() {
+        assertEquals(points3.toString(), poly3.toString());
+    }
+
+    //    <<<<< END of >>>>>
+
+    //    <<<<< START reverse >>>>>
+
+    @Test
+    public void reverse3Points() {
+        Polyline reversed = poly3.reverse();
+        assertEquals(3, reversed.size());
+        assertEquals(new Point2D.Float(20, -5), reversed.get(0));
+        assertEquals(new Point2D.Float(10, 5), reversed.get(1));
+        assertEquals(new Point2D.Float(0, 0), reversed.get(2));
+        assertEquals(new Point2D.Float(0, 0), poly3.get(0));
+    }
+
+    @Test
+    public void reverseTwiceIsSame() {
+        assertEquals(poly3, poly3.reverse().reverse());
+    }
+
+    @Test
+    public void reverse1Point() {
+        Polyline single = poly3.subPolyline(1, 2);
+        assertEquals(single, single.reverse());
+    }
+
+    @Test
+    public void reverseEmpty() {
+        assertTrue(Polyline.EMPTY.reverse().isEmpty());
+    }
+
+    //    <<<<< END reverse >>>>>
+
+    //    <<<<< START subPolyline >>>>>
+
+    @Test
+    public void subPolylineMiddle() {
+        Polyline sub = poly3.subPolyline(1, 3);
+        assertEquals(points3.subList(1, 3), sub.asList());
+    }
+
+    @Test
+    public void subPolylineWhole() {
+        assertEquals(poly3, poly3.subPolyline(0, 3));
+    }
+
+    @Test
+    public void subPolylineEmpty() {
+        assertTrue(poly3.subPolyline(2, 2).isEmpty());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void subPolylineEndTooHigh() {
+        poly3.subPolyline(1, 4);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void subPolylineStartAfterEnd() {
+        poly3.subPolyline(2, 1);
+    }
+
+    //    <<<<< END subPolyline >>>>>
+
+    //    <<<<< START with >>>>>
+
+    @Test
+    public void withReplacesOnePoint() {
+        Polyline changed = poly3.with(1, new Point2D.Double(7, 8));
+        assertEquals(new Point2D.Float(7, 8), changed.get(1));
+        assertEquals(poly3.get(0), changed.get(0));
+        assertEquals(poly3.get(2), changed.get(2));
+    }
+
+    @Test
+    public void withLeavesOriginal() {
+        poly3.with(0, new Point2D.Float(7, 8));
+        assertEquals(points3, poly3.asList());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void withIndexTooHigh() {
+        poly3.with(3, new Point2D.Float(7, 8));
+    }
+
+    //    <<<<< END with >>>>>
+
+    //    <<<<< START Builder >>>>>
+
+    @Test
+    public void builderGrowsFromZeroCapacity() {
+        Polyline.Builder builder = Polyline.builder(0);
+        for(int i=0; i < 100; i++) {
+            builder.add(i, -i);
+        }
+        Polyline built = builder.build();
+        assertEquals(100, built.size());
+        for(int i=0; i < 100; i++) {
+            assertEquals(i, built.getX(i), 0);
+            assertEquals(-i, built.getY(i), 0);
+        }
+    }
+
+    @Test
+    public void builderUnderCapacity() {
+        Polyline built = Polyline.builder(10)
+                .add(new Point2D.Float(1, 2))
+                .add(3, 4)
+                .build();
+        assertEquals(2, built.size());
+        assertEquals(Polyline.of(Arrays.asList(new Point2D.Float(1, 2), new Point2D.Float(3, 4))), built);
+    }
+
+    @Test
+    public void builderAddAll() {
+        Polyline built = Polyline.builder(1)
+                .add(-1, -1)
+                .addAll(poly3)
+                .addAll(Polyline.EMPTY)
+                .build();
+        assertEquals(4, built.size());
+        assertEquals(new Point2D.Float(-1, -1), built.getFirst());
+        assertEquals(poly3, built.subPolyline(1, 4));
+    }
+
+    @Test
+    public void builderEmpty() {
+        assertEquals(Polyline.EMPTY, Polyline.builder(5).build());
+    }
+
+    //    <<<<< END Builder >>>>>
+
+    //    <<<<< START asList >>>>>
+
+    @Test
+    public void asListEqualsList() {
+        List<Point2D.Float> list = poly3.asList();
+        assertEquals(points3, list);
+        assertEquals(points3.hashCode(), list.hashCode());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void asListIsReadOnly() {
+        poly3.asList().set(0, new Point2D.Float(1, 1));
+    }
+
+    //    <<<<< END asList >>>>>
+
+    @Test
+    public void equalsAndHashCode() {
+        Polyline same = Polyline.of(points3);
+        assertEquals(poly3, same);
+        assertEquals(poly3.hashCode(), same.hashCode());
+        assertNotEquals(poly3, poly3.reverse());
+        assertNotEquals(poly3, points3);
+    }
+}
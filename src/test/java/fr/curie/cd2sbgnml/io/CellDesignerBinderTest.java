@@ -0,0 +1,184 @@
+package fr.curie.cd2sbgnml.io;
+
+import fr.curie.cd2sbgnml.io.CellDesignerStreamReader.Binding;
+import org.junit.Test;
+import org.sbml._2001.ns.celldesigner.ListOfBlockDiagrams;
+import org.sbml._2001.ns.celldesigner.ListOfGroups;
+import org.sbml._2001.ns.celldesigner.ListOfSpeciesTag;
+import org.sbml.sbml.level2.version4.KineticLaw;
+import org.sbml.sbml.level2.version4.OriginalModel;
+import org.sbml.sbml.level2.version4.Sbml;
+import org.sbml.sbml.level2.version4.StoichiometryMath;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+import javax.xml.XMLConstants;
+import javax.xml.bind.JAXBElement;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compares the object graphs bound by {@link CellDesignerBinder} with the ones of the JAXB unmarshaller, for each
+ * CellDesigner file of the samples. The binder is called directly, so that it can't fall back to JAXB.
+ */
+public class CellDesignerBinderTest {
+
+    /**
+     * Elements the binder skips, or keeps as fragments
+     */
+    private static final Set<Class<?>> SKIPPED = new HashSet<>(Arrays.<Class<?>>asList(
+            OriginalModel.ListOfFunctionDefinitions.class,
+            OriginalModel.ListOfUnitDefinitions.class,
+            OriginalModel.ListOfParameters.class,
+            OriginalModel.ListOfRules.class,
+            OriginalModel.ListOfEvents.class,
+            KineticLaw.class,
+            StoichiometryMath.class,
+            ListOfGroups.class,
+            ListOfBlockDiagrams.class,
+            ListOfSpeciesTag.class));
+
+    @Test
+    public void staxBindsAsJaxb() throws Exception {
+        for(Path sample: samples()) {
+            Sbml expected = CellDesignerStreamReader.read(sample, Binding.JAXB);
+            Sbml actual = CellDesignerStreamReader.bind(sample, false);
+            assertSameGraph(sample.getFileName().toString(), expected, actual, false);
+        }
+    }
+
+    @Test
+    public void lazyBindsAsJaxb() throws Exception {
+        for(Path sample: samples()) {
+            Sbml expected = CellDesignerStreamReader.read(sample, Binding.JAXB);
+            Sbml actual = CellDesignerStreamReader.bind(sample, true);
+            assertSameGraph(sample.getFileName().toString(), expected, actual, true);
+        }
+    }
+
+    @Test
+    public void samplesAreFound() throws IOException {
+        assertTrue(samples().size() >= 8);
+    }
+
+    private static List<Path> samples() throws IOException {
+        List<Path> samples = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(Paths.get("samples"), "*.xml")) {
+            for(Path file: files) {
+                samples.add(file);
+            }
+        }
+        return samples;
+    }
+
+    /**
+     * @param kept true if the skipped elements are kept, they are then only checked to be there
+     */
+    private static void assertSameGraph(String path, Object expected, Object actual, boolean kept)
+            throws IllegalAccessException {
+        if(expected == null || actual == null) {
+            assertEquals(path, expected, actual);
+            return;
+        }
+        Class<?> type = expected.getClass();
+        if(SKIPPED.contains(type)) {
+            fail(path+" should have been skipped");
+        }
+        if(expected instanceof Element) {
+            assertTrue(path, actual instanceof Element);
+            assertEquals(path, canonical((Element) expected), canonical((Element) actual));
+        }
+        else if(expected instanceof List) {
+            List<?> expectedList = (List<?>) expected;
+            List<?> actualList = (List<?>) actual;
+            assertEquals(path+".size", expectedList.size(), actualList.size());
+            for(int i=0; i < expectedList.size(); i++) {
+                assertSameGraph(path+"["+i+"]", expectedList.get(i), actualList.get(i), kept);
+            }
+        }
+        else if(expected instanceof JAXBElement) {
+            assertTrue(path, actual instanceof JAXBElement);
+            assertEquals(path, ((JAXBElement<?>) expected).getName(), ((JAXBElement<?>) actual).getName());
+            assertSameGraph(path, ((JAXBElement<?>) expected).getValue(), ((JAXBElement<?>) actual).getValue(), kept);
+        }
+        else if(type.getPackage().getName().startsWith("org.sbml.")
+                && !type.isEnum()) {
+            assertEquals(path, type, actual.getClass());
+            for(Class<?> c = type; c != Object.class; c = c.getSuperclass()) {
+                for(Field field: c.getDeclaredFields()) {
+                    if(Modifier.isStatic(field.getModifiers()) || field.isSynthetic()) {
+                        continue;
+                    }
+                    field.setAccessible(true);
+                    String fieldPath = path+"."+field.getName();
+                    Object expectedValue = field.get(expected);
+                    Object actualValue = field.get(actual);
+                    if(expectedValue != null && SKIPPED.contains(expectedValue.getClass())) {
+                        if(kept) {
+                            assertNotNull(fieldPath+" should have been kept", actualValue);
+                            assertEquals(fieldPath, expectedValue.getClass(), actualValue.getClass());
+                        }
+                        else {
+                            assertNull(fieldPath+" should have been skipped", actualValue);
+                        }
+                    }
+                    else {
+                        assertSameGraph(fieldPath, expectedValue, actualValue, kept);
+                    }
+                }
+            }
+        }
+        else {
+            assertEquals(path, expected, actual);
+        }
+    }
+
+    /**
+     * @return names, attributes other than namespace declarations, and text of the element and its descendants,
+     * whitespace between elements left out
+     */
+    private static String canonical(Element element) {
+        StringBuilder sb = new StringBuilder();
+        canonical(element, sb);
+        return sb.toString();
+    }
+
+    private static void canonical(Element element, StringBuilder sb) {
+        sb.append('{').append(element.getNamespaceURI()).append('}').append(element.getLocalName());
+        TreeMap<String, String> attributes = new TreeMap<>();
+        NamedNodeMap attributeNodes = element.getAttributes();
+        for(int i=0; i < attributeNodes.getLength(); i++) {
+            Attr attribute = (Attr) attributeNodes.item(i);
+            if(!XMLConstants.XMLNS_ATTRIBUTE_NS_URI.equals(attribute.getNamespaceURI())) {
+                attributes.put("{"+attribute.getNamespaceURI()+"}"+attribute.getLocalName(), attribute.getValue());
+            }
+        }
+        sb.append(attributes).append('(');
+        for(Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if(child instanceof Element) {
+                canonical((Element) child, sb);
+            }
+            else if(child.getNodeType() == Node.TEXT_NODE || child.getNodeType() == Node.CDATA_SECTION_NODE) {
+                if(!child.getNodeValue().trim().isEmpty()) {
+                    sb.append('"').append(child.getNodeValue()).append('"');
+                }
+            }
+        }
+        sb.append(')');
+    }
+}
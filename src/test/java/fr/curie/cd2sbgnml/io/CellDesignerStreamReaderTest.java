@@ -0,0 +1,71 @@
+package fr.curie.cd2sbgnml.io;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sbml.sbml.level2.version4.Sbml;
+import org.sbml.sbml.level2.version4.Species;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class CellDesignerStreamReaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * First species without extension, second one with it, third one with an empty annotation
+     */
+    private static final String MIXED_EXTENSIONS =
+            "<sbml xmlns=\"http://www.sbml.org/sbml/level2\" " +
+                    "xmlns:celldesigner=\"http://www.sbml.org/2001/ns/celldesigner\" level=\"2\" version=\"4\">\n" +
+            "<model id=\"m\">\n" +
+            "<listOfSpecies>\n" +
+            "<species id=\"s1\" name=\"s1\" compartment=\"default\">\n" +
+            "<annotation>\n" +
+            "<celldesigner:positionToCompartment>inside</celldesigner:positionToCompartment>\n" +
+            "</annotation>\n" +
+            "</species>\n" +
+            "<species id=\"s2\" name=\"s2\" compartment=\"default\">\n" +
+            "<annotation>\n" +
+            "<!-- comment -->\n" +
+            "<celldesigner:extension>\n" +
+            "<celldesigner:positionToCompartment>outside</celldesigner:positionToCompartment>\n" +
+            "</celldesigner:extension>\n" +
+            "</annotation>\n" +
+            "</species>\n" +
+            "<species id=\"s3\" name=\"s3\" compartment=\"default\">\n" +
+            "<annotation></annotation>\n" +
+            "</species>\n" +
+            "</listOfSpecies>\n" +
+            "</model>\n" +
+            "</sbml>\n";
+
+    @Test
+    public void extensionsAreAddedPerAnnotationWithJaxb() throws Exception {
+        assertMixedExtensions(CellDesignerStreamReader.read(new StringReader(MIXED_EXTENSIONS)));
+    }
+
+    @Test
+    public void extensionsAreAddedPerAnnotationWithBinder() throws Exception {
+        Path file = folder.newFile("mixed.xml").toPath();
+        Files.write(file, MIXED_EXTENSIONS.getBytes(StandardCharsets.UTF_8));
+        assertMixedExtensions(CellDesignerStreamReader.read(file, CellDesignerStreamReader.Binding.STAX));
+    }
+
+    private static void assertMixedExtensions(Sbml sbml) {
+        List<Species> species = sbml.getModel().getListOfSpecies().getSpecies();
+        assertEquals(3, species.size());
+        assertEquals("inside", species.get(0).getAnnotation().getExtension().getPositionToCompartment());
+        assertEquals("outside", species.get(1).getAnnotation().getExtension().getPositionToCompartment());
+        assertNotNull(species.get(2).getAnnotation().getExtension());
+        assertEquals(0, species.get(1).getAnnotation().getAny().size());
+    }
+}
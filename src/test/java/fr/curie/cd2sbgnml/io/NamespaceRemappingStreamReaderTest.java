@@ -0,0 +1,56 @@
+package fr.curie.cd2sbgnml.io;
+
+import org.junit.Test;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+import java.io.StringReader;
+import java.util.Iterator;
+
+import static org.junit.Assert.*;
+
+public class NamespaceRemappingStreamReaderTest {
+
+    private static final String FROM = "http://example.org/old";
+    private static final String TO = "http://example.org/new";
+
+    private static XMLStreamReader readerAtRoot(String xml) throws Exception {
+        XMLStreamReader reader = new NamespaceRemappingStreamReader(
+                XMLInputFactory.newInstance().createXMLStreamReader(new StringReader(xml)), FROM, TO);
+        while(reader.next() != XMLStreamConstants.START_ELEMENT) {
+        }
+        return reader;
+    }
+
+    @Test
+    public void remapsNamespaceFound() throws Exception {
+        XMLStreamReader reader = readerAtRoot("<o:root xmlns:o=\"" + FROM + "\" o:a=\"1\"/>");
+        assertEquals(TO, reader.getNamespaceURI());
+        assertEquals(TO, reader.getAttributeNamespace(0));
+        assertEquals("1", reader.getAttributeValue(TO, "a"));
+        assertEquals("o", reader.getNamespaceContext().getPrefix(TO));
+        assertTrue(reader.getNamespaceContext().getPrefixes(TO).hasNext());
+    }
+
+    @Test
+    public void targetNamespaceAlreadyUsed() throws Exception {
+        XMLStreamReader reader = readerAtRoot("<n:root xmlns:n=\"" + TO + "\" n:a=\"1\"/>");
+        assertEquals(TO, reader.getNamespaceURI());
+        assertEquals("1", reader.getAttributeValue(TO, "a"));
+        assertEquals("n", reader.getNamespaceContext().getPrefix(TO));
+        Iterator<?> prefixes = reader.getNamespaceContext().getPrefixes(TO);
+        assertEquals("n", prefixes.next());
+        assertFalse(prefixes.hasNext());
+    }
+
+    @Test
+    public void bothNamespaces() throws Exception {
+        XMLStreamReader reader = readerAtRoot(
+                "<n:root xmlns:n=\"" + TO + "\" xmlns:o=\"" + FROM + "\" o:a=\"old\" n:b=\"new\"/>");
+        assertEquals("old", reader.getAttributeValue(TO, "a"));
+        assertEquals("new", reader.getAttributeValue(TO, "b"));
+        assertEquals("n", reader.getNamespaceContext().getPrefix(TO));
+        assertNull(reader.getAttributeValue(TO, "c"));
+    }
+}
@@ -0,0 +1,162 @@
+package fr.curie.cd2sbgnml.io;
+
+import fr.curie.cd2sbgnml.CD2SBGNML;
+import fr.curie.cd2sbgnml.ConversionMetrics;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sbgn.bindings.*;
+import org.sbgn.bindings.Map;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import javax.xml.bind.ValidationEvent;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that maps streamed by {@link SbgnStreamEmitter} are the same, byte for byte, as the ones built then
+ * marshalled by JAXB, for each CellDesigner file of the samples, and that maps validated as they are streamed get
+ * the same problems as when the file is validated.
+ */
+public class SbgnStreamEmitterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void streamedAsMarshalledFormatted() throws Exception {
+        for(Path sample: samples()) {
+            assertSameOutput(sample, new SbgnStreamWriter());
+        }
+    }
+
+    @Test
+    public void streamedAsMarshalledCompact() throws Exception {
+        for(Path sample: samples()) {
+            assertSameOutput(sample, new SbgnStreamWriter().setFormatted(false));
+        }
+    }
+
+    @Test
+    public void validSamplesWhileStreamed() throws Exception {
+        for(Path sample: samples()) {
+            ModelValidator.EventCollector collector = new ModelValidator.EventCollector();
+            Path output = folder.newFile().toPath();
+            try (SbgnStreamEmitter emitter = new SbgnStreamWriter()
+                    .setSchema(SchemaRegistry.SBGN.getSchema(collector)).open(output)) {
+                new CD2SBGNML().toSbgn(CellDesignerStreamReader.read(sample), emitter, new ConversionMetrics());
+            }
+            assertEquals(sample.toString(), messages(ModelValidator.validate(SchemaRegistry.SBGN, output)),
+                    messages(collector.getEvents()));
+            assertTrue(sample.toString(), ModelValidator.isValid(collector.getEvents()));
+        }
+    }
+
+    @Test
+    public void invalidMapWhileStreamed() throws Exception {
+        Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+        Element html = document.createElementNS("http://www.w3.org/1999/xhtml", "html");
+        Element body = document.createElementNS("http://www.w3.org/1999/xhtml", "xhtml:body");
+        body.setTextContent("a < b");
+        html.appendChild(body);
+        // undeclares the xhtml default namespace
+        html.appendChild(document.createElementNS(null, "plain"));
+
+        Map map = new Map();
+        map.setLanguage("process description");
+        SBGNBase.Notes notes = new SBGNBase.Notes();
+        notes.getAny().add(html);
+        map.setNotes(notes);
+        Glyph glyph = glyph("g1", "macromolecule");
+        Glyph sameId = glyph("g1", "simple chemical");
+        Glyph noClass = glyph("g2", null);
+        Arc arc = new Arc();
+        arc.setId("a1");
+        arc.setClazz("production");
+        arc.setSource(glyph);
+        arc.setTarget(glyph("missing", "macromolecule"));
+        Arc.Start start = new Arc.Start();
+        arc.setStart(start);
+        Arc.End end = new Arc.End();
+        end.setX(10);
+        arc.setEnd(end);
+
+        ModelValidator.EventCollector collector = new ModelValidator.EventCollector();
+        Path output = folder.newFile().toPath();
+        try (SbgnStreamEmitter emitter = new SbgnStreamWriter()
+                .setSchema(SchemaRegistry.SBGN.getSchema(collector)).open(output)) {
+            emitter.startMap(map);
+            emitter.glyph(glyph);
+            emitter.glyph(sameId);
+            emitter.glyph(noClass);
+            emitter.arc(arc);
+            emitter.endMap();
+        }
+
+        List<String> expected = messages(ModelValidator.validate(SchemaRegistry.SBGN, output));
+        // the same id is reported twice, like the validator does, as a duplicate and an invalid attribute
+        assertEquals(4, expected.size());
+        assertEquals(expected, messages(collector.getEvents()));
+    }
+
+    private static Glyph glyph(String id, String clazz) {
+        Glyph glyph = new Glyph();
+        glyph.setId(id);
+        glyph.setClazz(clazz);
+        Bbox bbox = new Bbox();
+        bbox.setW(10);
+        bbox.setH(10);
+        glyph.setBbox(bbox);
+        return glyph;
+    }
+
+    private static List<String> messages(List<ValidationEvent> events) {
+        return events.stream().map(ValidationEvent::getMessage).collect(Collectors.toList());
+    }
+
+    @Test
+    public void samplesAreFound() throws IOException {
+        assertTrue(samples().size() >= 8);
+    }
+
+    private static List<Path> samples() throws IOException {
+        List<Path> samples = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(Paths.get("samples"), "*.xml")) {
+            for(Path file: files) {
+                samples.add(file);
+            }
+        }
+        return samples;
+    }
+
+    private static void assertSameOutput(Path sample, SbgnStreamWriter writer) throws Exception {
+        CD2SBGNML converter = new CD2SBGNML();
+
+        Sbgn sbgn = converter.toSbgn(CellDesignerStreamReader.read(sample), new ConversionMetrics());
+        ByteArrayOutputStream marshalled = new ByteArrayOutputStream();
+        writer.write(sbgn, marshalled);
+
+        ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+        try (SbgnStreamEmitter emitter = writer.open(streamed)) {
+            converter.toSbgn(CellDesignerStreamReader.read(sample), emitter, new ConversionMetrics());
+        }
+
+        assertTrue(sample.toString(), marshalled.size() > 0);
+        // as strings first, for a readable difference
+        assertEquals(sample.toString(), new String(marshalled.toByteArray(), StandardCharsets.UTF_8),
+                new String(streamed.toByteArray(), StandardCharsets.UTF_8));
+        assertArrayEquals(sample.toString(), marshalled.toByteArray(), streamed.toByteArray());
+    }
+}
@@ -0,0 +1,297 @@
+package fr.curie.cd2sbgnml.io;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import javax.xml.validation.ValidatorHandler;
+import java.io.StringReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * The ids checked by the schemas of the registry must give the same problems as the validator with the original
+ * schemas, except that the validator only reports one of the references without id.
+ */
+public class SchemaRegistryTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final String TEST_SCHEMA =
+            "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\" targetNamespace=\"urn:test\" " +
+                    "elementFormDefault=\"qualified\">\n" +
+            "  <xs:element name=\"root\">\n" +
+            "    <xs:complexType>\n" +
+            "      <xs:choice maxOccurs=\"unbounded\">\n" +
+            "        <xs:element name=\"a\">\n" +
+            "          <xs:complexType>\n" +
+            "            <xs:attribute name=\"key\" type=\"xs:ID\"/>\n" +
+            "            <xs:attribute name=\"refs\" type=\"xs:IDREFS\"/>\n" +
+            "          </xs:complexType>\n" +
+            "        </xs:element>\n" +
+            "        <xs:element name=\"b\">\n" +
+            "          <xs:complexType>\n" +
+            "            <xs:attribute name=\"key\" type=\"xs:string\"/>\n" +
+            "            <xs:attribute name=\"ref\" type=\"xs:IDREF\"/>\n" +
+            "          </xs:complexType>\n" +
+            "        </xs:element>\n" +
+            "      </xs:choice>\n" +
+            "    </xs:complexType>\n" +
+            "  </xs:element>\n" +
+            "</xs:schema>\n";
+
+    private static String sbgn(String content) {
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+                "<sbgn xmlns=\"http://sbgn.org/libsbgn/0.2\">\n" +
+                "<map language=\"process description\">\n" +
+                content +
+                "</map>\n" +
+                "</sbgn>\n";
+    }
+
+    private static String glyph(String attributes) {
+        return "<glyph class=\"macromolecule\" "+attributes+"><bbox x=\"0\" y=\"0\" w=\"1\" h=\"1\"/></glyph>\n";
+    }
+
+    private static String arc(String attributes) {
+        return "<arc class=\"consumption\" "+attributes+"><start x=\"0\" y=\"0\"/><end x=\"1\" y=\"1\"/></arc>\n";
+    }
+
+    private static String cellDesigner(String species) {
+        return cellDesigner(species, "");
+    }
+
+    private static String cellDesigner(String species, String reactions) {
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+                "<sbml xmlns=\"http://www.sbml.org/sbml/level2/version4\" level=\"2\" version=\"4\">\n" +
+                "<model id=\"m\" metaid=\"m\">\n" +
+                "<listOfCompartments><compartment id=\"c\" metaid=\"c\"/></listOfCompartments>\n" +
+                "<listOfSpecies>\n" +
+                species +
+                "</listOfSpecies>\n" +
+                (reactions.isEmpty() ? "" : "<listOfReactions>\n" + reactions + "</listOfReactions>\n") +
+                "</model>\n" +
+                "</sbml>\n";
+    }
+
+    private static String test(String content) {
+        return "<root xmlns=\"urn:test\">\n" + content + "</root>\n";
+    }
+
+    /**
+     * @return the problems found in the document, with their position
+     */
+    private static List<String> events(Schema schema, String xml) throws Exception {
+        List<String> events = new ArrayList<>();
+        ErrorHandler collector = new ErrorHandler() {
+            @Override
+            public void warning(SAXParseException e) {
+                add("warning", e);
+            }
+
+            @Override
+            public void error(SAXParseException e) {
+                add("error", e);
+            }
+
+            @Override
+            public void fatalError(SAXParseException e) throws SAXException {
+                add("fatal", e);
+                throw e;
+            }
+
+            private void add(String severity, SAXParseException e) {
+                events.add(severity+" "+e.getLineNumber()+":"+e.getColumnNumber()+" "+e.getMessage());
+            }
+        };
+        SAXParserFactory spf = SAXParserFactory.newInstance();
+        spf.setNamespaceAware(true);
+        XMLReader reader = spf.newSAXParser().getXMLReader();
+        ValidatorHandler handler = schema.newValidatorHandler();
+        handler.setErrorHandler(collector);
+        reader.setContentHandler(handler);
+        reader.setErrorHandler(collector);
+        reader.parse(new InputSource(new StringReader(xml)));
+        return events;
+    }
+
+    private static Schema original(URL location) throws SAXException {
+        return SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI).newSchema(location);
+    }
+
+    private static List<String> idEvents(List<String> events) {
+        List<String> idEvents = new ArrayList<>();
+        for(String event: events) {
+            if(event.contains(" cvc-id.")) {
+                idEvents.add(event);
+            }
+        }
+        return idEvents;
+    }
+
+    private static void assertSameEvents(SchemaRegistry schema, String xml) throws Exception {
+        List<String> expected = events(original(schema.getLocation()), xml);
+        assertEquals(expected, events(schema.getSchema(), xml));
+    }
+
+    private URL testSchema(String xsd) throws Exception {
+        Path file = folder.newFile("test.xsd").toPath();
+        Files.write(file, xsd.getBytes(StandardCharsets.UTF_8));
+        return file.toUri().toURL();
+    }
+
+    //    <<<<< START SBGN >>>>>
+
+    @Test
+    public void sbgnDuplicateIds() throws Exception {
+        String xml = sbgn(glyph("id=\"g1\"") + glyph("id=\"g1\"") + arc("id=\"g1\" source=\"g1\" target=\"g1\""));
+        assertSameEvents(SchemaRegistry.SBGN, xml);
+        assertEquals(2, idEvents(events(SchemaRegistry.SBGN.getSchema(), xml)).size());
+    }
+
+    @Test
+    public void sbgnDanglingRef() throws Exception {
+        String xml = sbgn(glyph("id=\"g1\"") + arc("id=\"a1\" source=\"g1\" target=\"nowhere\""));
+        assertSameEvents(SchemaRegistry.SBGN, xml);
+        assertEquals(1, idEvents(events(SchemaRegistry.SBGN.getSchema(), xml)).size());
+    }
+
+    @Test
+    public void sbgnForwardRefs() throws Exception {
+        String xml = sbgn(glyph("id=\"g1\" compartmentRef=\"c1\"")
+                + "<glyph class=\"compartment\" id=\"c1\"><bbox x=\"0\" y=\"0\" w=\"1\" h=\"1\"/></glyph>\n"
+                + arc("id=\"a1\" source=\"g1\" target=\"a2\"")
+                + arc("id=\"a2\" source=\"g1\" target=\"c1\""));
+        assertSameEvents(SchemaRegistry.SBGN, xml);
+        assertTrue(events(SchemaRegistry.SBGN.getSchema(), xml).isEmpty());
+    }
+
+    @Test
+    public void sbgnAllDanglingRefs() throws Exception {
+        String xml = sbgn(glyph("id=\"g1\"") + arc("id=\"a1\" source=\"lost\" target=\"nowhere\""));
+        List<String> expected = events(original(SchemaRegistry.SBGN.getLocation()), xml);
+        List<String> events = events(SchemaRegistry.SBGN.getSchema(), xml);
+
+        // the validator reports only one, at the same position
+        assertEquals(1, idEvents(expected).size());
+        assertEquals(2, idEvents(events).size());
+        assertTrue(events.containsAll(expected));
+    }
+
+    //    <<<<< END SBGN >>>>>
+
+    //    <<<<< START CellDesigner >>>>>
+
+    @Test
+    public void cellDesignerDuplicateMetaids() throws Exception {
+        String xml = cellDesigner(
+                "<species id=\"s1\" metaid=\"s1\" compartment=\"c\"/>\n" +
+                "<species id=\"s2\" metaid=\"s1\" compartment=\"c\"/>\n" +
+                "<species id=\"s3\" metaid=\"c\" compartment=\"c\"/>\n");
+        assertSameEvents(SchemaRegistry.CELLDESIGNER, xml);
+        assertEquals(2, idEvents(events(SchemaRegistry.CELLDESIGNER.getSchema(), xml)).size());
+    }
+
+    /**
+     * MathML ids and SBML metaids, declared in different namespaces, are all ids of the document
+     */
+    @Test
+    public void cellDesignerMathIds() throws Exception {
+        String xml = cellDesigner("<species id=\"s1\" metaid=\"x1\" compartment=\"c\"/>\n",
+                "<reaction id=\"r1\" metaid=\"r1\">\n" +
+                "<listOfReactants><speciesReference species=\"s1\"/></listOfReactants>\n" +
+                "<kineticLaw><math xmlns=\"http://www.w3.org/1998/Math/MathML\">" +
+                "<apply><times/><ci id=\"x1\"> s1 </ci><ci id=\"x2\"> s1 </ci><ci id=\"x2\"> s1 </ci></apply>" +
+                "</math></kineticLaw>\n" +
+                "</reaction>\n");
+        assertSameEvents(SchemaRegistry.CELLDESIGNER, xml);
+        assertEquals(2, idEvents(events(SchemaRegistry.CELLDESIGNER.getSchema(), xml)).size());
+    }
+
+    /**
+     * SBML ids aren't xsd:ID, unlike the MathML ids sharing their name
+     */
+    @Test
+    public void cellDesignerIdsOfOtherTypes() throws Exception {
+        String xml = cellDesigner(
+                "<species id=\"s1\" metaid=\"m1\" compartment=\"c\"/>\n" +
+                "<species id=\"s1\" metaid=\"m2\" compartment=\"c\"/>\n" +
+                "<species id=\"m1\" metaid=\"m3\" compartment=\"c\"/>\n");
+        assertSameEvents(SchemaRegistry.CELLDESIGNER, xml);
+        assertTrue(idEvents(events(SchemaRegistry.CELLDESIGNER.getSchema(), xml)).isEmpty());
+    }
+
+    /**
+     * There is no IDREF in the CellDesigner schema, so no dangling or forward references, but all kinds of problems
+     */
+    @Test
+    public void cellDesignerSamples() throws Exception {
+        Schema original = original(SchemaRegistry.CELLDESIGNER.getLocation());
+        int count = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(Paths.get("samples"), "*.xml")) {
+            for(Path file: files) {
+                String xml = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+                assertEquals(file.toString(), events(original, xml),
+                        events(SchemaRegistry.CELLDESIGNER.getSchema(), xml));
+                count++;
+            }
+        }
+        assertTrue(count >= 8);
+    }
+
+    //    <<<<< END CellDesigner >>>>>
+
+    //    <<<<< START other schemas >>>>>
+
+    /**
+     * Attributes of the same name are checked depending on the declaration of each one
+     */
+    @Test
+    public void sameNameOtherType() throws Exception {
+        URL location = testSchema(TEST_SCHEMA);
+        String xml = test("<a key=\"k1\"/>\n<b key=\"k1\"/>\n<b key=\"k2\" ref=\"k1\"/>\n<b ref=\"k2\"/>\n");
+        List<String> events = events(SchemaRegistry.compile(location), xml);
+        assertEquals(events(original(location), xml), events);
+        assertEquals(1, idEvents(events).size());
+        assertTrue(events.get(0), events.get(0).contains("'k2'"));
+    }
+
+    @Test
+    public void idrefs() throws Exception {
+        URL location = testSchema(TEST_SCHEMA);
+        String xml = test("<a key=\"k1\" refs=\"k1 k3\"/>\n<a key=\"k2\" refs=\"k2\"/>\n<a key=\"k1\"/>\n");
+        assertEquals(events(original(location), xml), events(SchemaRegistry.compile(location), xml));
+    }
+
+    @Test(expected = SAXException.class)
+    public void idElementNotSupported() throws Exception {
+        SchemaRegistry.compile(testSchema(TEST_SCHEMA.replace("<xs:element name=\"a\">",
+                "<xs:element name=\"c\" type=\"xs:ID\"/>\n<xs:element name=\"a\">")));
+    }
+
+    @Test(expected = SAXException.class)
+    public void derivedIdNotSupported() throws Exception {
+        SchemaRegistry.compile(testSchema(TEST_SCHEMA.replace("type=\"xs:ID\"/>",
+                "><xs:simpleType><xs:restriction base=\"xs:ID\"/></xs:simpleType></xs:attribute>")));
+    }
+
+    //    <<<<< END other schemas >>>>>
+}
@@ -0,0 +1,184 @@
+package fr.curie.cd2sbgnml.xmlcdwrappers;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class DecimalsTest {
+
+    /**
+     * Parsing as it was done by the default binding, before Decimals
+     */
+    private static double bigDecimalParse(String s) {
+        return new BigDecimal(s.trim()).doubleValue();
+    }
+
+    private static void assertParsed(double expected, String s) {
+        // compares bits, to tell 0.0 from -0.0
+        assertEquals(s, Double.doubleToLongBits(expected), Double.doubleToLongBits(Decimals.parse(s)));
+    }
+
+    private static void assertParsedAsBigDecimal(String s) {
+        assertParsed(bigDecimalParse(s), s);
+    }
+
+    private static void assertInvalid(String s) {
+        try {
+            Decimals.parse(s);
+            fail(s+" should not be parsed");
+        } catch (NumberFormatException e) {
+            // expected
+        }
+    }
+
+    //    <<<<< START parse >>>>>
+
+    @Test
+    public void parseExact() {
+        assertParsed(12.5, "12.5");
+        assertParsed(0.75, ".75");
+        assertParsed(3, "3");
+        assertParsed(3, "3.");
+        assertParsed(0.1, "0.1");
+        assertParsed(123456.789, "123456.789");
+        assertParsed(0.001, "000.00100");
+    }
+
+    @Test
+    public void parseSigns() {
+        assertParsed(-0.75, "-.75");
+        assertParsed(-12.5, "-12.5");
+        assertParsed(12.5, "+12.5");
+    }
+
+    @Test
+    public void parseZeros() {
+        assertParsed(0.0, "0");
+        assertParsed(0.0, "-0");
+        assertParsed(0.0, "-0.000");
+        assertParsed(0.0, "+0.0");
+    }
+
+    @Test
+    public void parseWhitespace() {
+        assertParsed(12.5, "  12.5\n");
+        assertParsed(-1, "\t-1 ");
+    }
+
+    @Test
+    public void parseExactDigitsLimit() {
+        assertParsedAsBigDecimal("123456789012345");
+        assertParsedAsBigDecimal("0.123456789012345");
+        assertParsedAsBigDecimal("-12345678.9012345");
+        assertParsedAsBigDecimal("0.0000000000000000000001");
+    }
+
+    @Test
+    public void parseFallback() {
+        // more than 15 significant digits
+        assertParsedAsBigDecimal("1234567890123456");
+        assertParsedAsBigDecimal("0.12345678901234567890123");
+        assertParsedAsBigDecimal("-9007199254740993");
+        // more fraction digits than exact powers of ten
+        assertParsedAsBigDecimal("0.00000000000000000000001");
+        // exponents were accepted by the default binding
+        assertParsedAsBigDecimal("1e3");
+        assertParsedAsBigDecimal("-2.5E-3");
+        assertParsed(0.0, "-0e5");
+    }
+
+    @Test
+    public void parseInvalid() {
+        assertInvalid("");
+        assertInvalid("   ");
+        assertInvalid("-");
+        assertInvalid("+");
+        assertInvalid(".");
+        assertInvalid("-.");
+        assertInvalid("1.2.3");
+        assertInvalid("1,5");
+        assertInvalid("- 1");
+        assertInvalid("abc");
+        assertInvalid("NaN");
+        assertInvalid("-Infinity");
+        assertInvalid("Infinity");
+        assertInvalid("1f");
+        assertInvalid("1d");
+        assertInvalid("0x1p3");
+    }
+
+    @Test
+    public void parseSameAsBigDecimal() {
+        Random random = new Random(3);
+        for(int i=0; i < 100000; i++) {
+            StringBuilder sb = new StringBuilder();
+            if(random.nextInt(4) == 0) {
+                sb.append('-');
+            }
+            for(int d=random.nextInt(10); d > 0; d--) {
+                sb.append((char) ('0' + random.nextInt(10)));
+            }
+            sb.append('.');
+            for(int d=random.nextInt(12) + 1; d > 0; d--) {
+                sb.append((char) ('0' + random.nextInt(10)));
+            }
+            assertParsedAsBigDecimal(sb.toString());
+        }
+    }
+
+    //    <<<<< END parse >>>>>
+
+    //    <<<<< START print >>>>>
+
+    @Test
+    public void printPlain() {
+        assertEquals("12.5", Decimals.print(12.5));
+        assertEquals("-0.75", Decimals.print(-0.75));
+        assertEquals("3.0", Decimals.print(3.0));
+    }
+
+    @Test
+    public void printWithoutExponent() {
+        // same digits as the BigDecimal.valueOf of the default binding
+        assertEquals("0.00010", Decimals.print(1e-4));
+        assertEquals("12345678900", Decimals.print(1.23456789e10));
+        assertEquals(BigDecimal.valueOf(1e-10).toPlainString(), Decimals.print(1e-10));
+    }
+
+    @Test
+    public void printZeros() {
+        assertEquals("0.0", Decimals.print(0.0));
+        assertEquals("0.0", Decimals.print(-0.0));
+        assertEquals(BigDecimal.valueOf(-0.0).toPlainString(), Decimals.print(-0.0));
+    }
+
+    @Test
+    public void printNull() {
+        assertEquals(null, Decimals.print(null));
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void printNaN() {
+        Decimals.print(Double.NaN);
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void printInfinity() {
+        Decimals.print(Double.NEGATIVE_INFINITY);
+    }
+
+    @Test
+    public void roundTrip() {
+        Random random = new Random(5);
+        for(int i=0; i < 100000; i++) {
+            double value = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(20) - 8);
+            assertEquals(value, Decimals.parse(Decimals.print(value)), 0);
+        }
+    }
+
+    //    <<<<< END print >>>>>
+}
@@ -0,0 +1,185 @@
+package fr.curie.cd2sbgnml.xmlcdwrappers;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class SpecialCharCodecTest {
+
+    /**
+     * Every token and its decoded value, in the order the replacements were chained before the codec
+     */
+    private static final String[][] TOKENS = {
+            {"_br_", "\n"}, {"_plus_", "+"}, {"_minus_", "-"}, {"_slash_", "/"}, {"_underscore_", "_"},
+            {"_space_", " "},
+            {"_alpha_", "α"}, {"_beta_", "β"}, {"_gamma_", "γ"}, {"_delta_", "δ"}, {"_epsilon_", "ε"},
+            {"_zeta_", "ζ"}, {"_eta_", "η"}, {"_theta_", "θ"}, {"_iota_", "ι"}, {"_kappa_", "κ"},
+            {"_lambda_", "λ"}, {"_mu_", "μ"}, {"_nu_", "ν"}, {"_xi_", "ξ"}, {"_omicron_", "ο"}, {"_pi_", "π"},
+            {"_rho_", "ρ"}, {"_sigma_", "σ"}, {"_tau_", "τ"}, {"_upsilon_", "υ"}, {"_phi_", "φ"}, {"_chi_", "χ"},
+            {"_psi_", "ψ"}, {"_omega_", "ω"},
+            {"_Alpha_", "Α"}, {"_Beta_", "Β"}, {"_Gamma_", "Γ"}, {"_Delta_", "Δ"}, {"_Epsilon_", "Ε"},
+            {"_Zeta_", "Ζ"}, {"_Eta_", "Η"}, {"_Theta_", "Θ"}, {"_Iota_", "Ι"}, {"_Kappa_", "Κ"},
+            {"_Lambda_", "Λ"}, {"_Mu_", "Μ"}, {"_Nu_", "Ν"}, {"_Xi_", "Ξ"}, {"_Omicron_", "Ο"}, {"_Pi_", "Π"},
+            {"_Rho_", "Ρ"}, {"_Sigma_", "Σ"}, {"_Tau_", "Τ"}, {"_Upsilon_", "Υ"}, {"_Phi_", "Φ"}, {"_Chi_", "Χ"},
+            {"_Psi_", "Ψ"}, {"_Omega_", "Ω"},
+            {"_super_", ""}, {"_endsuper_", ""}, {"_sub_", ""}, {"_endsub_", ""}
+    };
+
+    /**
+     * Decoding as it was done before the codec, one replacement after the other
+     */
+    private static String chainedDecode(String s) {
+        for(String[] token: TOKENS) {
+            s = s.replace(token[0], token[1]);
+        }
+        return s;
+    }
+
+    /**
+     * Encoding as it was done before the codec, one replacement after the other. Underscores are left as they are.
+     */
+    private static String chainedEncode(String s) {
+        s = s.replace("&#10;", "_br_");
+        for(String[] token: TOKENS) {
+            if(!token[1].isEmpty() && !token[1].equals("_")) {
+                s = s.replace(token[1], token[0]);
+            }
+        }
+        return s;
+    }
+
+    @Test
+    public void decodeEveryToken() {
+        for(String[] token: TOKENS) {
+            assertEquals(token[0], token[1], SpecialCharCodec.decode(token[0]));
+            assertEquals(token[0], "a"+token[1]+"b", SpecialCharCodec.decode("a"+token[0]+"b"));
+        }
+    }
+
+    @Test
+    public void encodeEveryChar() {
+        for(String[] token: TOKENS) {
+            if(!token[1].isEmpty() && !token[1].equals("_")) {
+                assertEquals(token[1], token[0], SpecialCharCodec.encode(token[1]));
+                assertEquals(token[1], "a"+token[0]+"b", SpecialCharCodec.encode("a"+token[1]+"b"));
+            }
+        }
+    }
+
+    @Test
+    public void encodeLeavesUnderscores() {
+        assertEquals("a_b", SpecialCharCodec.encode("a_b"));
+    }
+
+    @Test
+    public void encodeEncodedLineBreak() {
+        assertEquals("a_br_b", SpecialCharCodec.encode("a&#10;b"));
+        assertEquals("a&#1;b", SpecialCharCodec.encode("a&#1;b"));
+    }
+
+    @Test
+    public void decodeAdjacentTokens() {
+        assertEquals("αβ", SpecialCharCodec.decode("_alpha__beta_"));
+        assertEquals("Ca2+", SpecialCharCodec.decode("Ca_super_2_plus__endsuper_"));
+        assertEquals("\n\n", SpecialCharCodec.decode("_br__br_"));
+    }
+
+    @Test
+    public void decodeMalformedTokens() {
+        assertEquals("_plus", SpecialCharCodec.decode("_plus"));
+        assertEquals("plus_", SpecialCharCodec.decode("plus_"));
+        assertEquals("_\n_", SpecialCharCodec.decode("__br__"));
+        assertEquals("_", SpecialCharCodec.decode("_"));
+        assertEquals("__", SpecialCharCodec.decode("__"));
+        assertEquals("_unknown_", SpecialCharCodec.decode("_unknown_"));
+        assertEquals("_Plus_", SpecialCharCodec.decode("_Plus_"));
+        assertEquals("_é_", SpecialCharCodec.decode("_é_"));
+    }
+
+    @Test
+    public void decodeTokensOnce() {
+        // tokens are matched from left to right, and what is decoded isn't decoded again
+        assertEquals("_alpha_", SpecialCharCodec.decode("_underscore_alpha_"));
+        assertEquals("sub_", SpecialCharCodec.decode("_endsub_sub_"));
+    }
+
+    @Test
+    public void untranslatedStringsAreReturnedAsIs() {
+        String s = new String("notokenhere");
+        assertSame(s, SpecialCharCodec.decode(s));
+        assertSame(s, SpecialCharCodec.encode(s));
+    }
+
+    @Test
+    public void roundTrip() {
+        Random random = new Random(42);
+        for(int i=0; i < 10000; i++) {
+            String decoded = randomDecoded(random);
+            String encoded = SpecialCharCodec.encode(decoded);
+            assertEquals(decoded, SpecialCharCodec.decode(encoded));
+            assertEquals(encoded, SpecialCharCodec.encode(SpecialCharCodec.decode(encoded)));
+        }
+    }
+
+    @Test
+    public void sameAsChainedReplacements() {
+        Random random = new Random(7);
+        for(int i=0; i < 10000; i++) {
+            String decoded = randomDecoded(random);
+            assertEquals(decoded, chainedEncode(decoded), SpecialCharCodec.encode(decoded));
+            String encoded = randomEncoded(random);
+            assertEquals(encoded, chainedDecode(encoded), SpecialCharCodec.decode(encoded));
+        }
+    }
+
+    @Test
+    public void manyDistinctStrings() {
+        // more strings than the cache holds
+        for(int i=0; i < 3 * SpecialCharCodec.CACHE_SIZE; i++) {
+            assertEquals("α"+i, SpecialCharCodec.decode("_alpha_"+i));
+            assertEquals("_alpha_"+i, SpecialCharCodec.encode("α"+i));
+        }
+    }
+
+    /**
+     * @return a string made of plain letters and of characters that have a token, without underscore
+     */
+    private static String randomDecoded(Random random) {
+        StringBuilder sb = new StringBuilder();
+        for(int i=random.nextInt(12); i > 0; i--) {
+            if(random.nextBoolean()) {
+                sb.append((char) ('a' + random.nextInt(26)));
+            }
+            else {
+                String c = TOKENS[random.nextInt(TOKENS.length)][1];
+                if(!c.equals("_")) {
+                    sb.append(c);
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return a string made of digits and of well formed tokens, except for _underscore_ which would be decoded
+     * again by the chained replacements. Letters between two tokens could form a third one across them.
+     */
+    private static String randomEncoded(Random random) {
+        StringBuilder sb = new StringBuilder();
+        for(int i=random.nextInt(12); i > 0; i--) {
+            if(random.nextBoolean()) {
+                sb.append((char) ('0' + random.nextInt(10)));
+            }
+            else {
+                String token = TOKENS[random.nextInt(TOKENS.length)][0];
+                if(!token.equals("_underscore_")) {
+                    sb.append(token);
+                }
+            }
+        }
+        return sb.toString();
+    }
+}